@@ -7,14 +7,88 @@ public class BasicHttpClient implements HttpClient
 {
     private final Network network;
     private final DNS dns;
+    private final AsyncRunner asyncRunner;
+    private ByteBufferPool bufferPool;
+    private Duration expectContinueTimeout;
+    private boolean responseDecompressionEnabled;
 
-    private BasicHttpClient(Network network, DNS dns)
+    /**
+     * The status line of a response that is being read on another task while the request's body
+     * is held back.
+     */
+    private static class PendingStatusLine
+    {
+        private boolean completed;
+        private String statusLine;
+        private RuntimeException error;
+
+        private synchronized void complete(String statusLine, RuntimeException error)
+        {
+            this.statusLine = statusLine;
+            this.error = error;
+            this.completed = true;
+            this.notifyAll();
+        }
+
+        /**
+         * Wait until the status line has been read or the provided number of milliseconds have
+         * passed.
+         * @return Whether or not the status line has been read.
+         */
+        private synchronized boolean waitFor(long timeoutMilliseconds)
+        {
+            final long deadline = System.currentTimeMillis() + timeoutMilliseconds;
+            long remainingMilliseconds = timeoutMilliseconds;
+            while (!this.completed && remainingMilliseconds > 0)
+            {
+                try
+                {
+                    this.wait(remainingMilliseconds);
+                }
+                catch (InterruptedException e)
+                {
+                    throw Exceptions.asRuntime(e);
+                }
+                remainingMilliseconds = deadline - System.currentTimeMillis();
+            }
+            return this.completed;
+        }
+
+        /**
+         * Wait until the status line has been read and get it.
+         * @return The status line.
+         */
+        private synchronized String await()
+        {
+            while (!this.completed)
+            {
+                try
+                {
+                    this.wait();
+                }
+                catch (InterruptedException e)
+                {
+                    throw Exceptions.asRuntime(e);
+                }
+            }
+            if (this.error != null)
+            {
+                throw this.error;
+            }
+            return this.statusLine;
+        }
+    }
+
+    private BasicHttpClient(Network network, DNS dns, AsyncRunner asyncRunner)
     {
         PreCondition.assertNotNull(network, "network");
         PreCondition.assertNotNull(dns, "dns");
 
         this.network = network;
         this.dns = dns;
+        this.asyncRunner = asyncRunner;
+        this.bufferPool = ByteBufferPool.getShared();
+        this.expectContinueTimeout = Duration.seconds(1);
     }
 
     public static BasicHttpClient create(Network network)
@@ -30,7 +104,118 @@ public class BasicHttpClient implements HttpClient
         PreCondition.assertNotNull(network, "network");
         PreCondition.assertNotNull(dns, "dns");
 
-        return new BasicHttpClient(network, dns);
+        return new BasicHttpClient(network, dns, null);
+    }
+
+    /**
+     * Create a new BasicHttpClient that waits for 100 (Continue) responses on the provided runner.
+     * @param network The network to open connections on.
+     * @param asyncRunner The runner that will read the response to a request with an
+     *                    "Expect: 100-continue" header while the request's body is held back.
+     * @return The new BasicHttpClient.
+     */
+    public static BasicHttpClient create(Network network, AsyncRunner asyncRunner)
+    {
+        PreCondition.assertNotNull(network, "network");
+        PreCondition.assertNotNull(asyncRunner, "asyncRunner");
+
+        final DNS dns = DNS.create();
+        return BasicHttpClient.create(network, dns, asyncRunner);
+    }
+
+    /**
+     * Create a new BasicHttpClient that waits for 100 (Continue) responses on the provided runner.
+     * @param network The network to open connections on.
+     * @param dns The DNS to resolve hosts with.
+     * @param asyncRunner The runner that will read the response to a request with an
+     *                    "Expect: 100-continue" header while the request's body is held back.
+     * @return The new BasicHttpClient.
+     */
+    public static BasicHttpClient create(Network network, DNS dns, AsyncRunner asyncRunner)
+    {
+        PreCondition.assertNotNull(network, "network");
+        PreCondition.assertNotNull(dns, "dns");
+        PreCondition.assertNotNull(asyncRunner, "asyncRunner");
+
+        return new BasicHttpClient(network, dns, asyncRunner);
+    }
+
+    /**
+     * Set the pool that this client will lease its connection read and write buffers from. By
+     * default, the shared {@link ByteBufferPool} is used.
+     * @param bufferPool The pool that this client will lease its connection buffers from.
+     * @return This object for method chaining.
+     */
+    public BasicHttpClient setBufferPool(ByteBufferPool bufferPool)
+    {
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+
+        this.bufferPool = bufferPool;
+
+        return this;
+    }
+
+    /**
+     * Get the pool that this client leases its connection read and write buffers from.
+     * @return The pool that this client leases its connection read and write buffers from.
+     */
+    public ByteBufferPool getBufferPool()
+    {
+        return this.bufferPool;
+    }
+
+    /**
+     * Set whether or not this client will ask servers for compressed responses and decompress them
+     * as they are read. When this is enabled, requests that don't have an Accept-Encoding header
+     * are sent with "Accept-Encoding: gzip, deflate", and responses with a gzip or deflate
+     * Content-Encoding are exposed with their decompressed body and without their Content-Encoding
+     * and Content-Length headers. This is disabled by default.
+     * @param responseDecompressionEnabled Whether or not this client will decompress responses.
+     * @return This object for method chaining.
+     */
+    public BasicHttpClient setResponseDecompressionEnabled(boolean responseDecompressionEnabled)
+    {
+        this.responseDecompressionEnabled = responseDecompressionEnabled;
+
+        return this;
+    }
+
+    /**
+     * Get whether or not this client will ask servers for compressed responses and decompress them
+     * as they are read.
+     * @return Whether or not this client will decompress responses.
+     */
+    public boolean isResponseDecompressionEnabled()
+    {
+        return this.responseDecompressionEnabled;
+    }
+
+    /**
+     * Set how long this client will wait for a 100 (Continue) response before it sends the body of
+     * a request that has an "Expect: 100-continue" header. If the server sends a final response
+     * before this timeout elapses, then the request's body will not be sent at all. The default is
+     * one second. A client that wasn't created with an {@link AsyncRunner} doesn't wait, and sends
+     * the body right after the request's head.
+     * @param expectContinueTimeout How long this client will wait for a 100 (Continue) response.
+     * @return This object for method chaining.
+     */
+    public BasicHttpClient setExpectContinueTimeout(Duration expectContinueTimeout)
+    {
+        PreCondition.assertNotNull(expectContinueTimeout, "expectContinueTimeout");
+
+        this.expectContinueTimeout = expectContinueTimeout;
+
+        return this;
+    }
+
+    /**
+     * Get how long this client will wait for a 100 (Continue) response before it sends the body of
+     * a request that has an "Expect: 100-continue" header.
+     * @return How long this client will wait for a 100 (Continue) response.
+     */
+    public Duration getExpectContinueTimeout()
+    {
+        return this.expectContinueTimeout;
     }
 
     @Override
@@ -53,9 +238,13 @@ public class BasicHttpClient implements HttpClient
 
             final MutableHttpResponse result = HttpResponse.create();
 
-            try (final TCPClient tcpClient = this.network.createTCPClient(requestIPAddress, requestPort).await())
+            // The request's body may hold pooled buffers or a native compressor, so it is disposed
+            // whether or not all of it was sent.
+            try (final ByteReadStream requestBody = request.getBody();
+                 final TCPClient tcpClient = this.network.createTCPClient(requestIPAddress, requestPort).await();
+                 final PooledBufferedByteWriteStream tcpClientBufferedWriteStream = PooledBufferedByteWriteStream.create(tcpClient, this.bufferPool);
+                 final PooledBufferedByteReadStream bufferedByteReadStream = PooledBufferedByteReadStream.create(tcpClient, this.bufferPool))
             {
-                final BufferedByteWriteStream tcpClientBufferedWriteStream = BufferedByteWriteStream.create(tcpClient);
                 final CharacterToByteWriteStream tcpClientWriteStream = CharacterToByteWriteStream.create(tcpClientBufferedWriteStream)
                     .setCharacterEncoding(CharacterEncoding.UTF_8)
                     .setNewLine("\r\n");
@@ -64,18 +253,101 @@ public class BasicHttpClient implements HttpClient
                 {
                     tcpClientWriteStream.writeLine("%s:%s", header.getName(), header.getValue()).await();
                 }
+                final boolean responseDecompressionEnabled = this.responseDecompressionEnabled;
+                if (responseDecompressionEnabled && !request.getHeaders().contains(HttpHeader.AcceptEncodingName))
+                {
+                    tcpClientWriteStream.writeLine("%s:%s", HttpHeader.AcceptEncodingName, "gzip, deflate").await();
+                }
                 tcpClientWriteStream.writeLine().await();
 
-                final ByteReadStream requestBodyStream = request.getBody();
-                if (requestBodyStream != null)
+                final CharacterReadStream responseCharacterReadStream = CharacterReadStream.create(bufferedByteReadStream);
+                boolean sendRequestBody = (requestBody != null);
+                String statusLine = null;
+                PendingStatusLine pendingStatusLine = null;
+                final AsyncRunner asyncRunner = this.asyncRunner;
+                if (sendRequestBody && asyncRunner != null && BasicHttpClient.expectsContinue(request))
                 {
-                    tcpClientWriteStream.writeAll(requestBodyStream).await();
+                    tcpClientBufferedWriteStream.flush().await();
+
+                    // The status line is read on another task so that this task can stop waiting
+                    // for it and send the body. That read is then used for the final response, and
+                    // it ends when the connection is closed if the request fails before then.
+                    final PendingStatusLine readingStatusLine = new PendingStatusLine();
+                    asyncRunner.schedule(() ->
+                    {
+                        try
+                        {
+                            readingStatusLine.complete(responseCharacterReadStream.readLine().await(), null);
+                        }
+                        catch (RuntimeException e)
+                        {
+                            readingStatusLine.complete(null, e);
+                        }
+                    });
+                    pendingStatusLine = readingStatusLine;
+
+                    final long timeoutMilliseconds = (long)this.expectContinueTimeout.toMilliseconds().getValue();
+                    if (pendingStatusLine.waitFor(timeoutMilliseconds))
+                    {
+                        final String earlyStatusLine = pendingStatusLine.await();
+                        pendingStatusLine = null;
+                        if (BasicHttpClient.parseStatusCode(earlyStatusLine) == 100)
+                        {
+                            BasicHttpClient.skipHeaders(responseCharacterReadStream);
+                        }
+                        else
+                        {
+                            sendRequestBody = false;
+                            statusLine = earlyStatusLine;
+                        }
+                    }
+                }
+
+                try
+                {
+                    if (sendRequestBody)
+                    {
+                        final String requestTransferEncoding = request.getHeaderValue(HttpHeader.TransferEncodingName)
+                            .catchError(NotFoundException.class)
+                            .await();
+                        if (HttpHeader.isChunkedTransferEncoding(requestTransferEncoding))
+                        {
+                            try (final ChunkedByteWriteStream chunkedStream = ChunkedByteWriteStream.create(tcpClientBufferedWriteStream))
+                            {
+                                chunkedStream.writeAll(requestBody).await();
+                            }
+                        }
+                        else
+                        {
+                            tcpClientWriteStream.writeAll(requestBody).await();
+                        }
+                    }
+                    tcpClientBufferedWriteStream.flush().await();
+                }
+                catch (RuntimeException e)
+                {
+                    if (pendingStatusLine != null)
+                    {
+                        // The pending read is abandoned by closing the connection, and it has to
+                        // end before the read buffer is released back to the pool.
+                        tcpClient.dispose().catchError(() -> false).await();
+                        pendingStatusLine.waitFor(Integers.maximum);
+                    }
+                    throw e;
+                }
+
+                if (statusLine == null)
+                {
+                    statusLine = pendingStatusLine != null
+                        ? pendingStatusLine.await()
+                        : responseCharacterReadStream.readLine().await();
+                }
+                while (BasicHttpClient.parseStatusCode(statusLine) == 100)
+                {
+                    BasicHttpClient.skipHeaders(responseCharacterReadStream);
+                    statusLine = responseCharacterReadStream.readLine().await();
                 }
-                tcpClientBufferedWriteStream.flush().await();
 
-                final BufferedByteReadStream bufferedByteReadStream = BufferedByteReadStream.create(tcpClient);
-                final CharacterReadStream responseCharacterReadStream = CharacterReadStream.create(bufferedByteReadStream);
-                String statusLine = responseCharacterReadStream.readLine().await();
                 final int httpVersionLength = statusLine.indexOf(' ');
 
                 result.setHttpVersion(statusLine.substring(0, httpVersionLength));
@@ -92,15 +364,30 @@ public class BasicHttpClient implements HttpClient
                     final int colonIndex = headerLine.indexOf(':');
                     final String headerName = headerLine.substring(0, colonIndex);
                     final String headerValue = headerLine.substring(colonIndex + 1).trim();
-                    result.setHeader(headerName, headerValue);
+                    result.addHeader(headerName, headerValue);
 
                     headerLine = responseCharacterReadStream.readLine().await();
                 }
 
-                final Long contentLength = result.getContentLength()
-                    .catchError(NotFoundException.class, () -> 0L)
+                final String transferEncoding = result.getHeaderValue(HttpHeader.TransferEncodingName)
+                    .catchError(NotFoundException.class)
                     .await();
-                if (0 < contentLength)
+                final long contentLength = result.getContentLengthValue();
+                // The response to a HEAD request describes a body that isn't sent.
+                final boolean headRequest = HttpMethod.HEAD.name().equals(request.getMethod());
+                boolean hasBody = false;
+                if (!headRequest && HttpHeader.isChunkedTransferEncoding(transferEncoding))
+                {
+                    final InMemoryByteStream responseBodyStream = InMemoryByteStream.create();
+                    try (final ChunkedByteReadStream chunkedStream = ChunkedByteReadStream.create(bufferedByteReadStream))
+                    {
+                        responseBodyStream.writeAll(chunkedStream).await();
+                    }
+                    responseBodyStream.endOfStream();
+                    result.setBody(responseBodyStream);
+                    hasBody = true;
+                }
+                else if (!headRequest && 0 < contentLength)
                 {
                     final InMemoryByteStream responseBodyStream = InMemoryByteStream.create();
 
@@ -122,6 +409,12 @@ public class BasicHttpClient implements HttpClient
                     }
                     responseBodyStream.endOfStream();
                     result.setBody(responseBodyStream);
+                    hasBody = true;
+                }
+
+                if (hasBody && responseDecompressionEnabled)
+                {
+                    result.decompressBody(this.bufferPool);
                 }
             }
 
@@ -130,4 +423,53 @@ public class BasicHttpClient implements HttpClient
             return result;
         });
     }
+
+    /**
+     * Get whether or not the provided request asks the server for a 100 (Continue) response before
+     * its body is sent.
+     * @param request The request to check.
+     * @return Whether or not the provided request has an "Expect: 100-continue" header.
+     */
+    private static boolean expectsContinue(HttpRequest request)
+    {
+        final String expectValue = request.getHeaders().getValue(HttpHeader.ExpectName)
+            .catchError(NotFoundException.class)
+            .await();
+        return expectValue != null && HttpHeader.ExpectContinueValue.equalsIgnoreCase(expectValue.trim());
+    }
+
+    /**
+     * Get the status code from the provided status line.
+     * @param statusLine The status line to get the status code from.
+     * @return The status code from the provided status line, or -1 if the status line doesn't
+     * contain a status code.
+     */
+    private static int parseStatusCode(String statusLine)
+    {
+        int result = -1;
+        if (statusLine != null)
+        {
+            final int statusCodeStartIndex = statusLine.indexOf(' ') + 1;
+            if (0 < statusCodeStartIndex && statusCodeStartIndex + 3 <= statusLine.length())
+            {
+                result = Integers.parse(statusLine.substring(statusCodeStartIndex, statusCodeStartIndex + 3))
+                    .catchError(() -> -1)
+                    .await();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read and discard the header block of an interim response.
+     * @param responseCharacterReadStream The stream to read the header block from.
+     */
+    private static void skipHeaders(CharacterReadStream responseCharacterReadStream)
+    {
+        String headerLine = responseCharacterReadStream.readLine().await();
+        while (!Strings.isNullOrEmpty(headerLine))
+        {
+            headerLine = responseCharacterReadStream.readLine().await();
+        }
+    }
 }
@@ -7,8 +7,18 @@ public class BasicMutableHttpRequest implements MutableHttpRequest
 {
     private String method;
     private URL url;
+    private String requestTarget;
+    private int requestTargetQueryIndex;
+    private String requestTargetScheme;
+    private String requestTargetHost;
+    private int requestTargetPort;
+    private String path;
+    private String query;
+    private QueryParameters queryParameters;
     private String httpVersion;
-    private final MutableHttpHeaders headers;
+    private final MutableHttpHeaders mutableHeaders;
+    private HttpHeaders headers;
+    private long contentLength;
     private ByteReadStream body;
 
     /**
@@ -16,8 +26,10 @@ public class BasicMutableHttpRequest implements MutableHttpRequest
      */
     private BasicMutableHttpRequest()
     {
-        this.headers = HttpHeaders.create();
+        this.mutableHeaders = HttpHeaders.create();
+        this.headers = this.mutableHeaders;
         this.httpVersion = "HTTP/1.1";
+        this.contentLength = -1;
     }
 
     /**
@@ -28,6 +40,25 @@ public class BasicMutableHttpRequest implements MutableHttpRequest
         return new BasicMutableHttpRequest();
     }
 
+    /**
+     * Reset this request back to the state that it was in when it was created so that it can be
+     * reused for another request. The headers collection of this request is cleared and reused.
+     * @return This object for method chaining.
+     */
+    public BasicMutableHttpRequest reset()
+    {
+        this.method = null;
+        this.url = null;
+        this.clearRequestTarget();
+        this.httpVersion = "HTTP/1.1";
+        this.mutableHeaders.clear();
+        this.headers = this.mutableHeaders;
+        this.contentLength = -1;
+        this.body = null;
+
+        return this;
+    }
+
     @Override
     public String getMethod()
     {
@@ -53,6 +84,23 @@ public class BasicMutableHttpRequest implements MutableHttpRequest
     @Override
     public URL getURL()
     {
+        if (this.url == null && this.requestTarget != null)
+        {
+            final MutableURL url = MutableURL.create()
+                .setScheme(this.requestTargetScheme)
+                .setHost(this.requestTargetHost)
+                .setPath(this.getPath());
+            if (this.requestTargetPort != -1)
+            {
+                url.setPort(this.requestTargetPort);
+            }
+            final String query = this.getQuery();
+            if (query != null)
+            {
+                url.setQuery(query);
+            }
+            this.url = url;
+        }
         return this.url;
     }
 
@@ -63,10 +111,105 @@ public class BasicMutableHttpRequest implements MutableHttpRequest
         PreCondition.assertTrue(url.hasScheme(), "url.hasScheme()");
 
         this.url = url;
+        this.clearRequestTarget();
 
         return this;
     }
 
+    /**
+     * Set the target of this request from an origin-form request target (such as
+     * "/path?x=y"), which is the form that is sent in the request line of most HTTP requests. The
+     * path and the query are kept as slices of the request target, and the full {@link URL} is
+     * only built if {@link #getURL()} is called.
+     * @param requestTarget The origin-form request target.
+     * @param scheme The scheme of the URL that will be built by {@link #getURL()}.
+     * @param host The host of the URL that will be built by {@link #getURL()}.
+     * @param port The port of the URL that will be built by {@link #getURL()}, or -1 if the URL
+     *             should not have a port.
+     * @return This object for method chaining.
+     */
+    public BasicMutableHttpRequest setOriginFormTarget(String requestTarget, String scheme, String host, int port)
+    {
+        PreCondition.assertNotNullAndNotEmpty(requestTarget, "requestTarget");
+        PreCondition.assertNotNullAndNotEmpty(scheme, "scheme");
+        PreCondition.assertNotNullAndNotEmpty(host, "host");
+        PreCondition.assertGreaterThanOrEqualTo(port, -1, "port");
+
+        this.url = null;
+        this.requestTarget = requestTarget;
+        this.requestTargetQueryIndex = requestTarget.indexOf('?');
+        this.requestTargetScheme = scheme;
+        this.requestTargetHost = host;
+        this.requestTargetPort = port;
+        this.path = null;
+        this.query = null;
+        this.queryParameters = null;
+
+        return this;
+    }
+
+    private void clearRequestTarget()
+    {
+        this.requestTarget = null;
+        this.requestTargetQueryIndex = -1;
+        this.requestTargetScheme = null;
+        this.requestTargetHost = null;
+        this.requestTargetPort = -1;
+        this.path = null;
+        this.query = null;
+        this.queryParameters = null;
+    }
+
+    @Override
+    public String getPath()
+    {
+        String result;
+        if (this.requestTarget == null)
+        {
+            result = MutableHttpRequest.super.getPath();
+        }
+        else
+        {
+            if (this.path == null)
+            {
+                this.path = this.requestTargetQueryIndex == -1
+                    ? this.requestTarget
+                    : this.requestTarget.substring(0, this.requestTargetQueryIndex);
+            }
+            result = this.path;
+        }
+        return result;
+    }
+
+    @Override
+    public String getQuery()
+    {
+        String result;
+        if (this.requestTarget == null)
+        {
+            result = MutableHttpRequest.super.getQuery();
+        }
+        else
+        {
+            if (this.query == null && this.requestTargetQueryIndex != -1)
+            {
+                this.query = this.requestTarget.substring(this.requestTargetQueryIndex + 1);
+            }
+            result = this.query;
+        }
+        return result;
+    }
+
+    @Override
+    public QueryParameters getQueryParameters()
+    {
+        if (this.queryParameters == null)
+        {
+            this.queryParameters = MutableHttpRequest.super.getQueryParameters();
+        }
+        return this.queryParameters;
+    }
+
     @Override
     public String getHttpVersion()
     {
@@ -89,10 +232,50 @@ public class BasicMutableHttpRequest implements MutableHttpRequest
         return this.headers;
     }
 
+    /**
+     * Use the provided headers as the headers of this request without copying them. The headers
+     * will only be copied into a {@link MutableHttpHeaders} collection if this request's headers
+     * are modified afterwards.
+     * @param headers The headers to use for this request.
+     * @return This object for method chaining.
+     */
+    public BasicMutableHttpRequest wrapHeaders(HttpHeaders headers)
+    {
+        PreCondition.assertNotNull(headers, "headers");
+
+        this.headers = headers;
+
+        final String contentLengthValue = headers.getValue(HttpHeader.ContentLengthName)
+            .catchError(NotFoundException.class)
+            .await();
+        this.contentLength = HttpHeader.parseContentLength(contentLengthValue);
+
+        return this;
+    }
+
+    /**
+     * Get the headers of this request as a {@link MutableHttpHeaders} collection, copying them if
+     * they were provided by {@link #wrapHeaders(HttpHeaders)}.
+     * @return The headers of this request as a {@link MutableHttpHeaders} collection.
+     */
+    private MutableHttpHeaders getMutableHeaders()
+    {
+        if (this.headers != this.mutableHeaders)
+        {
+            this.mutableHeaders.clear().addAll(this.headers);
+            this.headers = this.mutableHeaders;
+        }
+        return this.mutableHeaders;
+    }
+
     @Override
     public BasicMutableHttpRequest setHeader(String headerName, String headerValue)
     {
-        this.headers.set(headerName, headerValue);
+        this.getMutableHeaders().set(headerName, headerValue);
+        if (HttpHeader.isContentLengthName(headerName))
+        {
+            this.contentLength = HttpHeader.parseContentLength(headerValue);
+        }
 
         return this;
     }
@@ -100,7 +283,11 @@ public class BasicMutableHttpRequest implements MutableHttpRequest
     @Override
     public BasicMutableHttpRequest setHeader(String headerName, int headerValue)
     {
-        this.headers.set(headerName, headerValue);
+        this.getMutableHeaders().set(headerName, headerValue);
+        if (HttpHeader.isContentLengthName(headerName))
+        {
+            this.contentLength = headerValue < 0 ? -1 : headerValue;
+        }
 
         return this;
     }
@@ -108,7 +295,24 @@ public class BasicMutableHttpRequest implements MutableHttpRequest
     @Override
     public BasicMutableHttpRequest setHeader(String headerName, long headerValue)
     {
-        this.headers.set(headerName, headerValue);
+        this.getMutableHeaders().set(headerName, headerValue);
+        if (HttpHeader.isContentLengthName(headerName))
+        {
+            this.contentLength = headerValue < 0 ? -1 : headerValue;
+        }
+
+        return this;
+    }
+
+    @Override
+    public BasicMutableHttpRequest addHeader(String headerName, String headerValue)
+    {
+        final MutableHttpHeaders mutableHeaders = this.getMutableHeaders();
+        mutableHeaders.add(headerName, headerValue);
+        if (HttpHeader.isContentLengthName(headerName))
+        {
+            this.contentLength = HttpHeader.parseContentLength(mutableHeaders.getValue(HttpHeader.ContentLengthName).await());
+        }
 
         return this;
     }
@@ -118,11 +322,28 @@ public class BasicMutableHttpRequest implements MutableHttpRequest
     {
         PreCondition.assertNotNull(headers, "headers");
 
-        this.headers.setAll(headers);
+        for (final HttpHeader header : headers)
+        {
+            this.setHeader(header.getName(), header.getValue());
+        }
 
         return this;
     }
 
+    @Override
+    public Result<Long> getContentLength()
+    {
+        return this.contentLength < 0
+            ? MutableHttpRequest.super.getContentLength()
+            : Result.success(this.contentLength);
+    }
+
+    @Override
+    public long getContentLengthValue()
+    {
+        return this.contentLength;
+    }
+
     @Override
     public ByteReadStream getBody()
     {
@@ -140,16 +361,69 @@ public class BasicMutableHttpRequest implements MutableHttpRequest
 
         if (contentLength == 0)
         {
-            this.headers.remove("Content-Length");
+            if (this.headers.contains(HttpHeader.ContentLengthName))
+            {
+                this.getMutableHeaders().remove(HttpHeader.ContentLengthName);
+            }
+            this.contentLength = -1;
         }
-        else
+        else if (contentLength != this.contentLength)
+        {
+            this.getMutableHeaders().set(HttpHeader.ContentLengthName, contentLength);
+            this.contentLength = contentLength;
+        }
+
+        return this;
+    }
+
+    /**
+     * Set the body of this request to a stream whose length isn't known up front. The body will be
+     * sent with the chunked transfer coding, so this sets the Transfer-Encoding header to "chunked"
+     * and removes any Content-Length header.
+     * @param body The body of this request.
+     * @return This object for method chaining.
+     */
+    public BasicMutableHttpRequest setChunkedBody(ByteReadStream body)
+    {
+        PreCondition.assertNotNull(body, "body");
+
+        this.body = body;
+
+        if (this.headers.contains(HttpHeader.ContentLengthName))
+        {
+            this.getMutableHeaders().remove(HttpHeader.ContentLengthName);
+        }
+        this.contentLength = -1;
+
+        final String transferEncoding = this.headers.getValue(HttpHeader.TransferEncodingName)
+            .catchError(NotFoundException.class)
+            .await();
+        if (!HttpHeader.isChunkedTransferEncoding(transferEncoding))
         {
-            this.headers.set("Content-Length", contentLength);
+            this.getMutableHeaders().set(HttpHeader.TransferEncodingName, "chunked");
         }
 
         return this;
     }
 
+    /**
+     * Set the body of this request to the provided stream compressed with the provided content
+     * coding. The body is compressed as it is sent, so its compressed length isn't known up front
+     * and it is sent with the chunked transfer coding. This sets the Content-Encoding header to the
+     * provided content coding.
+     * @param contentEncoding The content coding to compress the body with: "gzip" or "deflate".
+     * @param body The uncompressed body of this request.
+     * @return This object for method chaining.
+     */
+    public BasicMutableHttpRequest setCompressedBody(String contentEncoding, ByteReadStream body)
+    {
+        PreCondition.assertTrue(DeflaterByteWriteStream.isSupportedContentEncoding(contentEncoding), "contentEncoding must be \"gzip\" or \"deflate\".");
+        PreCondition.assertNotNull(body, "body");
+
+        this.setHeader(HttpHeader.ContentEncodingName, contentEncoding);
+        return this.setChunkedBody(DeflaterByteReadStream.create(body, contentEncoding, ByteBufferPool.getShared()));
+    }
+
     @Override
     public BasicMutableHttpRequest setBody(byte[] bodyBytes)
     {
@@ -0,0 +1,225 @@
+package qub;
+
+/**
+ * A thread-safe pool of byte arrays that are grouped into power-of-two size classes. Buffers are
+ * leased from the pool and must be released back to the pool when they are no longer needed.
+ */
+public class ByteBufferPool
+{
+    private static final ByteBufferPool shared = ByteBufferPool.create();
+
+    private final int minimumBufferSize;
+    private final int maximumBufferSize;
+    private final int maximumPooledBuffersPerSize;
+    private final byte[][][] pooledBuffers;
+    private final int[] pooledBufferCounts;
+    private long leasedCount;
+    private java.util.IdentityHashMap<byte[],Throwable> leases;
+
+    private ByteBufferPool(int minimumBufferSize, int maximumBufferSize, int maximumPooledBuffersPerSize)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(minimumBufferSize, 1, "minimumBufferSize");
+        PreCondition.assertTrue(Integer.bitCount(minimumBufferSize) == 1, "minimumBufferSize must be a power of two.");
+        PreCondition.assertGreaterThanOrEqualTo(maximumBufferSize, minimumBufferSize, "maximumBufferSize");
+        PreCondition.assertTrue(Integer.bitCount(maximumBufferSize) == 1, "maximumBufferSize must be a power of two.");
+        PreCondition.assertGreaterThanOrEqualTo(maximumPooledBuffersPerSize, 0, "maximumPooledBuffersPerSize");
+
+        this.minimumBufferSize = minimumBufferSize;
+        this.maximumBufferSize = maximumBufferSize;
+        this.maximumPooledBuffersPerSize = maximumPooledBuffersPerSize;
+
+        final int sizeClassCount = ByteBufferPool.log2(maximumBufferSize) - ByteBufferPool.log2(minimumBufferSize) + 1;
+        this.pooledBuffers = new byte[sizeClassCount][maximumPooledBuffersPerSize][];
+        this.pooledBufferCounts = new int[sizeClassCount];
+    }
+
+    /**
+     * Create a new ByteBufferPool with size classes from 1KB to 64KB that pools up to 64 buffers
+     * per size class.
+     * @return The new ByteBufferPool.
+     */
+    public static ByteBufferPool create()
+    {
+        return ByteBufferPool.create(1024, 65536, 64);
+    }
+
+    /**
+     * Create a new ByteBufferPool.
+     * @param minimumBufferSize The size of the smallest buffer that this pool will lease. This must
+     *                          be a power of two.
+     * @param maximumBufferSize The size of the largest buffer that this pool will keep. This must
+     *                          be a power of two. Leases that are larger than this size are still
+     *                          allowed, but their buffers are not kept when they are released.
+     * @param maximumPooledBuffersPerSize The maximum number of released buffers that this pool will
+     *                                    keep for each size class.
+     * @return The new ByteBufferPool.
+     */
+    public static ByteBufferPool create(int minimumBufferSize, int maximumBufferSize, int maximumPooledBuffersPerSize)
+    {
+        return new ByteBufferPool(minimumBufferSize, maximumBufferSize, maximumPooledBuffersPerSize);
+    }
+
+    /**
+     * Get the ByteBufferPool that is shared by all of the HTTP servers and clients that haven't
+     * been given their own pool.
+     * @return The shared ByteBufferPool.
+     */
+    public static ByteBufferPool getShared()
+    {
+        return ByteBufferPool.shared;
+    }
+
+    private static int log2(int value)
+    {
+        return 31 - Integer.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * Get the index of the size class that the provided size belongs to, or -1 if the size is
+     * larger than the largest size class.
+     * @param size The size to get the size class of.
+     * @return The index of the size class that the provided size belongs to.
+     */
+    private int getSizeClassIndex(int size)
+    {
+        int result;
+        if (size <= this.minimumBufferSize)
+        {
+            result = 0;
+        }
+        else if (size > this.maximumBufferSize)
+        {
+            result = -1;
+        }
+        else
+        {
+            result = ByteBufferPool.log2(size - 1) + 1 - ByteBufferPool.log2(this.minimumBufferSize);
+        }
+        return result;
+    }
+
+    /**
+     * Set whether or not this pool will track each leased buffer so that double releases and
+     * leaked buffers can be detected. This is intended to be used in tests.
+     * @param leakTracking Whether or not this pool will track each leased buffer.
+     * @return This object for method chaining.
+     */
+    public synchronized ByteBufferPool setLeakTracking(boolean leakTracking)
+    {
+        this.leases = leakTracking ? new java.util.IdentityHashMap<>() : null;
+
+        return this;
+    }
+
+    /**
+     * Lease a buffer that has at least the provided size from this pool. The contents of the
+     * returned buffer are undefined.
+     * @param minimumSize The minimum size of the buffer to lease.
+     * @return The leased buffer.
+     */
+    public synchronized byte[] lease(int minimumSize)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(minimumSize, 1, "minimumSize");
+
+        byte[] result;
+        final int sizeClassIndex = this.getSizeClassIndex(minimumSize);
+        if (sizeClassIndex == -1)
+        {
+            result = new byte[minimumSize];
+        }
+        else
+        {
+            final int pooledBufferCount = this.pooledBufferCounts[sizeClassIndex];
+            if (pooledBufferCount == 0)
+            {
+                result = new byte[this.minimumBufferSize << sizeClassIndex];
+            }
+            else
+            {
+                final byte[][] sizeClassBuffers = this.pooledBuffers[sizeClassIndex];
+                result = sizeClassBuffers[pooledBufferCount - 1];
+                sizeClassBuffers[pooledBufferCount - 1] = null;
+                this.pooledBufferCounts[sizeClassIndex] = pooledBufferCount - 1;
+            }
+        }
+
+        ++this.leasedCount;
+        if (this.leases != null)
+        {
+            this.leases.put(result, new Throwable("Buffer of size " + result.length + " leased here."));
+        }
+
+        PostCondition.assertNotNull(result, "result");
+        PostCondition.assertGreaterThanOrEqualTo(result.length, minimumSize, "result.length");
+
+        return result;
+    }
+
+    /**
+     * Release the provided buffer back to this pool. The buffer must not be used after it has been
+     * released.
+     * @param buffer The buffer to release.
+     */
+    public synchronized void release(byte[] buffer)
+    {
+        PreCondition.assertNotNull(buffer, "buffer");
+        if (this.leases != null)
+        {
+            PreCondition.assertTrue(this.leases.remove(buffer) != null, "The buffer must be leased from this pool and not already released.");
+        }
+
+        --this.leasedCount;
+
+        final int sizeClassIndex = this.getSizeClassIndex(buffer.length);
+        if (sizeClassIndex != -1 && buffer.length == (this.minimumBufferSize << sizeClassIndex))
+        {
+            final int pooledBufferCount = this.pooledBufferCounts[sizeClassIndex];
+            if (pooledBufferCount < this.maximumPooledBuffersPerSize)
+            {
+                this.pooledBuffers[sizeClassIndex][pooledBufferCount] = buffer;
+                this.pooledBufferCounts[sizeClassIndex] = pooledBufferCount + 1;
+            }
+        }
+    }
+
+    /**
+     * Get the number of buffers that have been leased from this pool and not released yet.
+     * @return The number of buffers that have been leased from this pool and not released yet.
+     */
+    public synchronized long getLeasedCount()
+    {
+        return this.leasedCount;
+    }
+
+    /**
+     * Get the number of released buffers that this pool is holding for future leases.
+     * @return The number of released buffers that this pool is holding for future leases.
+     */
+    public synchronized int getPooledCount()
+    {
+        int result = 0;
+        for (final int pooledBufferCount : this.pooledBufferCounts)
+        {
+            result += pooledBufferCount;
+        }
+        return result;
+    }
+
+    /**
+     * Get the locations where the buffers that haven't been released yet were leased. This will
+     * always be empty if leak tracking isn't enabled.
+     * @return The locations where the buffers that haven't been released yet were leased.
+     */
+    public synchronized Iterable<Throwable> getLeaks()
+    {
+        final List<Throwable> result = List.create();
+        if (this.leases != null)
+        {
+            for (final Throwable lease : this.leases.values())
+            {
+                result.add(lease);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,257 @@
+package qub;
+
+/**
+ * A {@link ByteReadStream} that decodes a body that was encoded with the HTTP/1.1 chunked transfer
+ * coding (RFC 7230, section 4.1). The stream ends after the last chunk and the trailer section have
+ * been read, which leaves the inner stream positioned at the start of the next message. Chunk
+ * extensions and trailer fields are ignored. Disposing this stream does not dispose the inner
+ * stream.
+ */
+public class ChunkedByteReadStream implements ByteReadStream
+{
+    private final ByteReadStream innerStream;
+    private long remainingChunkLength;
+    private long decodedLength;
+    private long maximumLength;
+    private boolean endOfStream;
+    private boolean disposed;
+
+    private ChunkedByteReadStream(ByteReadStream innerStream)
+    {
+        PreCondition.assertNotNull(innerStream, "innerStream");
+
+        this.innerStream = innerStream;
+        this.maximumLength = java.lang.Long.MAX_VALUE;
+    }
+
+    /**
+     * Create a new ChunkedByteReadStream.
+     * @param innerStream The stream to read the encoded chunks from.
+     * @return The new ChunkedByteReadStream.
+     */
+    public static ChunkedByteReadStream create(ByteReadStream innerStream)
+    {
+        return new ChunkedByteReadStream(innerStream);
+    }
+
+    /**
+     * Set the maximum number of decoded bytes that the body can contain. A chunk that would make
+     * the body longer will cause a {@link HttpLimitExceededException} with a 413 (Payload Too
+     * Large) status code before any of its data is read.
+     * @param maximumLength The maximum number of decoded bytes that the body can contain.
+     * @return This object for method chaining.
+     */
+    public ChunkedByteReadStream setMaximumLength(long maximumLength)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumLength, 0, "maximumLength");
+
+        this.maximumLength = maximumLength;
+
+        return this;
+    }
+
+    /**
+     * Get the maximum number of decoded bytes that the body can contain.
+     * @return The maximum number of decoded bytes that the body can contain.
+     */
+    public long getMaximumLength()
+    {
+        return this.maximumLength;
+    }
+
+    /**
+     * Read the next byte of the chunked encoding from the inner stream.
+     * @return The next byte of the chunked encoding.
+     */
+    private byte readInnerByte()
+    {
+        final Byte result = this.innerStream.readByte()
+            .catchError(EmptyException.class)
+            .await();
+        if (result == null)
+        {
+            throw new ParseException("The chunked body ended before its last chunk.");
+        }
+        return result;
+    }
+
+    /**
+     * Read the line terminator that follows a chunk's data.
+     */
+    private void readChunkEnd()
+    {
+        byte b = this.readInnerByte();
+        if (b == '\r')
+        {
+            b = this.readInnerByte();
+        }
+        if (b != '\n')
+        {
+            throw new ParseException("Expected a line terminator after a chunk's data.");
+        }
+    }
+
+    /**
+     * Read the next chunk size line, and the trailer section if it is the last chunk.
+     * @return Whether or not there are more bytes in the body.
+     */
+    private boolean readChunkHeader()
+    {
+        if (this.remainingChunkLength == 0 && !this.endOfStream)
+        {
+            long chunkLength = 0;
+            int digitCount = 0;
+            boolean inExtension = false;
+            while (true)
+            {
+                final byte b = this.readInnerByte();
+                if (b == '\n')
+                {
+                    break;
+                }
+                else if (!inExtension && b != '\r')
+                {
+                    final int digit = java.lang.Character.digit(b, 16);
+                    if (digit != -1)
+                    {
+                        if (digitCount == 15)
+                        {
+                            throw new ParseException("A chunk size was too large.");
+                        }
+                        chunkLength = (chunkLength << 4) | digit;
+                        ++digitCount;
+                    }
+                    else if (b == ';' || b == ' ' || b == '\t')
+                    {
+                        inExtension = true;
+                    }
+                    else
+                    {
+                        throw new ParseException("Invalid chunk size character: " + Strings.escapeAndQuote(java.lang.Character.toString((char)b)));
+                    }
+                }
+            }
+
+            if (digitCount == 0)
+            {
+                throw new ParseException("A chunk size line didn't contain a chunk size.");
+            }
+
+            if (chunkLength == 0)
+            {
+                this.readTrailers();
+                this.endOfStream = true;
+            }
+            else if (chunkLength > this.maximumLength - this.decodedLength)
+            {
+                throw new HttpLimitExceededException(413, "The chunked body was longer than the maximum of " + this.maximumLength + " bytes.");
+            }
+            else
+            {
+                this.remainingChunkLength = chunkLength;
+                this.decodedLength += chunkLength;
+            }
+        }
+        return !this.endOfStream;
+    }
+
+    /**
+     * Read and discard the trailer section that follows the last chunk.
+     */
+    private void readTrailers()
+    {
+        int lineLength = 0;
+        while (true)
+        {
+            final byte b = this.readInnerByte();
+            if (b == '\n')
+            {
+                if (lineLength == 0)
+                {
+                    break;
+                }
+                lineLength = 0;
+            }
+            else if (b != '\r')
+            {
+                ++lineLength;
+            }
+        }
+    }
+
+    @Override
+    public Result<Byte> readByte()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            if (!this.readChunkHeader())
+            {
+                throw new EmptyException();
+            }
+
+            final byte result = this.readInnerByte();
+            --this.remainingChunkLength;
+            if (this.remainingChunkLength == 0)
+            {
+                this.readChunkEnd();
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public Result<Integer> readBytes(byte[] outputBytes, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(outputBytes, "outputBytes");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 1, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, outputBytes.length, "startIndex + length");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            if (!this.readChunkHeader())
+            {
+                throw new EmptyException();
+            }
+
+            final int bytesToRead = (int)Math.minimum(length, this.remainingChunkLength);
+            final Integer result = this.innerStream.readBytes(outputBytes, startIndex, bytesToRead)
+                .catchError(EmptyException.class)
+                .await();
+            if (result == null || result <= 0)
+            {
+                throw new ParseException("The chunked body ended before its last chunk.");
+            }
+
+            this.remainingChunkLength -= result;
+            if (this.remainingChunkLength == 0)
+            {
+                this.readChunkEnd();
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package qub;
+
+/**
+ * A {@link ByteWriteStream} that encodes the bytes that are written to it with the HTTP/1.1
+ * chunked transfer coding (RFC 7230, section 4.1). Each write becomes a single chunk, and the last
+ * chunk is written when this stream is disposed. Disposing this stream does not dispose the inner
+ * stream.
+ */
+public class ChunkedByteWriteStream implements ByteWriteStream
+{
+    private static final byte[] lastChunk = new byte[] { '0', '\r', '\n', '\r', '\n' };
+
+    private final ByteWriteStream innerStream;
+    private final byte[] chunkSizeBytes;
+    private boolean disposed;
+
+    private ChunkedByteWriteStream(ByteWriteStream innerStream)
+    {
+        PreCondition.assertNotNull(innerStream, "innerStream");
+
+        this.innerStream = innerStream;
+        this.chunkSizeBytes = new byte[10];
+    }
+
+    /**
+     * Create a new ChunkedByteWriteStream.
+     * @param innerStream The stream to write the encoded chunks to.
+     * @return The new ChunkedByteWriteStream.
+     */
+    public static ChunkedByteWriteStream create(ByteWriteStream innerStream)
+    {
+        return new ChunkedByteWriteStream(innerStream);
+    }
+
+    @Override
+    public Result<Integer> write(byte toWrite)
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return this.write(new byte[] { toWrite }, 0, 1);
+    }
+
+    @Override
+    public Result<Integer> write(byte[] toWrite, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(toWrite, "toWrite");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 0, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, toWrite.length, "startIndex + length");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            if (0 < length)
+            {
+                final int chunkSizeLength = this.writeChunkSize(length);
+                this.innerStream.writeAll(this.chunkSizeBytes, 0, chunkSizeLength).await();
+                this.innerStream.writeAll(toWrite, startIndex, length).await();
+                this.innerStream.writeAll(this.chunkSizeBytes, chunkSizeLength - 2, 2).await();
+            }
+            return length;
+        });
+    }
+
+    /**
+     * Write the hexadecimal chunk size line (including its CRLF) for the provided length into this
+     * stream's chunk size buffer.
+     * @param length The length of the chunk.
+     * @return The number of bytes in the chunk size line.
+     */
+    private int writeChunkSize(int length)
+    {
+        int digitCount = 1;
+        while (digitCount < 8 && (length >>> (digitCount * 4)) != 0)
+        {
+            ++digitCount;
+        }
+
+        for (int i = 0; i < digitCount; ++i)
+        {
+            final int digit = (length >>> ((digitCount - 1 - i) * 4)) & 0xF;
+            this.chunkSizeBytes[i] = (byte)(digit < 10 ? '0' + digit : 'a' + digit - 10);
+        }
+        this.chunkSizeBytes[digitCount] = '\r';
+        this.chunkSizeBytes[digitCount + 1] = '\n';
+
+        return digitCount + 2;
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    /**
+     * Write the last chunk and the end of the chunked body to the inner stream.
+     */
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                this.innerStream.writeAll(ChunkedByteWriteStream.lastChunk).await();
+            }
+            return result;
+        });
+    }
+}
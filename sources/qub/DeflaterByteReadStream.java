@@ -0,0 +1,170 @@
+package qub;
+
+/**
+ * A {@link ByteReadStream} that compresses the bytes of an inner stream as they are read, in
+ * either the "gzip" (RFC 1952) or the "deflate" (RFC 1950) content coding. This is the pull-based
+ * counterpart of {@link DeflaterByteWriteStream}, and it is used where the compressed bytes are
+ * consumed by whoever reads the stream, such as the body of a request. The uncompressed input is
+ * staged in a buffer that is leased from a {@link ByteBufferPool}. Because this stream takes the
+ * place of the body that it compresses, disposing it also disposes the inner stream.
+ */
+public class DeflaterByteReadStream implements ByteReadStream
+{
+    private final ByteReadStream innerStream;
+    private final ByteBufferPool bufferPool;
+    private final java.util.zip.Deflater deflater;
+    private final java.util.zip.CRC32 crc;
+    private byte[] buffer;
+    private byte[] pendingBytes;
+    private int pendingIndex;
+    private boolean trailerRead;
+
+    private DeflaterByteReadStream(ByteReadStream innerStream, String contentEncoding, int level, ByteBufferPool bufferPool)
+    {
+        PreCondition.assertNotNull(innerStream, "innerStream");
+        PreCondition.assertTrue(DeflaterByteWriteStream.isSupportedContentEncoding(contentEncoding), "contentEncoding must be \"gzip\" or \"deflate\".");
+        PreCondition.assertGreaterThanOrEqualTo(level, -1, "level");
+        PreCondition.assertLessThanOrEqualTo(level, 9, "level");
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+
+        final boolean gzip = DeflaterByteWriteStream.GzipContentEncoding.equalsIgnoreCase(contentEncoding);
+
+        this.innerStream = innerStream;
+        this.bufferPool = bufferPool;
+        this.deflater = new java.util.zip.Deflater(level, gzip);
+        this.crc = gzip ? new java.util.zip.CRC32() : null;
+        this.buffer = bufferPool.lease(8192);
+        this.pendingBytes = gzip ? DeflaterByteWriteStream.gzipHeader : null;
+        this.trailerRead = !gzip;
+    }
+
+    /**
+     * Create a new DeflaterByteReadStream that uses the default compression level.
+     * @param innerStream The stream to read the uncompressed bytes from.
+     * @param contentEncoding The content coding to produce: "gzip" or "deflate".
+     * @param bufferPool The pool to lease the uncompressed input buffer from.
+     * @return The new DeflaterByteReadStream.
+     */
+    public static DeflaterByteReadStream create(ByteReadStream innerStream, String contentEncoding, ByteBufferPool bufferPool)
+    {
+        return DeflaterByteReadStream.create(innerStream, contentEncoding, java.util.zip.Deflater.DEFAULT_COMPRESSION, bufferPool);
+    }
+
+    /**
+     * Create a new DeflaterByteReadStream.
+     * @param innerStream The stream to read the uncompressed bytes from.
+     * @param contentEncoding The content coding to produce: "gzip" or "deflate".
+     * @param level The compression level, from 0 (no compression) to 9 (best compression), or -1
+     *              for the default compression level.
+     * @param bufferPool The pool to lease the uncompressed input buffer from.
+     * @return The new DeflaterByteReadStream.
+     */
+    public static DeflaterByteReadStream create(ByteReadStream innerStream, String contentEncoding, int level, ByteBufferPool bufferPool)
+    {
+        return new DeflaterByteReadStream(innerStream, contentEncoding, level, bufferPool);
+    }
+
+    @Override
+    public Result<Byte> readByte()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            final byte[] bytes = new byte[1];
+            this.readBytes(bytes, 0, 1).await();
+            return bytes[0];
+        });
+    }
+
+    @Override
+    public Result<Integer> readBytes(byte[] outputBytes, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(outputBytes, "outputBytes");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 1, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, outputBytes.length, "startIndex + length");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            int result = 0;
+            while (result == 0)
+            {
+                if (this.pendingBytes != null)
+                {
+                    result = Math.minimum(length, this.pendingBytes.length - this.pendingIndex);
+                    System.arraycopy(this.pendingBytes, this.pendingIndex, outputBytes, startIndex, result);
+                    this.pendingIndex += result;
+                    if (this.pendingIndex == this.pendingBytes.length)
+                    {
+                        this.pendingBytes = null;
+                        this.pendingIndex = 0;
+                    }
+                }
+                else if (this.deflater.finished())
+                {
+                    if (this.trailerRead)
+                    {
+                        throw new EmptyException();
+                    }
+                    this.trailerRead = true;
+                    this.pendingBytes = DeflaterByteWriteStream.createGzipTrailer(this.crc.getValue(), this.deflater.getBytesRead());
+                }
+                else
+                {
+                    result = this.deflater.deflate(outputBytes, startIndex, length, java.util.zip.Deflater.NO_FLUSH);
+                    if (result == 0 && this.deflater.needsInput())
+                    {
+                        final Integer bytesRead = this.innerStream.readBytes(this.buffer, 0, this.buffer.length)
+                            .catchError(EmptyException.class)
+                            .await();
+                        if (bytesRead == null || bytesRead <= 0)
+                        {
+                            this.deflater.finish();
+                        }
+                        else
+                        {
+                            if (this.crc != null)
+                            {
+                                this.crc.update(this.buffer, 0, bytesRead);
+                            }
+                            this.deflater.setInput(this.buffer, 0, bytesRead);
+                        }
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.buffer == null;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.isDisposed();
+            if (result)
+            {
+                try
+                {
+                    this.innerStream.dispose().await();
+                }
+                finally
+                {
+                    this.deflater.end();
+                    final byte[] buffer = this.buffer;
+                    this.buffer = null;
+                    this.bufferPool.release(buffer);
+                }
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,231 @@
+package qub;
+
+/**
+ * A {@link ByteWriteStream} that compresses the bytes that are written to it with a
+ * {@link java.util.zip.Deflater} and writes the compressed bytes to an inner stream in either the
+ * "gzip" (RFC 1952) or the "deflate" (RFC 1950) content coding. The compressed output is staged in
+ * a buffer that is leased from a {@link ByteBufferPool}. Disposing this stream finishes the
+ * compressed stream and releases the buffer, but it does not dispose the inner stream.
+ */
+public class DeflaterByteWriteStream implements ByteWriteStream
+{
+    /**
+     * The name of the gzip content coding.
+     */
+    public static final String GzipContentEncoding = "gzip";
+
+    /**
+     * The name of the deflate content coding.
+     */
+    public static final String DeflateContentEncoding = "deflate";
+
+    static final byte[] gzipHeader = new byte[] { 0x1f, (byte)0x8b, 8, 0, 0, 0, 0, 0, 0, (byte)0xff };
+
+    private final ByteWriteStream innerStream;
+    private final ByteBufferPool bufferPool;
+    private final java.util.zip.Deflater deflater;
+    private final java.util.zip.CRC32 crc;
+    private byte[] buffer;
+    private boolean headerWritten;
+
+    private DeflaterByteWriteStream(ByteWriteStream innerStream, String contentEncoding, int level, ByteBufferPool bufferPool)
+    {
+        PreCondition.assertNotNull(innerStream, "innerStream");
+        PreCondition.assertTrue(DeflaterByteWriteStream.isSupportedContentEncoding(contentEncoding), "contentEncoding must be \"gzip\" or \"deflate\".");
+        PreCondition.assertGreaterThanOrEqualTo(level, -1, "level");
+        PreCondition.assertLessThanOrEqualTo(level, 9, "level");
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+
+        final boolean gzip = DeflaterByteWriteStream.GzipContentEncoding.equalsIgnoreCase(contentEncoding);
+
+        this.innerStream = innerStream;
+        this.bufferPool = bufferPool;
+        this.deflater = new java.util.zip.Deflater(level, gzip);
+        this.crc = gzip ? new java.util.zip.CRC32() : null;
+        this.buffer = bufferPool.lease(8192);
+    }
+
+    /**
+     * Create a new DeflaterByteWriteStream that uses the default compression level.
+     * @param innerStream The stream to write the compressed bytes to.
+     * @param contentEncoding The content coding to write: "gzip" or "deflate".
+     * @param bufferPool The pool to lease the compression buffer from.
+     * @return The new DeflaterByteWriteStream.
+     */
+    public static DeflaterByteWriteStream create(ByteWriteStream innerStream, String contentEncoding, ByteBufferPool bufferPool)
+    {
+        return DeflaterByteWriteStream.create(innerStream, contentEncoding, java.util.zip.Deflater.DEFAULT_COMPRESSION, bufferPool);
+    }
+
+    /**
+     * Create a new DeflaterByteWriteStream.
+     * @param innerStream The stream to write the compressed bytes to.
+     * @param contentEncoding The content coding to write: "gzip" or "deflate".
+     * @param level The compression level, from 0 (no compression) to 9 (best compression), or -1
+     *              for the default compression level.
+     * @param bufferPool The pool to lease the compression buffer from.
+     * @return The new DeflaterByteWriteStream.
+     */
+    public static DeflaterByteWriteStream create(ByteWriteStream innerStream, String contentEncoding, int level, ByteBufferPool bufferPool)
+    {
+        return new DeflaterByteWriteStream(innerStream, contentEncoding, level, bufferPool);
+    }
+
+    /**
+     * Get whether or not the provided content coding can be written by a DeflaterByteWriteStream.
+     * @param contentEncoding The content coding to check.
+     * @return Whether or not the provided content coding is "gzip" or "deflate".
+     */
+    public static boolean isSupportedContentEncoding(String contentEncoding)
+    {
+        return DeflaterByteWriteStream.GzipContentEncoding.equalsIgnoreCase(contentEncoding) ||
+            DeflaterByteWriteStream.DeflateContentEncoding.equalsIgnoreCase(contentEncoding);
+    }
+
+    /**
+     * Create the trailer of a gzip member: the CRC-32 and the length (modulo 2^32) of the
+     * uncompressed data, both in little-endian order.
+     * @param crcValue The CRC-32 of the uncompressed data.
+     * @param inputLength The length of the uncompressed data.
+     * @return The trailer bytes.
+     */
+    static byte[] createGzipTrailer(long crcValue, long inputLength)
+    {
+        final byte[] result = new byte[8];
+        for (int i = 0; i < 4; ++i)
+        {
+            result[i] = (byte)(crcValue >>> (i * 8));
+            result[i + 4] = (byte)(inputLength >>> (i * 8));
+        }
+        return result;
+    }
+
+    private void writeHeaderIfNeeded()
+    {
+        if (!this.headerWritten)
+        {
+            this.headerWritten = true;
+            if (this.crc != null)
+            {
+                this.innerStream.writeAll(DeflaterByteWriteStream.gzipHeader).await();
+            }
+        }
+    }
+
+    /**
+     * Run the deflater into this stream's buffer and write the compressed bytes to the inner
+     * stream.
+     * @param flushMode The flush mode to pass to the deflater.
+     * @return The number of compressed bytes that were written.
+     */
+    private int deflate(int flushMode)
+    {
+        final int result = this.deflater.deflate(this.buffer, 0, this.buffer.length, flushMode);
+        if (0 < result)
+        {
+            this.innerStream.writeAll(this.buffer, 0, result).await();
+        }
+        return result;
+    }
+
+    @Override
+    public Result<Integer> write(byte toWrite)
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return this.write(new byte[] { toWrite }, 0, 1);
+    }
+
+    @Override
+    public Result<Integer> write(byte[] toWrite, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(toWrite, "toWrite");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 0, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, toWrite.length, "startIndex + length");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            if (0 < length)
+            {
+                this.writeHeaderIfNeeded();
+                if (this.crc != null)
+                {
+                    this.crc.update(toWrite, startIndex, length);
+                }
+                this.deflater.setInput(toWrite, startIndex, length);
+                while (!this.deflater.needsInput())
+                {
+                    this.deflate(java.util.zip.Deflater.NO_FLUSH);
+                }
+            }
+            return length;
+        });
+    }
+
+    /**
+     * Write all of the bytes that have been compressed so far to the inner stream so that a reader
+     * can decompress everything that has been written to this stream. Flushing too often will make
+     * the compression worse.
+     */
+    public Result<Void> flush()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            this.writeHeaderIfNeeded();
+            int deflatedLength;
+            do
+            {
+                deflatedLength = this.deflate(java.util.zip.Deflater.SYNC_FLUSH);
+            }
+            while (deflatedLength == this.buffer.length);
+        });
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.buffer == null;
+    }
+
+    /**
+     * Finish the compressed stream, write its trailer to the inner stream, and release this
+     * stream's buffer back to its pool.
+     */
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.isDisposed();
+            if (result)
+            {
+                try
+                {
+                    this.writeHeaderIfNeeded();
+                    this.deflater.finish();
+                    while (!this.deflater.finished())
+                    {
+                        this.deflate(java.util.zip.Deflater.NO_FLUSH);
+                    }
+
+                    if (this.crc != null)
+                    {
+                        this.innerStream.writeAll(DeflaterByteWriteStream.createGzipTrailer(this.crc.getValue(), this.deflater.getBytesRead())).await();
+                    }
+                }
+                finally
+                {
+                    this.deflater.end();
+                    final byte[] buffer = this.buffer;
+                    this.buffer = null;
+                    this.bufferPool.release(buffer);
+                }
+            }
+            return result;
+        });
+    }
+}
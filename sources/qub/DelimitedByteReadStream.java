@@ -0,0 +1,21 @@
+package qub;
+
+/**
+ * A {@link ByteReadStream} that can read the bytes up to a delimiter in bulk, without reading any
+ * of the bytes that follow the delimiter.
+ */
+public interface DelimitedByteReadStream extends ByteReadStream
+{
+    /**
+     * Read bytes from this stream up to and including the first occurrence of the provided
+     * delimiter, or until the provided number of bytes have been read.
+     * @param delimiter The byte to stop reading after.
+     * @param outputBytes The array to copy the read bytes into.
+     * @param startIndex The index in outputBytes to start copying bytes at.
+     * @param length The maximum number of bytes to read.
+     * @return The number of bytes that were read. The last byte that was read is the delimiter if
+     * the delimiter was found, and fewer than length bytes are read only if the delimiter was
+     * found or the stream ended.
+     */
+    Result<Integer> readBytesUntil(byte delimiter, byte[] outputBytes, int startIndex, int length);
+}
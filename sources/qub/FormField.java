@@ -0,0 +1,73 @@
+package qub;
+
+/**
+ * A single decoded name/value field of an application/x-www-form-urlencoded form.
+ */
+public class FormField
+{
+    private final String name;
+    private final String value;
+
+    private FormField(String name, String value)
+    {
+        PreCondition.assertNotNull(name, "name");
+        PreCondition.assertNotNull(value, "value");
+
+        this.name = name;
+        this.value = value;
+    }
+
+    /**
+     * Create a new FormField.
+     * @param name The decoded name of the field.
+     * @param value The decoded value of the field.
+     * @return The new FormField.
+     */
+    public static FormField create(String name, String value)
+    {
+        return new FormField(name, value);
+    }
+
+    /**
+     * Get the decoded name of this field.
+     * @return The decoded name of this field.
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Get the decoded value of this field.
+     * @return The decoded value of this field.
+     */
+    public String getValue()
+    {
+        return this.value;
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof FormField && this.equals((FormField)rhs);
+    }
+
+    public boolean equals(FormField rhs)
+    {
+        return rhs != null &&
+            this.name.equals(rhs.name) &&
+            this.value.equals(rhs.value);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.name.hashCode() ^ this.value.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.name + "=" + this.value;
+    }
+}
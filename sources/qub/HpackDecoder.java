@@ -0,0 +1,262 @@
+package qub;
+
+/**
+ * A type that decodes HPACK (RFC 7541) header blocks. A decoder keeps the dynamic table of its
+ * connection, so every header block that the peer sends must be decoded by the same decoder in the
+ * order that the blocks were sent. An HpackDecoder isn't thread-safe.
+ */
+public class HpackDecoder
+{
+    /**
+     * The maximum size of the dynamic table that HTTP/2 endpoints use until SETTINGS_HEADER_TABLE_SIZE
+     * says otherwise.
+     */
+    public static final int DefaultMaximumTableSize = 4096;
+
+    private final HpackDynamicTable dynamicTable;
+    private int maximumTableSize;
+    private byte[] stringBuffer;
+    private byte[] blockBytes;
+    private int blockIndex;
+    private int blockEndIndex;
+
+    private HpackDecoder(int maximumTableSize)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumTableSize, 0, "maximumTableSize");
+
+        this.dynamicTable = HpackDynamicTable.create(maximumTableSize);
+        this.maximumTableSize = maximumTableSize;
+        this.stringBuffer = new byte[256];
+    }
+
+    /**
+     * Create a new HpackDecoder whose dynamic table can grow to the default of 4096 bytes.
+     * @return The new HpackDecoder.
+     */
+    public static HpackDecoder create()
+    {
+        return HpackDecoder.create(HpackDecoder.DefaultMaximumTableSize);
+    }
+
+    /**
+     * Create a new HpackDecoder.
+     * @param maximumTableSize The largest size that the encoder can set the dynamic table to. This
+     *                         should match the SETTINGS_HEADER_TABLE_SIZE value that was sent to
+     *                         the peer.
+     * @return The new HpackDecoder.
+     */
+    public static HpackDecoder create(int maximumTableSize)
+    {
+        return new HpackDecoder(maximumTableSize);
+    }
+
+    /**
+     * Get the dynamic table of this decoder.
+     * @return The dynamic table of this decoder.
+     */
+    public HpackDynamicTable getDynamicTable()
+    {
+        return this.dynamicTable;
+    }
+
+    /**
+     * Get the largest size that the encoder can set the dynamic table to.
+     * @return The largest size that the encoder can set the dynamic table to.
+     */
+    public int getMaximumTableSize()
+    {
+        return this.maximumTableSize;
+    }
+
+    /**
+     * Decode the provided header block and pass each of its header fields to the provided action in
+     * the order that they appear in the block. Names and values that come from the static table
+     * are passed without being copied.
+     * @param bytes The array that contains the header block.
+     * @param startIndex The index of the first byte of the header block.
+     * @param length The number of bytes in the header block.
+     * @param headerAction The action that will be run with the name and the value of each header
+     *                     field.
+     */
+    public Result<Void> decode(byte[] bytes, int startIndex, int length, Action2<String,String> headerAction)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 0, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, bytes.length, "startIndex + length");
+        PreCondition.assertNotNull(headerAction, "headerAction");
+
+        return Result.create(() ->
+        {
+            this.blockBytes = bytes;
+            this.blockIndex = startIndex;
+            this.blockEndIndex = startIndex + length;
+            try
+            {
+                boolean headerFieldDecoded = false;
+                while (this.blockIndex < this.blockEndIndex)
+                {
+                    final int firstByte = bytes[this.blockIndex] & 0xFF;
+                    if ((firstByte & 0x80) != 0)
+                    {
+                        final int index = this.readInteger(7);
+                        headerAction.run(this.getName(index), this.getValue(index));
+                        headerFieldDecoded = true;
+                    }
+                    else if ((firstByte & 0x40) != 0)
+                    {
+                        final int nameIndex = this.readInteger(6);
+                        final String name = nameIndex == 0 ? this.readString() : this.getName(nameIndex);
+                        final String value = this.readString();
+                        this.dynamicTable.add(name, value);
+                        headerAction.run(name, value);
+                        headerFieldDecoded = true;
+                    }
+                    else if ((firstByte & 0x20) != 0)
+                    {
+                        if (headerFieldDecoded)
+                        {
+                            throw new Http2ProtocolException(Http2Frame.CompressionError, "A dynamic table size update came after the first header field of a header block.");
+                        }
+                        final int tableSize = this.readInteger(5);
+                        if (tableSize > this.maximumTableSize)
+                        {
+                            throw new Http2ProtocolException(Http2Frame.CompressionError, "A dynamic table size update of " + tableSize + " bytes was larger than the maximum of " + this.maximumTableSize + " bytes.");
+                        }
+                        this.dynamicTable.setMaximumSize(tableSize);
+                    }
+                    else
+                    {
+                        // Literal header fields without indexing (0000) and never indexed (0001)
+                        // are decoded the same way.
+                        final int nameIndex = this.readInteger(4);
+                        final String name = nameIndex == 0 ? this.readString() : this.getName(nameIndex);
+                        final String value = this.readString();
+                        headerAction.run(name, value);
+                        headerFieldDecoded = true;
+                    }
+                }
+            }
+            finally
+            {
+                this.blockBytes = null;
+            }
+        });
+    }
+
+    /**
+     * Decode the provided header block and add each of its header fields to the provided headers
+     * in the order that they appear in the block. Pseudo-header fields such as ":status" are added
+     * like any other header field.
+     * @param bytes The array that contains the header block.
+     * @param startIndex The index of the first byte of the header block.
+     * @param length The number of bytes in the header block.
+     * @param headers The headers to add the decoded header fields to.
+     */
+    public Result<Void> decode(byte[] bytes, int startIndex, int length, MutableHttpHeaders headers)
+    {
+        PreCondition.assertNotNull(headers, "headers");
+
+        return this.decode(bytes, startIndex, length, headers::add);
+    }
+
+    private void throwEndedInHeaderField()
+    {
+        throw new Http2ProtocolException(Http2Frame.CompressionError, "A header block ended in the middle of a header field.");
+    }
+
+    /**
+     * Read an integer (RFC 7541, section 5.1) whose first byte uses the provided number of prefix
+     * bits.
+     */
+    private int readInteger(int prefixBits)
+    {
+        final int prefixMask = (1 << prefixBits) - 1;
+        int result = this.blockBytes[this.blockIndex++] & prefixMask;
+        if (result == prefixMask)
+        {
+            long value = result;
+            int shift = 0;
+            int nextByte;
+            do
+            {
+                if (this.blockIndex == this.blockEndIndex)
+                {
+                    this.throwEndedInHeaderField();
+                }
+                nextByte = this.blockBytes[this.blockIndex++] & 0xFF;
+                value += (long)(nextByte & 0x7F) << shift;
+                shift += 7;
+                if (value > Integer.MAX_VALUE || (shift > 28 && (nextByte & 0x80) != 0))
+                {
+                    throw new Http2ProtocolException(Http2Frame.CompressionError, "An integer in a header block was too large.");
+                }
+            }
+            while ((nextByte & 0x80) != 0);
+            result = (int)value;
+        }
+        return result;
+    }
+
+    /**
+     * Read a string literal (RFC 7541, section 5.2), decoding it if it is Huffman-encoded.
+     */
+    private String readString()
+    {
+        if (this.blockIndex == this.blockEndIndex)
+        {
+            this.throwEndedInHeaderField();
+        }
+        final boolean huffmanEncoded = (this.blockBytes[this.blockIndex] & 0x80) != 0;
+        final int length = this.readInteger(7);
+        if (this.blockEndIndex - this.blockIndex < length)
+        {
+            this.throwEndedInHeaderField();
+        }
+
+        String result;
+        if (!huffmanEncoded)
+        {
+            result = new String(this.blockBytes, this.blockIndex, length, java.nio.charset.StandardCharsets.UTF_8);
+        }
+        else
+        {
+            final int maximumDecodedLength = HpackHuffman.getMaximumDecodedLength(length);
+            if (this.stringBuffer.length < maximumDecodedLength)
+            {
+                this.stringBuffer = new byte[Math.maximum(maximumDecodedLength, this.stringBuffer.length * 2)];
+            }
+            final int decodedLength = HpackHuffman.decode(this.blockBytes, this.blockIndex, length, this.stringBuffer, 0);
+            result = new String(this.stringBuffer, 0, decodedLength, java.nio.charset.StandardCharsets.UTF_8);
+        }
+        this.blockIndex += length;
+
+        return result;
+    }
+
+    private void assertValidIndex(int index)
+    {
+        if (index == 0 || HpackStaticTable.Length + this.dynamicTable.getCount() < index)
+        {
+            throw new Http2ProtocolException(Http2Frame.CompressionError, "A header field used the index " + index + ", which isn't in the static or dynamic table.");
+        }
+    }
+
+    private String getName(int index)
+    {
+        this.assertValidIndex(index);
+
+        return index <= HpackStaticTable.Length
+            ? HpackStaticTable.getName(index)
+            : this.dynamicTable.getName(index - HpackStaticTable.Length);
+    }
+
+    private String getValue(int index)
+    {
+        this.assertValidIndex(index);
+
+        return index <= HpackStaticTable.Length
+            ? HpackStaticTable.getValue(index)
+            : this.dynamicTable.getValue(index - HpackStaticTable.Length);
+    }
+}
@@ -0,0 +1,254 @@
+package qub;
+
+/**
+ * The dynamic table of header fields that a HPACK (RFC 7541, section 2.3.2) encoder or decoder
+ * builds up over a connection. New entries are added at the front of the table, and the oldest
+ * entries are evicted whenever the table's size would grow past its maximum size. The entries are
+ * kept in a ring of arrays, so adding and evicting entries doesn't allocate once the ring has
+ * grown to fit the table.
+ */
+public class HpackDynamicTable
+{
+    /**
+     * The number of bytes that each entry adds to the size of the table in addition to the bytes
+     * of its name and value.
+     */
+    public static final int EntryOverhead = 32;
+
+    private String[] names;
+    private String[] values;
+    private int[] entrySizes;
+    private int newestIndex;
+    private int count;
+    private int size;
+    private int maximumSize;
+
+    private HpackDynamicTable(int maximumSize)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumSize, 0, "maximumSize");
+
+        this.names = new String[16];
+        this.values = new String[16];
+        this.entrySizes = new int[16];
+        this.newestIndex = -1;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Create a new empty HpackDynamicTable.
+     * @param maximumSize The maximum size of the table.
+     * @return The new HpackDynamicTable.
+     */
+    public static HpackDynamicTable create(int maximumSize)
+    {
+        return new HpackDynamicTable(maximumSize);
+    }
+
+    /**
+     * Get the number of bytes that the provided string adds to the size of an entry. This is the
+     * length of the string's UTF-8 encoding.
+     * @param value The string.
+     * @return The number of bytes that the provided string adds to the size of an entry.
+     */
+    static int getEncodedLength(String value)
+    {
+        final int valueLength = value.length();
+        int result = valueLength;
+        for (int i = 0; i < valueLength; ++i)
+        {
+            if (0x80 <= value.charAt(i))
+            {
+                result = value.getBytes(java.nio.charset.StandardCharsets.UTF_8).length;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of entries in this table.
+     * @return The number of entries in this table.
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * Get the size of this table, which is the sum of the sizes of its entries.
+     * @return The size of this table.
+     */
+    public int getSize()
+    {
+        return this.size;
+    }
+
+    /**
+     * Get the maximum size of this table.
+     * @return The maximum size of this table.
+     */
+    public int getMaximumSize()
+    {
+        return this.maximumSize;
+    }
+
+    /**
+     * Set the maximum size of this table, evicting the oldest entries until the table fits.
+     * @param maximumSize The maximum size of this table.
+     * @return This object for method chaining.
+     */
+    public HpackDynamicTable setMaximumSize(int maximumSize)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumSize, 0, "maximumSize");
+
+        this.maximumSize = maximumSize;
+        this.evict(0);
+
+        return this;
+    }
+
+    /**
+     * Evict the oldest entries until the provided number of bytes can be added without the table's
+     * size growing past its maximum size.
+     */
+    private void evict(int bytesToAdd)
+    {
+        while (0 < this.count && this.maximumSize < this.size + bytesToAdd)
+        {
+            final int oldestIndex = this.getArrayIndex(this.count);
+            this.size -= this.entrySizes[oldestIndex];
+            this.names[oldestIndex] = null;
+            this.values[oldestIndex] = null;
+            --this.count;
+        }
+    }
+
+    /**
+     * Get the index in this table's arrays of the entry with the provided table index.
+     * @param index The table index of the entry, where 1 is the newest entry.
+     */
+    private int getArrayIndex(int index)
+    {
+        final int capacity = this.names.length;
+        return (this.newestIndex - (index - 1) + capacity) % capacity;
+    }
+
+    /**
+     * Add a new entry to the front of this table. If the entry is larger than the maximum size of
+     * this table, then the table is emptied and the entry isn't added.
+     * @param name The name of the entry.
+     * @param value The value of the entry.
+     * @return This object for method chaining.
+     */
+    public HpackDynamicTable add(String name, String value)
+    {
+        PreCondition.assertNotNull(name, "name");
+        PreCondition.assertNotNull(value, "value");
+
+        final int entrySize = HpackDynamicTable.getEncodedLength(name) + HpackDynamicTable.getEncodedLength(value) + HpackDynamicTable.EntryOverhead;
+        this.evict(entrySize);
+        if (entrySize <= this.maximumSize)
+        {
+            if (this.count == this.names.length)
+            {
+                final int capacity = this.names.length;
+                final String[] newNames = new String[capacity * 2];
+                final String[] newValues = new String[capacity * 2];
+                final int[] newEntrySizes = new int[capacity * 2];
+                for (int i = 0; i < this.count; ++i)
+                {
+                    final int arrayIndex = this.getArrayIndex(this.count - i);
+                    newNames[i] = this.names[arrayIndex];
+                    newValues[i] = this.values[arrayIndex];
+                    newEntrySizes[i] = this.entrySizes[arrayIndex];
+                }
+                this.names = newNames;
+                this.values = newValues;
+                this.entrySizes = newEntrySizes;
+                this.newestIndex = this.count - 1;
+            }
+
+            this.newestIndex = (this.newestIndex + 1) % this.names.length;
+            this.names[this.newestIndex] = name;
+            this.values[this.newestIndex] = value;
+            this.entrySizes[this.newestIndex] = entrySize;
+            ++this.count;
+            this.size += entrySize;
+        }
+
+        return this;
+    }
+
+    /**
+     * Get the index of the newest entry with the provided name and value.
+     * @param name The name of the entry.
+     * @param value The value of the entry.
+     * @return The index of the newest matching entry, where 1 is the newest entry, or 0 if no
+     * entry matches.
+     */
+    public int indexOf(String name, String value)
+    {
+        PreCondition.assertNotNull(name, "name");
+        PreCondition.assertNotNull(value, "value");
+
+        int result = 0;
+        for (int index = 1; index <= this.count; ++index)
+        {
+            final int arrayIndex = this.getArrayIndex(index);
+            if (this.names[arrayIndex].equals(name) && this.values[arrayIndex].equals(value))
+            {
+                result = index;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the index of the newest entry with the provided name.
+     * @param name The name of the entry.
+     * @return The index of the newest matching entry, where 1 is the newest entry, or 0 if no
+     * entry matches.
+     */
+    public int indexOfName(String name)
+    {
+        PreCondition.assertNotNull(name, "name");
+
+        int result = 0;
+        for (int index = 1; index <= this.count; ++index)
+        {
+            if (this.names[this.getArrayIndex(index)].equals(name))
+            {
+                result = index;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the name of the entry at the provided index.
+     * @param index The index of the entry, where 1 is the newest entry.
+     * @return The name of the entry.
+     */
+    public String getName(int index)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(index, 1, "index");
+        PreCondition.assertLessThanOrEqualTo(index, this.count, "index");
+
+        return this.names[this.getArrayIndex(index)];
+    }
+
+    /**
+     * Get the value of the entry at the provided index.
+     * @param index The index of the entry, where 1 is the newest entry.
+     * @return The value of the entry.
+     */
+    public String getValue(int index)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(index, 1, "index");
+        PreCondition.assertLessThanOrEqualTo(index, this.count, "index");
+
+        return this.values[this.getArrayIndex(index)];
+    }
+}
@@ -0,0 +1,354 @@
+package qub;
+
+/**
+ * A type that encodes header fields into a HPACK (RFC 7541) header block in a reusable byte buffer.
+ * Header fields that are in the static table or in this encoder's dynamic table are encoded as
+ * indexes, and other header fields are encoded as literals that are added to the dynamic table so
+ * that later header blocks on the same connection can refer to them. String literals are Huffman
+ * encoded whenever that makes them shorter. Since the peer's decoder mirrors this encoder's dynamic
+ * table, every header block that this encoder writes must be sent to the peer in the order that the
+ * blocks were written. An HpackEncoder isn't thread-safe.
+ */
+public class HpackEncoder
+{
+    private final HpackDynamicTable dynamicTable;
+    private boolean tableSizeUpdatePending;
+    private int smallestTableSize;
+    private byte[] bytes;
+    private int length;
+
+    private HpackEncoder(int maximumTableSize)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumTableSize, 0, "maximumTableSize");
+
+        this.dynamicTable = HpackDynamicTable.create(maximumTableSize);
+        this.bytes = new byte[256];
+    }
+
+    /**
+     * Create a new HpackEncoder whose dynamic table starts at the default size of 4096 bytes that
+     * HTTP/2 decoders start with.
+     * @return The new HpackEncoder.
+     */
+    public static HpackEncoder create()
+    {
+        return HpackEncoder.create(HpackDecoder.DefaultMaximumTableSize);
+    }
+
+    /**
+     * Create a new HpackEncoder.
+     * @param maximumTableSize The maximum size of the dynamic table. This must match the maximum
+     *                         size of the peer decoder's dynamic table.
+     * @return The new HpackEncoder.
+     */
+    public static HpackEncoder create(int maximumTableSize)
+    {
+        return new HpackEncoder(maximumTableSize);
+    }
+
+    /**
+     * Get the dynamic table of this encoder.
+     * @return The dynamic table of this encoder.
+     */
+    public HpackDynamicTable getDynamicTable()
+    {
+        return this.dynamicTable;
+    }
+
+    /**
+     * Get the maximum size of this encoder's dynamic table.
+     * @return The maximum size of this encoder's dynamic table.
+     */
+    public int getMaximumTableSize()
+    {
+        return this.dynamicTable.getMaximumSize();
+    }
+
+    /**
+     * Set the maximum size of this encoder's dynamic table, evicting the oldest entries until the
+     * table fits. The new size is sent to the peer's decoder as a dynamic table size update at the
+     * start of the next header block.
+     * @param maximumTableSize The maximum size of this encoder's dynamic table. This must not be
+     *                         larger than the SETTINGS_HEADER_TABLE_SIZE value that the peer sent.
+     * @return This object for method chaining.
+     */
+    public HpackEncoder setMaximumTableSize(int maximumTableSize)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumTableSize, 0, "maximumTableSize");
+
+        if (this.tableSizeUpdatePending)
+        {
+            // The decoder must be told about the smallest size that the table had since the last
+            // update so that it evicts the same entries that this encoder evicted.
+            this.smallestTableSize = Math.minimum(this.smallestTableSize, maximumTableSize);
+        }
+        else if (maximumTableSize != this.dynamicTable.getMaximumSize())
+        {
+            this.smallestTableSize = maximumTableSize;
+            this.tableSizeUpdatePending = true;
+        }
+        this.dynamicTable.setMaximumSize(maximumTableSize);
+
+        return this;
+    }
+
+    /**
+     * Get the number of bytes that have been written to this HpackEncoder's header block.
+     * @return The number of bytes that have been written to this HpackEncoder's header block.
+     */
+    public int getLength()
+    {
+        return this.length;
+    }
+
+    /**
+     * Get a copy of the bytes that have been written to this HpackEncoder's header block.
+     * @return A copy of the bytes that have been written to this HpackEncoder's header block.
+     */
+    public byte[] getBytes()
+    {
+        return java.util.Arrays.copyOf(this.bytes, this.length);
+    }
+
+    /**
+     * Remove all of the bytes that have been written to this HpackEncoder's header block so that
+     * it can be reused for the next header block.
+     * @return This object for method chaining.
+     */
+    public HpackEncoder clear()
+    {
+        this.length = 0;
+
+        return this;
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (this.bytes.length < capacity)
+        {
+            this.bytes = java.util.Arrays.copyOf(this.bytes, Math.maximum(capacity, this.bytes.length * 2));
+        }
+    }
+
+    /**
+     * Write an integer (RFC 7541, section 5.1) whose first byte uses the provided number of prefix
+     * bits and starts with the provided pattern bits.
+     */
+    private void writeInteger(int patternBits, int prefixBits, int value)
+    {
+        this.ensureCapacity(this.length + 6);
+
+        final int prefixMask = (1 << prefixBits) - 1;
+        if (value < prefixMask)
+        {
+            this.bytes[this.length++] = (byte)(patternBits | value);
+        }
+        else
+        {
+            this.bytes[this.length++] = (byte)(patternBits | prefixMask);
+            int remaining = value - prefixMask;
+            while (0x80 <= remaining)
+            {
+                this.bytes[this.length++] = (byte)((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            this.bytes[this.length++] = (byte)remaining;
+        }
+    }
+
+    /**
+     * Write a string literal (RFC 7541, section 5.2), Huffman encoding it if that makes it shorter.
+     */
+    private void writeString(String value)
+    {
+        final int valueLength = value.length();
+        boolean ascii = true;
+        for (int i = 0; i < valueLength; ++i)
+        {
+            if (0x80 <= value.charAt(i))
+            {
+                ascii = false;
+                break;
+            }
+        }
+
+        if (ascii)
+        {
+            final int huffmanLength = HpackHuffman.getEncodedLength(value);
+            if (huffmanLength <= valueLength)
+            {
+                this.writeInteger(0x80, 7, huffmanLength);
+                this.ensureCapacity(this.length + huffmanLength);
+                this.length = HpackHuffman.encode(value, this.bytes, this.length);
+            }
+            else
+            {
+                this.writeInteger(0, 7, valueLength);
+                this.ensureCapacity(this.length + valueLength);
+                for (int i = 0; i < valueLength; ++i)
+                {
+                    this.bytes[this.length++] = (byte)value.charAt(i);
+                }
+            }
+        }
+        else
+        {
+            final byte[] encodedBytes = value.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            final int huffmanLength = HpackHuffman.getEncodedLength(encodedBytes, 0, encodedBytes.length);
+            if (huffmanLength <= encodedBytes.length)
+            {
+                this.writeInteger(0x80, 7, huffmanLength);
+                this.ensureCapacity(this.length + huffmanLength);
+                this.length += HpackHuffman.encode(encodedBytes, 0, encodedBytes.length, this.bytes, this.length);
+            }
+            else
+            {
+                this.writeInteger(0, 7, encodedBytes.length);
+                this.ensureCapacity(this.length + encodedBytes.length);
+                System.arraycopy(encodedBytes, 0, this.bytes, this.length, encodedBytes.length);
+                this.length += encodedBytes.length;
+            }
+        }
+    }
+
+    /**
+     * Get whether or not the provided header field name is for a header field whose value
+     * shouldn't be added to any dynamic table (RFC 7541, section 7.1.3), such as credentials that
+     * would otherwise be exposed to compression-based attacks.
+     */
+    private static boolean isSensitiveHeaderName(String lowercaseName)
+    {
+        return lowercaseName.equals("authorization") || lowercaseName.equals("proxy-authorization");
+    }
+
+    private static boolean hasUpperCase(String value)
+    {
+        boolean result = false;
+        final int valueLength = value.length();
+        for (int i = 0; i < valueLength; ++i)
+        {
+            final char c = value.charAt(i);
+            if ('A' <= c && c <= 'Z')
+            {
+                result = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Write the provided header field to this HpackEncoder's header block. HTTP/2 requires header
+     * field names to be lower-case, so the name is converted to lower-case as it is written.
+     * @param headerName The name of the header field, or a pseudo-header field name such as
+     *                   ":status".
+     * @param headerValue The value of the header field.
+     * @return This object for method chaining.
+     */
+    public HpackEncoder writeHeader(String headerName, String headerValue)
+    {
+        PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
+        PreCondition.assertNotNull(headerValue, "headerValue");
+
+        if (this.length == 0 && this.tableSizeUpdatePending)
+        {
+            final int maximumTableSize = this.dynamicTable.getMaximumSize();
+            if (this.smallestTableSize < maximumTableSize)
+            {
+                this.writeInteger(0x20, 5, this.smallestTableSize);
+            }
+            this.writeInteger(0x20, 5, maximumTableSize);
+            this.tableSizeUpdatePending = false;
+        }
+
+        final String name = HpackEncoder.hasUpperCase(headerName) ? headerName.toLowerCase() : headerName;
+        final boolean sensitive = HpackEncoder.isSensitiveHeaderName(name);
+        int index = sensitive ? 0 : HpackStaticTable.indexOf(name, headerValue);
+        if (index == 0 && !sensitive)
+        {
+            final int dynamicIndex = this.dynamicTable.indexOf(name, headerValue);
+            if (dynamicIndex != 0)
+            {
+                index = HpackStaticTable.Length + dynamicIndex;
+            }
+        }
+
+        if (index != 0)
+        {
+            this.writeInteger(0x80, 7, index);
+        }
+        else
+        {
+            int nameIndex = HpackStaticTable.indexOfName(name);
+            if (nameIndex == 0)
+            {
+                final int dynamicNameIndex = this.dynamicTable.indexOfName(name);
+                if (dynamicNameIndex != 0)
+                {
+                    nameIndex = HpackStaticTable.Length + dynamicNameIndex;
+                }
+            }
+
+            final int entrySize = HpackDynamicTable.getEncodedLength(name) + HpackDynamicTable.getEncodedLength(headerValue) + HpackDynamicTable.EntryOverhead;
+            final boolean addToTable = !sensitive && entrySize <= this.dynamicTable.getMaximumSize();
+            if (addToTable)
+            {
+                this.writeInteger(0x40, 6, nameIndex);
+            }
+            else
+            {
+                // Entries that don't fit in the dynamic table would only empty it, so they are
+                // written without indexing instead.
+                this.writeInteger(sensitive ? 0x10 : 0x00, 4, nameIndex);
+            }
+            if (nameIndex == 0)
+            {
+                this.writeString(name);
+            }
+            this.writeString(headerValue);
+
+            if (addToTable)
+            {
+                this.dynamicTable.add(name, headerValue);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Write the header block that has been written to this HpackEncoder as a HEADERS frame,
+     * followed by as many CONTINUATION frames as are needed to keep each frame's payload within
+     * the provided maximum frame size.
+     * @param frameWriter The writer to write the frames to.
+     * @param streamId The identifier of the stream that the header block belongs to.
+     * @param endStream Whether or not the HEADERS frame should end the stream.
+     * @param maximumFrameSize The peer's maximum frame size.
+     */
+    public Result<Void> writeTo(Http2FrameWriter frameWriter, int streamId, boolean endStream, int maximumFrameSize)
+    {
+        PreCondition.assertNotNull(frameWriter, "frameWriter");
+        PreCondition.assertGreaterThanOrEqualTo(streamId, 1, "streamId");
+        PreCondition.assertGreaterThanOrEqualTo(maximumFrameSize, Http2Frame.DefaultMaximumFrameSize, "maximumFrameSize");
+
+        return Result.create(() ->
+        {
+            int written = 0;
+            int frameType = Http2Frame.HeadersType;
+            int flags = endStream ? Http2Frame.EndStreamFlag : 0;
+            do
+            {
+                final int frameLength = Math.minimum(maximumFrameSize, this.length - written);
+                if (written + frameLength == this.length)
+                {
+                    flags |= Http2Frame.EndHeadersFlag;
+                }
+                frameWriter.writeFrame(frameType, flags, streamId, this.bytes, written, frameLength).await();
+                written += frameLength;
+                frameType = Http2Frame.ContinuationType;
+                flags = 0;
+            }
+            while (written < this.length);
+        });
+    }
+}
@@ -0,0 +1,302 @@
+package qub;
+
+/**
+ * The static Huffman code that HPACK (RFC 7541, appendix B) uses to compress header field names and
+ * values.
+ */
+public class HpackHuffman
+{
+    /**
+     * The symbol that marks the end of a Huffman-encoded string. It is never encoded, but its most
+     * significant bits are used to pad the last byte of an encoded string.
+     */
+    static final int EndOfStringSymbol = 256;
+
+    /**
+     * The code of each symbol, aligned to the least significant bit.
+     */
+    private static final int[] codes = new int[]
+    {
+        0x1ff8, 0x7fffd8, 0xfffffe2, 0xfffffe3, 0xfffffe4, 0xfffffe5, 0xfffffe6, 0xfffffe7,
+        0xfffffe8, 0xffffea, 0x3ffffffc, 0xfffffe9, 0xfffffea, 0x3ffffffd, 0xfffffeb, 0xfffffec,
+        0xfffffed, 0xfffffee, 0xfffffef, 0xffffff0, 0xffffff1, 0xffffff2, 0x3ffffffe, 0xffffff3,
+        0xffffff4, 0xffffff5, 0xffffff6, 0xffffff7, 0xffffff8, 0xffffff9, 0xffffffa, 0xffffffb,
+        0x14, 0x3f8, 0x3f9, 0xffa, 0x1ff9, 0x15, 0xf8, 0x7fa,
+        0x3fa, 0x3fb, 0xf9, 0x7fb, 0xfa, 0x16, 0x17, 0x18,
+        0x0, 0x1, 0x2, 0x19, 0x1a, 0x1b, 0x1c, 0x1d,
+        0x1e, 0x1f, 0x5c, 0xfb, 0x7ffc, 0x20, 0xffb, 0x3fc,
+        0x1ffa, 0x21, 0x5d, 0x5e, 0x5f, 0x60, 0x61, 0x62,
+        0x63, 0x64, 0x65, 0x66, 0x67, 0x68, 0x69, 0x6a,
+        0x6b, 0x6c, 0x6d, 0x6e, 0x6f, 0x70, 0x71, 0x72,
+        0xfc, 0x73, 0xfd, 0x1ffb, 0x7fff0, 0x1ffc, 0x3ffc, 0x22,
+        0x7ffd, 0x3, 0x23, 0x4, 0x24, 0x5, 0x25, 0x26,
+        0x27, 0x6, 0x74, 0x75, 0x28, 0x29, 0x2a, 0x7,
+        0x2b, 0x76, 0x2c, 0x8, 0x9, 0x2d, 0x77, 0x78,
+        0x79, 0x7a, 0x7b, 0x7ffe, 0x7fc, 0x3ffd, 0x1ffd, 0xffffffc,
+        0xfffe6, 0x3fffd2, 0xfffe7, 0xfffe8, 0x3fffd3, 0x3fffd4, 0x3fffd5, 0x7fffd9,
+        0x3fffd6, 0x7fffda, 0x7fffdb, 0x7fffdc, 0x7fffdd, 0x7fffde, 0xffffeb, 0x7fffdf,
+        0xffffec, 0xffffed, 0x3fffd7, 0x7fffe0, 0xffffee, 0x7fffe1, 0x7fffe2, 0x7fffe3,
+        0x7fffe4, 0x1fffdc, 0x3fffd8, 0x7fffe5, 0x3fffd9, 0x7fffe6, 0x7fffe7, 0xffffef,
+        0x3fffda, 0x1fffdd, 0xfffe9, 0x3fffdb, 0x3fffdc, 0x7fffe8, 0x7fffe9, 0x1fffde,
+        0x7fffea, 0x3fffdd, 0x3fffde, 0xfffff0, 0x1fffdf, 0x3fffdf, 0x7fffeb, 0x7fffec,
+        0x1fffe0, 0x1fffe1, 0x3fffe0, 0x1fffe2, 0x7fffed, 0x3fffe1, 0x7fffee, 0x7fffef,
+        0xfffea, 0x3fffe2, 0x3fffe3, 0x3fffe4, 0x7ffff0, 0x3fffe5, 0x3fffe6, 0x7ffff1,
+        0x3ffffe0, 0x3ffffe1, 0xfffeb, 0x7fff1, 0x3fffe7, 0x7ffff2, 0x3fffe8, 0x1ffffec,
+        0x3ffffe2, 0x3ffffe3, 0x3ffffe4, 0x7ffffde, 0x7ffffdf, 0x3ffffe5, 0xfffff1, 0x1ffffed,
+        0x7fff2, 0x1fffe3, 0x3ffffe6, 0x7ffffe0, 0x7ffffe1, 0x3ffffe7, 0x7ffffe2, 0xfffff2,
+        0x1fffe4, 0x1fffe5, 0x3ffffe8, 0x3ffffe9, 0xffffffd, 0x7ffffe3, 0x7ffffe4, 0x7ffffe5,
+        0xfffec, 0xfffff3, 0xfffed, 0x1fffe6, 0x3fffe9, 0x1fffe7, 0x1fffe8, 0x7ffff3,
+        0x3fffea, 0x3fffeb, 0x1ffffee, 0x1ffffef, 0xfffff4, 0xfffff5, 0x3ffffea, 0x7ffff4,
+        0x3ffffeb, 0x7ffffe6, 0x3ffffec, 0x3ffffed, 0x7ffffe7, 0x7ffffe8, 0x7ffffe9, 0x7ffffea,
+        0x7ffffeb, 0xffffffe, 0x7ffffec, 0x7ffffed, 0x7ffffee, 0x7ffffef, 0x7fffff0, 0x3ffffee,
+        0x3fffffff
+    };
+
+    /**
+     * The number of bits in the code of each symbol.
+     */
+    private static final byte[] codeLengths = new byte[]
+    {
+        13, 23, 28, 28, 28, 28, 28, 28, 28, 24, 30, 28, 28, 30, 28, 28,
+        28, 28, 28, 28, 28, 28, 30, 28, 28, 28, 28, 28, 28, 28, 28, 28,
+        6, 10, 10, 12, 13, 6, 8, 11, 10, 10, 8, 11, 8, 6, 6, 6,
+        5, 5, 5, 6, 6, 6, 6, 6, 6, 6, 7, 8, 15, 6, 12, 10,
+        13, 6, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7,
+        7, 7, 7, 7, 7, 7, 7, 7, 8, 7, 8, 13, 19, 13, 14, 6,
+        15, 5, 6, 5, 6, 5, 6, 6, 6, 5, 7, 7, 6, 6, 6, 5,
+        6, 7, 6, 5, 5, 6, 7, 7, 7, 7, 7, 15, 11, 14, 13, 28,
+        20, 22, 20, 20, 22, 22, 22, 23, 22, 23, 23, 23, 23, 23, 24, 23,
+        24, 24, 22, 23, 24, 23, 23, 23, 23, 21, 22, 23, 22, 23, 23, 24,
+        22, 21, 20, 22, 22, 23, 23, 21, 23, 22, 22, 24, 21, 22, 23, 23,
+        21, 21, 22, 21, 23, 22, 23, 23, 20, 22, 22, 22, 23, 22, 22, 23,
+        26, 26, 20, 19, 22, 23, 22, 25, 26, 26, 26, 27, 27, 26, 24, 25,
+        19, 21, 26, 27, 27, 26, 27, 24, 21, 21, 26, 26, 28, 27, 27, 27,
+        20, 24, 20, 21, 22, 21, 21, 23, 22, 22, 25, 25, 24, 24, 26, 23,
+        26, 27, 26, 26, 27, 27, 27, 27, 27, 28, 27, 27, 27, 27, 27, 26,
+        30
+    };
+
+    /**
+     * The decoding tree. The children of the node at index n are at indexes 2n and 2n + 1. A child
+     * that is a leaf is stored as -(symbol + 1), and a child that is another node is stored as that
+     * node's index.
+     */
+    private static final int[] decodingTree = HpackHuffman.createDecodingTree();
+
+    private HpackHuffman()
+    {
+    }
+
+    private static int[] createDecodingTree()
+    {
+        final int[] result = new int[2 * HpackHuffman.codes.length];
+        int nodeCount = 1;
+        for (int symbol = 0; symbol < HpackHuffman.codes.length; ++symbol)
+        {
+            final int code = HpackHuffman.codes[symbol];
+            final int codeLength = HpackHuffman.codeLengths[symbol];
+            int node = 0;
+            for (int bitIndex = codeLength - 1; 0 < bitIndex; --bitIndex)
+            {
+                final int childIndex = 2 * node + ((code >>> bitIndex) & 1);
+                if (result[childIndex] == 0)
+                {
+                    result[childIndex] = nodeCount++;
+                }
+                node = result[childIndex];
+            }
+            result[2 * node + (code & 1)] = -(symbol + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of bytes that the provided bytes take up once they are Huffman-encoded.
+     * @param input The array that contains the bytes to encode.
+     * @param startIndex The index of the first byte to encode.
+     * @param length The number of bytes to encode.
+     * @return The number of bytes that the provided bytes take up once they are Huffman-encoded.
+     */
+    public static int getEncodedLength(byte[] input, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(input, "input");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 0, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, input.length, "startIndex + length");
+
+        long bitCount = 0;
+        final int endIndex = startIndex + length;
+        for (int i = startIndex; i < endIndex; ++i)
+        {
+            bitCount += HpackHuffman.codeLengths[input[i] & 0xFF];
+        }
+        return (int)((bitCount + 7) / 8);
+    }
+
+    /**
+     * Get the number of bytes that the provided ASCII string takes up once it is Huffman-encoded.
+     * Every character of the string must be less than 0x80.
+     */
+    static int getEncodedLength(String asciiValue)
+    {
+        long bitCount = 0;
+        final int valueLength = asciiValue.length();
+        for (int i = 0; i < valueLength; ++i)
+        {
+            bitCount += HpackHuffman.codeLengths[asciiValue.charAt(i)];
+        }
+        return (int)((bitCount + 7) / 8);
+    }
+
+    /**
+     * Huffman-encode the provided bytes.
+     * @param input The array that contains the bytes to encode.
+     * @param startIndex The index of the first byte to encode.
+     * @param length The number of bytes to encode.
+     * @param output The array to write the encoded bytes to. It must have room for
+     *               {@link #getEncodedLength(byte[], int, int)} bytes after outputStartIndex.
+     * @param outputStartIndex The index in output to write the first encoded byte to.
+     * @return The number of encoded bytes.
+     */
+    public static int encode(byte[] input, int startIndex, int length, byte[] output, int outputStartIndex)
+    {
+        PreCondition.assertNotNull(input, "input");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 0, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, input.length, "startIndex + length");
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertGreaterThanOrEqualTo(outputStartIndex, 0, "outputStartIndex");
+
+        long bits = 0;
+        int bitCount = 0;
+        int outputIndex = outputStartIndex;
+        final int endIndex = startIndex + length;
+        for (int i = startIndex; i < endIndex; ++i)
+        {
+            final int symbol = input[i] & 0xFF;
+            final int codeLength = HpackHuffman.codeLengths[symbol];
+            bits = (bits << codeLength) | HpackHuffman.codes[symbol];
+            bitCount += codeLength;
+            while (8 <= bitCount)
+            {
+                bitCount -= 8;
+                output[outputIndex++] = (byte)(bits >>> bitCount);
+            }
+        }
+        return HpackHuffman.finishEncoding(bits, bitCount, output, outputIndex) - outputStartIndex;
+    }
+
+    /**
+     * Huffman-encode the provided ASCII string. Every character of the string must be less than
+     * 0x80.
+     * @return The index in output after the last encoded byte.
+     */
+    static int encode(String asciiValue, byte[] output, int outputStartIndex)
+    {
+        long bits = 0;
+        int bitCount = 0;
+        int outputIndex = outputStartIndex;
+        final int valueLength = asciiValue.length();
+        for (int i = 0; i < valueLength; ++i)
+        {
+            final int symbol = asciiValue.charAt(i);
+            final int codeLength = HpackHuffman.codeLengths[symbol];
+            bits = (bits << codeLength) | HpackHuffman.codes[symbol];
+            bitCount += codeLength;
+            while (8 <= bitCount)
+            {
+                bitCount -= 8;
+                output[outputIndex++] = (byte)(bits >>> bitCount);
+            }
+        }
+        return HpackHuffman.finishEncoding(bits, bitCount, output, outputIndex);
+    }
+
+    /**
+     * Write the last partial byte of an encoded string, padded with the most significant bits of
+     * the EOS symbol.
+     * @return The index in output after the last encoded byte.
+     */
+    private static int finishEncoding(long bits, int bitCount, byte[] output, int outputIndex)
+    {
+        if (0 < bitCount)
+        {
+            output[outputIndex++] = (byte)((bits << (8 - bitCount)) | (0xFF >>> bitCount));
+        }
+        return outputIndex;
+    }
+
+    /**
+     * Get the largest number of bytes that the provided number of Huffman-encoded bytes can decode
+     * to. The shortest code is five bits long.
+     * @param encodedLength The number of Huffman-encoded bytes.
+     * @return The largest number of bytes that the encoded bytes can decode to.
+     */
+    public static int getMaximumDecodedLength(int encodedLength)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(encodedLength, 0, "encodedLength");
+
+        return (encodedLength * 8) / 5;
+    }
+
+    /**
+     * Decode the provided Huffman-encoded bytes.
+     * @param input The array that contains the encoded bytes.
+     * @param startIndex The index of the first encoded byte.
+     * @param length The number of encoded bytes.
+     * @param output The array to write the decoded bytes to. It must have room for
+     *               {@link #getMaximumDecodedLength(int)} bytes after outputStartIndex.
+     * @param outputStartIndex The index in output to write the first decoded byte to.
+     * @return The number of decoded bytes.
+     */
+    public static int decode(byte[] input, int startIndex, int length, byte[] output, int outputStartIndex)
+    {
+        PreCondition.assertNotNull(input, "input");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 0, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, input.length, "startIndex + length");
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertGreaterThanOrEqualTo(outputStartIndex, 0, "outputStartIndex");
+
+        final int[] decodingTree = HpackHuffman.decodingTree;
+        int outputIndex = outputStartIndex;
+        int node = 0;
+        int bitsSinceSymbol = 0;
+        boolean onlyOnesSinceSymbol = true;
+        final int endIndex = startIndex + length;
+        for (int i = startIndex; i < endIndex; ++i)
+        {
+            final int inputByte = input[i] & 0xFF;
+            for (int bitIndex = 7; 0 <= bitIndex; --bitIndex)
+            {
+                final int bit = (inputByte >>> bitIndex) & 1;
+                final int child = decodingTree[2 * node + bit];
+                if (child < 0)
+                {
+                    final int symbol = -child - 1;
+                    if (symbol == HpackHuffman.EndOfStringSymbol)
+                    {
+                        throw new Http2ProtocolException(Http2Frame.CompressionError, "A Huffman-encoded string contained the EOS symbol.");
+                    }
+                    output[outputIndex++] = (byte)symbol;
+                    node = 0;
+                    bitsSinceSymbol = 0;
+                    onlyOnesSinceSymbol = true;
+                }
+                else
+                {
+                    node = child;
+                    ++bitsSinceSymbol;
+                    onlyOnesSinceSymbol &= (bit == 1);
+                }
+            }
+        }
+
+        if (7 < bitsSinceSymbol || !onlyOnesSinceSymbol)
+        {
+            throw new Http2ProtocolException(Http2Frame.CompressionError, "A Huffman-encoded string had invalid padding.");
+        }
+
+        return outputIndex - outputStartIndex;
+    }
+}
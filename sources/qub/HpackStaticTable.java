@@ -0,0 +1,230 @@
+package qub;
+
+/**
+ * The static table of header fields that HPACK (RFC 7541, appendix A) encoders and decoders share.
+ * The entries are numbered from 1 to {@link #Length}, and the dynamic table's entries are numbered
+ * after them.
+ */
+public class HpackStaticTable
+{
+    /**
+     * The number of entries in the static table.
+     */
+    public static final int Length = 61;
+
+    private static final String[] names = new String[]
+    {
+        ":authority",
+        ":method",
+        ":method",
+        ":path",
+        ":path",
+        ":scheme",
+        ":scheme",
+        ":status",
+        ":status",
+        ":status",
+        ":status",
+        ":status",
+        ":status",
+        ":status",
+        "accept-charset",
+        "accept-encoding",
+        "accept-language",
+        "accept-ranges",
+        "accept",
+        "access-control-allow-origin",
+        "age",
+        "allow",
+        "authorization",
+        "cache-control",
+        "content-disposition",
+        "content-encoding",
+        "content-language",
+        "content-length",
+        "content-location",
+        "content-range",
+        "content-type",
+        "cookie",
+        "date",
+        "etag",
+        "expect",
+        "expires",
+        "from",
+        "host",
+        "if-match",
+        "if-modified-since",
+        "if-none-match",
+        "if-range",
+        "if-unmodified-since",
+        "last-modified",
+        "link",
+        "location",
+        "max-forwards",
+        "proxy-authenticate",
+        "proxy-authorization",
+        "range",
+        "referer",
+        "refresh",
+        "retry-after",
+        "server",
+        "set-cookie",
+        "strict-transport-security",
+        "transfer-encoding",
+        "user-agent",
+        "vary",
+        "via",
+        "www-authenticate"
+    };
+
+    private static final String[] values = new String[]
+    {
+        "",
+        "GET",
+        "POST",
+        "/",
+        "/index.html",
+        "http",
+        "https",
+        "200",
+        "204",
+        "206",
+        "304",
+        "400",
+        "404",
+        "500",
+        "",
+        "gzip, deflate",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        "",
+        ""
+    };
+
+    /**
+     * The index of the first entry with each name.
+     */
+    private static final java.util.Map<String,Integer> nameIndexes = HpackStaticTable.createNameIndexes();
+
+    private HpackStaticTable()
+    {
+    }
+
+    private static java.util.Map<String,Integer> createNameIndexes()
+    {
+        final java.util.Map<String,Integer> result = new java.util.HashMap<>();
+        for (int i = HpackStaticTable.Length; 1 <= i; --i)
+        {
+            result.put(HpackStaticTable.names[i - 1], i);
+        }
+        return result;
+    }
+
+    /**
+     * Get the name of the entry at the provided index.
+     * @param index The index of the entry, from 1 to {@link #Length}.
+     * @return The name of the entry.
+     */
+    public static String getName(int index)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(index, 1, "index");
+        PreCondition.assertLessThanOrEqualTo(index, HpackStaticTable.Length, "index");
+
+        return HpackStaticTable.names[index - 1];
+    }
+
+    /**
+     * Get the value of the entry at the provided index. Most entries have an empty value.
+     * @param index The index of the entry, from 1 to {@link #Length}.
+     * @return The value of the entry.
+     */
+    public static String getValue(int index)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(index, 1, "index");
+        PreCondition.assertLessThanOrEqualTo(index, HpackStaticTable.Length, "index");
+
+        return HpackStaticTable.values[index - 1];
+    }
+
+    /**
+     * Get the index of the first entry with the provided lower-case name.
+     * @param name The lower-case name to look for.
+     * @return The index of the first entry with the provided name, or 0 if no entry has the
+     * provided name.
+     */
+    public static int indexOfName(String name)
+    {
+        PreCondition.assertNotNull(name, "name");
+
+        final Integer result = HpackStaticTable.nameIndexes.get(name);
+        return result == null ? 0 : result;
+    }
+
+    /**
+     * Get the index of the entry with the provided lower-case name and value.
+     * @param name The lower-case name to look for.
+     * @param value The value to look for.
+     * @return The index of the entry with the provided name and value, or 0 if no entry has both.
+     */
+    public static int indexOf(String name, String value)
+    {
+        PreCondition.assertNotNull(name, "name");
+        PreCondition.assertNotNull(value, "value");
+
+        int result = 0;
+        final int nameIndex = HpackStaticTable.indexOfName(name);
+        if (nameIndex != 0)
+        {
+            for (int i = nameIndex; i <= HpackStaticTable.Length && HpackStaticTable.names[i - 1].equals(name); ++i)
+            {
+                if (HpackStaticTable.values[i - 1].equals(value))
+                {
+                    result = i;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,460 @@
+package qub;
+
+/**
+ * The server side of a persistent HTTP/1.1 connection that was accepted by a {@link HttpServer}
+ * with pipelining enabled. Requests are read on the task that runs
+ * {@link #run(BasicMutableHttpRequest, HttpHeadReader)} and are handled one at a time, in the order
+ * that they arrived, on a second task. This lets the next pipelined request be parsed while the
+ * previous request's path action runs. Responses are written in request order, and the connection
+ * is only flushed when no parsed request is waiting to be handled, so the responses to a burst of
+ * pipelined requests are coalesced into a single socket write. Both tasks block on the connection
+ * while it is idle, so an open connection holds two of its {@link AsyncRunner}'s tasks until it is
+ * closed.
+ * <p>
+ * A request with a body, or one that asks to upgrade the connection, is read from the same stream
+ * as the requests that follow it, so nothing after it is parsed until its response has been
+ * written. A request that accepts a server-sent event stream is treated the same way, so that the
+ * reading task has stopped before the connection is handed over to the stream instead of staying
+ * blocked on a connection that the client won't send anything else on. A path action that returns
+ * a {@link ServerSentEventResponse} for a request that doesn't accept "text/event-stream" still
+ * gets the connection, but the reading task waits on it until the client closes it.
+ */
+public class Http1ServerConnection
+{
+    /**
+     * The number of parsed requests that can be waiting for their responses at once. The reading
+     * task stops parsing ahead when this many requests are waiting.
+     */
+    public static final int MaximumPipelinedRequests = 16;
+
+    private final HttpServer server;
+    private final TCPClient connection;
+    private final PooledBufferedByteReadStream readStream;
+    private final PooledBufferedByteWriteStream writeStream;
+    private final ByteBufferPool bufferPool;
+    private final AsyncRunner asyncRunner;
+    private final String localHost;
+    private final int localPort;
+
+    /**
+     * The lock that guards the requests that are waiting to be handled and the head readers that
+     * can be reused. Tasks that are waiting for either of them to change wait on this lock.
+     */
+    private final Object lock;
+    private final java.util.ArrayDeque<PendingRequest> pendingRequests;
+    private final java.util.ArrayDeque<HttpHeadReader> idleHeadReaders;
+    private boolean readingFinished;
+    private volatile boolean closed;
+    private boolean handedOff;
+
+    /**
+     * A request that has been read from the connection and is waiting for its response to be
+     * written.
+     */
+    private static class PendingRequest
+    {
+        private final BasicMutableHttpRequest request;
+        private final HttpHeadReader headReader;
+        private final int rejectedStatusCode;
+        private boolean handled;
+
+        private PendingRequest(BasicMutableHttpRequest request, HttpHeadReader headReader, int rejectedStatusCode)
+        {
+            this.request = request;
+            this.headReader = headReader;
+            this.rejectedStatusCode = rejectedStatusCode;
+        }
+    }
+
+    private Http1ServerConnection(HttpServer server, TCPClient connection, PooledBufferedByteReadStream readStream, PooledBufferedByteWriteStream writeStream, ByteBufferPool bufferPool, AsyncRunner asyncRunner, String localHost, int localPort)
+    {
+        PreCondition.assertNotNull(server, "server");
+        PreCondition.assertNotNull(connection, "connection");
+        PreCondition.assertNotNull(readStream, "readStream");
+        PreCondition.assertNotNull(writeStream, "writeStream");
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+        PreCondition.assertNotNull(asyncRunner, "asyncRunner");
+        PreCondition.assertNotNullAndNotEmpty(localHost, "localHost");
+
+        this.server = server;
+        this.connection = connection;
+        this.readStream = readStream;
+        this.writeStream = writeStream;
+        this.bufferPool = bufferPool;
+        this.asyncRunner = asyncRunner;
+        this.localHost = localHost;
+        this.localPort = localPort;
+        this.lock = new Object();
+        this.pendingRequests = new java.util.ArrayDeque<>();
+        this.idleHeadReaders = new java.util.ArrayDeque<>();
+    }
+
+    /**
+     * Create a new Http1ServerConnection that takes ownership of the provided connection and
+     * buffered streams. They are all disposed when the connection ends, unless a response takes
+     * over the connection.
+     */
+    static Http1ServerConnection create(HttpServer server, TCPClient connection, PooledBufferedByteReadStream readStream, PooledBufferedByteWriteStream writeStream, ByteBufferPool bufferPool, AsyncRunner asyncRunner, String localHost, int localPort)
+    {
+        return new Http1ServerConnection(server, connection, readStream, writeStream, bufferPool, asyncRunner, localHost, localPort);
+    }
+
+    /**
+     * Serve this connection until the client closes it, a request or a response asks for it to be
+     * closed, or a response takes it over.
+     * @param firstRequest The first request of the connection, which has already been read.
+     * @param firstHeadReader The head reader that the first request's headers were read with. The
+     *                        first request's headers refer to its bytes, so it isn't reused until
+     *                        the first request has been handled.
+     */
+    public void run(BasicMutableHttpRequest firstRequest, HttpHeadReader firstHeadReader)
+    {
+        PreCondition.assertNotNull(firstRequest, "firstRequest");
+        PreCondition.assertNotNull(firstHeadReader, "firstHeadReader");
+
+        final Result<Void> writeTask = this.asyncRunner.schedule(this::writeResponses);
+        try
+        {
+            this.readRequests(new PendingRequest(firstRequest, firstHeadReader, 0));
+        }
+        catch (RuntimeException e)
+        {
+            // The client closed the connection in the middle of a request, or the writing task
+            // closed the connection while this task was waiting for the next request.
+        }
+        finally
+        {
+            synchronized (this.lock)
+            {
+                this.readingFinished = true;
+                this.lock.notifyAll();
+            }
+            writeTask.catchError(() -> null).await();
+            this.close();
+        }
+    }
+
+    /**
+     * Read requests from the connection and queue them to be handled, starting with the provided
+     * request, until the connection shouldn't be read from anymore.
+     */
+    private void readRequests(PendingRequest firstRequest)
+    {
+        PendingRequest pendingRequest = firstRequest;
+        while (pendingRequest != null)
+        {
+            boolean readNext = this.enqueue(pendingRequest) &&
+                pendingRequest.rejectedStatusCode == 0 &&
+                Http1ServerConnection.isPersistent(pendingRequest.request);
+            if (readNext && !Http1ServerConnection.canReadPast(pendingRequest.request))
+            {
+                readNext = this.waitUntilHandled(pendingRequest);
+            }
+            pendingRequest = readNext ? this.readRequest() : null;
+        }
+    }
+
+    /**
+     * Read the next request from the connection.
+     * @return The request that was read, or null if the client closed the connection.
+     */
+    private PendingRequest readRequest()
+    {
+        HttpHeadReader headReader;
+        synchronized (this.lock)
+        {
+            headReader = this.idleHeadReaders.poll();
+        }
+        if (headReader == null)
+        {
+            headReader = HttpHeadReader.create();
+        }
+
+        PendingRequest result = null;
+        final BasicMutableHttpRequest request = BasicMutableHttpRequest.create();
+        final int readRequestStatus = this.server.readRequest(this.readStream, headReader, this.localHost, this.localPort, request);
+        if (readRequestStatus != -1)
+        {
+            // The HTTP/2 connection preface is only allowed at the start of a connection.
+            result = new PendingRequest(request, headReader, readRequestStatus == -2 ? 400 : readRequestStatus);
+        }
+        return result;
+    }
+
+    /**
+     * Add the provided request to the end of the requests that are waiting to be handled, waiting
+     * for room if too many requests are already waiting.
+     * @return Whether or not the request was added. A request isn't added if the connection has
+     * been closed.
+     */
+    private boolean enqueue(PendingRequest pendingRequest)
+    {
+        synchronized (this.lock)
+        {
+            while (!this.closed && this.pendingRequests.size() >= Http1ServerConnection.MaximumPipelinedRequests)
+            {
+                this.waitForLock();
+            }
+
+            final boolean result = !this.closed;
+            if (result)
+            {
+                this.pendingRequests.add(pendingRequest);
+                this.lock.notifyAll();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Wait until the response to the provided request has been written.
+     * @return Whether or not the connection is still open.
+     */
+    private boolean waitUntilHandled(PendingRequest pendingRequest)
+    {
+        synchronized (this.lock)
+        {
+            while (!this.closed && !pendingRequest.handled)
+            {
+                this.waitForLock();
+            }
+            return !this.closed;
+        }
+    }
+
+    /**
+     * Wait for the next request that should be handled.
+     * @return The next request that should be handled, or null if no more requests will be read.
+     */
+    private PendingRequest takeNextRequest()
+    {
+        synchronized (this.lock)
+        {
+            while (!this.closed && !this.readingFinished && this.pendingRequests.isEmpty())
+            {
+                this.waitForLock();
+            }
+            return this.closed ? null : this.pendingRequests.peek();
+        }
+    }
+
+    private void waitForLock()
+    {
+        try
+        {
+            this.lock.wait();
+        }
+        catch (InterruptedException e)
+        {
+            throw Exceptions.asRuntime(e);
+        }
+    }
+
+    /**
+     * Handle the requests that are waiting in the order that they were read, and write their
+     * responses.
+     */
+    private void writeResponses()
+    {
+        final HttpHeadWriter headWriter = HttpHeadWriter.create();
+        try
+        {
+            PendingRequest pendingRequest = this.takeNextRequest();
+            while (pendingRequest != null)
+            {
+                final BasicMutableHttpRequest request = pendingRequest.request;
+                // A request that is answered without being handled may still have a body that the
+                // client won't send, so its connection can't be reused.
+                boolean answeredEarly = true;
+                HttpResponse response;
+                if (pendingRequest.rejectedStatusCode != 0)
+                {
+                    response = this.server.createErrorResponse(request, pendingRequest.rejectedStatusCode);
+                }
+                else
+                {
+                    if (request.getBody() != null)
+                    {
+                        // The path action may wait for the client to send the body, and the client
+                        // may be waiting for the earlier responses before it does.
+                        this.writeStream.flush().await();
+                    }
+                    response = this.server.handleExpectation(request, headWriter, this.writeStream);
+                    if (response == null)
+                    {
+                        response = this.server.handleRequest(request);
+                        answeredEarly = false;
+                    }
+                }
+
+                final boolean persistent = !answeredEarly &&
+                    Http1ServerConnection.isPersistent(request) &&
+                    !HttpHeader.containsToken(response.getHeaderValue(HttpHeader.ConnectionName).catchError(NotFoundException.class).await(), "close") &&
+                    !(response instanceof ServerSentEventResponse) &&
+                    !(response instanceof WebSocketUpgradeResponse);
+                final boolean keepOpen = this.server.writeResponse(request, response, headWriter.clear(), this.writeStream, persistent) && persistent;
+                if (keepOpen && request.getBody() != null)
+                {
+                    this.skipBody(request.getBody());
+                }
+
+                boolean flush;
+                synchronized (this.lock)
+                {
+                    this.pendingRequests.poll();
+                    pendingRequest.handled = true;
+                    this.idleHeadReaders.add(pendingRequest.headReader);
+                    if (!keepOpen)
+                    {
+                        this.closed = true;
+                    }
+                    this.lock.notifyAll();
+
+                    // Responses to requests that have already been parsed are written behind this
+                    // one, and they are all flushed together.
+                    flush = !keepOpen || this.pendingRequests.isEmpty();
+                }
+                if (flush)
+                {
+                    this.writeStream.flush().await();
+                }
+
+                if (!keepOpen)
+                {
+                    this.handOff(response);
+                }
+                pendingRequest = keepOpen ? this.takeNextRequest() : null;
+            }
+        }
+        catch (RuntimeException e)
+        {
+            synchronized (this.lock)
+            {
+                this.closed = true;
+                this.lock.notifyAll();
+            }
+        }
+
+        if (!this.handedOff)
+        {
+            // The reading task may be waiting for the client to send another request.
+            this.connection.dispose().catchError(() -> false).await();
+        }
+    }
+
+    /**
+     * Give the connection to the provided response if it takes over the connection after it has
+     * been written.
+     */
+    private void handOff(HttpResponse response)
+    {
+        if (response instanceof ServerSentEventResponse)
+        {
+            this.handedOff = true;
+            ((ServerSentEventResponse)response).subscribe(this.connection);
+        }
+        else if (response instanceof WebSocketUpgradeResponse)
+        {
+            this.handedOff = true;
+            final Action1<WebSocket> sessionAction = ((WebSocketUpgradeResponse)response).getSessionAction();
+            final TCPClient connection = this.connection;
+            final ByteBufferPool bufferPool = this.bufferPool;
+            this.asyncRunner.schedule(() ->
+            {
+                try (final WebSocket webSocket = WebSocket.create(connection, connection, bufferPool, false))
+                {
+                    sessionAction.run(webSocket);
+                }
+            });
+        }
+    }
+
+    /**
+     * Read and discard whatever the path action didn't read of a request's body, so that the next
+     * request can be read from the connection.
+     */
+    private void skipBody(ByteReadStream body)
+    {
+        final byte[] buffer = this.bufferPool.lease(8 * 1024);
+        try
+        {
+            Integer bytesRead;
+            do
+            {
+                bytesRead = body.readBytes(buffer, 0, buffer.length)
+                    .catchError(EmptyException.class)
+                    .await();
+            }
+            while (bytesRead != null && bytesRead > 0);
+        }
+        finally
+        {
+            this.bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Get whether or not the provided request allows its connection to be used for another
+     * request. Only HTTP/1.1 connections are kept open.
+     */
+    private static boolean isPersistent(HttpRequest request)
+    {
+        return "HTTP/1.1".equals(request.getHttpVersion()) &&
+            !HttpHeader.containsToken(request.getHeaderValue(HttpHeader.ConnectionName).catchError(NotFoundException.class).await(), "close");
+    }
+
+    /**
+     * Get whether or not the request that follows the provided request can be read before the
+     * provided request has been handled.
+     */
+    private static boolean canReadPast(HttpRequest request)
+    {
+        return request.getBody() == null &&
+            !request.getHeaders().contains(HttpHeader.UpgradeName) &&
+            !Http1ServerConnection.acceptsEventStream(request);
+    }
+
+    /**
+     * Get whether or not the provided request accepts a server-sent event stream, which means that
+     * its response may take over the connection.
+     */
+    private static boolean acceptsEventStream(HttpRequest request)
+    {
+        boolean result = false;
+        final String accept = request.getHeaderValue(HttpHeader.AcceptName)
+            .catchError(NotFoundException.class)
+            .await();
+        if (accept != null)
+        {
+            for (final String mediaRange : accept.split(","))
+            {
+                final int parametersStartIndex = mediaRange.indexOf(';');
+                final String mediaType = (parametersStartIndex == -1 ? mediaRange : mediaRange.substring(0, parametersStartIndex)).trim();
+                if (mediaType.equalsIgnoreCase("text/event-stream"))
+                {
+                    result = true;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Release the connection's buffered streams, and close the connection unless a response took
+     * it over.
+     */
+    private void close()
+    {
+        this.writeStream.dispose()
+            .catchError(() -> false)
+            .await();
+        this.readStream.dispose()
+            .catchError(() -> false)
+            .await();
+        if (!this.handedOff)
+        {
+            this.connection.dispose().await();
+        }
+    }
+}
@@ -0,0 +1,1128 @@
+package qub;
+
+/**
+ * The client side of an HTTP/2 connection over cleartext TCP that was started with prior knowledge
+ * of the server's HTTP/2 support (RFC 9113, section 3.3). Requests that are sent from different
+ * threads are multiplexed onto the connection as concurrent streams, and one task on the provided
+ * {@link AsyncRunner} reads the frames of every stream's response. Response bodies are buffered in
+ * memory as their DATA frames arrive, so a send completes once its whole response has arrived.
+ */
+public class Http2ClientConnection implements Disposable
+{
+    private final TCPClient connection;
+    private final PooledBufferedByteReadStream readStream;
+    private final PooledBufferedByteWriteStream writeStream;
+    private final ByteBufferPool bufferPool;
+    private final AsyncRunner asyncRunner;
+    private final Http2FrameReader frameReader;
+    private final Http2FrameWriter frameWriter;
+    private final HpackDecoder headerDecoder;
+    private final HpackEncoder headerEncoder;
+
+    /**
+     * The lock that must be held while frames are written, so that the frames of different streams
+     * aren't interleaved and so that streams are opened in the order of their identifiers.
+     */
+    private final Object writeLock;
+
+    /**
+     * The lock that guards the state of the streams and the flow-control windows. Threads wait on
+     * this lock for responses, for send windows to open, and for streams to become available.
+     */
+    private final Object stateLock;
+    private final java.util.Map<Integer,Stream> streams;
+    private volatile boolean closed;
+    private volatile boolean disposed;
+    private volatile boolean goAwayReceived;
+    private volatile int nextStreamId;
+    private int reservedStreamCount;
+    private boolean disposeWhenIdle;
+    private int peerMaximumConcurrentStreams;
+    private int connectionSendWindow;
+    private int peerInitialWindowSize;
+    private volatile int peerMaximumFrameSize;
+    private int connectionReceivedBytes;
+
+    private byte[] headerBlock;
+    private int headerBlockLength;
+    private int headerBlockStreamId;
+    private boolean headerBlockEndsStream;
+
+    /**
+     * The state of a single request and its response.
+     */
+    private static class Stream
+    {
+        private final int id;
+        private final String method;
+        private final MutableHttpResponse response;
+        private InMemoryByteStream body;
+        private long bodyLength;
+        private int receivedBytes;
+        private int sendWindow;
+        private boolean responseHeadersReceived;
+        private boolean ended;
+        private volatile boolean reset;
+        private RuntimeException error;
+
+        private Stream(int id, String method, int sendWindow)
+        {
+            this.id = id;
+            this.method = method;
+            this.response = HttpResponse.create()
+                .setHttpVersion("HTTP/2.0");
+            this.sendWindow = sendWindow;
+        }
+    }
+
+    private Http2ClientConnection(TCPClient connection, ByteBufferPool bufferPool, AsyncRunner asyncRunner)
+    {
+        PreCondition.assertNotNull(connection, "connection");
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+        PreCondition.assertNotNull(asyncRunner, "asyncRunner");
+
+        this.connection = connection;
+        this.readStream = PooledBufferedByteReadStream.create(connection, bufferPool);
+        this.writeStream = PooledBufferedByteWriteStream.create(connection, bufferPool);
+        this.bufferPool = bufferPool;
+        this.asyncRunner = asyncRunner;
+        this.frameReader = Http2FrameReader.create(this.readStream, bufferPool);
+        this.frameWriter = Http2FrameWriter.create(this.writeStream);
+        this.headerDecoder = HpackDecoder.create();
+        this.headerEncoder = HpackEncoder.create();
+        this.writeLock = new Object();
+        this.stateLock = new Object();
+        this.streams = new java.util.HashMap<>();
+        this.nextStreamId = 1;
+        this.peerMaximumConcurrentStreams = Integer.MAX_VALUE;
+        this.connectionSendWindow = Http2Frame.DefaultInitialWindowSize;
+        this.peerInitialWindowSize = Http2Frame.DefaultInitialWindowSize;
+        this.peerMaximumFrameSize = Http2Frame.DefaultMaximumFrameSize;
+        this.headerBlock = new byte[1024];
+    }
+
+    /**
+     * Create a new Http2ClientConnection that takes ownership of the provided connection. The
+     * connection is disposed when this Http2ClientConnection ends.
+     */
+    static Http2ClientConnection create(TCPClient connection, ByteBufferPool bufferPool, AsyncRunner asyncRunner)
+    {
+        return new Http2ClientConnection(connection, bufferPool, asyncRunner);
+    }
+
+    /**
+     * Send the client's connection preface and start reading the server's frames.
+     */
+    void start()
+    {
+        try
+        {
+            synchronized (this.writeLock)
+            {
+                this.writeStream.writeAll(Http2Frame.clientPreface, 0, Http2Frame.clientPreface.length).await();
+                this.frameWriter.writeSettings(Http2Frame.EnablePushSetting, 0).await();
+                this.writeStream.flush().await();
+            }
+        }
+        catch (RuntimeException e)
+        {
+            this.close(e);
+            throw e;
+        }
+
+        this.asyncRunner.schedule(this::run);
+    }
+
+    /**
+     * Get whether or not new requests can be sent on this connection. A connection stops taking new
+     * requests once it is closed or once the server has said that it is going away.
+     * @return Whether or not new requests can be sent on this connection.
+     */
+    public boolean isAvailable()
+    {
+        return !this.closed && !this.disposed && !this.goAwayReceived && 0 < this.nextStreamId;
+    }
+
+    /**
+     * Send the provided request on a new stream of this connection and wait for its response. If
+     * the server has limited the number of concurrent streams, then this waits for one of the other
+     * streams to end before the request is sent.
+     * @param request The request to send.
+     * @return The response to the provided request.
+     */
+    public Result<HttpResponse> send(HttpRequest request)
+    {
+        PreCondition.assertNotNull(request, "request");
+        PreCondition.assertNotNullAndNotEmpty(request.getMethod(), "request.getMethod()");
+        PreCondition.assertNotNull(request.getURL(), "request.getURL()");
+
+        return Result.create(() ->
+        {
+            final ByteReadStream requestBody = request.getBody();
+
+            this.reserveStream();
+            Stream stream = null;
+            try
+            {
+                stream = this.openStream(request, requestBody == null);
+                if (requestBody != null)
+                {
+                    this.writeRequestBody(stream, requestBody, request.getContentLengthValue());
+                }
+
+                synchronized (this.stateLock)
+                {
+                    while (!stream.ended && stream.error == null)
+                    {
+                        try
+                        {
+                            this.stateLock.wait();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            throw Exceptions.asRuntime(e);
+                        }
+                    }
+                }
+                if (stream.error != null)
+                {
+                    throw stream.error;
+                }
+            }
+            finally
+            {
+                this.releaseStream(stream);
+            }
+
+            final HttpResponse result = stream.response;
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Wait until the server's limit on concurrent streams allows another stream to be opened, and
+     * then reserve a place for it.
+     */
+    private void reserveStream()
+    {
+        synchronized (this.stateLock)
+        {
+            while (this.isAvailable() && this.reservedStreamCount >= this.peerMaximumConcurrentStreams)
+            {
+                try
+                {
+                    this.stateLock.wait();
+                }
+                catch (InterruptedException e)
+                {
+                    throw Exceptions.asRuntime(e);
+                }
+            }
+            this.assertAvailable();
+            ++this.reservedStreamCount;
+        }
+    }
+
+    private void assertAvailable()
+    {
+        if (!this.isAvailable())
+        {
+            throw new Http2ProtocolException(Http2Frame.RefusedStreamError, "The HTTP/2 connection can't open any more streams.");
+        }
+    }
+
+    /**
+     * Stop tracking the provided stream and give up its reserved place. A stream that is released
+     * before its response ends is cancelled.
+     */
+    private void releaseStream(Stream stream)
+    {
+        boolean cancel = false;
+        final boolean dispose;
+        synchronized (this.stateLock)
+        {
+            --this.reservedStreamCount;
+            if (stream != null)
+            {
+                this.streams.remove(stream.id);
+                cancel = !stream.ended && !stream.reset;
+            }
+            dispose = this.disposeWhenIdle && this.reservedStreamCount == 0;
+            this.stateLock.notifyAll();
+        }
+        if (cancel)
+        {
+            this.writeRstStream(stream.id, Http2Frame.CancelError);
+        }
+        if (dispose)
+        {
+            this.dispose().await();
+        }
+    }
+
+    /**
+     * Dispose this connection once the streams that are still open on it have ended. This is used
+     * for a connection that can't take new requests, so no new streams will be opened on it.
+     */
+    void disposeWhenIdle()
+    {
+        final boolean dispose;
+        synchronized (this.stateLock)
+        {
+            this.disposeWhenIdle = true;
+            dispose = this.reservedStreamCount == 0;
+        }
+        if (dispose)
+        {
+            this.dispose().await();
+        }
+    }
+
+    /**
+     * Open a new stream by writing the provided request's header block.
+     */
+    private Stream openStream(HttpRequest request, boolean endStream)
+    {
+        final String method = request.getMethod();
+        final URL url = request.getURL();
+
+        String path = request.getPath();
+        if (Strings.isNullOrEmpty(path))
+        {
+            path = "/";
+        }
+        else if (!path.startsWith("/"))
+        {
+            path = "/" + path;
+        }
+        final String query = request.getQuery();
+        if (!Strings.isNullOrEmpty(query))
+        {
+            path += "?" + query;
+        }
+
+        final HttpHeaders headers = request.getHeaders();
+        String authority = headers.getValue(HttpHeader.HostName)
+            .catchError(NotFoundException.class)
+            .await();
+        if (authority == null)
+        {
+            authority = url.getHost().await();
+            final Integer port = url.getPort()
+                .catchError(NotFoundException.class)
+                .await();
+            if (port != null)
+            {
+                authority += ":" + port;
+            }
+        }
+
+        Stream result;
+        synchronized (this.writeLock)
+        {
+            this.assertAvailable();
+
+            synchronized (this.stateLock)
+            {
+                result = new Stream(this.nextStreamId, method, this.peerInitialWindowSize);
+                this.streams.put(result.id, result);
+            }
+            // Stream identifiers can't be reused, so a connection that runs out of them can't
+            // open any more streams.
+            this.nextStreamId += 2;
+
+            try
+            {
+                this.headerEncoder.clear()
+                    .writeHeader(":method", method)
+                    .writeHeader(":scheme", "http")
+                    .writeHeader(":authority", authority)
+                    .writeHeader(":path", path);
+                for (final HttpHeader header : headers)
+                {
+                    final String headerName = header.getName().toLowerCase();
+                    if (!Http2Frame.isConnectionSpecificHeaderName(headerName) && !headerName.equals("host") && !headerName.equals("te"))
+                    {
+                        this.headerEncoder.writeHeader(headerName, header.getValue());
+                    }
+                }
+                this.headerEncoder.writeTo(this.frameWriter, result.id, endStream, this.peerMaximumFrameSize).await();
+                this.writeStream.flush().await();
+            }
+            catch (RuntimeException e)
+            {
+                synchronized (this.stateLock)
+                {
+                    this.streams.remove(result.id);
+                }
+                throw e;
+            }
+        }
+        return result;
+    }
+
+    private void writeRequestBody(Stream stream, ByteReadStream body, long contentLength)
+    {
+        final byte[] buffer = this.bufferPool.lease(Http2Frame.DefaultMaximumFrameSize);
+        try
+        {
+            long bytesSent = 0;
+            boolean endStreamSent = false;
+            boolean aborted = false;
+            while (!endStreamSent && !aborted)
+            {
+                final Integer bytesRead = body.readBytes(buffer, 0, Http2Frame.DefaultMaximumFrameSize)
+                    .catchError(EmptyException.class)
+                    .await();
+                if (bytesRead == null || bytesRead <= 0)
+                {
+                    synchronized (this.writeLock)
+                    {
+                        aborted = this.closed || stream.reset;
+                        if (!aborted)
+                        {
+                            this.frameWriter.writeFrame(Http2Frame.DataType, Http2Frame.EndStreamFlag, stream.id, buffer, 0, 0).await();
+                            this.writeStream.flush().await();
+                        }
+                    }
+                    endStreamSent = true;
+                }
+                else
+                {
+                    int bufferIndex = 0;
+                    while (bufferIndex < bytesRead && !aborted)
+                    {
+                        final int windowLength = this.acquireSendWindow(stream, bytesRead - bufferIndex);
+                        aborted = (windowLength == 0);
+                        if (!aborted)
+                        {
+                            final boolean endsStream = bytesSent + windowLength == contentLength;
+                            synchronized (this.writeLock)
+                            {
+                                aborted = this.closed || stream.reset;
+                                if (!aborted)
+                                {
+                                    this.frameWriter.writeFrame(Http2Frame.DataType, endsStream ? Http2Frame.EndStreamFlag : 0, stream.id, buffer, bufferIndex, windowLength).await();
+                                    this.writeStream.flush().await();
+                                }
+                            }
+                            bufferIndex += windowLength;
+                            bytesSent += windowLength;
+                            endStreamSent = endsStream;
+                        }
+                    }
+                }
+            }
+        }
+        finally
+        {
+            this.bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Wait until both the connection's and the provided stream's flow-control windows are open,
+     * and then take up to the provided number of bytes from them.
+     * @return The number of bytes that were taken from the windows, or 0 if the stream was reset or
+     * the connection was closed while waiting.
+     */
+    private int acquireSendWindow(Stream stream, int length)
+    {
+        int result = 0;
+        synchronized (this.stateLock)
+        {
+            while (result == 0 && !this.closed && !stream.reset)
+            {
+                final int window = Math.minimum(this.connectionSendWindow, stream.sendWindow);
+                if (0 < window)
+                {
+                    result = Math.minimum(window, length);
+                    this.connectionSendWindow -= result;
+                    stream.sendWindow -= result;
+                }
+                else
+                {
+                    try
+                    {
+                        this.stateLock.wait();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        throw Exceptions.asRuntime(e);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read the server's frames until the connection ends.
+     */
+    private void run()
+    {
+        RuntimeException closeError = null;
+        try
+        {
+            this.readFrames();
+        }
+        catch (Http2ProtocolException e)
+        {
+            closeError = e;
+            this.writeGoAway(e.getErrorCode());
+        }
+        catch (ParseException e)
+        {
+            closeError = e;
+            this.writeGoAway(Http2Frame.ProtocolError);
+        }
+        catch (RuntimeException e)
+        {
+            closeError = e;
+        }
+        finally
+        {
+            this.close(closeError);
+        }
+    }
+
+    private void readFrames()
+    {
+        final Http2Frame frame = Http2Frame.create();
+        boolean settingsReceived = false;
+        while (this.frameReader.readFrame(frame).await())
+        {
+            final int type = frame.getType();
+            if (!settingsReceived && (type != Http2Frame.SettingsType || frame.hasFlag(Http2Frame.AckFlag)))
+            {
+                throw new Http2ProtocolException(Http2Frame.ProtocolError, "The server's connection preface didn't start with a SETTINGS frame.");
+            }
+            settingsReceived = true;
+
+            if (this.headerBlockStreamId != 0 && type != Http2Frame.ContinuationType)
+            {
+                throw new Http2ProtocolException(Http2Frame.ProtocolError, "A header block was interrupted by another frame.");
+            }
+
+            try
+            {
+                switch (type)
+                {
+                    case Http2Frame.DataType:
+                        this.readData(frame);
+                        break;
+
+                    case Http2Frame.HeadersType:
+                        this.readHeaders(frame);
+                        break;
+
+                    case Http2Frame.RstStreamType:
+                        this.readRstStream(frame);
+                        break;
+
+                    case Http2Frame.SettingsType:
+                        this.readSettings(frame);
+                        break;
+
+                    case Http2Frame.PushPromiseType:
+                        throw new Http2ProtocolException(Http2Frame.ProtocolError, "A server sent a PUSH_PROMISE frame after push was disabled.");
+
+                    case Http2Frame.PingType:
+                        this.readPing(frame);
+                        break;
+
+                    case Http2Frame.GoAwayType:
+                        this.readGoAway(frame);
+                        break;
+
+                    case Http2Frame.WindowUpdateType:
+                        this.readWindowUpdate(frame);
+                        break;
+
+                    case Http2Frame.ContinuationType:
+                        this.readContinuation(frame);
+                        break;
+
+                    default:
+                        // PRIORITY frames and frames of unknown types are ignored.
+                        break;
+                }
+            }
+            catch (Http2ProtocolException e)
+            {
+                if (e.isConnectionError())
+                {
+                    throw e;
+                }
+                this.failStream(e.getStreamId(), e);
+                this.writeRstStream(e.getStreamId(), e.getErrorCode());
+            }
+        }
+    }
+
+    private void assertConnectionFrame(Http2Frame frame)
+    {
+        if (frame.getStreamId() != 0)
+        {
+            throw new Http2ProtocolException(Http2Frame.ProtocolError, "A frame that applies to the whole connection used the stream identifier " + frame.getStreamId() + ".");
+        }
+    }
+
+    private void assertStreamFrame(Http2Frame frame)
+    {
+        if (frame.getStreamId() == 0)
+        {
+            throw new Http2ProtocolException(Http2Frame.ProtocolError, "A frame that applies to a stream used the stream identifier 0.");
+        }
+        if (frame.getStreamId() % 2 == 0 || frame.getStreamId() >= this.nextStreamId)
+        {
+            throw new Http2ProtocolException(Http2Frame.ProtocolError, "A frame was sent on the stream " + frame.getStreamId() + ", which this client didn't open.");
+        }
+    }
+
+    private void readSettings(Http2Frame frame)
+    {
+        this.assertConnectionFrame(frame);
+
+        final int payloadLength = frame.getPayloadLength();
+        if (frame.hasFlag(Http2Frame.AckFlag))
+        {
+            if (payloadLength != 0)
+            {
+                throw new Http2ProtocolException(Http2Frame.FrameSizeError, "A SETTINGS frame that acknowledged settings had a payload.");
+            }
+        }
+        else
+        {
+            if (payloadLength % 6 != 0)
+            {
+                throw new Http2ProtocolException(Http2Frame.FrameSizeError, "A SETTINGS frame's payload length wasn't a multiple of 6.");
+            }
+
+            final byte[] payload = frame.getPayload();
+            for (int i = 0; i < payloadLength; i += 6)
+            {
+                final int identifier = ((payload[i] & 0xFF) << 8) | (payload[i + 1] & 0xFF);
+                final long value = frame.readInt(i + 2) & 0xFFFFFFFFL;
+                switch (identifier)
+                {
+                    case Http2Frame.EnablePushSetting:
+                        if (value != 0)
+                        {
+                            throw new Http2ProtocolException(Http2Frame.ProtocolError, "A server's SETTINGS_ENABLE_PUSH setting wasn't 0.");
+                        }
+                        break;
+
+                    case Http2Frame.MaximumConcurrentStreamsSetting:
+                        synchronized (this.stateLock)
+                        {
+                            this.peerMaximumConcurrentStreams = (int)Math.minimum(value, Integer.MAX_VALUE);
+                            this.stateLock.notifyAll();
+                        }
+                        break;
+
+                    case Http2Frame.InitialWindowSizeSetting:
+                        if (value > Http2Frame.LargestWindowSize)
+                        {
+                            throw new Http2ProtocolException(Http2Frame.FlowControlError, "The SETTINGS_INITIAL_WINDOW_SIZE setting was larger than " + Http2Frame.LargestWindowSize + ".");
+                        }
+                        synchronized (this.stateLock)
+                        {
+                            final int delta = (int)value - this.peerInitialWindowSize;
+                            this.peerInitialWindowSize = (int)value;
+                            for (final Stream stream : this.streams.values())
+                            {
+                                if ((long)stream.sendWindow + delta > Http2Frame.LargestWindowSize)
+                                {
+                                    throw new Http2ProtocolException(Http2Frame.FlowControlError, "The SETTINGS_INITIAL_WINDOW_SIZE setting made a stream's window larger than " + Http2Frame.LargestWindowSize + ".");
+                                }
+                                stream.sendWindow += delta;
+                            }
+                            this.stateLock.notifyAll();
+                        }
+                        break;
+
+                    case Http2Frame.MaximumFrameSizeSetting:
+                        if (value < Http2Frame.DefaultMaximumFrameSize || Http2Frame.LargestMaximumFrameSize < value)
+                        {
+                            throw new Http2ProtocolException(Http2Frame.ProtocolError, "The SETTINGS_MAX_FRAME_SIZE setting was outside of the allowed range.");
+                        }
+                        this.peerMaximumFrameSize = (int)value;
+                        break;
+
+                    case Http2Frame.HeaderTableSizeSetting:
+                        // The peer may allow a larger dynamic table, but this client's encoder
+                        // never grows its table past the default size.
+                        synchronized (this.writeLock)
+                        {
+                            this.headerEncoder.setMaximumTableSize((int)Math.minimum(value, HpackDecoder.DefaultMaximumTableSize));
+                        }
+                        break;
+
+                    default:
+                        // Unknown settings must be ignored.
+                        break;
+                }
+            }
+
+            synchronized (this.writeLock)
+            {
+                if (!this.closed)
+                {
+                    this.frameWriter.writeSettingsAck().await();
+                    this.writeStream.flush().await();
+                }
+            }
+        }
+    }
+
+    private void readPing(Http2Frame frame)
+    {
+        this.assertConnectionFrame(frame);
+        if (frame.getPayloadLength() != 8)
+        {
+            throw new Http2ProtocolException(Http2Frame.FrameSizeError, "A PING frame's payload wasn't 8 bytes long.");
+        }
+
+        if (!frame.hasFlag(Http2Frame.AckFlag))
+        {
+            synchronized (this.writeLock)
+            {
+                if (!this.closed)
+                {
+                    this.frameWriter.writePing(true, frame.getPayload(), 0).await();
+                    this.writeStream.flush().await();
+                }
+            }
+        }
+    }
+
+    private void readGoAway(Http2Frame frame)
+    {
+        this.assertConnectionFrame(frame);
+        if (frame.getPayloadLength() < 8)
+        {
+            throw new Http2ProtocolException(Http2Frame.FrameSizeError, "A GOAWAY frame's payload was shorter than 8 bytes.");
+        }
+
+        final int lastStreamId = frame.readInt(0) & 0x7FFFFFFF;
+        this.goAwayReceived = true;
+        synchronized (this.stateLock)
+        {
+            // Streams after the last stream that the server processed can safely be sent again on
+            // a new connection.
+            for (final Stream stream : this.streams.values())
+            {
+                if (stream.id > lastStreamId && !stream.ended && stream.error == null)
+                {
+                    stream.reset = true;
+                    stream.error = new Http2ProtocolException(Http2Frame.RefusedStreamError, stream.id, "The server shut down the connection before it processed stream " + stream.id + ".");
+                }
+            }
+            this.stateLock.notifyAll();
+        }
+    }
+
+    private void readRstStream(Http2Frame frame)
+    {
+        this.assertStreamFrame(frame);
+        if (frame.getPayloadLength() != 4)
+        {
+            throw new Http2ProtocolException(Http2Frame.FrameSizeError, "A RST_STREAM frame's payload wasn't 4 bytes long.");
+        }
+
+        final int streamId = frame.getStreamId();
+        final int errorCode = frame.readInt(0);
+        synchronized (this.stateLock)
+        {
+            final Stream stream = this.streams.get(streamId);
+            if (stream != null)
+            {
+                stream.reset = true;
+                // A server can reset a stream with NO_ERROR after it has sent the whole response to
+                // say that it doesn't need the rest of the request's body.
+                if (!stream.ended && stream.error == null)
+                {
+                    stream.error = new Http2ProtocolException(errorCode, streamId, "The server reset stream " + streamId + " with the error code " + errorCode + ".");
+                }
+                this.stateLock.notifyAll();
+            }
+        }
+    }
+
+    private void readWindowUpdate(Http2Frame frame)
+    {
+        final int streamId = frame.getStreamId();
+        if (frame.getPayloadLength() != 4)
+        {
+            throw new Http2ProtocolException(Http2Frame.FrameSizeError, "A WINDOW_UPDATE frame's payload wasn't 4 bytes long.");
+        }
+        final int increment = frame.readInt(0) & 0x7FFFFFFF;
+        if (increment == 0)
+        {
+            throw new Http2ProtocolException(Http2Frame.ProtocolError, streamId, "A WINDOW_UPDATE frame had an increment of 0.");
+        }
+
+        synchronized (this.stateLock)
+        {
+            if (streamId == 0)
+            {
+                if ((long)this.connectionSendWindow + increment > Http2Frame.LargestWindowSize)
+                {
+                    throw new Http2ProtocolException(Http2Frame.FlowControlError, "A WINDOW_UPDATE frame made the connection's window larger than " + Http2Frame.LargestWindowSize + ".");
+                }
+                this.connectionSendWindow += increment;
+            }
+            else
+            {
+                final Stream stream = this.streams.get(streamId);
+                if (stream != null)
+                {
+                    if ((long)stream.sendWindow + increment > Http2Frame.LargestWindowSize)
+                    {
+                        throw new Http2ProtocolException(Http2Frame.FlowControlError, streamId, "A WINDOW_UPDATE frame made a stream's window larger than " + Http2Frame.LargestWindowSize + ".");
+                    }
+                    stream.sendWindow += increment;
+                }
+            }
+            this.stateLock.notifyAll();
+        }
+    }
+
+    private void readHeaders(Http2Frame frame)
+    {
+        this.assertStreamFrame(frame);
+
+        int fragmentStartIndex = frame.hasFlag(Http2Frame.PaddedFlag) ? 1 : 0;
+        if (frame.hasFlag(Http2Frame.PriorityFlag))
+        {
+            fragmentStartIndex += 5;
+        }
+        final int fragmentEndIndex = frame.getPaddedPayloadEndIndex(fragmentStartIndex);
+
+        this.headerBlockLength = 0;
+        this.headerBlockStreamId = frame.getStreamId();
+        this.headerBlockEndsStream = frame.hasFlag(Http2Frame.EndStreamFlag);
+        this.appendHeaderBlockFragment(frame, fragmentStartIndex, fragmentEndIndex);
+    }
+
+    private void readContinuation(Http2Frame frame)
+    {
+        if (this.headerBlockStreamId == 0 || this.headerBlockStreamId != frame.getStreamId())
+        {
+            throw new Http2ProtocolException(Http2Frame.ProtocolError, "A CONTINUATION frame didn't continue a header block.");
+        }
+        this.appendHeaderBlockFragment(frame, 0, frame.getPayloadLength());
+    }
+
+    private void appendHeaderBlockFragment(Http2Frame frame, int startIndex, int endIndex)
+    {
+        final int fragmentLength = endIndex - startIndex;
+        if (this.headerBlock.length < this.headerBlockLength + fragmentLength)
+        {
+            this.headerBlock = java.util.Arrays.copyOf(this.headerBlock, Math.maximum(this.headerBlockLength + fragmentLength, this.headerBlock.length * 2));
+        }
+        System.arraycopy(frame.getPayload(), startIndex, this.headerBlock, this.headerBlockLength, fragmentLength);
+        this.headerBlockLength += fragmentLength;
+
+        if (frame.hasFlag(Http2Frame.EndHeadersFlag))
+        {
+            final int streamId = this.headerBlockStreamId;
+            this.headerBlockStreamId = 0;
+            this.readHeaderBlock(streamId, this.headerBlockEndsStream);
+        }
+    }
+
+    private void readHeaderBlock(int streamId, boolean endsStream)
+    {
+        // Every header block must be decoded, even for streams that have been cancelled, to keep
+        // the decoder's dynamic table in sync with the server's.
+        final MutableHttpHeaders headers = HttpHeaders.create();
+        final String[] status = new String[1];
+        final boolean[] malformed = new boolean[1];
+        this.headerDecoder.decode(this.headerBlock, 0, this.headerBlockLength, (String name, String value) ->
+        {
+            if (!name.startsWith(":"))
+            {
+                headers.add(name, value);
+            }
+            else if (name.equals(":status") && status[0] == null && headers.getCount() == 0)
+            {
+                status[0] = value;
+            }
+            else
+            {
+                malformed[0] = true;
+            }
+        }).await();
+
+        Stream stream;
+        synchronized (this.stateLock)
+        {
+            stream = this.streams.get(streamId);
+        }
+        if (stream != null && !stream.reset)
+        {
+            if (stream.responseHeadersReceived)
+            {
+                // A header block after the response's header section is its trailer section.
+                // Trailers aren't exposed by HttpResponse, so they are dropped.
+                if (!endsStream)
+                {
+                    throw new Http2ProtocolException(Http2Frame.ProtocolError, streamId, "A response's trailer section didn't end its stream.");
+                }
+            }
+            else
+            {
+                final int statusCode = status[0] == null || status[0].length() != 3
+                    ? -1
+                    : Integers.parse(status[0]).catchError(() -> -1).await();
+                if (malformed[0] || statusCode < 100)
+                {
+                    throw new Http2ProtocolException(Http2Frame.ProtocolError, streamId, "A response didn't start with a valid :status pseudo-header field.");
+                }
+
+                // Interim (1xx) responses are skipped.
+                if (200 <= statusCode)
+                {
+                    final MutableHttpResponse response = stream.response;
+                    response.setStatusCode(statusCode)
+                        .setReasonPhrase(HttpServer.getReasonPhrase(statusCode));
+                    for (final HttpHeader header : headers)
+                    {
+                        response.addHeader(header.getName(), header.getValue());
+                    }
+                    stream.responseHeadersReceived = true;
+                }
+                else if (endsStream)
+                {
+                    throw new Http2ProtocolException(Http2Frame.ProtocolError, streamId, "An interim response ended its stream.");
+                }
+            }
+
+            if (endsStream)
+            {
+                this.endResponse(stream);
+            }
+        }
+    }
+
+    private void readData(Http2Frame frame)
+    {
+        this.assertStreamFrame(frame);
+
+        final int streamId = frame.getStreamId();
+        final int payloadLength = frame.getPayloadLength();
+
+        // The whole payload, including any padding, counts against the flow-control windows. The
+        // connection's window is grown again once half of it has been received.
+        this.connectionReceivedBytes += payloadLength;
+        if (this.connectionReceivedBytes > Http2Frame.DefaultInitialWindowSize)
+        {
+            throw new Http2ProtocolException(Http2Frame.FlowControlError, "A server sent more data than the connection's flow-control window allowed.");
+        }
+        if (this.connectionReceivedBytes >= Http2Frame.DefaultInitialWindowSize / 2)
+        {
+            synchronized (this.writeLock)
+            {
+                if (!this.closed)
+                {
+                    this.frameWriter.writeWindowUpdate(0, this.connectionReceivedBytes).await();
+                    this.writeStream.flush().await();
+                }
+            }
+            this.connectionReceivedBytes = 0;
+        }
+
+        Stream stream;
+        synchronized (this.stateLock)
+        {
+            stream = this.streams.get(streamId);
+        }
+        // DATA frames for streams that have been cancelled are dropped. The server may have sent
+        // them before it learned that the stream had ended.
+        if (stream != null && !stream.reset)
+        {
+            if (!stream.responseHeadersReceived)
+            {
+                throw new Http2ProtocolException(Http2Frame.ProtocolError, streamId, "A DATA frame was sent before the response's header section.");
+            }
+
+            stream.receivedBytes += payloadLength;
+            if (stream.receivedBytes > Http2Frame.DefaultInitialWindowSize)
+            {
+                throw new Http2ProtocolException(Http2Frame.FlowControlError, streamId, "A server sent more data than the stream's flow-control window allowed.");
+            }
+
+            final int dataStartIndex = frame.hasFlag(Http2Frame.PaddedFlag) ? 1 : 0;
+            final int dataEndIndex = frame.getPaddedPayloadEndIndex(dataStartIndex);
+            final int dataLength = dataEndIndex - dataStartIndex;
+            if (0 < dataLength)
+            {
+                if (stream.body == null)
+                {
+                    stream.body = InMemoryByteStream.create();
+                }
+                stream.body.writeAll(frame.getPayload(), dataStartIndex, dataLength).await();
+                stream.bodyLength += dataLength;
+            }
+
+            if (frame.hasFlag(Http2Frame.EndStreamFlag))
+            {
+                this.endResponse(stream);
+            }
+            else if (stream.receivedBytes >= Http2Frame.DefaultInitialWindowSize / 2)
+            {
+                synchronized (this.writeLock)
+                {
+                    if (!this.closed)
+                    {
+                        this.frameWriter.writeWindowUpdate(streamId, stream.receivedBytes).await();
+                        this.writeStream.flush().await();
+                    }
+                }
+                stream.receivedBytes = 0;
+            }
+        }
+    }
+
+    /**
+     * Finish the provided stream's response and wake up the thread that is waiting for it.
+     */
+    private void endResponse(Stream stream)
+    {
+        final MutableHttpResponse response = stream.response;
+        if (!stream.responseHeadersReceived)
+        {
+            throw new Http2ProtocolException(Http2Frame.ProtocolError, stream.id, "A stream ended before its response's header section.");
+        }
+
+        final long contentLength = response.getContentLengthValue();
+        if (contentLength >= 0 && contentLength != stream.bodyLength && !HttpMethod.HEAD.name().equals(stream.method) && response.getStatusCode() != 304)
+        {
+            throw new Http2ProtocolException(Http2Frame.ProtocolError, stream.id, "A response's body length didn't match its content-length header.");
+        }
+        if (stream.body != null)
+        {
+            response.setBody(stream.body.endOfStream());
+            stream.body = null;
+        }
+
+        synchronized (this.stateLock)
+        {
+            stream.ended = true;
+            this.stateLock.notifyAll();
+        }
+    }
+
+    /**
+     * Fail the stream with the provided identifier with the provided error.
+     */
+    private void failStream(int streamId, RuntimeException error)
+    {
+        synchronized (this.stateLock)
+        {
+            final Stream stream = this.streams.get(streamId);
+            if (stream != null)
+            {
+                stream.reset = true;
+                if (!stream.ended && stream.error == null)
+                {
+                    stream.error = error;
+                }
+                this.stateLock.notifyAll();
+            }
+        }
+    }
+
+    private void writeRstStream(int streamId, int errorCode)
+    {
+        synchronized (this.writeLock)
+        {
+            if (!this.closed)
+            {
+                this.frameWriter.writeRstStream(streamId, errorCode).await();
+                this.writeStream.flush().await();
+            }
+        }
+    }
+
+    private void writeGoAway(int errorCode)
+    {
+        synchronized (this.writeLock)
+        {
+            if (!this.closed)
+            {
+                try
+                {
+                    this.frameWriter.writeGoAway(0, errorCode).await();
+                    this.writeStream.flush().await();
+                }
+                catch (RuntimeException e)
+                {
+                    // The connection is being closed anyway, so a server that can't be told why
+                    // doesn't need to be.
+                }
+            }
+        }
+    }
+
+    /**
+     * Close this connection and fail every stream that hasn't received its whole response.
+     * @param error The error that ended the connection, or null if the server closed it.
+     */
+    private void close(RuntimeException error)
+    {
+        synchronized (this.writeLock)
+        {
+            this.closed = true;
+            this.writeStream.dispose()
+                .catchError(() -> false)
+                .await();
+        }
+        synchronized (this.stateLock)
+        {
+            for (final Stream stream : this.streams.values())
+            {
+                if (!stream.ended && stream.error == null)
+                {
+                    stream.error = error != null
+                        ? error
+                        : new Http2ProtocolException(Http2Frame.CancelError, stream.id, "The HTTP/2 connection closed before stream " + stream.id + " received its response.");
+                }
+            }
+            this.stateLock.notifyAll();
+        }
+        this.frameReader.dispose().await();
+        this.readStream.dispose().await();
+        this.connection.dispose().await();
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    /**
+     * Dispose this connection. Requests that are still waiting for their responses will fail once
+     * the task that reads the server's frames sees that the connection has closed.
+     */
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                this.connection.dispose().await();
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,338 @@
+package qub;
+
+/**
+ * A single HTTP/2 frame (RFC 9113, section 4.1) that has been read by a {@link Http2FrameReader}.
+ * A frame is reused for each frame that is read, and its payload is backed by the reader's buffer,
+ * so it is only valid until the reader reads the next frame.
+ */
+public class Http2Frame
+{
+    /**
+     * The bytes that a client sends at the start of every HTTP/2 connection.
+     */
+    static final byte[] clientPreface = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+
+    /**
+     * The number of bytes in a frame header.
+     */
+    public static final int HeaderLength = 9;
+
+    /**
+     * The maximum payload length that every HTTP/2 endpoint must accept.
+     */
+    public static final int DefaultMaximumFrameSize = 16384;
+
+    /**
+     * The largest maximum payload length that an endpoint can advertise.
+     */
+    public static final int LargestMaximumFrameSize = 16777215;
+
+    /**
+     * The size of the connection's and each stream's flow-control window when a connection starts.
+     */
+    public static final int DefaultInitialWindowSize = 65535;
+
+    /**
+     * The largest size that a flow-control window can have.
+     */
+    public static final int LargestWindowSize = Integer.MAX_VALUE;
+
+    /**
+     * The type of a frame that carries part of a request's or a response's body.
+     */
+    public static final int DataType = 0x0;
+
+    /**
+     * The type of a frame that opens a stream and carries the start of a header block.
+     */
+    public static final int HeadersType = 0x1;
+
+    /**
+     * The type of a frame that carries a stream's priority.
+     */
+    public static final int PriorityType = 0x2;
+
+    /**
+     * The type of a frame that ends a stream immediately.
+     */
+    public static final int RstStreamType = 0x3;
+
+    /**
+     * The type of a frame that carries the sender's configuration.
+     */
+    public static final int SettingsType = 0x4;
+
+    /**
+     * The type of a frame that announces a server push.
+     */
+    public static final int PushPromiseType = 0x5;
+
+    /**
+     * The type of a frame that measures a round trip or checks that the connection still works.
+     */
+    public static final int PingType = 0x6;
+
+    /**
+     * The type of a frame that starts the shutdown of a connection.
+     */
+    public static final int GoAwayType = 0x7;
+
+    /**
+     * The type of a frame that grows a flow-control window.
+     */
+    public static final int WindowUpdateType = 0x8;
+
+    /**
+     * The type of a frame that continues a header block.
+     */
+    public static final int ContinuationType = 0x9;
+
+    /**
+     * The flag of a DATA or HEADERS frame that is the last frame its sender will send on the
+     * stream.
+     */
+    public static final int EndStreamFlag = 0x1;
+
+    /**
+     * The flag of a SETTINGS or PING frame that acknowledges the peer's frame.
+     */
+    public static final int AckFlag = 0x1;
+
+    /**
+     * The flag of a HEADERS or CONTINUATION frame that ends its header block.
+     */
+    public static final int EndHeadersFlag = 0x4;
+
+    /**
+     * The flag of a DATA or HEADERS frame whose payload is padded.
+     */
+    public static final int PaddedFlag = 0x8;
+
+    /**
+     * The flag of a HEADERS frame that carries the stream's priority.
+     */
+    public static final int PriorityFlag = 0x20;
+
+    /**
+     * The setting that limits the size of the sender's HPACK decoding table.
+     */
+    public static final int HeaderTableSizeSetting = 0x1;
+
+    /**
+     * The setting that tells a server whether or not it can push responses.
+     */
+    public static final int EnablePushSetting = 0x2;
+
+    /**
+     * The setting that limits the number of streams that the sender will allow to be open at once.
+     */
+    public static final int MaximumConcurrentStreamsSetting = 0x3;
+
+    /**
+     * The setting that sets the size of each stream's initial flow-control window.
+     */
+    public static final int InitialWindowSizeSetting = 0x4;
+
+    /**
+     * The setting that limits the payload length of the frames that the sender will accept.
+     */
+    public static final int MaximumFrameSizeSetting = 0x5;
+
+    /**
+     * The setting that advises the peer of the largest header list that the sender will accept.
+     */
+    public static final int MaximumHeaderListSizeSetting = 0x6;
+
+    /**
+     * The error code that is used when a connection or a stream is closed without an error.
+     */
+    public static final int NoError = 0x0;
+
+    /**
+     * The error code that is used when the peer broke the protocol.
+     */
+    public static final int ProtocolError = 0x1;
+
+    /**
+     * The error code that is used when the sender ran into an unexpected internal error.
+     */
+    public static final int InternalError = 0x2;
+
+    /**
+     * The error code that is used when the peer broke the flow-control rules.
+     */
+    public static final int FlowControlError = 0x3;
+
+    /**
+     * The error code that is used when the peer sent a frame on a stream that was already closed.
+     */
+    public static final int StreamClosedError = 0x5;
+
+    /**
+     * The error code that is used when the peer sent a frame with an invalid length.
+     */
+    public static final int FrameSizeError = 0x6;
+
+    /**
+     * The error code that is used when a stream was refused before any of it was processed.
+     */
+    public static final int RefusedStreamError = 0x7;
+
+    /**
+     * The error code that is used when a stream is no longer needed.
+     */
+    public static final int CancelError = 0x8;
+
+    /**
+     * The error code that is used when the HPACK state of the connection can't be kept.
+     */
+    public static final int CompressionError = 0x9;
+
+    /**
+     * The error code that is used when the peer is using too many resources.
+     */
+    public static final int EnhanceYourCalmError = 0xb;
+
+    private static final byte[] emptyPayload = new byte[0];
+
+    private int type;
+    private int flags;
+    private int streamId;
+    private byte[] payload;
+    private int payloadLength;
+
+    private Http2Frame()
+    {
+        this.payload = Http2Frame.emptyPayload;
+    }
+
+    /**
+     * Create a new Http2Frame that can be read into.
+     * @return The new Http2Frame.
+     */
+    public static Http2Frame create()
+    {
+        return new Http2Frame();
+    }
+
+    /**
+     * Get whether or not the provided lower-case header name is the name of a header that only
+     * applies to a single HTTP/1.1 connection. These headers can't be sent in HTTP/2.
+     * @param headerName The lower-case header name.
+     * @return Whether or not the provided header name is connection-specific.
+     */
+    static boolean isConnectionSpecificHeaderName(String headerName)
+    {
+        return headerName.equals("connection") ||
+            headerName.equals("keep-alive") ||
+            headerName.equals("proxy-connection") ||
+            headerName.equals("transfer-encoding") ||
+            headerName.equals("upgrade");
+    }
+
+    void set(int type, int flags, int streamId, byte[] payload, int payloadLength)
+    {
+        this.type = type;
+        this.flags = flags;
+        this.streamId = streamId;
+        this.payload = payload == null ? Http2Frame.emptyPayload : payload;
+        this.payloadLength = payloadLength;
+    }
+
+    /**
+     * Get the type of this frame.
+     * @return The type of this frame.
+     */
+    public int getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * Get the flags of this frame.
+     * @return The flags of this frame.
+     */
+    public int getFlags()
+    {
+        return this.flags;
+    }
+
+    /**
+     * Get whether or not this frame has the provided flag set.
+     * @param flag The flag to check.
+     * @return Whether or not this frame has the provided flag set.
+     */
+    public boolean hasFlag(int flag)
+    {
+        return (this.flags & flag) != 0;
+    }
+
+    /**
+     * Get the identifier of the stream that this frame belongs to, or 0 if this frame belongs to
+     * the whole connection.
+     * @return The identifier of the stream that this frame belongs to.
+     */
+    public int getStreamId()
+    {
+        return this.streamId;
+    }
+
+    /**
+     * Get the buffer that contains this frame's payload, starting at index 0. The buffer may be
+     * longer than the payload.
+     * @return The buffer that contains this frame's payload.
+     */
+    public byte[] getPayload()
+    {
+        return this.payload;
+    }
+
+    /**
+     * Get the number of bytes in this frame's payload.
+     * @return The number of bytes in this frame's payload.
+     */
+    public int getPayloadLength()
+    {
+        return this.payloadLength;
+    }
+
+    /**
+     * Read the 32-bit big-endian integer that starts at the provided index of this frame's payload.
+     * @param index The index of the integer's first byte.
+     * @return The integer.
+     */
+    public int readInt(int index)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(index, 0, "index");
+        PreCondition.assertLessThanOrEqualTo(index + 4, this.payloadLength, "index + 4");
+
+        return ((this.payload[index] & 0xFF) << 24) |
+            ((this.payload[index + 1] & 0xFF) << 16) |
+            ((this.payload[index + 2] & 0xFF) << 8) |
+            (this.payload[index + 3] & 0xFF);
+    }
+
+    /**
+     * Get the index of the end of this frame's payload after its padding is removed.
+     * @param startIndex The index in the payload where the frame's data starts, after its pad
+     *                   length and any priority fields.
+     */
+    int getPaddedPayloadEndIndex(int startIndex)
+    {
+        if (this.payloadLength < startIndex)
+        {
+            throw new Http2ProtocolException(Http2Frame.FrameSizeError, "A frame's payload was too short for its flags.");
+        }
+
+        int result = this.payloadLength;
+        if (this.hasFlag(Http2Frame.PaddedFlag))
+        {
+            result -= (this.payload[0] & 0xFF);
+        }
+        if (result < startIndex)
+        {
+            throw new Http2ProtocolException(Http2Frame.ProtocolError, "A frame's padding was longer than its payload.");
+        }
+        return result;
+    }
+}
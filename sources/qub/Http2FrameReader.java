@@ -0,0 +1,192 @@
+package qub;
+
+/**
+ * A type that reads HTTP/2 frames (RFC 9113, section 4.1) from a {@link ByteReadStream}. Each
+ * frame's payload is read into a single buffer that is leased from a {@link ByteBufferPool} and
+ * reused for every frame, so reading a frame doesn't allocate. Disposing this reader releases its
+ * buffer, but it does not dispose the inner stream.
+ */
+public class Http2FrameReader implements Disposable
+{
+    private final ByteReadStream innerStream;
+    private final ByteBufferPool bufferPool;
+    private final byte[] headerBytes;
+    private byte[] buffer;
+    private int maximumFrameSize;
+    private boolean disposed;
+
+    private Http2FrameReader(ByteReadStream innerStream, ByteBufferPool bufferPool)
+    {
+        PreCondition.assertNotNull(innerStream, "innerStream");
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+
+        this.innerStream = innerStream;
+        this.bufferPool = bufferPool;
+        this.headerBytes = new byte[Http2Frame.clientPreface.length];
+        this.maximumFrameSize = Http2Frame.DefaultMaximumFrameSize;
+    }
+
+    /**
+     * Create a new Http2FrameReader.
+     * @param innerStream The stream to read frames from.
+     * @param bufferPool The pool to lease the payload buffer from.
+     * @return The new Http2FrameReader.
+     */
+    public static Http2FrameReader create(ByteReadStream innerStream, ByteBufferPool bufferPool)
+    {
+        return new Http2FrameReader(innerStream, bufferPool);
+    }
+
+    /**
+     * Set the maximum number of bytes that a frame's payload can contain. This should match the
+     * SETTINGS_MAX_FRAME_SIZE value that was sent to the peer. A longer payload will cause a
+     * {@link Http2ProtocolException} with the FRAME_SIZE_ERROR error code.
+     * @param maximumFrameSize The maximum number of bytes that a frame's payload can contain.
+     * @return This object for method chaining.
+     */
+    public Http2FrameReader setMaximumFrameSize(int maximumFrameSize)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumFrameSize, Http2Frame.DefaultMaximumFrameSize, "maximumFrameSize");
+        PreCondition.assertLessThanOrEqualTo(maximumFrameSize, Http2Frame.LargestMaximumFrameSize, "maximumFrameSize");
+
+        this.maximumFrameSize = maximumFrameSize;
+
+        return this;
+    }
+
+    /**
+     * Get the maximum number of bytes that a frame's payload can contain.
+     * @return The maximum number of bytes that a frame's payload can contain.
+     */
+    public int getMaximumFrameSize()
+    {
+        return this.maximumFrameSize;
+    }
+
+    /**
+     * Read exactly the provided number of bytes from the inner stream.
+     * @return Whether or not the bytes were read. This will be false if the inner stream ended
+     * before any bytes were read.
+     */
+    private boolean readFully(byte[] bytes, int startIndex, int length)
+    {
+        int bytesRead = 0;
+        while (bytesRead < length)
+        {
+            final Integer readResult = this.innerStream.readBytes(bytes, startIndex + bytesRead, length - bytesRead)
+                .catchError(EmptyException.class)
+                .await();
+            if (readResult == null || readResult <= 0)
+            {
+                if (bytesRead == 0)
+                {
+                    break;
+                }
+                throw new ParseException("The HTTP/2 connection ended in the middle of a frame.");
+            }
+            bytesRead += readResult;
+        }
+        return bytesRead == length;
+    }
+
+    /**
+     * Read the connection preface that a client sends at the start of every HTTP/2 connection.
+     * @return Whether or not the preface was read. This will be false if the inner stream ended
+     * before the preface started.
+     */
+    public Result<Boolean> readClientPreface()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            final int prefaceLength = Http2Frame.clientPreface.length;
+            final boolean result = this.readFully(this.headerBytes, 0, prefaceLength);
+            if (result && !java.util.Arrays.equals(this.headerBytes, Http2Frame.clientPreface))
+            {
+                throw new Http2ProtocolException(Http2Frame.ProtocolError, "The connection didn't start with the HTTP/2 client preface.");
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Read the next frame from the inner stream into the provided frame.
+     * @param frame The frame to read into.
+     * @return Whether or not a frame was read. This will be false if the inner stream ended before
+     * the next frame started.
+     */
+    public Result<Boolean> readFrame(Http2Frame frame)
+    {
+        PreCondition.assertNotNull(frame, "frame");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            final byte[] headerBytes = this.headerBytes;
+            final boolean result = this.readFully(headerBytes, 0, Http2Frame.HeaderLength);
+            if (result)
+            {
+                final int length = ((headerBytes[0] & 0xFF) << 16) |
+                    ((headerBytes[1] & 0xFF) << 8) |
+                    (headerBytes[2] & 0xFF);
+                final int type = headerBytes[3] & 0xFF;
+                final int flags = headerBytes[4] & 0xFF;
+                final int streamId = ((headerBytes[5] & 0x7F) << 24) |
+                    ((headerBytes[6] & 0xFF) << 16) |
+                    ((headerBytes[7] & 0xFF) << 8) |
+                    (headerBytes[8] & 0xFF);
+
+                if (length > this.maximumFrameSize)
+                {
+                    throw new Http2ProtocolException(Http2Frame.FrameSizeError, "A frame's payload was longer than the maximum of " + this.maximumFrameSize + " bytes.");
+                }
+
+                if (0 < length)
+                {
+                    if (this.buffer == null || this.buffer.length < length)
+                    {
+                        if (this.buffer != null)
+                        {
+                            this.bufferPool.release(this.buffer);
+                            this.buffer = null;
+                        }
+                        this.buffer = this.bufferPool.lease(Math.maximum(length, 1024));
+                    }
+                    if (!this.readFully(this.buffer, 0, length))
+                    {
+                        throw new ParseException("The HTTP/2 connection ended in the middle of a frame.");
+                    }
+                }
+                frame.set(type, flags, streamId, this.buffer, length);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                if (this.buffer != null)
+                {
+                    final byte[] buffer = this.buffer;
+                    this.buffer = null;
+                    this.bufferPool.release(buffer);
+                }
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,169 @@
+package qub;
+
+/**
+ * A type that writes HTTP/2 frames (RFC 9113, section 4.1) to a {@link ByteWriteStream}. A frame's
+ * payload is written straight from the caller's array. An Http2FrameWriter isn't thread-safe;
+ * callers that share one between streams must make sure that frames aren't interleaved.
+ */
+public class Http2FrameWriter
+{
+    private final ByteWriteStream innerStream;
+    private final byte[] headerBytes;
+    private final byte[] controlPayload;
+
+    private Http2FrameWriter(ByteWriteStream innerStream)
+    {
+        PreCondition.assertNotNull(innerStream, "innerStream");
+
+        this.innerStream = innerStream;
+        this.headerBytes = new byte[Http2Frame.HeaderLength];
+        this.controlPayload = new byte[8];
+    }
+
+    /**
+     * Create a new Http2FrameWriter.
+     * @param innerStream The stream to write frames to.
+     * @return The new Http2FrameWriter.
+     */
+    public static Http2FrameWriter create(ByteWriteStream innerStream)
+    {
+        return new Http2FrameWriter(innerStream);
+    }
+
+    private static void writeInt(byte[] bytes, int index, int value)
+    {
+        bytes[index] = (byte)(value >>> 24);
+        bytes[index + 1] = (byte)(value >>> 16);
+        bytes[index + 2] = (byte)(value >>> 8);
+        bytes[index + 3] = (byte)value;
+    }
+
+    /**
+     * Write a frame with the provided payload.
+     * @param type The type of the frame.
+     * @param flags The flags of the frame.
+     * @param streamId The identifier of the stream that the frame belongs to, or 0 if the frame
+     *                 belongs to the whole connection.
+     * @param payload The array that contains the payload.
+     * @param startIndex The index of the first byte of the payload.
+     * @param length The number of bytes in the payload.
+     */
+    public Result<Void> writeFrame(int type, int flags, int streamId, byte[] payload, int startIndex, int length)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(type, 0, "type");
+        PreCondition.assertLessThanOrEqualTo(type, 0xFF, "type");
+        PreCondition.assertGreaterThanOrEqualTo(flags, 0, "flags");
+        PreCondition.assertLessThanOrEqualTo(flags, 0xFF, "flags");
+        PreCondition.assertGreaterThanOrEqualTo(streamId, 0, "streamId");
+        PreCondition.assertNotNull(payload, "payload");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 0, "length");
+        PreCondition.assertLessThanOrEqualTo(length, Http2Frame.LargestMaximumFrameSize, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, payload.length, "startIndex + length");
+
+        return Result.create(() ->
+        {
+            final byte[] headerBytes = this.headerBytes;
+            headerBytes[0] = (byte)(length >>> 16);
+            headerBytes[1] = (byte)(length >>> 8);
+            headerBytes[2] = (byte)length;
+            headerBytes[3] = (byte)type;
+            headerBytes[4] = (byte)flags;
+            Http2FrameWriter.writeInt(headerBytes, 5, streamId);
+            this.innerStream.writeAll(headerBytes, 0, Http2Frame.HeaderLength).await();
+            if (0 < length)
+            {
+                this.innerStream.writeAll(payload, startIndex, length).await();
+            }
+        });
+    }
+
+    /**
+     * Write a SETTINGS frame with the provided settings.
+     * @param settings The identifier and value pairs of the settings to send, such as
+     *                 { Http2Frame.MaximumConcurrentStreamsSetting, 100 }.
+     */
+    public Result<Void> writeSettings(int... settings)
+    {
+        PreCondition.assertNotNull(settings, "settings");
+        PreCondition.assertTrue(settings.length % 2 == 0, "settings must contain identifier and value pairs.");
+
+        return Result.create(() ->
+        {
+            final byte[] payload = new byte[settings.length * 3];
+            for (int i = 0; i < settings.length; i += 2)
+            {
+                final int payloadIndex = i * 3;
+                payload[payloadIndex] = (byte)(settings[i] >>> 8);
+                payload[payloadIndex + 1] = (byte)settings[i];
+                Http2FrameWriter.writeInt(payload, payloadIndex + 2, settings[i + 1]);
+            }
+            this.writeFrame(Http2Frame.SettingsType, 0, 0, payload, 0, payload.length).await();
+        });
+    }
+
+    /**
+     * Write a SETTINGS frame that acknowledges the peer's SETTINGS frame.
+     */
+    public Result<Void> writeSettingsAck()
+    {
+        return this.writeFrame(Http2Frame.SettingsType, Http2Frame.AckFlag, 0, this.controlPayload, 0, 0);
+    }
+
+    /**
+     * Write a PING frame.
+     * @param ack Whether or not the frame acknowledges the peer's PING frame.
+     * @param opaqueData The array that contains the frame's eight bytes of opaque data.
+     * @param startIndex The index of the first byte of the opaque data.
+     */
+    public Result<Void> writePing(boolean ack, byte[] opaqueData, int startIndex)
+    {
+        PreCondition.assertNotNull(opaqueData, "opaqueData");
+        PreCondition.assertLessThanOrEqualTo(startIndex + 8, opaqueData.length, "startIndex + 8");
+
+        return this.writeFrame(Http2Frame.PingType, ack ? Http2Frame.AckFlag : 0, 0, opaqueData, startIndex, 8);
+    }
+
+    /**
+     * Write a WINDOW_UPDATE frame.
+     * @param streamId The identifier of the stream whose window will grow, or 0 to grow the
+     *                 connection's window.
+     * @param increment The number of bytes that the window will grow by.
+     */
+    public Result<Void> writeWindowUpdate(int streamId, int increment)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(streamId, 0, "streamId");
+        PreCondition.assertGreaterThanOrEqualTo(increment, 1, "increment");
+
+        Http2FrameWriter.writeInt(this.controlPayload, 0, increment);
+        return this.writeFrame(Http2Frame.WindowUpdateType, 0, streamId, this.controlPayload, 0, 4);
+    }
+
+    /**
+     * Write a RST_STREAM frame.
+     * @param streamId The identifier of the stream to end.
+     * @param errorCode The error code that explains why the stream was ended.
+     */
+    public Result<Void> writeRstStream(int streamId, int errorCode)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(streamId, 1, "streamId");
+
+        Http2FrameWriter.writeInt(this.controlPayload, 0, errorCode);
+        return this.writeFrame(Http2Frame.RstStreamType, 0, streamId, this.controlPayload, 0, 4);
+    }
+
+    /**
+     * Write a GOAWAY frame.
+     * @param lastStreamId The identifier of the last stream that the sender processed or might
+     *                     still process.
+     * @param errorCode The error code that explains why the connection is being shut down.
+     */
+    public Result<Void> writeGoAway(int lastStreamId, int errorCode)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(lastStreamId, 0, "lastStreamId");
+
+        Http2FrameWriter.writeInt(this.controlPayload, 0, lastStreamId);
+        Http2FrameWriter.writeInt(this.controlPayload, 4, errorCode);
+        return this.writeFrame(Http2Frame.GoAwayType, 0, 0, this.controlPayload, 0, 8);
+    }
+}
@@ -0,0 +1,254 @@
+package qub;
+
+/**
+ * An {@link HttpClient} that sends requests over HTTP/2 without TLS (h2c), to servers that are
+ * known to support HTTP/2 ahead of time. Every host and port gets a single connection, and the
+ * requests that are sent to it at the same time from different threads are multiplexed onto that
+ * connection as concurrent streams. The URL's scheme is ignored, since every request is sent over
+ * cleartext TCP.
+ */
+public class Http2HttpClient implements HttpClient, Disposable
+{
+    private final Network network;
+    private final DNS dns;
+    private final AsyncRunner asyncRunner;
+    private final java.util.Map<String,Http2ClientConnection> connections;
+    private final java.util.List<Http2ClientConnection> retiredConnections;
+    private ByteBufferPool bufferPool;
+    private boolean disposed;
+
+    private Http2HttpClient(Network network, DNS dns, AsyncRunner asyncRunner)
+    {
+        PreCondition.assertNotNull(network, "network");
+        PreCondition.assertNotNull(dns, "dns");
+        PreCondition.assertNotNull(asyncRunner, "asyncRunner");
+
+        this.network = network;
+        this.dns = dns;
+        this.asyncRunner = asyncRunner;
+        this.connections = new java.util.HashMap<>();
+        this.retiredConnections = new java.util.ArrayList<>();
+        this.bufferPool = ByteBufferPool.getShared();
+    }
+
+    /**
+     * Create a new Http2HttpClient.
+     * @param network The network to open connections on.
+     * @param asyncRunner The runner that will run the task that reads each connection's frames.
+     * @return The new Http2HttpClient.
+     */
+    public static Http2HttpClient create(Network network, AsyncRunner asyncRunner)
+    {
+        PreCondition.assertNotNull(network, "network");
+        PreCondition.assertNotNull(asyncRunner, "asyncRunner");
+
+        final DNS dns = DNS.create();
+        return Http2HttpClient.create(network, dns, asyncRunner);
+    }
+
+    /**
+     * Create a new Http2HttpClient.
+     * @param network The network to open connections on.
+     * @param dns The DNS to resolve hosts with.
+     * @param asyncRunner The runner that will run the task that reads each connection's frames.
+     * @return The new Http2HttpClient.
+     */
+    public static Http2HttpClient create(Network network, DNS dns, AsyncRunner asyncRunner)
+    {
+        return new Http2HttpClient(network, dns, asyncRunner);
+    }
+
+    /**
+     * Set the pool that this client's new connections will lease their read and write buffers
+     * from. By default, the shared {@link ByteBufferPool} is used.
+     * @param bufferPool The pool that this client's new connections will lease their buffers from.
+     * @return This object for method chaining.
+     */
+    public Http2HttpClient setBufferPool(ByteBufferPool bufferPool)
+    {
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+
+        this.bufferPool = bufferPool;
+
+        return this;
+    }
+
+    /**
+     * Get the pool that this client's new connections lease their read and write buffers from.
+     * @return The pool that this client's new connections lease their buffers from.
+     */
+    public ByteBufferPool getBufferPool()
+    {
+        return this.bufferPool;
+    }
+
+    /**
+     * Get the number of connections that this client has open.
+     * @return The number of connections that this client has open.
+     */
+    public int getConnectionCount()
+    {
+        int result = 0;
+        synchronized (this.connections)
+        {
+            for (final Http2ClientConnection connection : this.connections.values())
+            {
+                if (connection.isAvailable())
+                {
+                    ++result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Result<HttpResponse> send(HttpRequest request)
+    {
+        PreCondition.assertNotNull(request, "request");
+        PreCondition.assertNotNullAndNotEmpty(request.getMethod(), "request.getMethod()");
+        PreCondition.assertNotNull(request.getURL(), "request.getURL()");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            final URL requestUrl = request.getURL();
+            final String requestHost = requestUrl.getHost().await();
+            final IPv4Address requestIPAddress = this.dns.resolveHost(requestHost).await();
+            final int requestPort = requestUrl.getPort()
+                .catchError(NotFoundException.class, () -> 80)
+                .await();
+
+            HttpResponse result;
+            try
+            {
+                result = this.getConnection(requestIPAddress, requestPort).send(request).await();
+            }
+            catch (Http2ProtocolException e)
+            {
+                // A refused stream was never processed by the server, so a request without a body
+                // can safely be sent again on a new connection.
+                if (e.getErrorCode() != Http2Frame.RefusedStreamError || request.getBody() != null)
+                {
+                    throw e;
+                }
+                result = this.getConnection(requestIPAddress, requestPort).send(request).await();
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Get the connection to the provided address and port that new requests can be sent on,
+     * opening a new connection if there isn't one. A connection that can't take new requests is
+     * replaced, and it is disposed once the requests that are still using it have finished. The new
+     * connection is opened without holding the lock, so sends to other hosts don't wait for it.
+     */
+    private Http2ClientConnection getConnection(IPv4Address ipAddress, int port)
+    {
+        final String connectionKey = ipAddress + ":" + port;
+
+        Http2ClientConnection result;
+        synchronized (this.connections)
+        {
+            PreCondition.assertNotDisposed(this, "this");
+
+            result = this.connections.get(connectionKey);
+            if (result != null && !result.isAvailable())
+            {
+                this.retire(connectionKey, result);
+                result = null;
+            }
+        }
+
+        if (result == null)
+        {
+            final TCPClient tcpClient = this.network.createTCPClient(ipAddress, port).await();
+            final Http2ClientConnection newConnection = Http2ClientConnection.create(tcpClient, this.bufferPool, this.asyncRunner);
+            newConnection.start();
+
+            boolean disposed;
+            synchronized (this.connections)
+            {
+                disposed = this.disposed;
+                if (!disposed)
+                {
+                    // Another thread may have opened a connection to the same place while this one
+                    // was connecting. Only one of them is kept.
+                    result = this.connections.get(connectionKey);
+                    if (result != null && !result.isAvailable())
+                    {
+                        this.retire(connectionKey, result);
+                        result = null;
+                    }
+                    if (result == null)
+                    {
+                        this.connections.put(connectionKey, newConnection);
+                        result = newConnection;
+                    }
+                }
+            }
+
+            if (result != newConnection)
+            {
+                newConnection.dispose().await();
+            }
+            PreCondition.assertFalse(disposed, "this.isDisposed()");
+        }
+
+        return result;
+    }
+
+    /**
+     * Stop using the provided connection for new requests and dispose it once its open streams
+     * have ended. This must be called while holding the connections lock.
+     */
+    private void retire(String connectionKey, Http2ClientConnection connection)
+    {
+        this.connections.remove(connectionKey);
+        this.retiredConnections.removeIf(Http2ClientConnection::isDisposed);
+        this.retiredConnections.add(connection);
+        connection.disposeWhenIdle();
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    /**
+     * Dispose this client and close all of its connections. Requests that are still waiting for
+     * their responses will fail.
+     */
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            boolean result;
+            synchronized (this.connections)
+            {
+                result = !this.disposed;
+                if (result)
+                {
+                    this.disposed = true;
+                    for (final Http2ClientConnection connection : this.connections.values())
+                    {
+                        connection.dispose().await();
+                    }
+                    this.connections.clear();
+                    for (final Http2ClientConnection connection : this.retiredConnections)
+                    {
+                        connection.dispose().await();
+                    }
+                    this.retiredConnections.clear();
+                }
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package qub;
+
+/**
+ * An exception that is thrown when a HTTP/2 peer breaks the HTTP/2 protocol (RFC 9113).
+ */
+public class Http2ProtocolException extends RuntimeException
+{
+    private final int errorCode;
+    private final int streamId;
+
+    /**
+     * Create a new Http2ProtocolException for an error that affects the whole connection.
+     * @param errorCode The error code that should be sent to the peer in a GOAWAY frame.
+     * @param message The message that describes how the protocol was broken.
+     */
+    public Http2ProtocolException(int errorCode, String message)
+    {
+        this(errorCode, 0, message);
+    }
+
+    /**
+     * Create a new Http2ProtocolException.
+     * @param errorCode The error code that should be sent to the peer.
+     * @param streamId The identifier of the stream that the error affects, or 0 if the error
+     *                 affects the whole connection. A stream error is sent to the peer in a
+     *                 RST_STREAM frame, and a connection error is sent in a GOAWAY frame.
+     * @param message The message that describes how the protocol was broken.
+     */
+    public Http2ProtocolException(int errorCode, int streamId, String message)
+    {
+        super(message);
+
+        this.errorCode = errorCode;
+        this.streamId = streamId;
+    }
+
+    /**
+     * Get the error code that should be sent to the peer.
+     * @return The error code that should be sent to the peer.
+     */
+    public int getErrorCode()
+    {
+        return this.errorCode;
+    }
+
+    /**
+     * Get the identifier of the stream that the error affects, or 0 if the error affects the whole
+     * connection.
+     * @return The identifier of the stream that the error affects.
+     */
+    public int getStreamId()
+    {
+        return this.streamId;
+    }
+
+    /**
+     * Get whether or not this error affects the whole connection instead of a single stream.
+     * @return Whether or not this error affects the whole connection.
+     */
+    public boolean isConnectionError()
+    {
+        return this.streamId == 0;
+    }
+}
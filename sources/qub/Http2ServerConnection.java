@@ -0,0 +1,1156 @@
+package qub;
+
+/**
+ * The server side of a single HTTP/2 connection (RFC 9113) that was accepted by a
+ * {@link HttpServer}. The connection's frames are read on the task that runs
+ * {@link #run(HttpRequest, byte[])}, and each request is handled on its own task, so the requests
+ * of a connection are handled concurrently and a slow response doesn't hold up the others. The
+ * frames of different responses are interleaved on the connection, and the DATA frames of each
+ * response are limited by the peer's flow-control windows. Request bodies are received into
+ * memory before their request is handled. The bodies that a connection holds at once can't add
+ * up to more than the server's maximum body size, and a stream whose body would go past that is
+ * refused (REFUSED_STREAM) so that the client can send it again later. Server-sent event streams and WebSocket upgrades take
+ * over their connection, so requests for them are answered with 400 (Bad Request) and have to be
+ * made over HTTP/1.1.
+ */
+public class Http2ServerConnection
+{
+    /**
+     * The number of streams that a client can have open at once.
+     */
+    public static final int MaximumConcurrentStreams = 100;
+
+    private final HttpServer server;
+    private final TCPClient connection;
+    private final PooledBufferedByteReadStream readStream;
+    private final PooledBufferedByteWriteStream writeStream;
+    private final ByteBufferPool bufferPool;
+    private final AsyncRunner asyncRunner;
+    private final String localHost;
+    private final int localPort;
+    private final Http2FrameReader frameReader;
+    private final Http2FrameWriter frameWriter;
+    private final HpackDecoder headerDecoder;
+    private final HpackEncoder headerEncoder;
+    private final int maximumHeaderBlockLength;
+
+    /**
+     * The lock that must be held while a frame is written to the connection.
+     */
+    private final Object writeLock;
+
+    /**
+     * The lock that guards the streams and the flow-control windows. Tasks that are waiting for a
+     * flow-control window to grow wait on this lock.
+     */
+    private final Object stateLock;
+    private final java.util.Map<Integer,Stream> streams;
+    private volatile boolean closed;
+    private int lastStreamId;
+    private int connectionSendWindow;
+    private int peerInitialWindowSize;
+    private volatile int peerMaximumFrameSize;
+    private int connectionReceivedBytes;
+
+    /**
+     * The number of request body bytes that this connection is holding in memory for requests
+     * whose handlers haven't finished yet. This is guarded by the state lock.
+     */
+    private long bufferedBodyBytes;
+
+    private byte[] headerBlock;
+    private int headerBlockLength;
+    private int headerBlockStreamId;
+    private boolean headerBlockEndsStream;
+
+    /**
+     * A stream that has been opened by the client and hasn't finished yet.
+     */
+    private static class Stream
+    {
+        private final int id;
+        private final BasicMutableHttpRequest request;
+        private String method;
+        private String scheme;
+        private String authority;
+        private String path;
+        private boolean regularHeaderFieldDecoded;
+        private int headerFieldCount;
+        private String malformedReason;
+        private InMemoryByteStream body;
+        private long bodyLength;
+        private long bufferedBodyBytes;
+        private int receivedBytes;
+        private volatile boolean remoteClosed;
+        private boolean dispatched;
+        private int rejectedStatusCode;
+        private int sendWindow;
+        private volatile boolean reset;
+
+        private Stream(int id, int sendWindow)
+        {
+            this.id = id;
+            this.request = BasicMutableHttpRequest.create().setHttpVersion("HTTP/2.0");
+            this.sendWindow = sendWindow;
+        }
+
+        private void setMalformed(String malformedReason)
+        {
+            if (this.malformedReason == null)
+            {
+                this.malformedReason = malformedReason;
+            }
+        }
+
+        private String setPseudoHeaderField(String currentValue, String name, String value)
+        {
+            if (currentValue != null)
+            {
+                this.setMalformed("A request had more than one " + name + " pseudo-header field.");
+            }
+            return value;
+        }
+
+        private void addHeaderField(String name, String value)
+        {
+            ++this.headerFieldCount;
+            if (name.startsWith(":"))
+            {
+                if (this.regularHeaderFieldDecoded)
+                {
+                    this.setMalformed("A pseudo-header field came after a regular header field.");
+                }
+
+                switch (name)
+                {
+                    case ":method":
+                        this.method = this.setPseudoHeaderField(this.method, name, value);
+                        break;
+
+                    case ":scheme":
+                        this.scheme = this.setPseudoHeaderField(this.scheme, name, value);
+                        break;
+
+                    case ":authority":
+                        this.authority = this.setPseudoHeaderField(this.authority, name, value);
+                        break;
+
+                    case ":path":
+                        this.path = this.setPseudoHeaderField(this.path, name, value);
+                        break;
+
+                    default:
+                        this.setMalformed("A request had the unknown pseudo-header field " + name + ".");
+                        break;
+                }
+            }
+            else
+            {
+                this.regularHeaderFieldDecoded = true;
+                if (!name.equals(name.toLowerCase()))
+                {
+                    this.setMalformed("A header field name contained upper-case characters.");
+                }
+                else if (Http2Frame.isConnectionSpecificHeaderName(name) || (name.equals("te") && !value.equals("trailers")))
+                {
+                    this.setMalformed("A request had the connection-specific header field " + name + ".");
+                }
+                else
+                {
+                    this.request.addHeader(name, value);
+                }
+            }
+        }
+    }
+
+    private Http2ServerConnection(HttpServer server, TCPClient connection, PooledBufferedByteReadStream readStream, PooledBufferedByteWriteStream writeStream, ByteBufferPool bufferPool, AsyncRunner asyncRunner, String localHost, int localPort)
+    {
+        PreCondition.assertNotNull(server, "server");
+        PreCondition.assertNotNull(connection, "connection");
+        PreCondition.assertNotNull(readStream, "readStream");
+        PreCondition.assertNotNull(writeStream, "writeStream");
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+        PreCondition.assertNotNull(asyncRunner, "asyncRunner");
+        PreCondition.assertNotNullAndNotEmpty(localHost, "localHost");
+
+        this.server = server;
+        this.connection = connection;
+        this.readStream = readStream;
+        this.writeStream = writeStream;
+        this.bufferPool = bufferPool;
+        this.asyncRunner = asyncRunner;
+        this.localHost = localHost;
+        this.localPort = localPort;
+        this.frameReader = Http2FrameReader.create(readStream, bufferPool);
+        this.frameWriter = Http2FrameWriter.create(writeStream);
+        this.headerDecoder = HpackDecoder.create();
+        this.headerEncoder = HpackEncoder.create();
+        this.maximumHeaderBlockLength = server.getMaximumHeaderBytes();
+        this.writeLock = new Object();
+        this.stateLock = new Object();
+        this.streams = new java.util.HashMap<>();
+        this.connectionSendWindow = Http2Frame.DefaultInitialWindowSize;
+        this.peerInitialWindowSize = Http2Frame.DefaultInitialWindowSize;
+        this.peerMaximumFrameSize = Http2Frame.DefaultMaximumFrameSize;
+        this.headerBlock = new byte[1024];
+    }
+
+    /**
+     * Create a new Http2ServerConnection that takes ownership of the provided connection and
+     * buffered streams. They are all disposed when the connection ends.
+     */
+    static Http2ServerConnection create(HttpServer server, TCPClient connection, PooledBufferedByteReadStream readStream, PooledBufferedByteWriteStream writeStream, ByteBufferPool bufferPool, AsyncRunner asyncRunner, String localHost, int localPort)
+    {
+        return new Http2ServerConnection(server, connection, readStream, writeStream, bufferPool, asyncRunner, localHost, localPort);
+    }
+
+    /**
+     * Get whether or not the provided request asks to upgrade its HTTP/1.1 connection to HTTP/2
+     * over cleartext TCP (h2c). Requests with bodies aren't upgraded.
+     * @param request The request to check.
+     * @return Whether or not the provided request should be upgraded.
+     */
+    static boolean isUpgradeRequest(HttpRequest request)
+    {
+        final HttpHeaders headers = request.getHeaders();
+        final String upgradeValue = headers.getValue(HttpHeader.UpgradeName).catchError(NotFoundException.class).await();
+        final String connectionValue = headers.getValue(HttpHeader.ConnectionName).catchError(NotFoundException.class).await();
+        return "HTTP/1.1".equals(request.getHttpVersion()) &&
+            request.getBody() == null &&
+            HttpHeader.containsToken(upgradeValue, "h2c") &&
+            HttpHeader.containsToken(connectionValue, "upgrade") &&
+            HttpHeader.containsToken(connectionValue, HttpHeader.Http2SettingsName) &&
+            headers.getAll(HttpHeader.Http2SettingsName).getCount() == 1 &&
+            Http2ServerConnection.decodeSettingsHeader(headers.getValue(HttpHeader.Http2SettingsName).await()) != null;
+    }
+
+    /**
+     * Decode the base64url-encoded SETTINGS payload of a HTTP2-Settings header value.
+     * @param headerValue The HTTP2-Settings header value.
+     * @return The SETTINGS payload, or null if the header value isn't a valid SETTINGS payload.
+     */
+    static byte[] decodeSettingsHeader(String headerValue)
+    {
+        byte[] result;
+        try
+        {
+            result = java.util.Base64.getUrlDecoder().decode(headerValue.trim());
+            if (result.length % 6 != 0)
+            {
+                result = null;
+            }
+        }
+        catch (IllegalArgumentException e)
+        {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Serve this connection until the client closes it or breaks the protocol. This sends the
+     * server's connection preface and then reads frames until the connection ends.
+     * @param upgradeRequest The HTTP/1.1 request that upgraded the connection to HTTP/2, or null if
+     *                       the client started the connection with HTTP/2. An upgrade request is
+     *                       handled as stream 1.
+     * @param upgradeSettings The SETTINGS payload from the upgrade request's HTTP2-Settings header,
+     *                        or null if there is no upgrade request.
+     */
+    public void run(HttpRequest upgradeRequest, byte[] upgradeSettings)
+    {
+        try
+        {
+            synchronized (this.writeLock)
+            {
+                this.frameWriter.writeSettings(Http2Frame.MaximumConcurrentStreamsSetting, Http2ServerConnection.MaximumConcurrentStreams).await();
+                this.writeStream.flush().await();
+            }
+
+            boolean prefaceRead = true;
+            if (upgradeRequest != null)
+            {
+                this.applySettings(upgradeSettings, 0, upgradeSettings.length);
+
+                final Stream stream = new Stream(1, this.peerInitialWindowSize);
+                for (final HttpHeader header : upgradeRequest.getHeaders())
+                {
+                    final String headerName = header.getName();
+                    if (!Http2Frame.isConnectionSpecificHeaderName(headerName.toLowerCase()) && !HttpHeader.Http2SettingsName.equalsIgnoreCase(headerName))
+                    {
+                        stream.request.addHeader(headerName, header.getValue());
+                    }
+                }
+                stream.request.setMethod(upgradeRequest.getMethod())
+                    .setUrl(upgradeRequest.getURL());
+                stream.remoteClosed = true;
+                this.lastStreamId = 1;
+                this.dispatch(stream);
+
+                prefaceRead = this.frameReader.readClientPreface().await();
+            }
+
+            if (prefaceRead)
+            {
+                this.readFrames();
+            }
+        }
+        catch (Http2ProtocolException e)
+        {
+            this.writeGoAway(e.getErrorCode());
+        }
+        catch (ParseException e)
+        {
+            this.writeGoAway(Http2Frame.ProtocolError);
+        }
+        finally
+        {
+            this.close();
+        }
+    }
+
+    private void readFrames()
+    {
+        final Http2Frame frame = Http2Frame.create();
+        boolean settingsReceived = false;
+        while (this.frameReader.readFrame(frame).await())
+        {
+            final int type = frame.getType();
+            if (!settingsReceived && (type != Http2Frame.SettingsType || frame.hasFlag(Http2Frame.AckFlag)))
+            {
+                throw new Http2ProtocolException(Http2Frame.ProtocolError, "The client's connection preface didn't end with a SETTINGS frame.");
+            }
+            settingsReceived = true;
+
+            if (this.headerBlockStreamId != 0 && type != Http2Frame.ContinuationType)
+            {
+                throw new Http2ProtocolException(Http2Frame.ProtocolError, "A header block was interrupted by another frame.");
+            }
+
+            try
+            {
+                switch (type)
+                {
+                    case Http2Frame.DataType:
+                        this.readData(frame);
+                        break;
+
+                    case Http2Frame.HeadersType:
+                        this.readHeaders(frame);
+                        break;
+
+                    case Http2Frame.PriorityType:
+                        this.readPriority(frame);
+                        break;
+
+                    case Http2Frame.RstStreamType:
+                        this.readRstStream(frame);
+                        break;
+
+                    case Http2Frame.SettingsType:
+                        this.readSettings(frame);
+                        break;
+
+                    case Http2Frame.PushPromiseType:
+                        throw new Http2ProtocolException(Http2Frame.ProtocolError, "A client sent a PUSH_PROMISE frame.");
+
+                    case Http2Frame.PingType:
+                        this.readPing(frame);
+                        break;
+
+                    case Http2Frame.GoAwayType:
+                        this.assertConnectionFrame(frame);
+                        break;
+
+                    case Http2Frame.WindowUpdateType:
+                        this.readWindowUpdate(frame);
+                        break;
+
+                    case Http2Frame.ContinuationType:
+                        this.readContinuation(frame);
+                        break;
+
+                    default:
+                        // Frames of unknown types must be ignored.
+                        break;
+                }
+            }
+            catch (Http2ProtocolException e)
+            {
+                if (e.isConnectionError())
+                {
+                    throw e;
+                }
+                this.resetStream(e.getStreamId(), e.getErrorCode());
+            }
+        }
+    }
+
+    private void assertConnectionFrame(Http2Frame frame)
+    {
+        if (frame.getStreamId() != 0)
+        {
+            throw new Http2ProtocolException(Http2Frame.ProtocolError, "A frame that applies to the whole connection used the stream identifier " + frame.getStreamId() + ".");
+        }
+    }
+
+    private void assertStreamFrame(Http2Frame frame)
+    {
+        if (frame.getStreamId() == 0)
+        {
+            throw new Http2ProtocolException(Http2Frame.ProtocolError, "A frame that applies to a stream used the stream identifier 0.");
+        }
+    }
+
+    private void readSettings(Http2Frame frame)
+    {
+        this.assertConnectionFrame(frame);
+
+        final int payloadLength = frame.getPayloadLength();
+        if (frame.hasFlag(Http2Frame.AckFlag))
+        {
+            if (payloadLength != 0)
+            {
+                throw new Http2ProtocolException(Http2Frame.FrameSizeError, "A SETTINGS frame that acknowledged settings had a payload.");
+            }
+        }
+        else
+        {
+            if (payloadLength % 6 != 0)
+            {
+                throw new Http2ProtocolException(Http2Frame.FrameSizeError, "A SETTINGS frame's payload length wasn't a multiple of 6.");
+            }
+            this.applySettings(frame.getPayload(), 0, payloadLength);
+
+            synchronized (this.writeLock)
+            {
+                this.frameWriter.writeSettingsAck().await();
+                this.writeStream.flush().await();
+            }
+        }
+    }
+
+    private void applySettings(byte[] payload, int startIndex, int length)
+    {
+        for (int i = startIndex; i < startIndex + length; i += 6)
+        {
+            final int identifier = ((payload[i] & 0xFF) << 8) | (payload[i + 1] & 0xFF);
+            final long value = (((payload[i + 2] & 0xFF) << 24) |
+                ((payload[i + 3] & 0xFF) << 16) |
+                ((payload[i + 4] & 0xFF) << 8) |
+                (payload[i + 5] & 0xFF)) & 0xFFFFFFFFL;
+            switch (identifier)
+            {
+                case Http2Frame.EnablePushSetting:
+                    if (value > 1)
+                    {
+                        throw new Http2ProtocolException(Http2Frame.ProtocolError, "The SETTINGS_ENABLE_PUSH setting wasn't 0 or 1.");
+                    }
+                    break;
+
+                case Http2Frame.InitialWindowSizeSetting:
+                    if (value > Http2Frame.LargestWindowSize)
+                    {
+                        throw new Http2ProtocolException(Http2Frame.FlowControlError, "The SETTINGS_INITIAL_WINDOW_SIZE setting was larger than " + Http2Frame.LargestWindowSize + ".");
+                    }
+                    synchronized (this.stateLock)
+                    {
+                        final int delta = (int)value - this.peerInitialWindowSize;
+                        this.peerInitialWindowSize = (int)value;
+                        for (final Stream stream : this.streams.values())
+                        {
+                            if ((long)stream.sendWindow + delta > Http2Frame.LargestWindowSize)
+                            {
+                                throw new Http2ProtocolException(Http2Frame.FlowControlError, "The SETTINGS_INITIAL_WINDOW_SIZE setting made a stream's window larger than " + Http2Frame.LargestWindowSize + ".");
+                            }
+                            stream.sendWindow += delta;
+                        }
+                        this.stateLock.notifyAll();
+                    }
+                    break;
+
+                case Http2Frame.MaximumFrameSizeSetting:
+                    if (value < Http2Frame.DefaultMaximumFrameSize || Http2Frame.LargestMaximumFrameSize < value)
+                    {
+                        throw new Http2ProtocolException(Http2Frame.ProtocolError, "The SETTINGS_MAX_FRAME_SIZE setting was outside of the allowed range.");
+                    }
+                    this.peerMaximumFrameSize = (int)value;
+                    break;
+
+                case Http2Frame.HeaderTableSizeSetting:
+                    // The peer may allow a larger dynamic table, but this server's encoder
+                    // never grows its table past the default size.
+                    synchronized (this.writeLock)
+                    {
+                        this.headerEncoder.setMaximumTableSize((int)Math.minimum(value, HpackDecoder.DefaultMaximumTableSize));
+                    }
+                    break;
+
+                default:
+                    // Unknown settings must be ignored.
+                    break;
+            }
+        }
+    }
+
+    private void readPing(Http2Frame frame)
+    {
+        this.assertConnectionFrame(frame);
+        if (frame.getPayloadLength() != 8)
+        {
+            throw new Http2ProtocolException(Http2Frame.FrameSizeError, "A PING frame's payload wasn't 8 bytes long.");
+        }
+
+        if (!frame.hasFlag(Http2Frame.AckFlag))
+        {
+            synchronized (this.writeLock)
+            {
+                this.frameWriter.writePing(true, frame.getPayload(), 0).await();
+                this.writeStream.flush().await();
+            }
+        }
+    }
+
+    private void readPriority(Http2Frame frame)
+    {
+        this.assertStreamFrame(frame);
+        if (frame.getPayloadLength() != 5)
+        {
+            throw new Http2ProtocolException(Http2Frame.FrameSizeError, frame.getStreamId(), "A PRIORITY frame's payload wasn't 5 bytes long.");
+        }
+    }
+
+    private void readRstStream(Http2Frame frame)
+    {
+        this.assertStreamFrame(frame);
+        if (frame.getPayloadLength() != 4)
+        {
+            throw new Http2ProtocolException(Http2Frame.FrameSizeError, "A RST_STREAM frame's payload wasn't 4 bytes long.");
+        }
+
+        final int streamId = frame.getStreamId();
+        synchronized (this.stateLock)
+        {
+            if (streamId > this.lastStreamId)
+            {
+                throw new Http2ProtocolException(Http2Frame.ProtocolError, "A RST_STREAM frame was sent on the idle stream " + streamId + ".");
+            }
+            this.removeResetStream(streamId);
+        }
+    }
+
+    /**
+     * Mark the stream with the provided identifier as reset and stop tracking it if its request
+     * hasn't been dispatched yet. This must be called while holding the state lock.
+     */
+    private void removeResetStream(int streamId)
+    {
+        final Stream stream = this.streams.get(streamId);
+        if (stream != null)
+        {
+            stream.reset = true;
+            if (!stream.dispatched)
+            {
+                this.streams.remove(streamId);
+                this.releaseBufferedBody(stream);
+            }
+            this.stateLock.notifyAll();
+        }
+    }
+
+    /**
+     * Drop the provided stream's buffered request body and give its bytes back to this
+     * connection's share of memory. This must be called while holding the state lock.
+     */
+    private void releaseBufferedBody(Stream stream)
+    {
+        stream.body = null;
+        this.bufferedBodyBytes -= stream.bufferedBodyBytes;
+        stream.bufferedBodyBytes = 0;
+    }
+
+    private void readWindowUpdate(Http2Frame frame)
+    {
+        final int streamId = frame.getStreamId();
+        if (frame.getPayloadLength() != 4)
+        {
+            throw new Http2ProtocolException(Http2Frame.FrameSizeError, "A WINDOW_UPDATE frame's payload wasn't 4 bytes long.");
+        }
+        final int increment = frame.readInt(0) & 0x7FFFFFFF;
+        if (increment == 0)
+        {
+            throw new Http2ProtocolException(Http2Frame.ProtocolError, streamId, "A WINDOW_UPDATE frame had an increment of 0.");
+        }
+
+        synchronized (this.stateLock)
+        {
+            if (streamId == 0)
+            {
+                if ((long)this.connectionSendWindow + increment > Http2Frame.LargestWindowSize)
+                {
+                    throw new Http2ProtocolException(Http2Frame.FlowControlError, "A WINDOW_UPDATE frame made the connection's window larger than " + Http2Frame.LargestWindowSize + ".");
+                }
+                this.connectionSendWindow += increment;
+            }
+            else
+            {
+                final Stream stream = this.streams.get(streamId);
+                if (stream != null)
+                {
+                    if ((long)stream.sendWindow + increment > Http2Frame.LargestWindowSize)
+                    {
+                        throw new Http2ProtocolException(Http2Frame.FlowControlError, streamId, "A WINDOW_UPDATE frame made a stream's window larger than " + Http2Frame.LargestWindowSize + ".");
+                    }
+                    stream.sendWindow += increment;
+                }
+            }
+            this.stateLock.notifyAll();
+        }
+    }
+
+    private void readHeaders(Http2Frame frame)
+    {
+        final int streamId = frame.getStreamId();
+        if (streamId % 2 == 0)
+        {
+            throw new Http2ProtocolException(Http2Frame.ProtocolError, "A HEADERS frame used the stream identifier " + streamId + ", which a client can't open.");
+        }
+
+        int fragmentStartIndex = frame.hasFlag(Http2Frame.PaddedFlag) ? 1 : 0;
+        if (frame.hasFlag(Http2Frame.PriorityFlag))
+        {
+            fragmentStartIndex += 5;
+        }
+        final int fragmentEndIndex = frame.getPaddedPayloadEndIndex(fragmentStartIndex);
+
+        this.headerBlockLength = 0;
+        this.headerBlockStreamId = streamId;
+        this.headerBlockEndsStream = frame.hasFlag(Http2Frame.EndStreamFlag);
+        this.appendHeaderBlockFragment(frame, fragmentStartIndex, fragmentEndIndex);
+    }
+
+    private void readContinuation(Http2Frame frame)
+    {
+        if (this.headerBlockStreamId == 0 || this.headerBlockStreamId != frame.getStreamId())
+        {
+            throw new Http2ProtocolException(Http2Frame.ProtocolError, "A CONTINUATION frame didn't continue a header block.");
+        }
+        this.appendHeaderBlockFragment(frame, 0, frame.getPayloadLength());
+    }
+
+    private void appendHeaderBlockFragment(Http2Frame frame, int startIndex, int endIndex)
+    {
+        final int fragmentLength = endIndex - startIndex;
+        if (this.headerBlockLength + fragmentLength > this.maximumHeaderBlockLength)
+        {
+            throw new Http2ProtocolException(Http2Frame.EnhanceYourCalmError, "A header block was longer than the maximum of " + this.maximumHeaderBlockLength + " bytes.");
+        }
+        if (this.headerBlock.length < this.headerBlockLength + fragmentLength)
+        {
+            this.headerBlock = java.util.Arrays.copyOf(this.headerBlock, Math.maximum(this.headerBlockLength + fragmentLength, this.headerBlock.length * 2));
+        }
+        System.arraycopy(frame.getPayload(), startIndex, this.headerBlock, this.headerBlockLength, fragmentLength);
+        this.headerBlockLength += fragmentLength;
+
+        if (frame.hasFlag(Http2Frame.EndHeadersFlag))
+        {
+            final int streamId = this.headerBlockStreamId;
+            this.headerBlockStreamId = 0;
+            this.readHeaderBlock(streamId, this.headerBlockEndsStream);
+        }
+    }
+
+    private void readHeaderBlock(int streamId, boolean endsStream)
+    {
+        Stream stream;
+        synchronized (this.stateLock)
+        {
+            stream = this.streams.get(streamId);
+        }
+
+        if (stream != null)
+        {
+            // A header block on a stream that is already open is the request's trailer section.
+            // Trailers aren't passed to path actions, but they must still be decoded to keep the
+            // decoder's dynamic table in sync with the client's.
+            this.headerDecoder.decode(this.headerBlock, 0, this.headerBlockLength, (String name, String value) -> {}).await();
+            if (stream.remoteClosed)
+            {
+                throw new Http2ProtocolException(Http2Frame.StreamClosedError, streamId, "A HEADERS frame was sent on a stream that the client had already closed.");
+            }
+            if (!endsStream)
+            {
+                throw new Http2ProtocolException(Http2Frame.ProtocolError, streamId, "A request's trailer section didn't end its stream.");
+            }
+            this.endRequestBody(stream);
+        }
+        else if (streamId <= this.lastStreamId)
+        {
+            throw new Http2ProtocolException(Http2Frame.StreamClosedError, "A HEADERS frame was sent on the closed stream " + streamId + ".");
+        }
+        else
+        {
+            this.lastStreamId = streamId;
+
+            int sendWindow;
+            int openStreamCount;
+            synchronized (this.stateLock)
+            {
+                sendWindow = this.peerInitialWindowSize;
+                openStreamCount = this.streams.size();
+            }
+            stream = new Stream(streamId, sendWindow);
+            this.headerDecoder.decode(this.headerBlock, 0, this.headerBlockLength, stream::addHeaderField).await();
+
+            if (openStreamCount >= Http2ServerConnection.MaximumConcurrentStreams)
+            {
+                throw new Http2ProtocolException(Http2Frame.RefusedStreamError, streamId, "A client opened more than " + Http2ServerConnection.MaximumConcurrentStreams + " streams at once.");
+            }
+            if (stream.method == null || stream.scheme == null || stream.path == null || stream.path.isEmpty())
+            {
+                stream.setMalformed("A request didn't have the :method, :scheme, and :path pseudo-header fields.");
+            }
+            if (stream.malformedReason != null)
+            {
+                throw new Http2ProtocolException(Http2Frame.ProtocolError, streamId, stream.malformedReason);
+            }
+
+            final BasicMutableHttpRequest request = stream.request;
+            request.setMethod(stream.method)
+                .setOriginFormTarget(stream.path, stream.scheme, this.localHost, this.localPort == 80 ? -1 : this.localPort);
+            if (stream.authority != null && !request.getHeaders().contains("Host"))
+            {
+                request.setHeader("Host", stream.authority);
+            }
+
+            if (stream.headerFieldCount > this.server.getMaximumHeaderCount())
+            {
+                stream.rejectedStatusCode = 431;
+            }
+            else if (request.getContentLengthValue() > this.server.getMaximumBodySize())
+            {
+                stream.rejectedStatusCode = 413;
+            }
+
+            synchronized (this.stateLock)
+            {
+                this.streams.put(streamId, stream);
+            }
+
+            if (endsStream)
+            {
+                this.endRequestBody(stream);
+            }
+            else if (stream.rejectedStatusCode != 0)
+            {
+                this.dispatch(stream);
+            }
+            else
+            {
+                stream.body = InMemoryByteStream.create();
+                final String expectValue = request.getHeaders().getValue(HttpHeader.ExpectName)
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (expectValue != null && HttpHeader.ExpectContinueValue.equalsIgnoreCase(expectValue.trim()))
+                {
+                    synchronized (this.writeLock)
+                    {
+                        this.headerEncoder.clear().writeHeader(":status", "100");
+                        this.headerEncoder.writeTo(this.frameWriter, streamId, false, this.peerMaximumFrameSize).await();
+                        this.writeStream.flush().await();
+                    }
+                }
+            }
+        }
+    }
+
+    private void readData(Http2Frame frame)
+    {
+        this.assertStreamFrame(frame);
+
+        final int streamId = frame.getStreamId();
+        final int payloadLength = frame.getPayloadLength();
+
+        // The whole payload, including any padding, counts against the flow-control windows. The
+        // connection's window is grown again once half of it has been received.
+        this.connectionReceivedBytes += payloadLength;
+        if (this.connectionReceivedBytes > Http2Frame.DefaultInitialWindowSize)
+        {
+            throw new Http2ProtocolException(Http2Frame.FlowControlError, "A client sent more data than the connection's flow-control window allowed.");
+        }
+        if (this.connectionReceivedBytes >= Http2Frame.DefaultInitialWindowSize / 2)
+        {
+            synchronized (this.writeLock)
+            {
+                this.frameWriter.writeWindowUpdate(0, this.connectionReceivedBytes).await();
+                this.writeStream.flush().await();
+            }
+            this.connectionReceivedBytes = 0;
+        }
+
+        if (streamId > this.lastStreamId)
+        {
+            throw new Http2ProtocolException(Http2Frame.ProtocolError, "A DATA frame was sent on the idle stream " + streamId + ".");
+        }
+
+        Stream stream;
+        synchronized (this.stateLock)
+        {
+            stream = this.streams.get(streamId);
+        }
+        // DATA frames for streams that have finished or been reset are dropped. The client may have
+        // sent them before it learned that the stream had ended.
+        if (stream != null)
+        {
+            if (stream.remoteClosed)
+            {
+                throw new Http2ProtocolException(Http2Frame.StreamClosedError, streamId, "A DATA frame was sent on a stream that the client had already closed.");
+            }
+
+            stream.receivedBytes += payloadLength;
+            if (stream.receivedBytes > Http2Frame.DefaultInitialWindowSize)
+            {
+                throw new Http2ProtocolException(Http2Frame.FlowControlError, streamId, "A client sent more data than the stream's flow-control window allowed.");
+            }
+
+            final boolean endsStream = frame.hasFlag(Http2Frame.EndStreamFlag);
+            boolean refused = false;
+            if (stream.rejectedStatusCode == 0)
+            {
+                final int dataStartIndex = frame.hasFlag(Http2Frame.PaddedFlag) ? 1 : 0;
+                final int dataEndIndex = frame.getPaddedPayloadEndIndex(dataStartIndex);
+                final int dataLength = dataEndIndex - dataStartIndex;
+                final long maximumBodySize = this.server.getMaximumBodySize();
+                if (stream.bodyLength + dataLength > maximumBodySize)
+                {
+                    stream.rejectedStatusCode = 413;
+                    synchronized (this.stateLock)
+                    {
+                        this.releaseBufferedBody(stream);
+                    }
+                    this.dispatch(stream);
+                }
+                else if (0 < dataLength)
+                {
+                    synchronized (this.stateLock)
+                    {
+                        refused = this.bufferedBodyBytes + dataLength > maximumBodySize;
+                        if (!refused)
+                        {
+                            this.bufferedBodyBytes += dataLength;
+                            stream.bufferedBodyBytes += dataLength;
+                        }
+                    }
+
+                    if (refused)
+                    {
+                        // The other streams' bodies are using up this connection's share of
+                        // memory. This stream hasn't been handled, so the client can retry it.
+                        this.resetStream(streamId, Http2Frame.RefusedStreamError);
+                    }
+                    else
+                    {
+                        stream.body.writeAll(frame.getPayload(), dataStartIndex, dataLength).await();
+                        stream.bodyLength += dataLength;
+                    }
+                }
+            }
+
+            // A refused stream has been removed, so its remaining DATA frames will be dropped.
+            if (!refused && endsStream)
+            {
+                this.endRequestBody(stream);
+            }
+            else if (!refused && stream.receivedBytes >= Http2Frame.DefaultInitialWindowSize / 2)
+            {
+                synchronized (this.writeLock)
+                {
+                    this.frameWriter.writeWindowUpdate(streamId, stream.receivedBytes).await();
+                    this.writeStream.flush().await();
+                }
+                stream.receivedBytes = 0;
+            }
+        }
+    }
+
+    /**
+     * Handle the end of the provided stream's request. The request is dispatched to be handled if
+     * it hasn't been already.
+     */
+    private void endRequestBody(Stream stream)
+    {
+        synchronized (this.stateLock)
+        {
+            stream.remoteClosed = true;
+        }
+
+        if (!stream.dispatched)
+        {
+            final BasicMutableHttpRequest request = stream.request;
+            if (stream.body != null)
+            {
+                final long contentLength = request.getContentLengthValue();
+                if (contentLength >= 0 && contentLength != stream.bodyLength)
+                {
+                    throw new Http2ProtocolException(Http2Frame.ProtocolError, stream.id, "A request's body length didn't match its content-length header.");
+                }
+                if (0 < stream.bodyLength)
+                {
+                    request.setBody(stream.bodyLength, stream.body.endOfStream());
+                }
+                stream.body = null;
+            }
+            this.dispatch(stream);
+        }
+    }
+
+    /**
+     * Handle the provided stream's request on its own task.
+     */
+    private void dispatch(Stream stream)
+    {
+        synchronized (this.stateLock)
+        {
+            stream.dispatched = true;
+            this.streams.put(stream.id, stream);
+        }
+
+        this.asyncRunner.schedule(() ->
+        {
+            try
+            {
+                HttpResponse response = stream.rejectedStatusCode != 0
+                    ? this.server.createErrorResponse(stream.request, stream.rejectedStatusCode)
+                    : this.server.handleRequest(stream.request);
+                if (response instanceof ServerSentEventResponse || response instanceof WebSocketUpgradeResponse)
+                {
+                    // These responses take over the whole connection after they are written, but a
+                    // HTTP/2 connection is shared with other streams, so they are only served over
+                    // HTTP/1.1.
+                    response = this.server.createErrorResponse(stream.request, 400);
+                }
+                this.writeResponse(stream, response);
+            }
+            catch (RuntimeException e)
+            {
+                if (!this.closed)
+                {
+                    this.resetStream(stream.id, Http2Frame.InternalError);
+                }
+            }
+            finally
+            {
+                synchronized (this.stateLock)
+                {
+                    this.streams.remove(stream.id);
+                    this.releaseBufferedBody(stream);
+                }
+            }
+        });
+    }
+
+    /**
+     * Write the provided response to the provided stream. The response's body is split into DATA
+     * frames that fit in the peer's flow-control windows.
+     */
+    private void writeResponse(Stream stream, HttpResponse response)
+    {
+        final int statusCode = response.getStatusCode();
+        try (final ByteReadStream body = response.getBody())
+        {
+            final boolean hasBody = body != null &&
+                !HttpMethod.HEAD.name().equals(stream.request.getMethod()) &&
+                statusCode != 204 &&
+                statusCode != 304;
+
+            boolean headersWritten = false;
+            synchronized (this.writeLock)
+            {
+                if (!this.closed && !stream.reset)
+                {
+                    this.headerEncoder.clear().writeHeader(":status", Integers.toString(statusCode));
+                    for (final HttpHeader header : response.getHeaders())
+                    {
+                        final String headerName = header.getName().toLowerCase();
+                        if (!Http2Frame.isConnectionSpecificHeaderName(headerName))
+                        {
+                            this.headerEncoder.writeHeader(headerName, header.getValue());
+                        }
+                    }
+                    this.headerEncoder.writeTo(this.frameWriter, stream.id, !hasBody, this.peerMaximumFrameSize).await();
+                    if (!hasBody)
+                    {
+                        this.writeStream.flush().await();
+                    }
+                    headersWritten = true;
+                }
+            }
+
+            if (headersWritten && hasBody)
+            {
+                this.writeResponseBody(stream, body, response.getContentLengthValue());
+            }
+        }
+
+        if (!stream.remoteClosed)
+        {
+            // The response was sent before the client finished sending the request, so the rest of
+            // the request isn't needed.
+            this.resetStream(stream.id, Http2Frame.NoError);
+        }
+    }
+
+    private void writeResponseBody(Stream stream, ByteReadStream body, long contentLength)
+    {
+        final byte[] buffer = this.bufferPool.lease(Http2Frame.DefaultMaximumFrameSize);
+        try
+        {
+            long bytesSent = 0;
+            boolean endStreamSent = false;
+            boolean aborted = false;
+            while (!endStreamSent && !aborted)
+            {
+                final Integer bytesRead = body.readBytes(buffer, 0, Http2Frame.DefaultMaximumFrameSize)
+                    .catchError(EmptyException.class)
+                    .await();
+                if (bytesRead == null || bytesRead <= 0)
+                {
+                    synchronized (this.writeLock)
+                    {
+                        aborted = this.closed || stream.reset;
+                        if (!aborted)
+                        {
+                            this.frameWriter.writeFrame(Http2Frame.DataType, Http2Frame.EndStreamFlag, stream.id, buffer, 0, 0).await();
+                            this.writeStream.flush().await();
+                        }
+                    }
+                    endStreamSent = true;
+                }
+                else
+                {
+                    int bufferIndex = 0;
+                    while (bufferIndex < bytesRead && !aborted)
+                    {
+                        final int windowLength = this.acquireSendWindow(stream, bytesRead - bufferIndex);
+                        aborted = (windowLength == 0);
+                        if (!aborted)
+                        {
+                            final boolean endsStream = bytesSent + windowLength == contentLength;
+                            synchronized (this.writeLock)
+                            {
+                                aborted = this.closed || stream.reset;
+                                if (!aborted)
+                                {
+                                    this.frameWriter.writeFrame(Http2Frame.DataType, endsStream ? Http2Frame.EndStreamFlag : 0, stream.id, buffer, bufferIndex, windowLength).await();
+                                    this.writeStream.flush().await();
+                                }
+                            }
+                            bufferIndex += windowLength;
+                            bytesSent += windowLength;
+                            endStreamSent = endsStream;
+                        }
+                    }
+                }
+            }
+        }
+        finally
+        {
+            this.bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Wait until both the connection's and the provided stream's flow-control windows are open,
+     * and then take up to the provided number of bytes from them.
+     * @return The number of bytes that were taken from the windows, or 0 if the stream was reset or
+     * the connection was closed while waiting.
+     */
+    private int acquireSendWindow(Stream stream, int length)
+    {
+        int result = 0;
+        synchronized (this.stateLock)
+        {
+            while (result == 0 && !this.closed && !stream.reset)
+            {
+                final int window = Math.minimum(this.connectionSendWindow, stream.sendWindow);
+                if (0 < window)
+                {
+                    result = Math.minimum(window, length);
+                    this.connectionSendWindow -= result;
+                    stream.sendWindow -= result;
+                }
+                else
+                {
+                    try
+                    {
+                        this.stateLock.wait();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        throw Exceptions.asRuntime(e);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * End the stream with the provided identifier by sending a RST_STREAM frame.
+     */
+    private void resetStream(int streamId, int errorCode)
+    {
+        synchronized (this.stateLock)
+        {
+            this.removeResetStream(streamId);
+        }
+        synchronized (this.writeLock)
+        {
+            if (!this.closed)
+            {
+                this.frameWriter.writeRstStream(streamId, errorCode).await();
+                this.writeStream.flush().await();
+            }
+        }
+    }
+
+    private void writeGoAway(int errorCode)
+    {
+        synchronized (this.writeLock)
+        {
+            if (!this.closed)
+            {
+                try
+                {
+                    this.frameWriter.writeGoAway(this.lastStreamId, errorCode).await();
+                    this.writeStream.flush().await();
+                }
+                catch (RuntimeException e)
+                {
+                    // The connection is being closed anyway, so a client that can't be told why
+                    // doesn't need to be.
+                }
+            }
+        }
+    }
+
+    /**
+     * Close this connection. Tasks that are still writing responses will stop at their next frame.
+     */
+    private void close()
+    {
+        synchronized (this.writeLock)
+        {
+            this.closed = true;
+            this.writeStream.dispose()
+                .catchError(() -> false)
+                .await();
+        }
+        synchronized (this.stateLock)
+        {
+            this.stateLock.notifyAll();
+        }
+        this.frameReader.dispose().await();
+        this.readStream.dispose().await();
+        this.connection.dispose().await();
+    }
+}
@@ -0,0 +1,289 @@
+package qub;
+
+/**
+ * A type that reads the head (the start line and the header block) of a HTTP message from a
+ * {@link ByteReadStream} into a reusable byte buffer.
+ */
+public class HttpHeadReader
+{
+    private byte[] bytes;
+    private int maximumLineLength;
+    private int maximumHeaderBytes;
+    private int maximumHeaderCount;
+
+    private HttpHeadReader()
+    {
+        this.bytes = new byte[256];
+        this.maximumLineLength = Integers.maximum;
+        this.maximumHeaderBytes = Integers.maximum;
+        this.maximumHeaderCount = Integers.maximum;
+    }
+
+    /**
+     * Create a new HttpHeadReader.
+     * @return The new HttpHeadReader.
+     */
+    public static HttpHeadReader create()
+    {
+        return new HttpHeadReader();
+    }
+
+    /**
+     * Set the maximum number of bytes (not including the line terminator) that a line read by
+     * {@link #readLineBytes(ByteReadStream)} can contain. A longer line will cause a
+     * {@link HttpLimitExceededException} with a 414 (URI Too Long) status code.
+     * @param maximumLineLength The maximum number of bytes that a line can contain.
+     * @return This object for method chaining.
+     */
+    public HttpHeadReader setMaximumLineLength(int maximumLineLength)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumLineLength, 1, "maximumLineLength");
+
+        this.maximumLineLength = maximumLineLength;
+
+        return this;
+    }
+
+    /**
+     * Get the maximum number of bytes that a line can contain.
+     * @return The maximum number of bytes that a line can contain.
+     */
+    public int getMaximumLineLength()
+    {
+        return this.maximumLineLength;
+    }
+
+    /**
+     * Set the maximum number of bytes that a header block read by
+     * {@link #readHeaders(ByteReadStream)} can contain. A larger header block will cause a
+     * {@link HttpLimitExceededException} with a 431 (Request Header Fields Too Large) status code.
+     * @param maximumHeaderBytes The maximum number of bytes that a header block can contain.
+     * @return This object for method chaining.
+     */
+    public HttpHeadReader setMaximumHeaderBytes(int maximumHeaderBytes)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumHeaderBytes, 0, "maximumHeaderBytes");
+
+        this.maximumHeaderBytes = maximumHeaderBytes;
+
+        return this;
+    }
+
+    /**
+     * Get the maximum number of bytes that a header block can contain.
+     * @return The maximum number of bytes that a header block can contain.
+     */
+    public int getMaximumHeaderBytes()
+    {
+        return this.maximumHeaderBytes;
+    }
+
+    /**
+     * Set the maximum number of headers that a header block read by
+     * {@link #readHeaders(ByteReadStream)} can contain. More headers will cause a
+     * {@link HttpLimitExceededException} with a 431 (Request Header Fields Too Large) status code.
+     * @param maximumHeaderCount The maximum number of headers that a header block can contain.
+     * @return This object for method chaining.
+     */
+    public HttpHeadReader setMaximumHeaderCount(int maximumHeaderCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumHeaderCount, 0, "maximumHeaderCount");
+
+        this.maximumHeaderCount = maximumHeaderCount;
+
+        return this;
+    }
+
+    /**
+     * Get the maximum number of headers that a header block can contain.
+     * @return The maximum number of headers that a header block can contain.
+     */
+    public int getMaximumHeaderCount()
+    {
+        return this.maximumHeaderCount;
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (this.bytes.length < capacity)
+        {
+            this.bytes = java.util.Arrays.copyOf(this.bytes, Math.maximum(capacity, this.bytes.length * 2));
+        }
+    }
+
+    /**
+     * Get the byte buffer that {@link #readLineBytes(ByteReadStream)} reads lines into. The
+     * returned buffer is only valid until this reader is used again.
+     * @return The byte buffer that lines are read into.
+     */
+    public byte[] getLineBytes()
+    {
+        return this.bytes;
+    }
+
+    /**
+     * Read a single line from the provided ByteReadStream into this reader's byte buffer (see
+     * {@link #getLineBytes()}). The line terminator ("\r\n" or "\n") will be read from the
+     * stream, but it will not be part of the line.
+     * @param byteReadStream The ByteReadStream to read the line from.
+     * @return The number of bytes in the line that was read, or -1 if the stream ended before any
+     * bytes were read.
+     */
+    public Result<Integer> readLineBytes(ByteReadStream byteReadStream)
+    {
+        PreCondition.assertNotNull(byteReadStream, "byteReadStream");
+
+        return Result.create(() ->
+        {
+            // The line can be followed by "\r\n", so two more bytes than the maximum line length
+            // are read before the line is known to be too long.
+            final int appendedCount = this.appendLine(byteReadStream, 0, HttpHeadReader.addLineTerminatorLength(this.maximumLineLength));
+            int length = appendedCount;
+            if (0 < length && this.bytes[length - 1] == '\n')
+            {
+                --length;
+            }
+            if (0 < length && this.bytes[length - 1] == '\r')
+            {
+                --length;
+            }
+            if (length > this.maximumLineLength)
+            {
+                throw new HttpLimitExceededException(414, "The line was longer than the maximum of " + this.maximumLineLength + " bytes.");
+            }
+
+            return appendedCount == 0 ? -1 : length;
+        });
+    }
+
+    /**
+     * Append bytes from the provided stream to this reader's byte buffer, up to and including the
+     * next line feed. Streams that are a {@link DelimitedByteReadStream} are scanned for the line
+     * feed in their buffer and copied in bulk. Other streams are read one byte at a time so
+     * that nothing after the line feed is read.
+     * @param byteReadStream The stream to read from.
+     * @param startIndex The index in this reader's byte buffer to append the bytes at.
+     * @param maximumCount The maximum number of bytes to append.
+     * @return The number of bytes that were appended. The last appended byte is a line feed unless
+     * the stream ended or maximumCount bytes were appended.
+     */
+    private int appendLine(ByteReadStream byteReadStream, int startIndex, int maximumCount)
+    {
+        int result = 0;
+        boolean lineEnded = false;
+        if (byteReadStream instanceof DelimitedByteReadStream)
+        {
+            final DelimitedByteReadStream delimitedStream = (DelimitedByteReadStream)byteReadStream;
+            while (!lineEnded && result < maximumCount)
+            {
+                final int index = startIndex + result;
+                this.ensureCapacity(index + 1);
+                final int bytesRead = delimitedStream.readBytesUntil((byte)'\n', this.bytes, index, Math.minimum(maximumCount - result, this.bytes.length - index)).await();
+                result += bytesRead;
+                lineEnded = (bytesRead == 0 || this.bytes[startIndex + result - 1] == '\n');
+            }
+        }
+        else
+        {
+            while (!lineEnded && result < maximumCount)
+            {
+                final Byte b = byteReadStream.readByte()
+                    .catchError(EmptyException.class)
+                    .await();
+                if (b == null)
+                {
+                    lineEnded = true;
+                }
+                else
+                {
+                    this.ensureCapacity(startIndex + result + 1);
+                    this.bytes[startIndex + result++] = b;
+                    lineEnded = (b == '\n');
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the provided length plus the length of a "\r\n" line terminator, without overflowing.
+     */
+    private static int addLineTerminatorLength(int length)
+    {
+        return length > Integers.maximum - 2 ? Integers.maximum : length + 2;
+    }
+
+    /**
+     * Read a single line from the provided ByteReadStream. The line terminator ("\r\n" or "\n")
+     * will be read from the stream, but it will not be part of the returned line.
+     * @param byteReadStream The ByteReadStream to read the line from.
+     * @return The line that was read, or null if the stream ended before any bytes were read.
+     */
+    public Result<String> readLine(ByteReadStream byteReadStream)
+    {
+        PreCondition.assertNotNull(byteReadStream, "byteReadStream");
+
+        return Result.create(() ->
+        {
+            final int length = this.readLineBytes(byteReadStream).await();
+            return length == -1
+                ? null
+                : new String(this.bytes, 0, length, java.nio.charset.StandardCharsets.UTF_8);
+        });
+    }
+
+    /**
+     * Read a header block from the provided ByteReadStream. The header block ends with an empty
+     * line (or the end of the stream). The empty line will be read from the stream, but it will not
+     * be part of the returned headers. The returned headers are backed by this reader's byte
+     * buffer, so they are only valid until this reader is used again.
+     * @param byteReadStream The ByteReadStream to read the header block from.
+     * @return The headers that were read.
+     */
+    public Result<RawHttpHeaders> readHeaders(ByteReadStream byteReadStream)
+    {
+        PreCondition.assertNotNull(byteReadStream, "byteReadStream");
+
+        return Result.create(() ->
+        {
+            int length = 0;
+            int headerCount = 0;
+            while (true)
+            {
+                // The empty line that ends the header block doesn't count towards the maximum, so
+                // two more bytes than the remaining room are read before the header block is known
+                // to be too large.
+                final int appendedCount = this.appendLine(byteReadStream, length, HttpHeadReader.addLineTerminatorLength(this.maximumHeaderBytes - length));
+                final int lineEndIndex = length + appendedCount;
+                if (appendedCount == 0)
+                {
+                    break;
+                }
+                else if (this.bytes[lineEndIndex - 1] == '\n' && (appendedCount == 1 || (appendedCount == 2 && this.bytes[length] == '\r')))
+                {
+                    break;
+                }
+                else if (lineEndIndex > this.maximumHeaderBytes)
+                {
+                    throw new HttpLimitExceededException(431, "The header block was longer than the maximum of " + this.maximumHeaderBytes + " bytes.");
+                }
+
+                length = lineEndIndex;
+                if (this.bytes[lineEndIndex - 1] == '\n')
+                {
+                    ++headerCount;
+                    if (headerCount > this.maximumHeaderCount)
+                    {
+                        throw new HttpLimitExceededException(431, "The header block contained more than the maximum of " + this.maximumHeaderCount + " headers.");
+                    }
+                }
+                else
+                {
+                    // The stream ended in the middle of a line.
+                    break;
+                }
+            }
+            return RawHttpHeaders.create(this.bytes, 0, length);
+        });
+    }
+}
@@ -0,0 +1,249 @@
+package qub;
+
+/**
+ * A type that encodes the head (the start line and the header block) of a HTTP message into a
+ * reusable byte buffer so that it can be written to a {@link ByteWriteStream} in a single write.
+ */
+public class HttpHeadWriter
+{
+    private byte[] bytes;
+    private int length;
+
+    private HttpHeadWriter()
+    {
+        this.bytes = new byte[256];
+    }
+
+    /**
+     * Create a new HttpHeadWriter.
+     * @return The new HttpHeadWriter.
+     */
+    public static HttpHeadWriter create()
+    {
+        return new HttpHeadWriter();
+    }
+
+    /**
+     * Get the number of bytes that have been written to this HttpHeadWriter.
+     * @return The number of bytes that have been written to this HttpHeadWriter.
+     */
+    public int getLength()
+    {
+        return this.length;
+    }
+
+    /**
+     * Get a copy of the bytes that have been written to this HttpHeadWriter.
+     * @return A copy of the bytes that have been written to this HttpHeadWriter.
+     */
+    public byte[] getBytes()
+    {
+        return java.util.Arrays.copyOf(this.bytes, this.length);
+    }
+
+    /**
+     * Remove all of the bytes that have been written to this HttpHeadWriter so that it can be
+     * reused.
+     * @return This object for method chaining.
+     */
+    public HttpHeadWriter clear()
+    {
+        this.length = 0;
+
+        return this;
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (this.bytes.length < capacity)
+        {
+            this.bytes = java.util.Arrays.copyOf(this.bytes, Math.maximum(capacity, this.bytes.length * 2));
+        }
+    }
+
+    private void writeByte(byte toWrite)
+    {
+        this.ensureCapacity(this.length + 1);
+        this.bytes[this.length++] = toWrite;
+    }
+
+    private void writeString(String toWrite)
+    {
+        final int toWriteLength = toWrite.length();
+        this.ensureCapacity(this.length + toWriteLength);
+
+        boolean ascii = true;
+        for (int i = 0; i < toWriteLength; ++i)
+        {
+            final char c = toWrite.charAt(i);
+            if (c >= 0x80)
+            {
+                ascii = false;
+                break;
+            }
+            this.bytes[this.length + i] = (byte)c;
+        }
+
+        if (ascii)
+        {
+            this.length += toWriteLength;
+        }
+        else
+        {
+            final byte[] encodedBytes = toWrite.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            this.ensureCapacity(this.length + encodedBytes.length);
+            System.arraycopy(encodedBytes, 0, this.bytes, this.length, encodedBytes.length);
+            this.length += encodedBytes.length;
+        }
+    }
+
+    private void writeInteger(int toWrite)
+    {
+        if (0 <= toWrite && toWrite < 1000)
+        {
+            if (100 <= toWrite)
+            {
+                this.writeByte((byte)('0' + (toWrite / 100)));
+            }
+            if (10 <= toWrite)
+            {
+                this.writeByte((byte)('0' + ((toWrite / 10) % 10)));
+            }
+            this.writeByte((byte)('0' + (toWrite % 10)));
+        }
+        else
+        {
+            this.writeString(Integers.toString(toWrite));
+        }
+    }
+
+    private void writeNewLine()
+    {
+        this.writeByte((byte)'\r');
+        this.writeByte((byte)'\n');
+    }
+
+    /**
+     * Write the status line of a HTTP response.
+     * @param httpVersion The HTTP version of the response.
+     * @param statusCode The status code of the response.
+     * @param reasonPhrase The reason phrase of the response.
+     * @return This object for method chaining.
+     */
+    public HttpHeadWriter writeStatusLine(String httpVersion, int statusCode, String reasonPhrase)
+    {
+        PreCondition.assertNotNullAndNotEmpty(httpVersion, "httpVersion");
+
+        this.writeString(httpVersion);
+        this.writeByte((byte)' ');
+        this.writeInteger(statusCode);
+        this.writeByte((byte)' ');
+        if (reasonPhrase != null)
+        {
+            this.writeString(reasonPhrase);
+        }
+        this.writeNewLine();
+
+        return this;
+    }
+
+    /**
+     * Write the request line of a HTTP request.
+     * @param method The method of the request.
+     * @param requestTarget The target of the request.
+     * @param httpVersion The HTTP version of the request.
+     * @return This object for method chaining.
+     */
+    public HttpHeadWriter writeRequestLine(String method, String requestTarget, String httpVersion)
+    {
+        PreCondition.assertNotNullAndNotEmpty(method, "method");
+        PreCondition.assertNotNullAndNotEmpty(requestTarget, "requestTarget");
+        PreCondition.assertNotNullAndNotEmpty(httpVersion, "httpVersion");
+
+        this.writeString(method);
+        this.writeByte((byte)' ');
+        this.writeString(requestTarget);
+        this.writeByte((byte)' ');
+        this.writeString(httpVersion);
+        this.writeNewLine();
+
+        return this;
+    }
+
+    /**
+     * Write the provided header.
+     * @param header The header to write.
+     * @return This object for method chaining.
+     */
+    public HttpHeadWriter writeHeader(HttpHeader header)
+    {
+        PreCondition.assertNotNull(header, "header");
+
+        return this.writeHeader(header.getName(), header.getValue());
+    }
+
+    /**
+     * Write the provided header.
+     * @param headerName The name of the header to write.
+     * @param headerValue The value of the header to write.
+     * @return This object for method chaining.
+     */
+    public HttpHeadWriter writeHeader(String headerName, String headerValue)
+    {
+        PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
+        PreCondition.assertNotNull(headerValue, "headerValue");
+
+        this.writeString(headerName);
+        this.writeByte((byte)':');
+        this.writeString(headerValue);
+        this.writeNewLine();
+
+        return this;
+    }
+
+    /**
+     * Write each of the provided headers.
+     * @param headers The headers to write.
+     * @return This object for method chaining.
+     */
+    public HttpHeadWriter writeHeaders(Iterable<HttpHeader> headers)
+    {
+        PreCondition.assertNotNull(headers, "headers");
+
+        for (final HttpHeader header : headers)
+        {
+            this.writeHeader(header);
+        }
+
+        return this;
+    }
+
+    /**
+     * Write the empty line that marks the end of the HTTP message head.
+     * @return This object for method chaining.
+     */
+    public HttpHeadWriter writeEndOfHead()
+    {
+        this.writeNewLine();
+
+        return this;
+    }
+
+    /**
+     * Write the bytes that have been written to this HttpHeadWriter to the provided
+     * ByteWriteStream.
+     * @param byteWriteStream The ByteWriteStream to write to.
+     */
+    public Result<Void> writeTo(ByteWriteStream byteWriteStream)
+    {
+        PreCondition.assertNotNull(byteWriteStream, "byteWriteStream");
+
+        return Result.create(() ->
+        {
+            if (0 < this.length)
+            {
+                byteWriteStream.writeAll(this.bytes, 0, this.length).await();
+            }
+        });
+    }
+}
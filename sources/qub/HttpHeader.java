@@ -10,6 +10,90 @@ public class HttpHeader
      */
     public static final String ContentLengthName = "Content-Length";
 
+    /**
+     * The standard name for the content type header.
+     */
+    public static final String ContentTypeName = "Content-Type";
+
+    /**
+     * The standard name for the content encoding header.
+     */
+    public static final String ContentEncodingName = "Content-Encoding";
+
+    /**
+     * The standard name for the accept header.
+     */
+    public static final String AcceptName = "Accept";
+
+    /**
+     * The standard name for the accept encoding header.
+     */
+    public static final String AcceptEncodingName = "Accept-Encoding";
+
+    /**
+     * The standard name for the transfer encoding header.
+     */
+    public static final String TransferEncodingName = "Transfer-Encoding";
+
+    /**
+     * The standard name for the vary header.
+     */
+    public static final String VaryName = "Vary";
+
+    /**
+     * The standard name for the expect header.
+     */
+    public static final String ExpectName = "Expect";
+
+    /**
+     * The value of the expect header that asks the server to send a 100 (Continue) response before
+     * the client sends the request's body.
+     */
+    public static final String ExpectContinueValue = "100-continue";
+
+    /**
+     * The standard name for the cache control header.
+     */
+    public static final String CacheControlName = "Cache-Control";
+
+    /**
+     * The name of the header that an event stream client sends when it reconnects, which contains
+     * the ID of the last server-sent event that it received.
+     */
+    public static final String LastEventIdName = "Last-Event-ID";
+
+    /**
+     * The standard name for the upgrade header.
+     */
+    public static final String UpgradeName = "Upgrade";
+
+    /**
+     * The standard name for the connection header.
+     */
+    public static final String ConnectionName = "Connection";
+
+    /**
+     * The name of the header that contains the key of a WebSocket opening handshake.
+     */
+    public static final String SecWebSocketKeyName = "Sec-WebSocket-Key";
+
+    /**
+     * The name of the header that contains the server's answer to a WebSocket opening handshake's
+     * key.
+     */
+    public static final String SecWebSocketAcceptName = "Sec-WebSocket-Accept";
+
+    /**
+     * The name of the header that contains the version of the WebSocket protocol.
+     */
+    public static final String SecWebSocketVersionName = "Sec-WebSocket-Version";
+
+    /**
+     * The name of the header that carries a client's HTTP/2 SETTINGS payload in a request that
+     * asks to upgrade its connection to HTTP/2.
+     */
+    public static final String Http2SettingsName = "HTTP2-Settings";
+
     private final String name;
     private final String value;
 
@@ -42,6 +126,106 @@ public class HttpHeader
         return new HttpHeader(name, value);
     }
 
+    /**
+     * Get whether or not the provided header name is the Content-Length header name.
+     * @param headerName The header name to check.
+     * @return Whether or not the provided header name is the Content-Length header name.
+     */
+    public static boolean isContentLengthName(String headerName)
+    {
+        return HttpHeader.ContentLengthName.equalsIgnoreCase(headerName);
+    }
+
+    /**
+     * Get whether or not the provided comma-separated header value (such as a Connection or
+     * Upgrade header value) contains the provided token, ignoring case and the whitespace around
+     * each element.
+     * @param headerValue The header value to search, or null if there is no such header.
+     * @param token The token to look for.
+     * @return Whether or not the provided header value contains the provided token.
+     */
+    public static boolean containsToken(String headerValue, String token)
+    {
+        PreCondition.assertNotNullAndNotEmpty(token, "token");
+
+        boolean result = false;
+        if (headerValue != null)
+        {
+            final int headerValueLength = headerValue.length();
+            final int tokenLength = token.length();
+            int elementStart = 0;
+            while (!result && elementStart <= headerValueLength)
+            {
+                int elementEnd = headerValue.indexOf(',', elementStart);
+                if (elementEnd == -1)
+                {
+                    elementEnd = headerValueLength;
+                }
+
+                int start = elementStart;
+                while (start < elementEnd && headerValue.charAt(start) <= ' ')
+                {
+                    ++start;
+                }
+                int end = elementEnd;
+                while (start < end && headerValue.charAt(end - 1) <= ' ')
+                {
+                    --end;
+                }
+                result = (end - start == tokenLength && headerValue.regionMatches(true, start, token, 0, tokenLength));
+
+                elementStart = elementEnd + 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not the provided Transfer-Encoding header value ends with the chunked
+     * transfer coding, which means that the message body is framed as chunks.
+     * @param transferEncoding The Transfer-Encoding header value, or null if there is no
+     *                         Transfer-Encoding header.
+     * @return Whether or not the final transfer coding is chunked.
+     */
+    public static boolean isChunkedTransferEncoding(String transferEncoding)
+    {
+        boolean result = false;
+        if (transferEncoding != null)
+        {
+            final int lastCommaIndex = transferEncoding.lastIndexOf(',');
+            result = transferEncoding.substring(lastCommaIndex + 1).trim().equalsIgnoreCase("chunked");
+        }
+        return result;
+    }
+
+    /**
+     * Parse the provided Content-Length header value.
+     * @param headerValue The Content-Length header value to parse.
+     * @return The parsed content length, or -1 if the header value is not a valid content length.
+     */
+    public static long parseContentLength(String headerValue)
+    {
+        long result = -1;
+
+        final int length = headerValue == null ? 0 : headerValue.length();
+        if (0 < length && length <= 18)
+        {
+            result = 0;
+            for (int i = 0; i < length; ++i)
+            {
+                final char c = headerValue.charAt(i);
+                if (c < '0' || '9' < c)
+                {
+                    result = -1;
+                    break;
+                }
+                result = (result * 10) + (c - '0');
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Get the name of this HTTP header.
      * @return
@@ -29,13 +29,39 @@ public interface HttpHeaders extends Iterable<HttpHeader>
     }
 
     /**
-     * Get the header in this collection that has the provided header name.
+     * Get the first header in this collection that has the provided header name.
      * @param headerName The name of the header to get.
      * @return The header in this collection with the provided headerName, if the header exists in
      * this collection.
      */
     Result<HttpHeader> get(String headerName);
 
+    /**
+     * Get all of the headers in this collection that have the provided header name, in the order
+     * that they were received or added.
+     * @param headerName The name of the headers to get.
+     * @return A view of the headers in this collection with the provided headerName.
+     */
+    default Iterable<HttpHeader> getAll(String headerName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
+
+        return this.where((HttpHeader header) -> header.getName().equalsIgnoreCase(headerName));
+    }
+
+    /**
+     * Get all of the values of the headers in this collection that have the provided header name,
+     * in the order that they were received or added.
+     * @param headerName The name of the headers to get the values of.
+     * @return A view of the values of the headers in this collection with the provided headerName.
+     */
+    default Iterable<String> getAllValues(String headerName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
+
+        return this.getAll(headerName).map(HttpHeader::getValue);
+    }
+
     /**
      * Get the value of the header in this collection that has the provided header name.
      * @param headerName The name of the header to get.
@@ -0,0 +1,31 @@
+package qub;
+
+/**
+ * An exception that is thrown when a part of a HTTP message is larger than the limit that was
+ * configured for it.
+ */
+public class HttpLimitExceededException extends RuntimeException
+{
+    private final int statusCode;
+
+    /**
+     * Create a new HttpLimitExceededException.
+     * @param statusCode The status code of the error response that should be sent to the client.
+     * @param message The message that describes the limit that was exceeded.
+     */
+    public HttpLimitExceededException(int statusCode, String message)
+    {
+        super(message);
+
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * Get the status code of the error response that should be sent to the client.
+     * @return The status code of the error response that should be sent to the client.
+     */
+    public int getStatusCode()
+    {
+        return this.statusCode;
+    }
+}
@@ -16,4 +16,10 @@ public enum HttpMethod
     DELETE,
 
     HEAD,
+
+    OPTIONS,
+
+    CONNECT,
+
+    TRACE,
 }
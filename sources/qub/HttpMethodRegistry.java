@@ -0,0 +1,193 @@
+package qub;
+
+/**
+ * The set of HTTP methods that a {@link HttpServer} implements. The standard methods (see
+ * {@link HttpMethod}) are always registered, and extension methods (such as WebDAV's PROPFIND) can
+ * be added. Method tokens that are parsed from a request line are matched against the standard
+ * methods without creating a new String, and unknown tokens are passed through as new Strings so
+ * that the server can reject them.
+ */
+public class HttpMethodRegistry
+{
+    private static final String GET = HttpMethod.GET.name();
+    private static final String PUT = HttpMethod.PUT.name();
+    private static final String POST = HttpMethod.POST.name();
+    private static final String HEAD = HttpMethod.HEAD.name();
+    private static final String PATCH = HttpMethod.PATCH.name();
+    private static final String TRACE = HttpMethod.TRACE.name();
+    private static final String DELETE = HttpMethod.DELETE.name();
+    private static final String OPTIONS = HttpMethod.OPTIONS.name();
+    private static final String CONNECT = HttpMethod.CONNECT.name();
+
+    private volatile java.util.Map<String,String> methods;
+
+    private HttpMethodRegistry()
+    {
+        final java.util.Map<String,String> methods = new java.util.HashMap<>();
+        for (final HttpMethod method : HttpMethod.values())
+        {
+            methods.put(method.name(), method.name());
+        }
+        this.methods = methods;
+    }
+
+    /**
+     * Create a new HttpMethodRegistry that contains the standard HTTP methods.
+     * @return The new HttpMethodRegistry.
+     */
+    public static HttpMethodRegistry create()
+    {
+        return new HttpMethodRegistry();
+    }
+
+    /**
+     * Add the provided extension method to this registry.
+     * @param method The method token to add. Method tokens are case-sensitive.
+     * @return This object for method chaining.
+     */
+    public HttpMethodRegistry add(String method)
+    {
+        PreCondition.assertNotNullAndNotEmpty(method, "method");
+        PreCondition.assertTrue(HttpMethodRegistry.isToken(method), "method must be a valid HTTP token.");
+
+        synchronized (this)
+        {
+            final java.util.Map<String,String> newMethods = new java.util.HashMap<>(this.methods);
+            newMethods.put(method, method);
+            this.methods = newMethods;
+        }
+
+        return this;
+    }
+
+    /**
+     * Get whether or not the provided method is registered.
+     * @param method The method to check.
+     * @return Whether or not the provided method is registered.
+     */
+    public boolean contains(String method)
+    {
+        return method != null && this.methods.containsKey(method);
+    }
+
+    /**
+     * Get the registered methods.
+     * @return The registered methods.
+     */
+    public Iterable<String> getMethods()
+    {
+        final List<String> result = List.create();
+        for (final String method : this.methods.keySet())
+        {
+            result.add(method);
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not the provided text is a valid HTTP token (RFC 7230, section 3.2.6).
+     * @param text The text to check.
+     * @return Whether or not the provided text is a valid HTTP token.
+     */
+    public static boolean isToken(String text)
+    {
+        boolean result = !Strings.isNullOrEmpty(text);
+        if (result)
+        {
+            final int length = text.length();
+            for (int i = 0; result && i < length; ++i)
+            {
+                result = HttpMethodRegistry.isTokenCharacter(text.charAt(i));
+            }
+        }
+        return result;
+    }
+
+    private static boolean isTokenCharacter(int c)
+    {
+        return ('a' <= c && c <= 'z') ||
+            ('A' <= c && c <= 'Z') ||
+            ('0' <= c && c <= '9') ||
+            (0 <= "!#$%&'*+-.^_`|~".indexOf(c));
+    }
+
+    private static boolean matches(byte[] bytes, int startIndex, String method)
+    {
+        boolean result = true;
+        final int length = method.length();
+        for (int i = 0; result && i < length; ++i)
+        {
+            result = (bytes[startIndex + i] == method.charAt(i));
+        }
+        return result;
+    }
+
+    /**
+     * Parse the method token at the provided range of bytes. The standard methods are returned as
+     * shared String constants. Any other valid token is returned as a new String, whether or not
+     * it is registered.
+     * @param bytes The bytes that contain the method token.
+     * @param startIndex The index of the first byte of the method token.
+     * @param length The number of bytes in the method token.
+     * @return The method token, or null if the bytes are not a valid token.
+     */
+    public String parse(byte[] bytes, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 0, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, bytes.length, "startIndex + length");
+
+        String result = null;
+        switch (length)
+        {
+            case 3:
+                result = HttpMethodRegistry.matches(bytes, startIndex, HttpMethodRegistry.GET) ? HttpMethodRegistry.GET
+                    : HttpMethodRegistry.matches(bytes, startIndex, HttpMethodRegistry.PUT) ? HttpMethodRegistry.PUT
+                    : null;
+                break;
+
+            case 4:
+                result = HttpMethodRegistry.matches(bytes, startIndex, HttpMethodRegistry.POST) ? HttpMethodRegistry.POST
+                    : HttpMethodRegistry.matches(bytes, startIndex, HttpMethodRegistry.HEAD) ? HttpMethodRegistry.HEAD
+                    : null;
+                break;
+
+            case 5:
+                result = HttpMethodRegistry.matches(bytes, startIndex, HttpMethodRegistry.PATCH) ? HttpMethodRegistry.PATCH
+                    : HttpMethodRegistry.matches(bytes, startIndex, HttpMethodRegistry.TRACE) ? HttpMethodRegistry.TRACE
+                    : null;
+                break;
+
+            case 6:
+                result = HttpMethodRegistry.matches(bytes, startIndex, HttpMethodRegistry.DELETE) ? HttpMethodRegistry.DELETE : null;
+                break;
+
+            case 7:
+                result = HttpMethodRegistry.matches(bytes, startIndex, HttpMethodRegistry.OPTIONS) ? HttpMethodRegistry.OPTIONS
+                    : HttpMethodRegistry.matches(bytes, startIndex, HttpMethodRegistry.CONNECT) ? HttpMethodRegistry.CONNECT
+                    : null;
+                break;
+        }
+
+        if (result == null && 0 < length)
+        {
+            boolean isToken = true;
+            for (int i = 0; isToken && i < length; ++i)
+            {
+                isToken = HttpMethodRegistry.isTokenCharacter(bytes[startIndex + i]);
+            }
+            if (isToken)
+            {
+                result = new String(bytes, startIndex, length, java.nio.charset.StandardCharsets.US_ASCII);
+                final String registeredMethod = this.methods.get(result);
+                if (registeredMethod != null)
+                {
+                    result = registeredMethod;
+                }
+            }
+        }
+
+        return result;
+    }
+}
@@ -28,6 +28,39 @@ public interface HttpRequest
      */
     URL getURL();
 
+    /**
+     * Get the path of this request's target URL.
+     * @return The path of this request's target URL, or null if the target URL doesn't have a
+     * path.
+     */
+    default String getPath()
+    {
+        final URL url = this.getURL();
+        return url == null ? null : url.getPath().catchError(NotFoundException.class).await();
+    }
+
+    /**
+     * Get the query of this request's target URL, without the leading '?'.
+     * @return The query of this request's target URL, or null if the target URL doesn't have a
+     * query.
+     */
+    default String getQuery()
+    {
+        final URL url = this.getURL();
+        return url == null ? null : url.getQuery().catchError(NotFoundException.class).await();
+    }
+
+    /**
+     * Get the parameters of the query of this request's target URL. The query is only split into
+     * parameters when a parameter is first accessed, and each parameter is only percent-decoded
+     * when it is read.
+     * @return The parameters of the query of this request's target URL.
+     */
+    default QueryParameters getQueryParameters()
+    {
+        return QueryParameters.create(this.getQuery());
+    }
+
     /**
      * Get the headers that are included with this request.
      * @return The headers that are included with this request.
@@ -83,6 +116,20 @@ public interface HttpRequest
         });
     }
 
+    /**
+     * Get the value of the Content-Length header that has been set in this request as a primitive
+     * long.
+     * @return The value of the Content-Length header, or -1 if the header was not found or could not
+     * be parsed.
+     */
+    default long getContentLengthValue()
+    {
+        final long result = this.getContentLength()
+            .catchError(() -> -1L)
+            .await();
+        return result < 0 ? -1 : result;
+    }
+
     /**
      * Get the body of this request.
      * @return The body of this request.
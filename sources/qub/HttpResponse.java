@@ -68,6 +68,20 @@ public interface HttpResponse extends Disposable
         });
     }
 
+    /**
+     * Get the value of the Content-Length header that has been set in this response as a primitive
+     * long.
+     * @return The value of the Content-Length header, or -1 if the header was not found or could not
+     * be parsed.
+     */
+    default long getContentLengthValue()
+    {
+        final long result = this.getContentLength()
+            .catchError(() -> -1L)
+            .await();
+        return result < 0 ? -1 : result;
+    }
+
     /**
      * Get the body of this response.
      * @return The body of this response.
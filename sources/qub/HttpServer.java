@@ -2,13 +2,37 @@ package qub;
 
 /**
  * A type that can receive incoming HTTP requests.
+ * <p>
+ * When recycling is enabled (see {@link #setRecyclingEnabled(boolean)}), the {@link HttpRequest}
+ * that is passed to a path action is owned by this server. The request, its headers, and its body
+ * are only valid until the path action returns, after which they are reset and reused for the
+ * next request. Path actions that need any of these values afterwards must copy them. A response
+ * that is returned from {@link #createResponse()} is also owned by this server, and it is reset
+ * and reused after it has been written.
  */
 public class HttpServer implements Disposable
 {
     private final TCPServer tcpServer;
     private final AsyncRunner asyncRunner;
-    private final MutableMap<PathPattern,Function2<Indexable<String>,HttpRequest,HttpResponse>> paths;
+    private final Object hostsLock;
+    private final VirtualHost defaultHost;
+    private volatile java.util.Map<String,VirtualHost> exactHosts;
+    private volatile java.util.Map<String,VirtualHost> wildcardHosts;
     private Function1<HttpRequest,HttpResponse> notFoundAction;
+    private Function1<HttpRequest,HttpResponse> notImplementedAction;
+    private Function1<HttpRequest,HttpResponse> expectContinueAction;
+    private final HttpMethodRegistry methodRegistry;
+    private volatile boolean recyclingEnabled;
+    private volatile boolean http2Enabled;
+    private volatile boolean pipeliningEnabled;
+    private volatile ByteBufferPool bufferPool;
+    private volatile ResponseCompression responseCompression;
+    private volatile int routeCacheCapacity;
+    private volatile int maximumRequestLineLength;
+    private volatile int maximumHeaderBytes;
+    private volatile int maximumHeaderCount;
+    private volatile long maximumBodySize;
+    private final java.lang.ThreadLocal<MutableHttpResponse> recycledResponse;
 
     /**
      * Create a new HTTP server based on the provided TCPServer.
@@ -22,17 +46,21 @@ public class HttpServer implements Disposable
 
         this.tcpServer = tcpServer;
         this.asyncRunner = asyncRunner;
-        this.paths = Map.create();
-        this.notFoundAction = (HttpRequest request) ->
-        {
-            final int responseStatusCode = 404;
-            final String reasonPhrase = HttpServer.getReasonPhrase(responseStatusCode);
-            return HttpResponse.create()
-                .setHttpVersion(request.getHttpVersion())
-                .setStatusCode(responseStatusCode)
-                .setReasonPhrase(reasonPhrase)
-                .setBody(responseStatusCode + ": " + reasonPhrase);
-        };
+        this.hostsLock = new Object();
+        this.routeCacheCapacity = 1024;
+        this.defaultHost = VirtualHost.create("", this.routeCacheCapacity);
+        this.exactHosts = java.util.Collections.emptyMap();
+        this.wildcardHosts = java.util.Collections.emptyMap();
+        this.recycledResponse = new java.lang.ThreadLocal<>();
+        this.bufferPool = ByteBufferPool.getShared();
+        this.notFoundAction = (HttpRequest request) -> this.createErrorResponse(request, 404);
+        this.notImplementedAction = (HttpRequest request) -> this.createErrorResponse(request, 501);
+        this.methodRegistry = HttpMethodRegistry.create();
+        this.expectContinueAction = (HttpRequest request) -> null;
+        this.maximumRequestLineLength = 8 * 1024;
+        this.maximumHeaderBytes = 64 * 1024;
+        this.maximumHeaderCount = 100;
+        this.maximumBodySize = 10 * 1024 * 1024;
     }
 
     /**
@@ -77,7 +105,7 @@ public class HttpServer implements Disposable
         PreCondition.assertNotNull(pathAction, "pathAction");
         PreCondition.assertNotDisposed(this, "this");
 
-        return this.setPath(pathString, (Indexable<String> pathMatches, HttpRequest request) -> pathAction.run(request));
+        return this.setPathWithParameters(pathString, (PathParameters pathParameters, HttpRequest request) -> pathAction.run(request));
     }
 
     /**
@@ -91,6 +119,268 @@ public class HttpServer implements Disposable
         PreCondition.assertNotNull(pathAction, "pathAction");
         PreCondition.assertNotDisposed(this, "this");
 
+        return this.setPathWithParameters(pathString, (PathParameters pathParameters, HttpRequest request) -> pathAction.run(pathParameters, request));
+    }
+
+    /**
+     * Serve the files from the provided {@link StaticContent} under the provided pathString. A
+     * request for "{pathString}/a/b.css" is served with the file "a/b.css" in the static content's
+     * root folder. Requests for files that don't exist are passed to the not found action.
+     * @param pathString The path that the static content will be served under.
+     * @param staticContent The static content to serve.
+     * @return This object for method chaining.
+     */
+    public HttpServer setStaticContent(String pathString, StaticContent staticContent)
+    {
+        PreCondition.assertNotNullAndNotEmpty(pathString, "pathString");
+        PreCondition.assertNotNull(staticContent, "staticContent");
+        PreCondition.assertNotDisposed(this, "this");
+
+        final String normalizedPathString = HttpServer.normalizePathString(pathString);
+        final String routePattern = normalizedPathString.equals("/")
+            ? "/**"
+            : normalizedPathString + "/**";
+        return this.setPathWithParameters(routePattern, (PathParameters pathParameters, HttpRequest request) ->
+        {
+            HttpResponse response = staticContent.getResponse(pathParameters.get(0), request).await();
+            if (response == null)
+            {
+                response = this.notFoundAction.run(request);
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Accept WebSocket opening handshakes (RFC 6455) for the provided pathString. Each accepted
+     * connection is passed to the sessionAction as a {@link WebSocket} on its own task, and the
+     * connection is closed when the sessionAction returns. Requests that aren't valid handshakes
+     * are answered with 400 (Bad Request), or with 426 (Upgrade Required) if they ask for a
+     * WebSocket version other than 13.
+     * @param pathString The path that will accept WebSocket connections.
+     * @param sessionAction The action that will be run with each accepted WebSocket.
+     * @return This object for method chaining.
+     */
+    public HttpServer setWebSocket(String pathString, Action1<WebSocket> sessionAction)
+    {
+        PreCondition.assertNotNullAndNotEmpty(pathString, "pathString");
+        PreCondition.assertNotNull(sessionAction, "sessionAction");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return this.setPath(pathString, (HttpRequest request) ->
+        {
+            HttpResponse response;
+            final int statusCode = WebSocket.validateUpgradeRequest(request);
+            if (statusCode == 101)
+            {
+                response = WebSocketUpgradeResponse.create(request.getHeaderValue(HttpHeader.SecWebSocketKeyName).await(), sessionAction);
+            }
+            else
+            {
+                final MutableHttpResponse errorResponse = this.createErrorResponse(request, statusCode);
+                if (statusCode == 426)
+                {
+                    errorResponse.setHeader(HttpHeader.SecWebSocketVersionName, "13");
+                }
+                response = errorResponse;
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Add a new pathString that this HTTP server will respond to. The pathString can contain named
+     * parameters (such as "/users/{id}") whose values will be available from the
+     * {@link PathParameters} that are passed to the pathAction. See {@link PathRoute} for the full
+     * pattern syntax.
+     * @param pathString The pathString that this HTTP server will respond to.
+     * @return The result of adding the provided path.
+     */
+    public HttpServer setPathWithParameters(String pathString, Function2<PathParameters,HttpRequest,HttpResponse> pathAction)
+    {
+        PreCondition.assertNotNullAndNotEmpty(pathString, "pathString");
+        PreCondition.assertNotNull(pathAction, "pathAction");
+        PreCondition.assertNotDisposed(this, "this");
+
+        this.defaultHost.setPath(PathRoute.create(HttpServer.normalizePathString(pathString), pathAction));
+
+        return this;
+    }
+
+    /**
+     * Add a new pathString that this HTTP server will respond to when a request's Host header
+     * matches the provided host. Requests for hosts that haven't been given any paths use the
+     * paths that were added without a host.
+     * @param host The host that the path applies to. This can either be an exact host name (such
+     *             as "api.example.com") or a wildcard subdomain pattern (such as "*.example.com")
+     *             that matches every subdomain of the host after the "*.".
+     * @param pathString The pathString that this HTTP server will respond to.
+     * @return The result of adding the provided path.
+     */
+    public HttpServer setPath(String host, String pathString, Function1<HttpRequest,HttpResponse> pathAction)
+    {
+        PreCondition.assertNotNullAndNotEmpty(host, "host");
+        PreCondition.assertNotNullAndNotEmpty(pathString, "pathString");
+        PreCondition.assertNotNull(pathAction, "pathAction");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return this.setPathWithParameters(host, pathString, (PathParameters pathParameters, HttpRequest request) -> pathAction.run(request));
+    }
+
+    /**
+     * Add a new pathString that this HTTP server will respond to when a request's Host header
+     * matches the provided host. See {@link #setPath(String, String, Function1)} for the host
+     * syntax and {@link PathRoute} for the path syntax.
+     * @param host The host that the path applies to.
+     * @param pathString The pathString that this HTTP server will respond to.
+     * @return The result of adding the provided path.
+     */
+    public HttpServer setPathWithParameters(String host, String pathString, Function2<PathParameters,HttpRequest,HttpResponse> pathAction)
+    {
+        PreCondition.assertNotNullAndNotEmpty(host, "host");
+        PreCondition.assertNotNullAndNotEmpty(pathString, "pathString");
+        PreCondition.assertNotNull(pathAction, "pathAction");
+        PreCondition.assertNotDisposed(this, "this");
+
+        final PathRoute route = PathRoute.create(HttpServer.normalizePathString(pathString), pathAction);
+        final String hostPattern = host.toLowerCase();
+        synchronized (this.hostsLock)
+        {
+            final boolean wildcard = hostPattern.startsWith("*.");
+            final java.util.Map<String,VirtualHost> hosts = wildcard ? this.wildcardHosts : this.exactHosts;
+            final String hostKey = wildcard ? hostPattern.substring(2) : hostPattern;
+            VirtualHost virtualHost = hosts.get(hostKey);
+            if (virtualHost == null)
+            {
+                virtualHost = VirtualHost.create(hostPattern, this.routeCacheCapacity);
+                final java.util.Map<String,VirtualHost> newHosts = new java.util.HashMap<>(hosts);
+                newHosts.put(hostKey, virtualHost);
+                if (wildcard)
+                {
+                    this.wildcardHosts = newHosts;
+                }
+                else
+                {
+                    this.exactHosts = newHosts;
+                }
+            }
+            virtualHost.setPath(route);
+        }
+
+        return this;
+    }
+
+    /**
+     * Remove the provided pathString so that this HTTP server no longer responds to it. Requests
+     * that are already being handled are not affected.
+     * @param pathString The pathString that this HTTP server will no longer respond to.
+     * @return Whether or not the pathString was removed.
+     */
+    public boolean removePath(String pathString)
+    {
+        PreCondition.assertNotNullAndNotEmpty(pathString, "pathString");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return this.defaultHost.removePath(HttpServer.normalizePathString(pathString));
+    }
+
+    /**
+     * Remove the provided pathString from the paths of the provided host.
+     * @param host The host that the path was added to.
+     * @param pathString The pathString that this HTTP server will no longer respond to.
+     * @return Whether or not the pathString was removed.
+     */
+    public boolean removePath(String host, String pathString)
+    {
+        PreCondition.assertNotNullAndNotEmpty(host, "host");
+        PreCondition.assertNotNullAndNotEmpty(pathString, "pathString");
+        PreCondition.assertNotDisposed(this, "this");
+
+        final VirtualHost virtualHost = this.getVirtualHost(host);
+        return virtualHost != null && virtualHost.removePath(HttpServer.normalizePathString(pathString));
+    }
+
+    /**
+     * Get the VirtualHost that was created for the provided host pattern, or null if no paths have
+     * been added for it.
+     */
+    private VirtualHost getVirtualHost(String host)
+    {
+        final String hostPattern = host.toLowerCase();
+        return hostPattern.startsWith("*.")
+            ? this.wildcardHosts.get(hostPattern.substring(2))
+            : this.exactHosts.get(hostPattern);
+    }
+
+    /**
+     * Get the VirtualHost that will handle the provided request.
+     * @param request The request to get the VirtualHost for.
+     * @return The VirtualHost that will handle the request.
+     */
+    private VirtualHost resolveVirtualHost(HttpRequest request)
+    {
+        VirtualHost result = null;
+
+        final java.util.Map<String,VirtualHost> exactHosts = this.exactHosts;
+        final java.util.Map<String,VirtualHost> wildcardHosts = this.wildcardHosts;
+        final String hostHeaderValue = exactHosts.isEmpty() && wildcardHosts.isEmpty()
+            ? null
+            : request.getHeaders().getValue("Host").catchError(NotFoundException.class).await();
+        if (!Strings.isNullOrEmpty(hostHeaderValue))
+        {
+            final String host = HttpServer.normalizeHost(hostHeaderValue);
+            result = exactHosts.get(host);
+            if (result == null && !wildcardHosts.isEmpty())
+            {
+                int dotIndex = host.indexOf('.');
+                while (result == null && dotIndex != -1)
+                {
+                    result = wildcardHosts.get(host.substring(dotIndex + 1));
+                    dotIndex = host.indexOf('.', dotIndex + 1);
+                }
+            }
+        }
+
+        if (result == null)
+        {
+            result = this.defaultHost;
+        }
+
+        return result;
+    }
+
+    /**
+     * Remove the port from the provided Host header value and convert it to lower case.
+     */
+    private static String normalizeHost(String hostHeaderValue)
+    {
+        // A ':' inside an IPv6 literal such as "[::1]" is not a port separator.
+        final int closeBracketIndex = hostHeaderValue.lastIndexOf(']');
+        int endIndex = hostHeaderValue.length();
+        boolean hasUpperCase = false;
+        for (int i = 0; i < endIndex; ++i)
+        {
+            final char c = hostHeaderValue.charAt(i);
+            if (c == ':' && closeBracketIndex < i)
+            {
+                endIndex = i;
+            }
+            else if ('A' <= c && c <= 'Z')
+            {
+                hasUpperCase = true;
+            }
+        }
+
+        String result = endIndex == hostHeaderValue.length() ? hostHeaderValue : hostHeaderValue.substring(0, endIndex);
+        if (hasUpperCase)
+        {
+            result = result.toLowerCase();
+        }
+        return result;
+    }
+
+    private static String normalizePathString(String pathString)
+    {
         String normalizedPathString = pathString;
         if (normalizedPathString.contains("\\"))
         {
@@ -106,13 +396,7 @@ public class HttpServer implements Disposable
         {
             --endIndex;
         }
-        normalizedPathString = normalizedPathString.substring(0, endIndex);
-
-        final PathPattern pathPattern = PathPattern.parse(normalizedPathString);
-
-        this.paths.set(pathPattern, pathAction);
-
-        return this;
+        return normalizedPathString.substring(0, endIndex);
     }
 
     /**
@@ -132,206 +416,1017 @@ public class HttpServer implements Disposable
     }
 
     /**
-     * Start listening on the current thread for incoming requests. This method will block until the
-     * HttpServer is disposed.
+     * Set the action that will be invoked when this HttpServer receives a request with a method
+     * that isn't in this server's method registry (see {@link #getMethodRegistry()}). By default, a
+     * 501 (Not Implemented) response is sent.
+     * @param notImplementedAction The action that will be invoked when this HttpServer receives a
+     *                             request with a method that isn't recognized.
      */
-    public Result<Void> start()
+    public HttpServer setNotImplemented(Function1<HttpRequest,HttpResponse> notImplementedAction)
     {
+        PreCondition.assertNotNull(notImplementedAction, "notImplementedAction");
         PreCondition.assertNotDisposed(this, "this");
 
-        return this.asyncRunner.schedule(() ->
-        {
-            while(!this.isDisposed())
-            {
-                final TCPClient acceptedClient = this.tcpServer.accept()
-                    .catchError(SocketClosedException.class)
-                    .await();
-                if (acceptedClient != null)
-                {
-                    try
-                    {
-                        final MutableHttpRequest request = HttpRequest.create();
-                        final CharacterReadStream acceptedClientReadStream = CharacterReadStream.create(acceptedClient);
-
-                        final String firstLine = acceptedClientReadStream.readLine().await();
-                        final String[] firstLineParts = firstLine.split(" ");
-                        request.setMethod(HttpMethod.valueOf(firstLineParts[0]));
-                        request.setUrl(URL.parse(firstLineParts[1])
-                            .catchError(() ->
-                            {
-                                final MutableURL url = MutableURL.create()
-                                    .setScheme("https")
-                                    .setHost(this.tcpServer.getLocalIPAddress().toString())
-                                    .setPath(firstLineParts[1]);
-                                final int port = this.tcpServer.getLocalPort();
-                                if (port != 80)
-                                {
-                                    url.setPort(port);
-                                }
-                                return url;
-                            }).await());
-                        request.setHttpVersion(firstLineParts[2]);
-
-                        String headerLine = acceptedClientReadStream.readLine().await();
-                        while (!Strings.isNullOrEmpty(headerLine))
-                        {
-                            final int firstColonIndex = headerLine.indexOf(':');
-                            final String headerName = headerLine.substring(0, firstColonIndex);
-                            final String headerValue = headerLine.substring(firstColonIndex + 1).trim();
-                            request.setHeader(headerName, headerValue);
-
-                            headerLine = acceptedClientReadStream.readLine().await();
-                        }
+        this.notImplementedAction = notImplementedAction;
 
-                        final Long requestContentLength = request.getContentLength()
-                            .catchError(NotFoundException.class, () -> 0L)
-                            .await();
-                        if (requestContentLength > 0)
-                        {
-                            request.setBody(requestContentLength, acceptedClient.take(requestContentLength));
-                        }
+        return this;
+    }
 
-                        HttpResponse response;
-                        final String pathString = request.getURL().getPath().catchError(NotFoundException.class).await();
-                        final Path path = Path.parse(Strings.isNullOrEmpty(pathString) ? "/" : pathString);
-                        Indexable<String> pathTrackedValues = null;
-                        Function2<Indexable<String>,HttpRequest,HttpResponse> pathAction = null;
-                        for (final MapEntry<PathPattern,Function2<Indexable<String>,HttpRequest,HttpResponse>> entry : paths)
-                        {
-                            final PathPattern pathPattern = entry.getKey();
-                            final Iterable<Match> pathMatches = pathPattern.getMatches(path);
-                            if (pathMatches.any())
-                            {
-                                final Match firstMatch = pathMatches.first().await();
-                                final Iterable<Iterable<Character>> trackedCharacters = firstMatch.getTrackedValues();
-                                final Iterable<String> trackedStrings = trackedCharacters.map(Characters::join);
-                                pathTrackedValues = List.create(trackedStrings);
-                                pathAction = entry.getValue();
-                                break;
-                            }
-                        }
+    /**
+     * Set the maximum number of bytes that a request line can contain. A request with a longer
+     * request line will get a 414 (URI Too Long) response. The default is 8 KiB.
+     * @param maximumRequestLineLength The maximum number of bytes that a request line can contain.
+     * @return This object for method chaining.
+     */
+    public HttpServer setMaximumRequestLineLength(int maximumRequestLineLength)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumRequestLineLength, 1, "maximumRequestLineLength");
 
-                        if (pathAction == null)
-                        {
-                            response = notFoundAction.run(request);
-                        }
-                        else
-                        {
-                            response = pathAction.run(pathTrackedValues, request);
-                        }
+        this.maximumRequestLineLength = maximumRequestLineLength;
 
-                        if (response == null)
-                        {
-                            final int responseStatusCode = 500;
-                            final String responseReasonPhrase = HttpServer.getReasonPhrase(responseStatusCode);
-                            response = HttpResponse.create()
-                                .setHttpVersion(request.getHttpVersion())
-                                .setStatusCode(responseStatusCode)
-                                .setReasonPhrase(responseReasonPhrase)
-                                .setBody(responseStatusCode + ": " + responseReasonPhrase);
-                        }
+        return this;
+    }
 
-                        String httpVersion = response.getHttpVersion();
-                        if (Strings.isNullOrEmpty(httpVersion))
-                        {
-                            httpVersion = "HTTP/1.1";
-                        }
+    /**
+     * Get the maximum number of bytes that a request line can contain.
+     * @return The maximum number of bytes that a request line can contain.
+     */
+    public int getMaximumRequestLineLength()
+    {
+        return this.maximumRequestLineLength;
+    }
 
-                        String reasonPhrase = response.getReasonPhrase();
-                        if (Strings.isNullOrEmpty(reasonPhrase))
-                        {
-                            reasonPhrase = HttpServer.getReasonPhrase(response.getStatusCode());
-                        }
+    /**
+     * Set the maximum number of bytes that the headers of a request can contain. A request with
+     * larger headers will get a 431 (Request Header Fields Too Large) response. The default is
+     * 64 KiB.
+     * @param maximumHeaderBytes The maximum number of bytes that the headers of a request can
+     *                           contain.
+     * @return This object for method chaining.
+     */
+    public HttpServer setMaximumHeaderBytes(int maximumHeaderBytes)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumHeaderBytes, 0, "maximumHeaderBytes");
 
-                        final BufferedByteWriteStream acceptedClientBufferedWriteStream = BufferedByteWriteStream.create(acceptedClient);
-                        final CharacterToByteWriteStream acceptedClientWriteStream = CharacterToByteWriteStream.create(acceptedClientBufferedWriteStream)
-                            .setCharacterEncoding(CharacterEncoding.UTF_8)
-                            .setNewLine("\r\n");
-                        acceptedClientWriteStream.writeLine("%s %s %s", httpVersion, response.getStatusCode(), reasonPhrase).await();
-                        for (final HttpHeader header : response.getHeaders())
-                        {
-                            acceptedClientWriteStream.writeLine("%s:%s", header.getName(), header.getValue()).await();
-                        }
-                        acceptedClientWriteStream.writeLine().await();
+        this.maximumHeaderBytes = maximumHeaderBytes;
 
-                        try (final ByteReadStream responseBody = response.getBody())
-                        {
-                            acceptedClientWriteStream.writeAll(responseBody).await();
-                        }
-                        acceptedClientBufferedWriteStream.flush().await();
-                    }
-                    finally
-                    {
-                        acceptedClient.dispose().await();
-                    }
-                }
-            }
-        });
+        return this;
     }
 
     /**
-     * Get the paths that have been registered with this server.
+     * Get the maximum number of bytes that the headers of a request can contain.
+     * @return The maximum number of bytes that the headers of a request can contain.
      */
-    public Iterator<PathPattern> iteratePaths()
+    public int getMaximumHeaderBytes()
     {
-        return this.paths.iterateKeys();
+        return this.maximumHeaderBytes;
     }
 
-    @Override
-    public boolean isDisposed()
+    /**
+     * Set the maximum number of headers that a request can contain. A request with more headers
+     * will get a 431 (Request Header Fields Too Large) response. The default is 100.
+     * @param maximumHeaderCount The maximum number of headers that a request can contain.
+     * @return This object for method chaining.
+     */
+    public HttpServer setMaximumHeaderCount(int maximumHeaderCount)
     {
-        return this.tcpServer.isDisposed();
+        PreCondition.assertGreaterThanOrEqualTo(maximumHeaderCount, 0, "maximumHeaderCount");
+
+        this.maximumHeaderCount = maximumHeaderCount;
+
+        return this;
     }
 
-    @Override
-    public Result<Boolean> dispose()
+    /**
+     * Get the maximum number of headers that a request can contain.
+     * @return The maximum number of headers that a request can contain.
+     */
+    public int getMaximumHeaderCount()
     {
-        return this.tcpServer.dispose();
+        return this.maximumHeaderCount;
     }
 
     /**
-     * Get the default reason phrase for the provided status code. These default phrases come create
-     * https://www.w3.org/Protocols/rfc2616/rfc2616-sec6.html.
-     * @param statusCode The status code to get the default reason phrase for.
-     * @return The default reason phrase for the provided status code.
+     * Set the maximum Content-Length that a request can have. A request with a larger body will
+     * get a 413 (Payload Too Large) response without its body being read. A chunked body has the
+     * same limit on its decoded length. If a path action reads past it, then the request gets a 413
+     * (Payload Too Large) response and its connection is closed. The default is 10 MiB.
+     * @param maximumBodySize The maximum Content-Length that a request can have.
+     * @return This object for method chaining.
      */
-    public static String getReasonPhrase(int statusCode)
+    public HttpServer setMaximumBodySize(long maximumBodySize)
     {
-        String result = null;
+        PreCondition.assertGreaterThanOrEqualTo(maximumBodySize, 0, "maximumBodySize");
 
-        switch (statusCode)
-        {
-            case 100:
-                result = "Continue";
-                break;
+        this.maximumBodySize = maximumBodySize;
 
-            case 101:
-                result = "Switching Protocols";
-                break;
+        return this;
+    }
 
-            case 200:
-                result = "OK";
-                break;
+    /**
+     * Get the maximum Content-Length that a request can have.
+     * @return The maximum Content-Length that a request can have.
+     */
+    public long getMaximumBodySize()
+    {
+        return this.maximumBodySize;
+    }
 
-            case 201:
-                result = "Created";
-                break;
+    /**
+     * Set the action that will be invoked when this HttpServer receives a request with an
+     * "Expect: 100-continue" header. The action is invoked after the request's head has been read
+     * but before any of its body has been read, so it can only inspect the request's method,
+     * target, and headers. If the action returns null, then a 100 (Continue) response will be sent
+     * and the request will be handled normally. If the action returns a response, then that
+     * response will be sent as the final response and the request's body will never be read. By
+     * default, every request with a body that is within this server's limits is accepted.
+     * @param expectContinueAction The action that will decide whether or not the body of a request
+     *                             with an "Expect: 100-continue" header will be read.
+     */
+    public HttpServer setExpectContinue(Function1<HttpRequest,HttpResponse> expectContinueAction)
+    {
+        PreCondition.assertNotNull(expectContinueAction, "expectContinueAction");
+        PreCondition.assertNotDisposed(this, "this");
 
-            case 202:
-                result = "Accepted";
-                break;
+        this.expectContinueAction = expectContinueAction;
 
-            case 400:
-                result = "Bad Request";
-                break;
+        return this;
+    }
 
-            case 404:
-                result = "Not Found";
-                break;
+    /**
+     * Get the registry of HTTP methods that this server implements. Extension methods can be added
+     * to this registry so that requests with those methods are routed to path actions instead of
+     * being rejected.
+     * @return The registry of HTTP methods that this server implements.
+     */
+    public HttpMethodRegistry getMethodRegistry()
+    {
+        return this.methodRegistry;
+    }
+
+    /**
+     * Set whether or not this server will speak HTTP/2 over cleartext TCP (h2c). When HTTP/2 is
+     * enabled, a connection that starts with the HTTP/2 connection preface (prior knowledge) or
+     * that sends a HTTP/1.1 request with "Upgrade: h2c" is served as a HTTP/2 connection by an
+     * {@link Http2ServerConnection} on its own task. The requests of a HTTP/2 connection are
+     * handled concurrently by the same path actions as HTTP/1.x requests, and they are never
+     * recycled. Response compression isn't applied to HTTP/2 responses. This is disabled by
+     * default.
+     * @param http2Enabled Whether or not this server will speak HTTP/2.
+     * @return This object for method chaining.
+     */
+    public HttpServer setHttp2Enabled(boolean http2Enabled)
+    {
+        this.http2Enabled = http2Enabled;
+
+        return this;
+    }
+
+    /**
+     * Get whether or not this server will speak HTTP/2 over cleartext TCP (h2c).
+     * @return Whether or not this server will speak HTTP/2.
+     */
+    public boolean isHttp2Enabled()
+    {
+        return this.http2Enabled;
+    }
+
+    /**
+     * Set whether or not this server will keep HTTP/1.1 connections open for more requests and
+     * accept pipelined requests on them. When pipelining is enabled, each connection is served by
+     * a {@link Http1ServerConnection} on its own task. The connection parses the next pipelined
+     * request while the previous request's path action runs, writes the responses in the order
+     * that their requests arrived, and only flushes once no parsed request is waiting, so a burst
+     * of small pipelined requests is answered with a single socket write. Requests of pipelined
+     * connections are never recycled. Each open pipelined connection blocks two of the
+     * {@link AsyncRunner}'s tasks until it is closed, so the AsyncRunner must be able to run two
+     * tasks for every connection that may be open at once, on top of the accept loop. This is
+     * disabled by default, which closes every connection after its first response.
+     * @param pipeliningEnabled Whether or not this server will accept pipelined requests.
+     * @return This object for method chaining.
+     */
+    public HttpServer setPipeliningEnabled(boolean pipeliningEnabled)
+    {
+        this.pipeliningEnabled = pipeliningEnabled;
+
+        return this;
+    }
+
+    /**
+     * Get whether or not this server keeps HTTP/1.1 connections open and accepts pipelined
+     * requests on them.
+     * @return Whether or not this server accepts pipelined requests.
+     */
+    public boolean isPipeliningEnabled()
+    {
+        return this.pipeliningEnabled;
+    }
+
+    /**
+     * Set whether or not this server will recycle its per-request objects. When recycling is
+     * enabled, the request objects, header buffers, and responses that are created by
+     * {@link #createResponse()} are reset and reused between requests instead of being allocated
+     * for each request. See the {@link HttpServer} class documentation for the ownership rules that
+     * path actions must follow when recycling is enabled.
+     * @param recyclingEnabled Whether or not this server will recycle its per-request objects.
+     * @return This object for method chaining.
+     */
+    public HttpServer setRecyclingEnabled(boolean recyclingEnabled)
+    {
+        this.recyclingEnabled = recyclingEnabled;
+
+        return this;
+    }
+
+    /**
+     * Get whether or not this server recycles its per-request objects.
+     * @return Whether or not this server recycles its per-request objects.
+     */
+    public boolean isRecyclingEnabled()
+    {
+        return this.recyclingEnabled;
+    }
+
+    /**
+     * Set the pool that this server will lease its connection read and write buffers from. By
+     * default, the shared {@link ByteBufferPool} is used.
+     * @param bufferPool The pool that this server will lease its connection buffers from.
+     * @return This object for method chaining.
+     */
+    public HttpServer setBufferPool(ByteBufferPool bufferPool)
+    {
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+
+        this.bufferPool = bufferPool;
+
+        return this;
+    }
+
+    /**
+     * Get the pool that this server leases its connection read and write buffers from.
+     * @return The pool that this server leases its connection read and write buffers from.
+     */
+    public ByteBufferPool getBufferPool()
+    {
+        return this.bufferPool;
+    }
+
+    /**
+     * Set the settings that this server will use to compress response bodies. Compression is
+     * disabled by default.
+     * @param responseCompression The settings that this server will use to compress response
+     *                            bodies, or null to disable compression.
+     * @return This object for method chaining.
+     */
+    public HttpServer setResponseCompression(ResponseCompression responseCompression)
+    {
+        this.responseCompression = responseCompression;
+
+        return this;
+    }
+
+    /**
+     * Get the settings that this server uses to compress response bodies.
+     * @return The settings that this server uses to compress response bodies, or null if
+     * compression is disabled.
+     */
+    public ResponseCompression getResponseCompression()
+    {
+        return this.responseCompression;
+    }
+
+    /**
+     * Set the maximum number of request paths whose matched routes this server will cache. A
+     * capacity of 0 disables the cache. Changing the capacity discards all of the cached routes.
+     * @param capacity The maximum number of request paths whose matched routes will be cached.
+     * @return This object for method chaining.
+     */
+    public HttpServer setRouteCacheCapacity(int capacity)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(capacity, 0, "capacity");
+
+        synchronized (this.hostsLock)
+        {
+            this.routeCacheCapacity = capacity;
+            this.defaultHost.setRouteCacheCapacity(capacity);
+            for (final VirtualHost virtualHost : this.exactHosts.values())
+            {
+                virtualHost.setRouteCacheCapacity(capacity);
+            }
+            for (final VirtualHost virtualHost : this.wildcardHosts.values())
+            {
+                virtualHost.setRouteCacheCapacity(capacity);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Get the cache of matched routes that this server uses to avoid searching the paths that
+     * were added without a host. The cache's hit and miss counters can be used to monitor its
+     * effectiveness.
+     * @return The cache of matched routes that this server uses.
+     */
+    public PathRouteCache getRouteCache()
+    {
+        return this.defaultHost.getRouteCache();
+    }
+
+    /**
+     * Create a new response. If recycling is enabled and this is called from a path action, then
+     * the response will be owned by this server and it will be reset and reused after it has been
+     * written. Only the first response created for each request is recycled.
+     * @return The new response.
+     */
+    public MutableHttpResponse createResponse()
+    {
+        MutableHttpResponse result = this.recycledResponse.get();
+        if (result == null)
+        {
+            result = HttpResponse.create();
+        }
+        else
+        {
+            this.recycledResponse.set(null);
+            result.reset();
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Create a response with the provided error status code and a body that describes the status
+     * code.
+     * @param request The request that the response is for.
+     * @param statusCode The status code of the response.
+     * @return The new response.
+     */
+    MutableHttpResponse createErrorResponse(HttpRequest request, int statusCode)
+    {
+        final String reasonPhrase = HttpServer.getReasonPhrase(statusCode);
+        return this.createResponse()
+            .setHttpVersion(request.getHttpVersion())
+            .setStatusCode(statusCode)
+            .setReasonPhrase(reasonPhrase)
+            .setBody(statusCode + ": " + reasonPhrase);
+    }
+
+    /**
+     * Start listening on the current thread for incoming requests. This method will block until the
+     * HttpServer is disposed.
+     */
+    public Result<Void> start()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return this.asyncRunner.schedule(() ->
+        {
+            final BasicMutableHttpRequest recycledRequest = BasicMutableHttpRequest.create();
+            final MutableHttpResponse recycledResponse = HttpResponse.create();
+            final HttpHeadReader recycledHeadReader = HttpHeadReader.create();
+            final HttpHeadWriter headWriter = HttpHeadWriter.create();
+            final String localHost = this.tcpServer.getLocalIPAddress().toString();
+            final int localPort = this.tcpServer.getLocalPort();
+
+            while(!this.isDisposed())
+            {
+                final TCPClient acceptedClient = this.tcpServer.accept()
+                    .catchError(SocketClosedException.class)
+                    .await();
+                if (acceptedClient != null)
+                {
+                    boolean connectionHandedOff = false;
+                    boolean streamsHandedOff = false;
+                    final ByteBufferPool bufferPool = this.bufferPool;
+                    final PooledBufferedByteReadStream acceptedClientReadStream = PooledBufferedByteReadStream.create(acceptedClient, bufferPool);
+                    final PooledBufferedByteWriteStream acceptedClientWriteStream = PooledBufferedByteWriteStream.create(acceptedClient, bufferPool);
+                    try
+                    {
+                        final boolean pipelining = this.pipeliningEnabled;
+                        final boolean recycling = this.recyclingEnabled && !pipelining;
+                        final BasicMutableHttpRequest request = recycling
+                            ? recycledRequest.reset()
+                            : BasicMutableHttpRequest.create();
+                        final HttpHeadReader headReader = recycling
+                            ? recycledHeadReader
+                            : HttpHeadReader.create();
+                        final int readRequestStatus = this.readRequest(acceptedClientReadStream, headReader, localHost, localPort, request);
+                        if (readRequestStatus > 0)
+                        {
+                            this.writeResponse(request, this.createErrorResponse(request, readRequestStatus), headWriter.clear(), acceptedClientWriteStream, false);
+                            acceptedClientWriteStream.flush().await();
+                        }
+                        else if (readRequestStatus == -2)
+                        {
+                            connectionHandedOff = true;
+                            streamsHandedOff = true;
+                            final Http2ServerConnection http2Connection = Http2ServerConnection.create(this, acceptedClient, acceptedClientReadStream, acceptedClientWriteStream, bufferPool, this.asyncRunner, localHost, localPort);
+                            this.asyncRunner.schedule(() -> http2Connection.run(null, null));
+                        }
+                        else if (readRequestStatus == 0 && this.http2Enabled && Http2ServerConnection.isUpgradeRequest(request))
+                        {
+                            headWriter.clear()
+                                .writeStatusLine("HTTP/1.1", 101, HttpServer.getReasonPhrase(101))
+                                .writeHeader(HttpHeader.ConnectionName, "Upgrade")
+                                .writeHeader(HttpHeader.UpgradeName, "h2c")
+                                .writeEndOfHead()
+                                .writeTo(acceptedClientWriteStream)
+                                .await();
+                            acceptedClientWriteStream.flush().await();
+
+                            // The request may be recycled as soon as this loop moves on, so the
+                            // HTTP/2 connection gets its own copy of it.
+                            final byte[] upgradeSettings = Http2ServerConnection.decodeSettingsHeader(request.getHeaderValue(HttpHeader.Http2SettingsName).await());
+                            final BasicMutableHttpRequest upgradeRequest = BasicMutableHttpRequest.create()
+                                .setMethod(request.getMethod())
+                                .setUrl(request.getURL());
+                            for (final HttpHeader header : request.getHeaders())
+                            {
+                                upgradeRequest.addHeader(header.getName(), header.getValue());
+                            }
+
+                            connectionHandedOff = true;
+                            streamsHandedOff = true;
+                            final Http2ServerConnection http2Connection = Http2ServerConnection.create(this, acceptedClient, acceptedClientReadStream, acceptedClientWriteStream, bufferPool, this.asyncRunner, localHost, localPort);
+                            this.asyncRunner.schedule(() -> http2Connection.run(upgradeRequest, upgradeSettings));
+                        }
+                        else if (readRequestStatus == 0 && pipelining)
+                        {
+                            connectionHandedOff = true;
+                            streamsHandedOff = true;
+                            final Http1ServerConnection http1Connection = Http1ServerConnection.create(this, acceptedClient, acceptedClientReadStream, acceptedClientWriteStream, bufferPool, this.asyncRunner, localHost, localPort);
+                            this.asyncRunner.schedule(() -> http1Connection.run(request, headReader));
+                        }
+                        else if (readRequestStatus == 0)
+                        {
+                            if (recycling)
+                            {
+                                this.recycledResponse.set(recycledResponse);
+                            }
+                            HttpResponse response;
+                            try
+                            {
+                                response = this.handleExpectation(request, headWriter, acceptedClientWriteStream);
+                                if (response == null)
+                                {
+                                    response = this.handleRequest(request);
+                                }
+                            }
+                            finally
+                            {
+                                this.recycledResponse.set(null);
+                            }
+
+                            this.writeResponse(request, response, headWriter.clear(), acceptedClientWriteStream, false);
+                            acceptedClientWriteStream.flush().await();
+
+                            if (response == recycledResponse)
+                            {
+                                recycledResponse.reset();
+                            }
+                            else if (response instanceof ServerSentEventResponse)
+                            {
+                                connectionHandedOff = true;
+                                final ServerSentEventResponse eventStreamResponse = (ServerSentEventResponse)response;
+                                this.asyncRunner.schedule(() -> eventStreamResponse.subscribe(acceptedClient));
+                            }
+                            else if (response instanceof WebSocketUpgradeResponse)
+                            {
+                                connectionHandedOff = true;
+                                final Action1<WebSocket> sessionAction = ((WebSocketUpgradeResponse)response).getSessionAction();
+                                this.asyncRunner.schedule(() ->
+                                {
+                                    try (final WebSocket webSocket = WebSocket.create(acceptedClient, acceptedClient, bufferPool, false))
+                                    {
+                                        sessionAction.run(webSocket);
+                                    }
+                                });
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        if (!streamsHandedOff)
+                        {
+                            acceptedClientWriteStream.dispose().await();
+                            acceptedClientReadStream.dispose().await();
+                        }
+                        if (!connectionHandedOff)
+                        {
+                            acceptedClient.dispose().await();
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Read the head of a HTTP request from the provided stream into the provided request.
+     * @param byteReadStream The stream to read the request from.
+     * @param headReader The reader that will be used to read the request line and headers.
+     * @param localHost The host that will be used in the URL of a request with an origin-form
+     *                  request target.
+     * @param localPort The port that will be used in the URL of a request with an origin-form
+     *                  request target.
+     * @param request The request to read into.
+     * @return -1 if the stream ended before a request line was read, -2 if the stream started with
+     * the HTTP/2 connection preface, 0 if a request was read, or the error status code that should
+     * be sent back to the client if the request couldn't be read.
+     */
+    int readRequest(ByteReadStream byteReadStream, HttpHeadReader headReader, String localHost, int localPort, BasicMutableHttpRequest request)
+    {
+        headReader.setMaximumLineLength(this.maximumRequestLineLength)
+            .setMaximumHeaderBytes(this.maximumHeaderBytes)
+            .setMaximumHeaderCount(this.maximumHeaderCount);
+
+        int result;
+        try
+        {
+            result = this.readRequestHead(byteReadStream, headReader, localHost, localPort, request);
+        }
+        catch (HttpLimitExceededException e)
+        {
+            result = e.getStatusCode();
+        }
+
+        if (result == 0)
+        {
+            final String requestTransferEncoding = request.getHeaderValue(HttpHeader.TransferEncodingName)
+                .catchError(NotFoundException.class)
+                .await();
+            final long requestContentLength = request.getContentLengthValue();
+            if (requestTransferEncoding != null)
+            {
+                // A request with both Transfer-Encoding and Content-Length may be framed
+                // differently by an intermediary, so it must not be read (RFC 9112 section 6.3).
+                if (request.getHeaders().contains(HttpHeader.ContentLengthName))
+                {
+                    result = 400;
+                }
+                else if (HttpHeader.isChunkedTransferEncoding(requestTransferEncoding))
+                {
+                    request.setChunkedBody(ChunkedByteReadStream.create(byteReadStream).setMaximumLength(this.maximumBodySize));
+                }
+                else
+                {
+                    result = 501;
+                }
+            }
+            else if (requestContentLength > this.maximumBodySize)
+            {
+                result = 413;
+            }
+            else if (requestContentLength > 0)
+            {
+                request.setBody(requestContentLength, byteReadStream.take(requestContentLength));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Read the request line and the headers of a HTTP request from the provided stream into the
+     * provided request.
+     * @return -1 if the stream ended before a request line was read, -2 if HTTP/2 is enabled and
+     * the stream started with the HTTP/2 connection preface, 0 if the request line and the headers
+     * were read, or the error status code that should be sent back to the client if the request
+     * line was malformed.
+     */
+    private int readRequestHead(ByteReadStream byteReadStream, HttpHeadReader headReader, String localHost, int localPort, BasicMutableHttpRequest request)
+    {
+        final int requestLineLength = headReader.readLineBytes(byteReadStream).await();
+        int result = (requestLineLength == -1 ? -1 : 0);
+        if (result == 0 && this.http2Enabled && HttpServer.isHttp2PrefaceLine(headReader.getLineBytes(), requestLineLength))
+        {
+            // The rest of the preface is an empty line, "SM", and another empty line.
+            final boolean prefaceEnded = headReader.readLineBytes(byteReadStream).await() == 0 &&
+                headReader.readLineBytes(byteReadStream).await() == 2 &&
+                headReader.getLineBytes()[0] == 'S' &&
+                headReader.getLineBytes()[1] == 'M' &&
+                headReader.readLineBytes(byteReadStream).await() == 0;
+            result = prefaceEnded ? -2 : 400;
+        }
+        else if (result == 0)
+        {
+            final byte[] requestLine = headReader.getLineBytes();
+            final int methodEndIndex = HttpServer.indexOf(requestLine, 0, requestLineLength, (byte)' ');
+            final int targetEndIndex = methodEndIndex == -1
+                ? -1
+                : HttpServer.indexOf(requestLine, methodEndIndex + 1, requestLineLength, (byte)' ');
+            final String method = methodEndIndex <= 0
+                ? null
+                : this.methodRegistry.parse(requestLine, 0, methodEndIndex);
+            if (method == null || targetEndIndex <= methodEndIndex + 1 || targetEndIndex == requestLineLength - 1)
+            {
+                result = 400;
+            }
+            else
+            {
+                request.setMethod(method);
+
+                final String requestTarget = new String(requestLine, methodEndIndex + 1, targetEndIndex - methodEndIndex - 1, java.nio.charset.StandardCharsets.UTF_8);
+                final int httpVersionLength = requestLineLength - targetEndIndex - 1;
+                request.setHttpVersion(httpVersionLength == 8 && HttpServer.isHttp11(requestLine, targetEndIndex + 1)
+                    ? "HTTP/1.1"
+                    : new String(requestLine, targetEndIndex + 1, httpVersionLength, java.nio.charset.StandardCharsets.US_ASCII));
+
+                if (requestTarget.startsWith("/") || requestTarget.equals("*"))
+                {
+                    request.setOriginFormTarget(requestTarget, "https", localHost, localPort == 80 ? -1 : localPort);
+                }
+                else
+                {
+                    final URL url = URL.parse(requestTarget)
+                        .catchError(() -> null)
+                        .await();
+                    if (url == null || !url.hasScheme())
+                    {
+                        result = 400;
+                    }
+                    else
+                    {
+                        request.setUrl(url);
+                    }
+                }
+
+                request.wrapHeaders(headReader.readHeaders(byteReadStream).await());
+            }
+        }
+
+        return result;
+    }
+
+    private static int indexOf(byte[] bytes, int startIndex, int endIndex, byte value)
+    {
+        int result = -1;
+        for (int i = startIndex; i < endIndex; ++i)
+        {
+            if (bytes[i] == value)
+            {
+                result = i;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not the provided line is the first line of the HTTP/2 connection preface:
+     * "PRI * HTTP/2.0".
+     */
+    private static boolean isHttp2PrefaceLine(byte[] bytes, int length)
+    {
+        boolean result = (length == 14);
+        for (int i = 0; result && i < length; ++i)
+        {
+            result = (bytes[i] == Http2Frame.clientPreface[i]);
+        }
+        return result;
+    }
+
+    private static boolean isHttp11(byte[] bytes, int startIndex)
+    {
+        return bytes[startIndex] == 'H' &&
+            bytes[startIndex + 1] == 'T' &&
+            bytes[startIndex + 2] == 'T' &&
+            bytes[startIndex + 3] == 'P' &&
+            bytes[startIndex + 4] == '/' &&
+            bytes[startIndex + 5] == '1' &&
+            bytes[startIndex + 6] == '.' &&
+            bytes[startIndex + 7] == '1';
+    }
+
+    /**
+     * Handle the Expect header of the provided request, if it has one.
+     * @param request The request to handle the Expect header of.
+     * @param headWriter The writer that will be used to encode a 100 (Continue) response.
+     * @param byteWriteStream The stream to write a 100 (Continue) response to.
+     * @return The final response to send back to the client without handling the request, or null
+     * if the request should be handled normally.
+     */
+    HttpResponse handleExpectation(HttpRequest request, HttpHeadWriter headWriter, PooledBufferedByteWriteStream byteWriteStream)
+    {
+        HttpResponse result = null;
+        final String expectValue = request.getHeaders().getValue(HttpHeader.ExpectName)
+            .catchError(NotFoundException.class)
+            .await();
+        if (expectValue != null && !"HTTP/1.0".equals(request.getHttpVersion()))
+        {
+            if (!HttpHeader.ExpectContinueValue.equalsIgnoreCase(expectValue.trim()))
+            {
+                result = this.createErrorResponse(request, 417);
+            }
+            else
+            {
+                result = this.expectContinueAction.run(request);
+                if (result == null && request.getBody() != null)
+                {
+                    headWriter.clear()
+                        .writeStatusLine(request.getHttpVersion(), 100, HttpServer.getReasonPhrase(100))
+                        .writeEndOfHead()
+                        .writeTo(byteWriteStream)
+                        .await();
+                    byteWriteStream.flush().await();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the path action that matches the provided request and run it.
+     * @param request The request to handle.
+     * @return The response to send back to the client.
+     */
+    HttpResponse handleRequest(HttpRequest request)
+    {
+        HttpResponse response;
+
+        // The method is checked before the route is looked up so that requests with unknown
+        // methods don't pay for the lookup or fill the route cache.
+        if (!this.methodRegistry.contains(request.getMethod()))
+        {
+            response = this.notImplementedAction.run(request);
+        }
+        else
+        {
+            final String pathString = request.getPath();
+            final String path = Strings.isNullOrEmpty(pathString) ? "/" : pathString;
+            final VirtualHost virtualHost = this.resolveVirtualHost(request);
+            final PathParameters pathParameters = virtualHost.match(path);
+            if (pathParameters == null)
+            {
+                response = notFoundAction.run(request);
+            }
+            else
+            {
+                try
+                {
+                    response = pathParameters.getRoute().getAction().run(pathParameters, request);
+                }
+                catch (HttpLimitExceededException e)
+                {
+                    // The rest of the request's body can't be read past, so the connection can't
+                    // be used for another request.
+                    response = this.createErrorResponse(request, e.getStatusCode())
+                        .setHeader(HttpHeader.ConnectionName, "close");
+                }
+            }
+        }
+
+        if (response == null)
+        {
+            response = this.createErrorResponse(request, 500);
+        }
+
+        return response;
+    }
+
+    /**
+     * Write the provided response to the provided stream, compressing its body if response
+     * compression is enabled and the response is compressible. The response's body is always
+     * written as unencoded content: any Transfer-Encoding header that the handler set is dropped,
+     * and this server adds its own chunked transfer coding when the body needs it.
+     * @param request The request that the response is for.
+     * @param response The response to write.
+     * @param headWriter The writer that will be used to encode the status line and headers.
+     * @param byteWriteStream The stream to write the response to.
+     * @param persistent Whether or not the connection will be kept open for another request. If it
+     *                   will be, then a body whose length isn't given by a Content-Length header is
+     *                   written with the chunked transfer coding so that the client can find its end.
+     * @return Whether or not the client can find the end of the response without the connection
+     * being closed. The response to a HEAD request has no body, so its end is always known.
+     */
+    boolean writeResponse(HttpRequest request, HttpResponse response, HttpHeadWriter headWriter, ByteWriteStream byteWriteStream, boolean persistent)
+    {
+        // The response to a HEAD request gets the same headers that the response to a GET request
+        // would get, but its body isn't written.
+        final boolean headRequest = HttpMethod.HEAD.name().equals(request.getMethod());
+
+        String httpVersion = response.getHttpVersion();
+        if (Strings.isNullOrEmpty(httpVersion))
+        {
+            httpVersion = "HTTP/1.1";
+        }
+
+        String reasonPhrase = response.getReasonPhrase();
+        if (Strings.isNullOrEmpty(reasonPhrase))
+        {
+            reasonPhrase = HttpServer.getReasonPhrase(response.getStatusCode());
+        }
+
+        headWriter.writeStatusLine(httpVersion, response.getStatusCode(), reasonPhrase);
+
+        final ResponseCompression responseCompression = this.responseCompression;
+        final boolean compressible = responseCompression != null && responseCompression.isCompressible(request, response);
+        final String contentEncoding = !compressible || "HTTP/1.0".equals(request.getHttpVersion())
+            ? null
+            : responseCompression.getContentEncoding(request, response);
+        final boolean framed = contentEncoding == null && response.getContentLengthValue() != -1;
+        final boolean chunked = contentEncoding != null || (persistent && !framed);
+
+        boolean varyWritten = false;
+        for (final HttpHeader header : response.getHeaders())
+        {
+            final String headerName = header.getName();
+            if (compressible && HttpHeader.VaryName.equalsIgnoreCase(headerName))
+            {
+                final String headerValue = header.getValue();
+                if (HttpServer.containsVaryFieldName(headerValue, HttpHeader.AcceptEncodingName))
+                {
+                    headWriter.writeHeader(header);
+                }
+                else
+                {
+                    headWriter.writeHeader(headerName, headerValue + ", " + HttpHeader.AcceptEncodingName);
+                }
+                varyWritten = true;
+            }
+            else if (!HttpHeader.TransferEncodingName.equalsIgnoreCase(headerName) &&
+                (contentEncoding == null || !HttpHeader.isContentLengthName(headerName)))
+            {
+                // The transfer coding is always decided by this server, so a Transfer-Encoding
+                // header that the handler set is dropped.
+                headWriter.writeHeader(header);
+            }
+        }
+        if (compressible && !varyWritten)
+        {
+            headWriter.writeHeader(HttpHeader.VaryName, HttpHeader.AcceptEncodingName);
+        }
+        if (contentEncoding != null)
+        {
+            headWriter.writeHeader(HttpHeader.ContentEncodingName, contentEncoding);
+        }
+        if (chunked)
+        {
+            headWriter.writeHeader(HttpHeader.TransferEncodingName, "chunked");
+        }
+        headWriter.writeEndOfHead()
+            .writeTo(byteWriteStream)
+            .await();
+
+        try (final ByteReadStream responseBody = response.getBody())
+        {
+            if (!headRequest)
+            {
+                if (contentEncoding != null)
+                {
+                    try (final ChunkedByteWriteStream chunkedStream = ChunkedByteWriteStream.create(byteWriteStream);
+                         final DeflaterByteWriteStream compressedStream = DeflaterByteWriteStream.create(chunkedStream, contentEncoding, responseCompression.getLevel(), this.bufferPool))
+                    {
+                        compressedStream.writeAll(responseBody).await();
+                    }
+                }
+                else if (chunked)
+                {
+                    try (final ChunkedByteWriteStream chunkedStream = ChunkedByteWriteStream.create(byteWriteStream))
+                    {
+                        chunkedStream.writeAll(responseBody).await();
+                    }
+                }
+                else
+                {
+                    byteWriteStream.writeAll(responseBody).await();
+                }
+            }
+        }
+
+        return headRequest || framed || chunked;
+    }
+
+    /**
+     * Get whether or not the provided Vary header value already covers the provided field name.
+     * @param varyValue The Vary header value.
+     * @param fieldName The name of the field to look for.
+     * @return Whether or not the provided Vary header value is "*" or contains the field name.
+     */
+    private static boolean containsVaryFieldName(String varyValue, String fieldName)
+    {
+        boolean result = false;
+        for (final String varyFieldName : varyValue.split(","))
+        {
+            final String trimmedVaryFieldName = varyFieldName.trim();
+            if (trimmedVaryFieldName.equals("*") || trimmedVaryFieldName.equalsIgnoreCase(fieldName))
+            {
+                result = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the paths that have been registered with this server without a host.
+     */
+    public Iterator<PathPattern> iteratePaths()
+    {
+        return this.defaultHost.getPaths().getRoutes().map(PathRoute::getPathPattern).iterate();
+    }
+
+    /**
+     * Get the paths that have been registered with this server for the provided host.
+     * @param host The host that the paths were added to.
+     */
+    public Iterator<PathPattern> iteratePaths(String host)
+    {
+        PreCondition.assertNotNullAndNotEmpty(host, "host");
+
+        final VirtualHost virtualHost = this.getVirtualHost(host);
+        final Iterable<PathRoute> routes = virtualHost == null
+            ? Iterable.create()
+            : virtualHost.getPaths().getRoutes();
+        return routes.map(PathRoute::getPathPattern).iterate();
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.tcpServer.isDisposed();
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return this.tcpServer.dispose();
+    }
+
+    /**
+     * Get the default reason phrase for the provided status code. These default phrases come create
+     * https://www.w3.org/Protocols/rfc2616/rfc2616-sec6.html.
+     * @param statusCode The status code to get the default reason phrase for.
+     * @return The default reason phrase for the provided status code.
+     */
+    public static String getReasonPhrase(int statusCode)
+    {
+        String result = null;
+
+        switch (statusCode)
+        {
+            case 100:
+                result = "Continue";
+                break;
+
+            case 101:
+                result = "Switching Protocols";
+                break;
+
+            case 200:
+                result = "OK";
+                break;
+
+            case 201:
+                result = "Created";
+                break;
+
+            case 202:
+                result = "Accepted";
+                break;
+
+            case 400:
+                result = "Bad Request";
+                break;
+
+            case 404:
+                result = "Not Found";
+                break;
+
+            case 405:
+                result = "Method Not Allowed";
+                break;
+
+            case 413:
+                result = "Payload Too Large";
+                break;
+
+            case 414:
+                result = "URI Too Long";
+                break;
+
+            case 417:
+                result = "Expectation Failed";
+                break;
+
+            case 426:
+                result = "Upgrade Required";
+                break;
+
+            case 431:
+                result = "Request Header Fields Too Large";
+                break;
 
             case 500:
                 result = "Internal Server Error";
                 break;
+
+            case 501:
+                result = "Not Implemented";
+                break;
         }
 
         return result;
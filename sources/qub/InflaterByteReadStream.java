@@ -0,0 +1,303 @@
+package qub;
+
+/**
+ * A {@link ByteReadStream} that decompresses a body that was compressed with the "gzip"
+ * (RFC 1952) or the "deflate" content coding as it is read. The "deflate" content coding is
+ * defined as the zlib format (RFC 1950), but some servers send raw deflate data instead, so both
+ * are accepted. The compressed input is staged in a buffer that is leased from a
+ * {@link ByteBufferPool}. Because this stream takes the place of the body that it decompresses,
+ * disposing it also disposes the inner stream.
+ */
+public class InflaterByteReadStream implements ByteReadStream
+{
+    private static final int gzipFlagHeaderCrc = 0x02;
+    private static final int gzipFlagExtra = 0x04;
+    private static final int gzipFlagName = 0x08;
+    private static final int gzipFlagComment = 0x10;
+
+    private final ByteReadStream innerStream;
+    private final ByteBufferPool bufferPool;
+    private final boolean gzip;
+    private java.util.zip.Inflater inflater;
+    private java.util.zip.CRC32 crc;
+    private byte[] buffer;
+    private int bufferIndex;
+    private int bufferLength;
+    private boolean finished;
+
+    private InflaterByteReadStream(ByteReadStream innerStream, String contentEncoding, ByteBufferPool bufferPool)
+    {
+        PreCondition.assertNotNull(innerStream, "innerStream");
+        PreCondition.assertTrue(DeflaterByteWriteStream.isSupportedContentEncoding(contentEncoding), "contentEncoding must be \"gzip\" or \"deflate\".");
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+
+        this.innerStream = innerStream;
+        this.bufferPool = bufferPool;
+        this.gzip = DeflaterByteWriteStream.GzipContentEncoding.equalsIgnoreCase(contentEncoding);
+        this.buffer = bufferPool.lease(8192);
+    }
+
+    /**
+     * Create a new InflaterByteReadStream.
+     * @param innerStream The stream to read the compressed bytes from.
+     * @param contentEncoding The content coding of the compressed bytes: "gzip" or "deflate".
+     * @param bufferPool The pool to lease the compressed input buffer from.
+     * @return The new InflaterByteReadStream.
+     */
+    public static InflaterByteReadStream create(ByteReadStream innerStream, String contentEncoding, ByteBufferPool bufferPool)
+    {
+        return new InflaterByteReadStream(innerStream, contentEncoding, bufferPool);
+    }
+
+    /**
+     * Read from the inner stream until this stream's buffer contains at least the provided number
+     * of unconsumed bytes.
+     * @param count The number of unconsumed bytes that the buffer should contain.
+     * @return Whether or not the buffer contains the provided number of unconsumed bytes. This will
+     * be false if the inner stream ended first.
+     */
+    private boolean ensureBuffered(int count)
+    {
+        while (this.bufferLength - this.bufferIndex < count)
+        {
+            if (0 < this.bufferIndex)
+            {
+                System.arraycopy(this.buffer, this.bufferIndex, this.buffer, 0, this.bufferLength - this.bufferIndex);
+                this.bufferLength -= this.bufferIndex;
+                this.bufferIndex = 0;
+            }
+
+            final Integer bytesRead = this.innerStream.readBytes(this.buffer, this.bufferLength, this.buffer.length - this.bufferLength)
+                .catchError(EmptyException.class)
+                .await();
+            if (bytesRead == null || bytesRead <= 0)
+            {
+                break;
+            }
+            this.bufferLength += bytesRead;
+        }
+        return count <= this.bufferLength - this.bufferIndex;
+    }
+
+    /**
+     * Read a byte of the compressed input that isn't part of the compressed data, such as a byte of
+     * a gzip header or trailer.
+     * @return The byte that was read.
+     */
+    private int readInputByte()
+    {
+        if (!this.ensureBuffered(1))
+        {
+            throw new ParseException("The compressed body ended before the end of its compressed data.");
+        }
+        return this.buffer[this.bufferIndex++] & 0xFF;
+    }
+
+    private long readInputInt32LittleEndian()
+    {
+        long result = 0;
+        for (int i = 0; i < 4; ++i)
+        {
+            result |= ((long)this.readInputByte()) << (i * 8);
+        }
+        return result;
+    }
+
+    private void skipZeroTerminatedField()
+    {
+        int b;
+        do
+        {
+            b = this.readInputByte();
+        }
+        while (b != 0);
+    }
+
+    /**
+     * Read the header of the compressed data (if it has one) and create the inflater.
+     */
+    private void readHeaderIfNeeded()
+    {
+        if (this.inflater == null)
+        {
+            if (this.gzip)
+            {
+                if (this.readInputByte() != 0x1f || this.readInputByte() != 0x8b)
+                {
+                    throw new ParseException("The compressed body is not in the gzip format.");
+                }
+                if (this.readInputByte() != 8)
+                {
+                    throw new ParseException("The gzip body uses an unsupported compression method.");
+                }
+                final int flags = this.readInputByte();
+                for (int i = 0; i < 6; ++i)
+                {
+                    this.readInputByte();
+                }
+                if ((flags & InflaterByteReadStream.gzipFlagExtra) != 0)
+                {
+                    final int extraLength = this.readInputByte() | (this.readInputByte() << 8);
+                    for (int i = 0; i < extraLength; ++i)
+                    {
+                        this.readInputByte();
+                    }
+                }
+                if ((flags & InflaterByteReadStream.gzipFlagName) != 0)
+                {
+                    this.skipZeroTerminatedField();
+                }
+                if ((flags & InflaterByteReadStream.gzipFlagComment) != 0)
+                {
+                    this.skipZeroTerminatedField();
+                }
+                if ((flags & InflaterByteReadStream.gzipFlagHeaderCrc) != 0)
+                {
+                    this.readInputByte();
+                    this.readInputByte();
+                }
+
+                this.inflater = new java.util.zip.Inflater(true);
+                this.crc = new java.util.zip.CRC32();
+            }
+            else
+            {
+                boolean zlibWrapped = false;
+                if (this.ensureBuffered(2))
+                {
+                    final int compressionMethodAndFlags = this.buffer[this.bufferIndex] & 0xFF;
+                    final int flags = this.buffer[this.bufferIndex + 1] & 0xFF;
+                    zlibWrapped = (compressionMethodAndFlags & 0x0F) == 8 && ((compressionMethodAndFlags << 8) | flags) % 31 == 0;
+                }
+                this.inflater = new java.util.zip.Inflater(!zlibWrapped);
+            }
+        }
+    }
+
+    /**
+     * Read and verify the gzip trailer that follows the compressed data.
+     */
+    private void readTrailer()
+    {
+        this.bufferIndex = this.bufferLength - this.inflater.getRemaining();
+        if (this.crc != null)
+        {
+            final long expectedCrc = this.readInputInt32LittleEndian();
+            final long expectedLength = this.readInputInt32LittleEndian();
+            if (expectedCrc != this.crc.getValue())
+            {
+                throw new ParseException("The gzip body's CRC doesn't match its decompressed data.");
+            }
+            if (expectedLength != (this.inflater.getBytesWritten() & 0xFFFFFFFFL))
+            {
+                throw new ParseException("The gzip body's length doesn't match its decompressed data.");
+            }
+        }
+    }
+
+    @Override
+    public Result<Byte> readByte()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            final byte[] bytes = new byte[1];
+            this.readBytes(bytes, 0, 1).await();
+            return bytes[0];
+        });
+    }
+
+    @Override
+    public Result<Integer> readBytes(byte[] outputBytes, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(outputBytes, "outputBytes");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 1, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, outputBytes.length, "startIndex + length");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            this.readHeaderIfNeeded();
+
+            int result = 0;
+            while (result == 0)
+            {
+                if (this.finished)
+                {
+                    throw new EmptyException();
+                }
+
+                try
+                {
+                    result = this.inflater.inflate(outputBytes, startIndex, length);
+                }
+                catch (java.util.zip.DataFormatException e)
+                {
+                    throw new ParseException("The compressed body is not valid: " + e.getMessage());
+                }
+
+                if (0 < result)
+                {
+                    if (this.crc != null)
+                    {
+                        this.crc.update(outputBytes, startIndex, result);
+                    }
+                }
+                else if (this.inflater.finished())
+                {
+                    this.readTrailer();
+                    this.finished = true;
+                }
+                else if (this.inflater.needsDictionary())
+                {
+                    throw new ParseException("The compressed body requires a preset dictionary.");
+                }
+                else if (this.inflater.needsInput())
+                {
+                    if (!this.ensureBuffered(1))
+                    {
+                        throw new ParseException("The compressed body ended before the end of its compressed data.");
+                    }
+                    this.inflater.setInput(this.buffer, this.bufferIndex, this.bufferLength - this.bufferIndex);
+                    this.bufferIndex = this.bufferLength;
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.buffer == null;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.isDisposed();
+            if (result)
+            {
+                try
+                {
+                    this.innerStream.dispose().await();
+                }
+                finally
+                {
+                    if (this.inflater != null)
+                    {
+                        this.inflater.end();
+                    }
+                    final byte[] buffer = this.buffer;
+                    this.buffer = null;
+                    this.bufferPool.release(buffer);
+                }
+            }
+            return result;
+        });
+    }
+}
@@ -6,6 +6,8 @@ package qub;
  */
 public class JavaHttpClient implements HttpClient
 {
+    private boolean responseDecompressionEnabled;
+
     private JavaHttpClient()
     {
     }
@@ -15,6 +17,32 @@ public class JavaHttpClient implements HttpClient
         return new JavaHttpClient();
     }
 
+    /**
+     * Set whether or not this client will ask servers for compressed responses and decompress them
+     * as they are read. When this is enabled, requests that don't have an Accept-Encoding header
+     * are sent with "Accept-Encoding: gzip, deflate", and responses with a gzip or deflate
+     * Content-Encoding are exposed with their decompressed body and without their Content-Encoding
+     * and Content-Length headers. This is disabled by default.
+     * @param responseDecompressionEnabled Whether or not this client will decompress responses.
+     * @return This object for method chaining.
+     */
+    public JavaHttpClient setResponseDecompressionEnabled(boolean responseDecompressionEnabled)
+    {
+        this.responseDecompressionEnabled = responseDecompressionEnabled;
+
+        return this;
+    }
+
+    /**
+     * Get whether or not this client will ask servers for compressed responses and decompress them
+     * as they are read.
+     * @return Whether or not this client will decompress responses.
+     */
+    public boolean isResponseDecompressionEnabled()
+    {
+        return this.responseDecompressionEnabled;
+    }
+
     @Override
     public Result<HttpResponse> send(HttpRequest request)
     {
@@ -34,9 +62,24 @@ public class JavaHttpClient implements HttpClient
                 urlConnection.setRequestMethod(request.getMethod());
 
                 final HttpHeaders requestHeaders = request.getHeaders();
+                boolean chunked = false;
                 for (final HttpHeader header : requestHeaders)
                 {
-                    urlConnection.setRequestProperty(header.getName(), header.getValue());
+                    // HttpURLConnection doesn't allow the Transfer-Encoding header to be set. It
+                    // has to be asked to stream the body in chunks instead.
+                    if (HttpHeader.TransferEncodingName.equalsIgnoreCase(header.getName()))
+                    {
+                        chunked = HttpHeader.isChunkedTransferEncoding(header.getValue());
+                    }
+                    else
+                    {
+                        urlConnection.setRequestProperty(header.getName(), header.getValue());
+                    }
+                }
+                final boolean responseDecompressionEnabled = this.responseDecompressionEnabled;
+                if (responseDecompressionEnabled && !requestHeaders.contains(HttpHeader.AcceptEncodingName))
+                {
+                    urlConnection.setRequestProperty(HttpHeader.AcceptEncodingName, "gzip, deflate");
                 }
 
                 final ByteReadStream body = request.getBody();
@@ -45,6 +88,10 @@ public class JavaHttpClient implements HttpClient
                     try
                     {
                         urlConnection.setDoOutput(true);
+                        if (chunked)
+                        {
+                            urlConnection.setChunkedStreamingMode(0);
+                        }
 
                         try (final ByteWriteStream writeStream = OutputStreamToByteWriteStream.create(urlConnection.getOutputStream()))
                         {
@@ -72,7 +119,13 @@ public class JavaHttpClient implements HttpClient
                     final String headerName = responseHeader.getKey();
                     if (!Strings.isNullOrEmpty(headerName))
                     {
-                        response.setHeader(headerName, Strings.join(',', responseHeader.getValue()));
+                        // HttpURLConnection lists the values of a repeated header with the last
+                        // received value first, so they are added in reverse.
+                        final java.util.List<String> headerValues = responseHeader.getValue();
+                        for (int i = headerValues.size() - 1; i >= 0; --i)
+                        {
+                            response.addHeader(headerName, headerValues.get(i));
+                        }
                     }
                 }
 
@@ -80,7 +133,14 @@ public class JavaHttpClient implements HttpClient
                 final java.io.InputStream javaResponseBody = 400 <= statusCode
                     ? urlConnection.getErrorStream()
                     : urlConnection.getInputStream();
-                response.setBody(InputStreamToByteReadStream.create(javaResponseBody));
+                if (javaResponseBody != null)
+                {
+                    response.setBody(InputStreamToByteReadStream.create(javaResponseBody));
+                    if (responseDecompressionEnabled && !HttpMethod.HEAD.name().equals(request.getMethod()) && statusCode != 204 && statusCode != 304)
+                    {
+                        response.decompressBody(ByteBufferPool.getShared());
+                    }
+                }
 
                 result = response;
             }
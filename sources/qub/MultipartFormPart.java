@@ -0,0 +1,176 @@
+package qub;
+
+/**
+ * A single part of a multipart/form-data body that is being read by a
+ * {@link MultipartFormReader}. The part's body is streamed from the reader, so it can only be read
+ * once and only until the next part is read.
+ */
+public class MultipartFormPart
+{
+    private final MultipartFormReader reader;
+    private final HttpHeaders headers;
+    private final ByteReadStream body;
+
+    private MultipartFormPart(MultipartFormReader reader, HttpHeaders headers)
+    {
+        PreCondition.assertNotNull(reader, "reader");
+        PreCondition.assertNotNull(headers, "headers");
+
+        this.reader = reader;
+        this.headers = headers;
+        this.body = new BodyStream();
+    }
+
+    static MultipartFormPart create(MultipartFormReader reader, HttpHeaders headers)
+    {
+        return new MultipartFormPart(reader, headers);
+    }
+
+    /**
+     * Get the headers of this part.
+     * @return The headers of this part.
+     */
+    public HttpHeaders getHeaders()
+    {
+        return this.headers;
+    }
+
+    private String getContentDispositionParameter(String parameterName)
+    {
+        final String contentDisposition = this.headers.getValue("Content-Disposition")
+            .catchError(NotFoundException.class)
+            .await();
+        return contentDisposition == null
+            ? null
+            : MultipartFormReader.getParameter(contentDisposition, parameterName);
+    }
+
+    /**
+     * Get the form field name of this part from its Content-Disposition header.
+     * @return The form field name of this part, or null if it doesn't have one.
+     */
+    public String getName()
+    {
+        return this.getContentDispositionParameter("name");
+    }
+
+    /**
+     * Get the file name of this part from its Content-Disposition header.
+     * @return The file name of this part, or null if this part isn't a file.
+     */
+    public String getFileName()
+    {
+        return this.getContentDispositionParameter("filename");
+    }
+
+    /**
+     * Get the Content-Type of this part.
+     * @return The Content-Type of this part, or null if it doesn't have one.
+     */
+    public String getContentType()
+    {
+        return this.headers.getValue("Content-Type")
+            .catchError(NotFoundException.class)
+            .await();
+    }
+
+    /**
+     * Get the stream of this part's body. The stream ends at the boundary that follows this part.
+     * @return The stream of this part's body.
+     */
+    public ByteReadStream getBody()
+    {
+        return this.body;
+    }
+
+    /**
+     * Read the rest of this part's body into memory, or into a temporary file if the body is
+     * longer than the provided maximum in-memory length.
+     * @param maximumInMemoryLength The maximum number of bytes that will be kept in memory.
+     * @return The spooled body, which must be disposed to delete its temporary file.
+     */
+    public Result<SpooledFormPartBody> spool(int maximumInMemoryLength)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumInMemoryLength, 0, "maximumInMemoryLength");
+
+        return SpooledFormPartBody.create(this.body, maximumInMemoryLength);
+    }
+
+    /**
+     * The stream of this part's body.
+     */
+    private class BodyStream implements ByteReadStream
+    {
+        private final int partGeneration;
+        private boolean disposed;
+
+        private BodyStream()
+        {
+            this.partGeneration = MultipartFormPart.this.reader.getPartGeneration();
+        }
+
+        /**
+         * Get whether or not this stream's part is still the reader's current part. Once the next
+         * part has been read, the reader's bytes belong to that part.
+         */
+        private boolean isCurrentPart()
+        {
+            return this.partGeneration == MultipartFormPart.this.reader.getPartGeneration();
+        }
+
+        @Override
+        public Result<Byte> readByte()
+        {
+            PreCondition.assertNotDisposed(this, "this");
+            PreCondition.assertTrue(this.isCurrentPart(), "A part's body can't be read after the next part has been read.");
+
+            return Result.create(() ->
+            {
+                final int result = MultipartFormPart.this.reader.readPartBodyByte();
+                if (result == -1)
+                {
+                    throw new EmptyException();
+                }
+                return (byte)result;
+            });
+        }
+
+        @Override
+        public Result<Integer> readBytes(byte[] outputBytes, int startIndex, int length)
+        {
+            PreCondition.assertNotNull(outputBytes, "outputBytes");
+            PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+            PreCondition.assertGreaterThanOrEqualTo(length, 1, "length");
+            PreCondition.assertLessThanOrEqualTo(startIndex + length, outputBytes.length, "startIndex + length");
+            PreCondition.assertNotDisposed(this, "this");
+            PreCondition.assertTrue(this.isCurrentPart(), "A part's body can't be read after the next part has been read.");
+
+            return Result.create(() ->
+            {
+                final int result = MultipartFormPart.this.reader.readPartBody(outputBytes, startIndex, length);
+                if (result == -1)
+                {
+                    throw new EmptyException();
+                }
+                return result;
+            });
+        }
+
+        @Override
+        public boolean isDisposed()
+        {
+            return this.disposed;
+        }
+
+        @Override
+        public Result<Boolean> dispose()
+        {
+            return Result.create(() ->
+            {
+                final boolean result = !this.disposed;
+                this.disposed = true;
+                return result;
+            });
+        }
+    }
+}
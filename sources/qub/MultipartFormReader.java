@@ -0,0 +1,507 @@
+package qub;
+
+/**
+ * A type that reads the parts of a multipart/form-data body one at a time from a
+ * {@link ByteReadStream}. Each part's body is streamed from the underlying stream as it is read,
+ * so a part never has to be held in memory in its entirety. A part is only valid until the next
+ * part is read, and any unread bytes of a part's body are skipped when the next part is read.
+ */
+public class MultipartFormReader
+{
+    private final ByteReadStream byteReadStream;
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int bufferStart;
+    private int bufferEnd;
+
+    /**
+     * The index in the buffer that the search for the next delimiter will continue from. No
+     * delimiter starts between the start of the buffer and this index.
+     */
+    private int scanIndex;
+
+    /**
+     * The index in the buffer of the next delimiter, or -1 if it hasn't been found yet.
+     */
+    private int delimiterIndex;
+    private int partGeneration;
+    private boolean endOfStream;
+    private boolean delimiterConsumed;
+    private boolean finished;
+    private boolean truncated;
+    private final ByteReadStream headerStream;
+    private int maximumHeaderBytes;
+    private int maximumHeaderCount;
+
+    private MultipartFormReader(ByteReadStream byteReadStream, String boundary)
+    {
+        PreCondition.assertNotNull(byteReadStream, "byteReadStream");
+        PreCondition.assertNotNullAndNotEmpty(boundary, "boundary");
+
+        this.byteReadStream = byteReadStream;
+        this.delimiter = ("\r\n--" + boundary).getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        this.buffer = new byte[Math.maximum(8192, this.delimiter.length * 4)];
+
+        // The first boundary of the body isn't preceded by a line break, so one is added to the
+        // front of the buffer so that every boundary matches the same delimiter.
+        this.buffer[0] = '\r';
+        this.buffer[1] = '\n';
+        this.bufferEnd = 2;
+        this.delimiterIndex = -1;
+
+        this.headerStream = new HeaderStream();
+        this.maximumHeaderBytes = 64 * 1024;
+        this.maximumHeaderCount = 100;
+    }
+
+    /**
+     * Create a new MultipartFormReader that will read from the provided stream.
+     * @param byteReadStream The stream to read the form from.
+     * @param boundary The boundary that separates the parts of the form.
+     * @return The new MultipartFormReader.
+     */
+    public static MultipartFormReader create(ByteReadStream byteReadStream, String boundary)
+    {
+        return new MultipartFormReader(byteReadStream, boundary);
+    }
+
+    /**
+     * Create a new MultipartFormReader that will read the body of the provided request. The
+     * boundary is taken from the request's Content-Type header.
+     * @param request The request to read the form from.
+     * @return The new MultipartFormReader.
+     */
+    public static Result<MultipartFormReader> create(HttpRequest request)
+    {
+        PreCondition.assertNotNull(request, "request");
+        PreCondition.assertNotNull(request.getBody(), "request.getBody()");
+
+        return Result.create(() ->
+        {
+            final String contentType = request.getHeaderValue("Content-Type").await();
+            final String boundary = MultipartFormReader.getBoundary(contentType).await();
+            return MultipartFormReader.create(request.getBody(), boundary);
+        });
+    }
+
+    /**
+     * Set the maximum number of bytes that the header block of a part can contain. A part with a
+     * larger header block will cause {@link #readPart()} to fail with a
+     * {@link HttpLimitExceededException}. The default is 64 KiB.
+     * @param maximumHeaderBytes The maximum number of bytes that a part's header block can contain.
+     * @return This object for method chaining.
+     */
+    public MultipartFormReader setMaximumHeaderBytes(int maximumHeaderBytes)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumHeaderBytes, 0, "maximumHeaderBytes");
+
+        this.maximumHeaderBytes = maximumHeaderBytes;
+
+        return this;
+    }
+
+    /**
+     * Get the maximum number of bytes that the header block of a part can contain.
+     * @return The maximum number of bytes that the header block of a part can contain.
+     */
+    public int getMaximumHeaderBytes()
+    {
+        return this.maximumHeaderBytes;
+    }
+
+    /**
+     * Set the maximum number of headers that a part can have. A part with more headers will cause
+     * {@link #readPart()} to fail with a {@link HttpLimitExceededException}. The default is 100.
+     * @param maximumHeaderCount The maximum number of headers that a part can have.
+     * @return This object for method chaining.
+     */
+    public MultipartFormReader setMaximumHeaderCount(int maximumHeaderCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumHeaderCount, 0, "maximumHeaderCount");
+
+        this.maximumHeaderCount = maximumHeaderCount;
+
+        return this;
+    }
+
+    /**
+     * Get the maximum number of headers that a part can have.
+     * @return The maximum number of headers that a part can have.
+     */
+    public int getMaximumHeaderCount()
+    {
+        return this.maximumHeaderCount;
+    }
+
+    /**
+     * Get the boundary parameter of the provided multipart Content-Type header value.
+     * @param contentType The Content-Type header value.
+     * @return The boundary parameter of the provided Content-Type header value.
+     */
+    public static Result<String> getBoundary(String contentType)
+    {
+        PreCondition.assertNotNull(contentType, "contentType");
+
+        final String result = MultipartFormReader.getParameter(contentType, "boundary");
+        return Strings.isNullOrEmpty(result)
+            ? Result.error(new NotFoundException("No boundary parameter found in " + Strings.escapeAndQuote(contentType) + "."))
+            : Result.success(result);
+    }
+
+    /**
+     * Get the value of the parameter with the provided name from the provided header value (such
+     * as the "name" parameter of "form-data; name=\"field\""). Quoted values are unquoted.
+     * @param headerValue The header value to get the parameter from.
+     * @param parameterName The name of the parameter.
+     * @return The value of the parameter, or null if the header value doesn't have the parameter.
+     */
+    public static String getParameter(String headerValue, String parameterName)
+    {
+        PreCondition.assertNotNull(headerValue, "headerValue");
+        PreCondition.assertNotNullAndNotEmpty(parameterName, "parameterName");
+
+        String result = null;
+        final int headerValueLength = headerValue.length();
+        int index = headerValue.indexOf(';');
+        while (result == null && index != -1 && index < headerValueLength)
+        {
+            ++index;
+            while (index < headerValueLength && (headerValue.charAt(index) == ' ' || headerValue.charAt(index) == '\t'))
+            {
+                ++index;
+            }
+
+            final int nameStartIndex = index;
+            while (index < headerValueLength && headerValue.charAt(index) != '=' && headerValue.charAt(index) != ';')
+            {
+                ++index;
+            }
+            final boolean nameMatches = headerValue.substring(nameStartIndex, index).trim().equalsIgnoreCase(parameterName);
+
+            String value = null;
+            if (index < headerValueLength && headerValue.charAt(index) == '=')
+            {
+                ++index;
+                if (index < headerValueLength && headerValue.charAt(index) == '"')
+                {
+                    final StringBuilder builder = new StringBuilder();
+                    ++index;
+                    while (index < headerValueLength && headerValue.charAt(index) != '"')
+                    {
+                        if (headerValue.charAt(index) == '\\' && index + 1 < headerValueLength)
+                        {
+                            ++index;
+                        }
+                        builder.append(headerValue.charAt(index));
+                        ++index;
+                    }
+                    value = builder.toString();
+                    index = headerValue.indexOf(';', index);
+                }
+                else
+                {
+                    final int valueStartIndex = index;
+                    index = headerValue.indexOf(';', index);
+                    value = headerValue.substring(valueStartIndex, index == -1 ? headerValueLength : index).trim();
+                }
+            }
+
+            if (nameMatches)
+            {
+                result = value == null ? "" : value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Make sure that at least the provided number of bytes are available in the buffer, unless
+     * the stream ends first.
+     * @return Whether or not the provided number of bytes are available.
+     */
+    private boolean fillBuffer(int minimumAvailable)
+    {
+        if (this.bufferEnd - this.bufferStart < minimumAvailable && this.buffer.length - this.bufferStart < minimumAvailable)
+        {
+            final int shift = this.bufferStart;
+            System.arraycopy(this.buffer, shift, this.buffer, 0, this.bufferEnd - shift);
+            this.bufferEnd -= shift;
+            this.bufferStart = 0;
+            this.scanIndex = Math.maximum(0, this.scanIndex - shift);
+            if (this.delimiterIndex != -1)
+            {
+                this.delimiterIndex -= shift;
+            }
+        }
+
+        while (this.bufferEnd - this.bufferStart < minimumAvailable && !this.endOfStream)
+        {
+            final Integer bytesRead = this.byteReadStream.readBytes(this.buffer, this.bufferEnd, this.buffer.length - this.bufferEnd)
+                .catchError(EmptyException.class)
+                .await();
+            if (bytesRead == null || bytesRead <= 0)
+            {
+                this.endOfStream = true;
+            }
+            else
+            {
+                this.bufferEnd += bytesRead;
+            }
+        }
+
+        return minimumAvailable <= this.bufferEnd - this.bufferStart;
+    }
+
+    /**
+     * Find the next delimiter in the buffer. The search continues from where the last one stopped,
+     * and a delimiter that is found is remembered until it is consumed, so each byte of the body is
+     * only scanned once no matter how the body is read.
+     * @return The index in the buffer of the next delimiter, or -1 if the buffer doesn't contain it.
+     */
+    private int indexOfDelimiter()
+    {
+        if (this.delimiterIndex == -1)
+        {
+            final int lastStartIndex = this.bufferEnd - this.delimiter.length;
+            int i = Math.maximum(this.bufferStart, this.scanIndex);
+            while (this.delimiterIndex == -1 && i <= lastStartIndex)
+            {
+                int matchLength = 0;
+                while (matchLength < this.delimiter.length && this.buffer[i + matchLength] == this.delimiter[matchLength])
+                {
+                    ++matchLength;
+                }
+                if (matchLength == this.delimiter.length)
+                {
+                    this.delimiterIndex = i;
+                }
+                else
+                {
+                    ++i;
+                }
+            }
+            this.scanIndex = i;
+        }
+        return this.delimiterIndex;
+    }
+
+    /**
+     * Get the number of bytes of the current part's body that can be read from the start of the
+     * buffer, reading more of the stream into the buffer if needed.
+     * @return The number of bytes that can be read, or -1 if the current part's body has ended.
+     */
+    private int getPartBodyAvailable()
+    {
+        int result;
+        if (this.delimiterConsumed)
+        {
+            result = -1;
+        }
+        else
+        {
+            this.fillBuffer(this.delimiter.length);
+            final int delimiterIndex = this.indexOfDelimiter();
+            if (delimiterIndex == this.bufferStart)
+            {
+                this.bufferStart += this.delimiter.length;
+                this.delimiterIndex = -1;
+                this.delimiterConsumed = true;
+                result = -1;
+            }
+            else if (delimiterIndex != -1)
+            {
+                result = delimiterIndex - this.bufferStart;
+            }
+            else if (this.endOfStream)
+            {
+                // The body ended without a closing boundary, so the current part ends with the
+                // body. The error is reported when the next part is read.
+                result = this.bufferEnd - this.bufferStart;
+                if (result == 0)
+                {
+                    this.truncated = true;
+                    this.delimiterConsumed = true;
+                    result = -1;
+                }
+            }
+            else
+            {
+                // The end of the buffer could be the start of a delimiter, so it can't be returned
+                // until more bytes have been read.
+                result = this.bufferEnd - this.bufferStart - (this.delimiter.length - 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the generation of the current part. The generation changes each time that
+     * {@link #readPart()} is called, so a part can tell that it is no longer the current part.
+     */
+    int getPartGeneration()
+    {
+        return this.partGeneration;
+    }
+
+    /**
+     * Read bytes of the current part's body.
+     * @return The number of bytes that were read, or -1 if the current part's body has ended.
+     */
+    int readPartBody(byte[] outputBytes, int startIndex, int length)
+    {
+        int result = this.getPartBodyAvailable();
+        if (result != -1)
+        {
+            result = Math.minimum(length, result);
+            System.arraycopy(this.buffer, this.bufferStart, outputBytes, startIndex, result);
+            this.bufferStart += result;
+        }
+        return result;
+    }
+
+    /**
+     * Read the next byte of the current part's body.
+     * @return The byte that was read as a value from 0 to 255, or -1 if the current part's body has
+     * ended.
+     */
+    int readPartBodyByte()
+    {
+        int result = this.getPartBodyAvailable();
+        if (result != -1)
+        {
+            result = this.buffer[this.bufferStart++] & 0xFF;
+        }
+        return result;
+    }
+
+    /**
+     * Read the next part of the form. Any unread bytes of the previous part's body are skipped.
+     * @return The next part of the form, or null if there are no more parts.
+     */
+    public Result<MultipartFormPart> readPart()
+    {
+        return Result.create(() ->
+        {
+            MultipartFormPart result = null;
+            ++this.partGeneration;
+            if (!this.finished)
+            {
+                int skipLength = this.getPartBodyAvailable();
+                while (skipLength != -1)
+                {
+                    this.bufferStart += skipLength;
+                    skipLength = this.getPartBodyAvailable();
+                }
+
+                if (this.truncated || !this.fillBuffer(2))
+                {
+                    throw new ParseException("The multipart body ended before its closing boundary.");
+                }
+
+                if (this.buffer[this.bufferStart] == '-' && this.buffer[this.bufferStart + 1] == '-')
+                {
+                    this.finished = true;
+                }
+                else
+                {
+                    // Skip any transport padding up to the end of the boundary line.
+                    while (true)
+                    {
+                        if (!this.fillBuffer(1))
+                        {
+                            throw new ParseException("The multipart body ended before its closing boundary.");
+                        }
+                        if (this.buffer[this.bufferStart++] == '\n')
+                        {
+                            break;
+                        }
+                    }
+
+                    final RawHttpHeaders headers = HttpHeadReader.create()
+                        .setMaximumHeaderBytes(this.maximumHeaderBytes)
+                        .setMaximumHeaderCount(this.maximumHeaderCount)
+                        .readHeaders(this.headerStream)
+                        .await();
+                    this.delimiterConsumed = false;
+                    result = MultipartFormPart.create(this, headers);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * A stream over the buffered bytes of this reader that is used to read each part's headers.
+     * Its lines are found and copied directly from this reader's buffer.
+     */
+    private class HeaderStream implements DelimitedByteReadStream
+    {
+        @Override
+        public Result<Byte> readByte()
+        {
+            return Result.create(() ->
+            {
+                if (!MultipartFormReader.this.fillBuffer(1))
+                {
+                    throw new EmptyException();
+                }
+                return MultipartFormReader.this.buffer[MultipartFormReader.this.bufferStart++];
+            });
+        }
+
+        @Override
+        public Result<Integer> readBytes(byte[] outputBytes, int startIndex, int length)
+        {
+            return Result.create(() ->
+            {
+                if (!MultipartFormReader.this.fillBuffer(1))
+                {
+                    throw new EmptyException();
+                }
+                final int result = Math.minimum(length, MultipartFormReader.this.bufferEnd - MultipartFormReader.this.bufferStart);
+                System.arraycopy(MultipartFormReader.this.buffer, MultipartFormReader.this.bufferStart, outputBytes, startIndex, result);
+                MultipartFormReader.this.bufferStart += result;
+                return result;
+            });
+        }
+
+        @Override
+        public Result<Integer> readBytesUntil(byte delimiter, byte[] outputBytes, int startIndex, int length)
+        {
+            return Result.create(() ->
+            {
+                int result = 0;
+                boolean delimiterFound = false;
+                while (!delimiterFound && result < length && MultipartFormReader.this.fillBuffer(1))
+                {
+                    final byte[] buffer = MultipartFormReader.this.buffer;
+                    final int bufferStart = MultipartFormReader.this.bufferStart;
+                    final int scanEndIndex = bufferStart + Math.minimum(length - result, MultipartFormReader.this.bufferEnd - bufferStart);
+                    int scanIndex = bufferStart;
+                    while (scanIndex < scanEndIndex && !delimiterFound)
+                    {
+                        delimiterFound = (buffer[scanIndex++] == delimiter);
+                    }
+
+                    final int bytesToCopy = scanIndex - bufferStart;
+                    System.arraycopy(buffer, bufferStart, outputBytes, startIndex + result, bytesToCopy);
+                    MultipartFormReader.this.bufferStart = scanIndex;
+                    result += bytesToCopy;
+                }
+                return result;
+            });
+        }
+
+        @Override
+        public boolean isDisposed()
+        {
+            return false;
+        }
+
+        @Override
+        public Result<Boolean> dispose()
+        {
+            return Result.success(false);
+        }
+    }
+}
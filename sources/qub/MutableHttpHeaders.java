@@ -5,14 +5,14 @@ package qub;
  */
 public class MutableHttpHeaders implements HttpHeaders
 {
-    private final MutableMap<String,HttpHeader> headerMap;
+    private final List<HttpHeader> headerList;
 
     /**
      * Create a new empty MutableHttpHeaders collection.
      */
     private MutableHttpHeaders()
     {
-        this.headerMap = Map.create();
+        this.headerList = List.create();
     }
 
     public static MutableHttpHeaders create()
@@ -20,9 +20,43 @@ public class MutableHttpHeaders implements HttpHeaders
         return new MutableHttpHeaders();
     }
 
-    private static String getHeaderKey(String headerName)
+    /**
+     * Get the index of the first header in this collection with the provided header name.
+     * @param headerName The name of the header to look for.
+     * @return The index of the first header with the provided header name, or -1 if no header was
+     * found.
+     */
+    private int indexOf(String headerName)
     {
-        return headerName.toLowerCase();
+        int result = -1;
+
+        final int headerCount = this.headerList.getCount();
+        for (int i = 0; i < headerCount; ++i)
+        {
+            if (this.headerList.get(i).getName().equalsIgnoreCase(headerName))
+            {
+                result = i;
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Remove all of the headers after the provided index that have the provided header name.
+     * @param headerName The name of the headers to remove.
+     * @param startIndex The index to start removing headers after.
+     */
+    private void removeAfter(String headerName, int startIndex)
+    {
+        for (int i = this.headerList.getCount() - 1; startIndex < i; --i)
+        {
+            if (this.headerList.get(i).getName().equalsIgnoreCase(headerName))
+            {
+                this.headerList.removeAt(i);
+            }
+        }
     }
 
     /**
@@ -30,7 +64,7 @@ public class MutableHttpHeaders implements HttpHeaders
      */
     public MutableHttpHeaders clear()
     {
-        this.headerMap.clear();
+        this.headerList.clear();
         return this;
     }
 
@@ -70,7 +104,8 @@ public class MutableHttpHeaders implements HttpHeaders
     }
 
     /**
-     * Set the provided header name and value within this HTTP headers collection.
+     * Set the provided header name and value within this HTTP headers collection. Any existing
+     * values for the provided header name will be replaced.
      * @param headerName The name of the header to set.
      * @param headerValue The value of the header to set.
      */
@@ -79,7 +114,61 @@ public class MutableHttpHeaders implements HttpHeaders
         PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
         PreCondition.assertNotNull(headerValue, "headerValue");
 
-        this.headerMap.set(MutableHttpHeaders.getHeaderKey(headerName), HttpHeader.create(headerName, headerValue));
+        final HttpHeader header = HttpHeader.create(headerName, headerValue);
+        final int index = this.indexOf(headerName);
+        if (index == -1)
+        {
+            this.headerList.add(header);
+        }
+        else
+        {
+            this.headerList.set(index, header);
+            this.removeAfter(headerName, index);
+        }
+        return this;
+    }
+
+    /**
+     * Add the provided header to this HTTP headers collection. Any existing values for the
+     * provided header's name will be kept.
+     * @param header The header to add.
+     */
+    public MutableHttpHeaders add(HttpHeader header)
+    {
+        PreCondition.assertNotNull(header, "header");
+
+        this.headerList.add(header);
+        return this;
+    }
+
+    /**
+     * Add the provided header name and value to this HTTP headers collection. Any existing values
+     * for the provided header name will be kept.
+     * @param headerName The name of the header to add.
+     * @param headerValue The value of the header to add.
+     */
+    public MutableHttpHeaders add(String headerName, String headerValue)
+    {
+        PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
+        PreCondition.assertNotNull(headerValue, "headerValue");
+
+        return this.add(HttpHeader.create(headerName, headerValue));
+    }
+
+    /**
+     * Add each of the provided headers to this HTTP headers collection. Any existing values for
+     * the provided headers' names will be kept.
+     * @param headers The headers to add.
+     */
+    public MutableHttpHeaders addAll(Iterable<HttpHeader> headers)
+    {
+        PreCondition.assertNotNull(headers, "headers");
+
+        for (final HttpHeader header : headers)
+        {
+            this.add(header);
+        }
+
         return this;
     }
 
@@ -116,8 +205,16 @@ public class MutableHttpHeaders implements HttpHeaders
         return this.setAuthorization(HttpHeaders.tokenPrefix + authorizationToken);
     }
 
+    @Override
+    public boolean contains(String headerName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
+
+        return this.indexOf(headerName) != -1;
+    }
+
     /**
-     * Get the header in this collection that has the provided header name.
+     * Get the first header in this collection that has the provided header name.
      * @param headerName The name of the header to get.
      * @return The value of the header in this collection, if the header exists in this collection.
      */
@@ -125,22 +222,39 @@ public class MutableHttpHeaders implements HttpHeaders
     {
         PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
 
-        return this.headerMap.get(MutableHttpHeaders.getHeaderKey(headerName))
-            .convertError(NotFoundException.class, () -> new NotFoundException("No " + Strings.escapeAndQuote(headerName) + " header found."));
+        final int index = this.indexOf(headerName);
+        return index == -1
+            ? Result.error(new NotFoundException("No " + Strings.escapeAndQuote(headerName) + " header found."))
+            : Result.success(this.headerList.get(index));
     }
 
+    /**
+     * Remove all of the headers in this collection that have the provided header name.
+     * @param headerName The name of the headers to remove.
+     * @return The first header that was removed, if the header existed in this collection.
+     */
     public Result<HttpHeader> remove(String headerName)
     {
         PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
 
-        return this.headerMap.remove(MutableHttpHeaders.getHeaderKey(headerName))
-            .convertError(NotFoundException.class, () -> new NotFoundException("No " + Strings.escapeAndQuote(headerName) + " header found."));
+        final int index = this.indexOf(headerName);
+        Result<HttpHeader> result;
+        if (index == -1)
+        {
+            result = Result.error(new NotFoundException("No " + Strings.escapeAndQuote(headerName) + " header found."));
+        }
+        else
+        {
+            this.removeAfter(headerName, index);
+            result = Result.success(this.headerList.removeAt(index));
+        }
+        return result;
     }
 
     @Override
     public Iterator<HttpHeader> iterate()
     {
-        return this.headerMap.iterateValues();
+        return this.headerList.iterate();
     }
 
     @Override
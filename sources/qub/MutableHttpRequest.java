@@ -34,6 +34,22 @@ public interface MutableHttpRequest extends HttpRequest
 
     MutableHttpRequest setHeaders(Iterable<HttpHeader> headers);
 
+    /**
+     * Add the provided header to this request. Any existing values for the provided header name
+     * will be kept. By default the provided value is joined onto the existing value with a comma,
+     * which is equivalent for every header that can be sent more than once except Set-Cookie.
+     * @param headerName The name of the header to add.
+     * @param headerValue The value of the header to add.
+     * @return This object for method chaining.
+     */
+    default MutableHttpRequest addHeader(String headerName, String headerValue)
+    {
+        final String existingHeaderValue = this.getHeaderValue(headerName)
+            .catchError(NotFoundException.class)
+            .await();
+        return this.setHeader(headerName, existingHeaderValue == null ? headerValue : existingHeaderValue + "," + headerValue);
+    }
+
     default MutableHttpRequest setAuthorizationHeader(String authorizationHeaderValue)
     {
         PreCondition.assertNotNullAndNotEmpty(authorizationHeaderValue, "authorizationHeaderValue");
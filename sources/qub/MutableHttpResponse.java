@@ -10,6 +10,7 @@ public class MutableHttpResponse implements HttpResponse
     private int statusCode;
     private String reasonPhrase;
     private final MutableHttpHeaders headers;
+    private long contentLength;
     private ByteReadStream body;
 
     /**
@@ -18,6 +19,7 @@ public class MutableHttpResponse implements HttpResponse
     private MutableHttpResponse()
     {
         this.headers = HttpHeaders.create();
+        this.contentLength = -1;
         this.body = InMemoryByteStream.create().endOfStream();
     }
 
@@ -26,6 +28,25 @@ public class MutableHttpResponse implements HttpResponse
         return new MutableHttpResponse();
     }
 
+    /**
+     * Reset this response back to the state that it was in when it was created so that it can be
+     * reused for another response. The headers collection of this response is cleared and reused.
+     * The current body is not disposed.
+     * @return This object for method chaining.
+     */
+    public MutableHttpResponse reset()
+    {
+        this.disposed = false;
+        this.httpVersion = null;
+        this.statusCode = 0;
+        this.reasonPhrase = null;
+        this.headers.clear();
+        this.contentLength = -1;
+        this.body = InMemoryByteStream.create().endOfStream();
+
+        return this;
+    }
+
     /**
      * Set the HTTP version that this response was sent with.
      * @param httpVersion The HTTP version that this response was sent with.
@@ -107,6 +128,10 @@ public class MutableHttpResponse implements HttpResponse
         PreCondition.assertNotNull(header, "header");
 
         this.headers.set(header);
+        if (HttpHeader.isContentLengthName(header.getName()))
+        {
+            this.contentLength = HttpHeader.parseContentLength(header.getValue());
+        }
 
         return this;
     }
@@ -121,6 +146,10 @@ public class MutableHttpResponse implements HttpResponse
         PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
 
         this.headers.set(headerName, headerValue);
+        if (HttpHeader.isContentLengthName(headerName))
+        {
+            this.contentLength = HttpHeader.parseContentLength(headerValue);
+        }
 
         return this;
     }
@@ -135,6 +164,10 @@ public class MutableHttpResponse implements HttpResponse
         PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
 
         this.headers.set(headerName, headerValue);
+        if (HttpHeader.isContentLengthName(headerName))
+        {
+            this.contentLength = headerValue < 0 ? -1 : headerValue;
+        }
 
         return this;
     }
@@ -149,6 +182,49 @@ public class MutableHttpResponse implements HttpResponse
         PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
 
         this.headers.set(headerName, headerValue);
+        if (HttpHeader.isContentLengthName(headerName))
+        {
+            this.contentLength = headerValue < 0 ? -1 : headerValue;
+        }
+
+        return this;
+    }
+
+    /**
+     * Remove all of the headers with the provided name from this response.
+     * @param headerName The name of the headers to remove.
+     * @return This object for method chaining.
+     */
+    public MutableHttpResponse removeHeader(String headerName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
+
+        this.headers.remove(headerName)
+            .catchError(NotFoundException.class)
+            .await();
+        if (HttpHeader.isContentLengthName(headerName))
+        {
+            this.contentLength = -1;
+        }
+
+        return this;
+    }
+
+    /**
+     * Add the provided header to this response. Any existing values for the provided header name
+     * will be kept.
+     * @param headerName The name of the header to add.
+     * @param headerValue The value of the header to add.
+     */
+    public MutableHttpResponse addHeader(String headerName, String headerValue)
+    {
+        PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
+
+        this.headers.add(headerName, headerValue);
+        if (HttpHeader.isContentLengthName(headerName))
+        {
+            this.contentLength = HttpHeader.parseContentLength(this.headers.getValue(HttpHeader.ContentLengthName).await());
+        }
 
         return this;
     }
@@ -163,6 +239,20 @@ public class MutableHttpResponse implements HttpResponse
         return headers;
     }
 
+    @Override
+    public Result<Long> getContentLength()
+    {
+        return this.contentLength < 0
+            ? HttpResponse.super.getContentLength()
+            : Result.success(this.contentLength);
+    }
+
+    @Override
+    public long getContentLengthValue()
+    {
+        return this.contentLength;
+    }
+
     /**
      * Get the body of this MutableHttpResponse.
      * @return The body of this MutableHttpResponse.
@@ -207,6 +297,31 @@ public class MutableHttpResponse implements HttpResponse
         return this.setBody(bodyStream.endOfStream());
     }
 
+    /**
+     * If this response's body was compressed with the "gzip" or "deflate" content coding, replace
+     * the body with a stream that decompresses it as it is read. The Content-Encoding header and
+     * the Content-Length header (which was the compressed length) are removed, since they no
+     * longer describe the body.
+     * @param bufferPool The pool to lease the decompression buffer from.
+     * @return This object for method chaining.
+     */
+    public MutableHttpResponse decompressBody(ByteBufferPool bufferPool)
+    {
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+
+        final String contentEncoding = this.headers.getValue(HttpHeader.ContentEncodingName)
+            .catchError(NotFoundException.class)
+            .await();
+        if (contentEncoding != null && DeflaterByteWriteStream.isSupportedContentEncoding(contentEncoding.trim()))
+        {
+            this.body = InflaterByteReadStream.create(this.body, contentEncoding.trim(), bufferPool);
+            this.removeHeader(HttpHeader.ContentEncodingName);
+            this.removeHeader(HttpHeader.ContentLengthName);
+        }
+
+        return this;
+    }
+
     @Override
     public boolean isDisposed()
     {
@@ -0,0 +1,206 @@
+package qub;
+
+/**
+ * The parameter values that were captured when a request path matched a {@link PathRoute}. Each
+ * value is stored as a start and end index into the request path, and it is only turned into a
+ * String when it is accessed.
+ */
+public class PathParameters implements Indexable<String>
+{
+    private static final String[] noNames = new String[0];
+    private static final int[] noOffsets = new int[0];
+
+    private final PathRoute route;
+    private final String path;
+    private final String[] names;
+    private final int[] offsets;
+    private String[] values;
+
+    private PathParameters(PathRoute route, String path, String[] names, int[] offsets)
+    {
+        PreCondition.assertNotNull(path, "path");
+        PreCondition.assertNotNull(names, "names");
+        PreCondition.assertNotNull(offsets, "offsets");
+        PreCondition.assertTrue(offsets.length == names.length * 2, "offsets.length must be twice names.length.");
+
+        this.route = route;
+        this.path = path;
+        this.names = names;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Create a new PathParameters object for a path that didn't capture any parameters.
+     * @param path The path that was matched.
+     * @return The new PathParameters object.
+     */
+    public static PathParameters create(String path)
+    {
+        return new PathParameters(null, path, PathParameters.noNames, PathParameters.noOffsets);
+    }
+
+    /**
+     * Create a new PathParameters object.
+     * @param path The path that was matched.
+     * @param names The names of the parameters. Unnamed parameters (wildcards) have a null name.
+     * @param offsets The start and end indexes of each parameter's value within the path. The
+     *                start index of the parameter at index i is at offsets[2 * i] and its end
+     *                index is at offsets[2 * i + 1].
+     * @return The new PathParameters object.
+     */
+    static PathParameters create(String path, String[] names, int[] offsets)
+    {
+        return PathParameters.create(null, path, names, offsets);
+    }
+
+    /**
+     * Create a new PathParameters object.
+     * @param route The route that captured the parameters.
+     * @param path The path that was matched.
+     * @param names The names of the parameters. Unnamed parameters (wildcards) have a null name.
+     * @param offsets The start and end indexes of each parameter's value within the path.
+     * @return The new PathParameters object.
+     */
+    static PathParameters create(PathRoute route, String path, String[] names, int[] offsets)
+    {
+        return new PathParameters(route, path, names, offsets);
+    }
+
+    /**
+     * Get the route that captured these parameters, or null if these parameters weren't captured
+     * by a route.
+     * @return The route that captured these parameters.
+     */
+    public PathRoute getRoute()
+    {
+        return this.route;
+    }
+
+    /**
+     * Get the path that these parameters were captured from.
+     * @return The path that these parameters were captured from.
+     */
+    public String getPath()
+    {
+        return this.path;
+    }
+
+    /**
+     * Get the start and end indexes of the parameter values. The returned array must not be
+     * modified.
+     */
+    int[] getOffsets()
+    {
+        return this.offsets;
+    }
+
+    @Override
+    public int getCount()
+    {
+        return this.names.length;
+    }
+
+    /**
+     * Get the name of the parameter at the provided index, or null if the parameter was captured
+     * by an unnamed wildcard.
+     * @param index The index of the parameter.
+     * @return The name of the parameter at the provided index.
+     */
+    public String getName(int index)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(index, 0, "index");
+        PreCondition.assertLessThanOrEqualTo(index, this.getCount() - 1, "index");
+
+        return this.names[index];
+    }
+
+    /**
+     * Get the index in the path where the value of the parameter at the provided index starts.
+     * @param index The index of the parameter.
+     * @return The index in the path where the value of the parameter starts.
+     */
+    public int getStartIndex(int index)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(index, 0, "index");
+        PreCondition.assertLessThanOrEqualTo(index, this.getCount() - 1, "index");
+
+        return this.offsets[index * 2];
+    }
+
+    /**
+     * Get the index in the path after the last character of the value of the parameter at the
+     * provided index.
+     * @param index The index of the parameter.
+     * @return The index in the path after the last character of the value of the parameter.
+     */
+    public int getEndIndex(int index)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(index, 0, "index");
+        PreCondition.assertLessThanOrEqualTo(index, this.getCount() - 1, "index");
+
+        return this.offsets[index * 2 + 1];
+    }
+
+    @Override
+    public String get(int index)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(index, 0, "index");
+        PreCondition.assertLessThanOrEqualTo(index, this.getCount() - 1, "index");
+
+        if (this.values == null)
+        {
+            this.values = new String[this.names.length];
+        }
+
+        String result = this.values[index];
+        if (result == null)
+        {
+            result = this.path.substring(this.offsets[index * 2], this.offsets[index * 2 + 1]);
+            this.values[index] = result;
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the value of the parameter with the provided name.
+     * @param name The name of the parameter.
+     * @return The value of the parameter with the provided name.
+     */
+    public Result<String> get(String name)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+
+        Result<String> result = null;
+        for (int i = 0; i < this.names.length; ++i)
+        {
+            if (name.equals(this.names[i]))
+            {
+                result = Result.success(this.get(i));
+                break;
+            }
+        }
+
+        if (result == null)
+        {
+            result = Result.error(new NotFoundException("No path parameter named " + Strings.escapeAndQuote(name) + " found."));
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    @Override
+    public Iterator<String> iterate()
+    {
+        final List<String> result = List.create();
+        for (int i = 0; i < this.names.length; ++i)
+        {
+            result.add(this.get(i));
+        }
+        return result.iterate();
+    }
+}
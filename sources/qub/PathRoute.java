@@ -0,0 +1,269 @@
+package qub;
+
+/**
+ * A path pattern and the action that will handle the requests whose paths match it. The pattern
+ * is compiled when the route is created so that matching a request path only compares characters
+ * and records the start and end index of each captured parameter.
+ * <p>
+ * Pattern syntax:
+ * <ul>
+ *     <li>"*" matches any number of characters within a single path segment.</li>
+ *     <li>"**" matches any number of characters, including path separators.</li>
+ *     <li>"{name}" matches one or more characters within a single path segment and makes them
+ *     available by name from {@link PathParameters#get(String)}.</li>
+ *     <li>Every other character must match exactly.</li>
+ * </ul>
+ * Each "*", "**", and "{name}" in the pattern captures a parameter.
+ */
+public class PathRoute
+{
+    private static final byte literalToken = 0;
+    private static final byte singleSegmentToken = 1;
+    private static final byte multipleSegmentToken = 2;
+    private static final byte namedToken = 3;
+
+    private final String pattern;
+    private final PathPattern pathPattern;
+    private final Function2<PathParameters,HttpRequest,HttpResponse> action;
+    private final byte[] tokenTypes;
+    private final String[] tokenLiterals;
+    private final int[] tokenParameterIndexes;
+    private final String[] parameterNames;
+
+    private PathRoute(String pattern, Function2<PathParameters,HttpRequest,HttpResponse> action)
+    {
+        PreCondition.assertNotNullAndNotEmpty(pattern, "pattern");
+        PreCondition.assertNotNull(action, "action");
+
+        this.pattern = pattern;
+        this.pathPattern = PathPattern.parse(pattern);
+        this.action = action;
+
+        final List<Byte> tokenTypes = List.create();
+        final List<String> tokenLiterals = List.create();
+        final List<String> parameterNames = List.create();
+        final int patternLength = pattern.length();
+        int index = 0;
+        while (index < patternLength)
+        {
+            final char c = pattern.charAt(index);
+            if (c == '*')
+            {
+                if (index + 1 < patternLength && pattern.charAt(index + 1) == '*')
+                {
+                    tokenTypes.add(PathRoute.multipleSegmentToken);
+                    index += 2;
+                }
+                else
+                {
+                    tokenTypes.add(PathRoute.singleSegmentToken);
+                    ++index;
+                }
+                tokenLiterals.add(null);
+                parameterNames.add(null);
+            }
+            else if (c == '{' && PathRoute.getNamedParameterEndIndex(pattern, index) != -1)
+            {
+                final int endIndex = PathRoute.getNamedParameterEndIndex(pattern, index);
+                tokenTypes.add(PathRoute.namedToken);
+                tokenLiterals.add(null);
+                parameterNames.add(pattern.substring(index + 1, endIndex));
+                index = endIndex + 1;
+            }
+            else
+            {
+                final int literalStartIndex = index;
+                ++index;
+                while (index < patternLength &&
+                    pattern.charAt(index) != '*' &&
+                    !(pattern.charAt(index) == '{' && PathRoute.getNamedParameterEndIndex(pattern, index) != -1))
+                {
+                    ++index;
+                }
+                tokenTypes.add(PathRoute.literalToken);
+                tokenLiterals.add(pattern.substring(literalStartIndex, index));
+            }
+        }
+
+        final int tokenCount = tokenTypes.getCount();
+        this.tokenTypes = new byte[tokenCount];
+        this.tokenLiterals = new String[tokenCount];
+        this.tokenParameterIndexes = new int[tokenCount];
+        int parameterIndex = 0;
+        for (int i = 0; i < tokenCount; ++i)
+        {
+            this.tokenTypes[i] = tokenTypes.get(i);
+            this.tokenLiterals[i] = tokenLiterals.get(i);
+            this.tokenParameterIndexes[i] = (this.tokenTypes[i] == PathRoute.literalToken ? -1 : parameterIndex++);
+        }
+
+        this.parameterNames = new String[parameterNames.getCount()];
+        for (int i = 0; i < this.parameterNames.length; ++i)
+        {
+            this.parameterNames[i] = parameterNames.get(i);
+        }
+    }
+
+    /**
+     * Create a new PathRoute.
+     * @param pattern The pattern that request paths must match.
+     * @param action The action that will handle the requests whose paths match the pattern.
+     * @return The new PathRoute.
+     */
+    public static PathRoute create(String pattern, Function2<PathParameters,HttpRequest,HttpResponse> action)
+    {
+        return new PathRoute(pattern, action);
+    }
+
+    /**
+     * Get the index of the '}' that closes the named parameter that starts at the provided index,
+     * or -1 if the '{' at the provided index doesn't start a named parameter.
+     */
+    private static int getNamedParameterEndIndex(String pattern, int startIndex)
+    {
+        int result = -1;
+        for (int i = startIndex + 1; i < pattern.length(); ++i)
+        {
+            final char c = pattern.charAt(i);
+            if (c == '}')
+            {
+                if (startIndex + 1 < i)
+                {
+                    result = i;
+                }
+                break;
+            }
+            else if (c == '/' || c == '{' || c == '*')
+            {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the pattern string of this route.
+     * @return The pattern string of this route.
+     */
+    public String getPattern()
+    {
+        return this.pattern;
+    }
+
+    /**
+     * Get the PathPattern of this route.
+     * @return The PathPattern of this route.
+     */
+    public PathPattern getPathPattern()
+    {
+        return this.pathPattern;
+    }
+
+    /**
+     * Get the action that handles the requests whose paths match this route.
+     * @return The action that handles the requests whose paths match this route.
+     */
+    public Function2<PathParameters,HttpRequest,HttpResponse> getAction()
+    {
+        return this.action;
+    }
+
+    /**
+     * Match the provided path against this route.
+     * @param path The path to match.
+     * @return The parameters that were captured from the path, or null if the path doesn't match
+     * this route.
+     */
+    public PathParameters match(String path)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        PathParameters result = null;
+        final int[] offsets = new int[this.parameterNames.length * 2];
+        if (this.match(path, 0, 0, offsets))
+        {
+            result = this.createParameters(path, offsets);
+        }
+        return result;
+    }
+
+    /**
+     * Create the PathParameters for a path that has already been matched against this route.
+     * @param path The path that was matched.
+     * @param offsets The start and end indexes of the parameters that were captured from the path.
+     * @return The PathParameters for the provided path.
+     */
+    PathParameters createParameters(String path, int[] offsets)
+    {
+        return PathParameters.create(this, path, this.parameterNames, offsets);
+    }
+
+    private boolean match(String path, int tokenIndex, int pathIndex, int[] offsets)
+    {
+        boolean result;
+        if (tokenIndex == this.tokenTypes.length)
+        {
+            result = (pathIndex == path.length());
+        }
+        else
+        {
+            final byte tokenType = this.tokenTypes[tokenIndex];
+            if (tokenType == PathRoute.literalToken)
+            {
+                final String literal = this.tokenLiterals[tokenIndex];
+                result = path.startsWith(literal, pathIndex) &&
+                    this.match(path, tokenIndex + 1, pathIndex + literal.length(), offsets);
+            }
+            else
+            {
+                final int parameterIndex = this.tokenParameterIndexes[tokenIndex];
+                final int pathLength = path.length();
+                final boolean crossesSegments = (tokenType == PathRoute.multipleSegmentToken);
+
+                int endIndex = pathIndex;
+                boolean canExtend = (endIndex < pathLength && (crossesSegments || path.charAt(endIndex) != '/'));
+                if (tokenType == PathRoute.namedToken)
+                {
+                    // Named parameters must match at least one character.
+                    if (canExtend)
+                    {
+                        ++endIndex;
+                        canExtend = (endIndex < pathLength && path.charAt(endIndex) != '/');
+                    }
+                    else
+                    {
+                        endIndex = -1;
+                    }
+                }
+
+                result = false;
+                while (endIndex != -1)
+                {
+                    offsets[parameterIndex * 2] = pathIndex;
+                    offsets[parameterIndex * 2 + 1] = endIndex;
+                    if (this.match(path, tokenIndex + 1, endIndex, offsets))
+                    {
+                        result = true;
+                        endIndex = -1;
+                    }
+                    else if (!canExtend)
+                    {
+                        endIndex = -1;
+                    }
+                    else
+                    {
+                        ++endIndex;
+                        canExtend = (endIndex < pathLength && (crossesSegments || path.charAt(endIndex) != '/'));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.pathPattern.toString();
+    }
+}
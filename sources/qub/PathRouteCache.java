@@ -0,0 +1,226 @@
+package qub;
+
+/**
+ * A bounded, thread-safe cache from request paths to the {@link PathRoute} that they matched and
+ * the parameters that were captured from them. When the cache is full, entries are evicted with
+ * the CLOCK algorithm: each entry has a referenced bit that is set when the entry is used, and the
+ * clock hand evicts the first entry that it finds without the bit set, clearing bits as it goes.
+ * <p>
+ * Each call to {@link #clear()} starts a new generation. Entries that are added with an older
+ * generation are ignored, so a match that was computed against a route table that has since
+ * changed never ends up in the cache.
+ * <p>
+ * Lookups don't take a lock. They read a concurrent index of the entries and set the entry's
+ * referenced bit, and the hit and miss counters are striped. Only adding entries, evicting them,
+ * and clearing the cache are serialized.
+ */
+public class PathRouteCache
+{
+    private final int capacity;
+    private final java.util.concurrent.ConcurrentHashMap<String,Entry> entries;
+    private final Entry[] slots;
+    private final java.util.concurrent.atomic.LongAdder hitCount;
+    private final java.util.concurrent.atomic.LongAdder missCount;
+    private volatile int count;
+    private int clockHand;
+    private volatile long generation;
+    private volatile long evictionCount;
+
+    /**
+     * A cached route match and its place in the clock.
+     */
+    private static class Entry
+    {
+        private final int index;
+        private final String path;
+        private final PathRoute route;
+        private final int[] offsets;
+        private volatile boolean referenced;
+
+        private Entry(int index, String path, PathRoute route, int[] offsets, boolean referenced)
+        {
+            this.index = index;
+            this.path = path;
+            this.route = route;
+            this.offsets = offsets;
+            this.referenced = referenced;
+        }
+    }
+
+    private PathRouteCache(int capacity)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(capacity, 0, "capacity");
+
+        this.capacity = capacity;
+        this.entries = new java.util.concurrent.ConcurrentHashMap<>();
+        this.slots = new Entry[capacity];
+        this.hitCount = new java.util.concurrent.atomic.LongAdder();
+        this.missCount = new java.util.concurrent.atomic.LongAdder();
+    }
+
+    /**
+     * Create a new PathRouteCache that can hold the provided number of entries. A capacity of 0
+     * creates a cache that never holds any entries.
+     * @param capacity The maximum number of entries that the cache can hold.
+     * @return The new PathRouteCache.
+     */
+    public static PathRouteCache create(int capacity)
+    {
+        return new PathRouteCache(capacity);
+    }
+
+    /**
+     * Get the maximum number of entries that this cache can hold.
+     * @return The maximum number of entries that this cache can hold.
+     */
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * Get the number of entries in this cache.
+     * @return The number of entries in this cache.
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * Get the current generation of this cache. This should be read before the route table is
+     * searched, and then passed to {@link #put(long, PathParameters)} with the search's result.
+     * @return The current generation of this cache.
+     */
+    public long getGeneration()
+    {
+        return this.generation;
+    }
+
+    /**
+     * Get the number of lookups that found an entry in this cache.
+     * @return The number of lookups that found an entry in this cache.
+     */
+    public long getHitCount()
+    {
+        return this.hitCount.sum();
+    }
+
+    /**
+     * Get the number of lookups that didn't find an entry in this cache.
+     * @return The number of lookups that didn't find an entry in this cache.
+     */
+    public long getMissCount()
+    {
+        return this.missCount.sum();
+    }
+
+    /**
+     * Get the fraction of lookups that found an entry in this cache, or 0 if there haven't been
+     * any lookups.
+     * @return The fraction of lookups that found an entry in this cache.
+     */
+    public double getHitRate()
+    {
+        final long hitCount = this.hitCount.sum();
+        final long lookupCount = hitCount + this.missCount.sum();
+        return lookupCount == 0 ? 0 : (double)hitCount / lookupCount;
+    }
+
+    /**
+     * Get the number of entries that have been evicted to make room for new entries.
+     * @return The number of entries that have been evicted to make room for new entries.
+     */
+    public long getEvictionCount()
+    {
+        return this.evictionCount;
+    }
+
+    /**
+     * Get the parameters that were captured from the provided path when it was added to this
+     * cache, or null if the path isn't in this cache. The route that matched the path is available
+     * from {@link PathParameters#getRoute()}.
+     * @param path The request path to look up.
+     * @return The cached parameters of the provided path, or null if the path isn't cached.
+     */
+    public PathParameters get(String path)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        PathParameters result = null;
+        final Entry entry = this.entries.get(path);
+        if (entry == null)
+        {
+            this.missCount.increment();
+        }
+        else
+        {
+            this.hitCount.increment();
+            // Only write the bit when it changes, so that hot entries don't keep invalidating the
+            // cache line that holds it.
+            if (!entry.referenced)
+            {
+                entry.referenced = true;
+            }
+            result = entry.route.createParameters(path, entry.offsets);
+        }
+        return result;
+    }
+
+    /**
+     * Add the provided route match to this cache. The match is ignored if the provided generation
+     * isn't the current generation of this cache.
+     * @param generation The generation of this cache that was read before the route was matched.
+     * @param pathParameters The parameters that a route captured from a request path.
+     */
+    public synchronized void put(long generation, PathParameters pathParameters)
+    {
+        PreCondition.assertNotNull(pathParameters, "pathParameters");
+        PreCondition.assertNotNull(pathParameters.getRoute(), "pathParameters.getRoute()");
+
+        if (generation == this.generation && 0 < this.capacity)
+        {
+            final String path = pathParameters.getPath();
+            final Entry existingEntry = this.entries.get(path);
+            int index;
+            if (existingEntry != null)
+            {
+                index = existingEntry.index;
+            }
+            else if (this.count < this.capacity)
+            {
+                index = this.count;
+                this.count = index + 1;
+            }
+            else
+            {
+                while (this.slots[this.clockHand].referenced)
+                {
+                    this.slots[this.clockHand].referenced = false;
+                    this.clockHand = (this.clockHand + 1) % this.capacity;
+                }
+                index = this.clockHand;
+                this.clockHand = (this.clockHand + 1) % this.capacity;
+
+                this.entries.remove(this.slots[index].path);
+                this.evictionCount = this.evictionCount + 1;
+            }
+
+            final Entry entry = new Entry(index, path, pathParameters.getRoute(), pathParameters.getOffsets(), existingEntry != null);
+            this.slots[index] = entry;
+            this.entries.put(path, entry);
+        }
+    }
+
+    /**
+     * Remove all of the entries from this cache and start a new generation.
+     */
+    public synchronized void clear()
+    {
+        this.generation = this.generation + 1;
+        this.entries.clear();
+        java.util.Arrays.fill(this.slots, null);
+        this.count = 0;
+        this.clockHand = 0;
+    }
+}
@@ -0,0 +1,141 @@
+package qub;
+
+/**
+ * An immutable, ordered table of {@link PathRoute}s. Adding or removing a route creates a new
+ * table and leaves the existing table unchanged, so a table can be searched from any number of
+ * threads without locking while a new version of it is being built.
+ */
+public class PathRouteTable
+{
+    private static final PathRouteTable empty = new PathRouteTable(new PathRoute[0]);
+
+    private final PathRoute[] routes;
+
+    private PathRouteTable(PathRoute[] routes)
+    {
+        PreCondition.assertNotNull(routes, "routes");
+
+        this.routes = routes;
+    }
+
+    /**
+     * Get an empty PathRouteTable.
+     * @return An empty PathRouteTable.
+     */
+    public static PathRouteTable create()
+    {
+        return PathRouteTable.empty;
+    }
+
+    /**
+     * Get the number of routes in this table.
+     * @return The number of routes in this table.
+     */
+    public int getCount()
+    {
+        return this.routes.length;
+    }
+
+    /**
+     * Get the routes in this table in the order that they are searched.
+     * @return The routes in this table.
+     */
+    public Iterable<PathRoute> getRoutes()
+    {
+        final List<PathRoute> result = List.create();
+        for (final PathRoute route : this.routes)
+        {
+            result.add(route);
+        }
+        return result;
+    }
+
+    private int indexOf(String pattern)
+    {
+        int result = -1;
+        for (int i = 0; i < this.routes.length; ++i)
+        {
+            if (this.routes[i].getPattern().equals(pattern))
+            {
+                result = i;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Create a new table that contains the routes of this table and the provided route. If this
+     * table already has a route with the same pattern, then the provided route takes its place.
+     * Otherwise the provided route is added to the end of the new table.
+     * @param route The route to set.
+     * @return The new table.
+     */
+    public PathRouteTable set(PathRoute route)
+    {
+        PreCondition.assertNotNull(route, "route");
+
+        final int index = this.indexOf(route.getPattern());
+        final PathRoute[] newRoutes;
+        if (index == -1)
+        {
+            newRoutes = java.util.Arrays.copyOf(this.routes, this.routes.length + 1);
+            newRoutes[this.routes.length] = route;
+        }
+        else
+        {
+            newRoutes = this.routes.clone();
+            newRoutes[index] = route;
+        }
+
+        return new PathRouteTable(newRoutes);
+    }
+
+    /**
+     * Create a new table that contains the routes of this table except for the route with the
+     * provided pattern. If this table doesn't have a route with the provided pattern, then this
+     * table is returned.
+     * @param pattern The pattern of the route to remove.
+     * @return The new table, or this table if it doesn't have a route with the provided pattern.
+     */
+    public PathRouteTable remove(String pattern)
+    {
+        PreCondition.assertNotNullAndNotEmpty(pattern, "pattern");
+
+        PathRouteTable result = this;
+        final int index = this.indexOf(pattern);
+        if (index != -1)
+        {
+            final PathRoute[] newRoutes = new PathRoute[this.routes.length - 1];
+            System.arraycopy(this.routes, 0, newRoutes, 0, index);
+            System.arraycopy(this.routes, index + 1, newRoutes, index, newRoutes.length - index);
+            result = new PathRouteTable(newRoutes);
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Match the provided path against the routes in this table.
+     * @param path The path to match.
+     * @return The parameters that the first matching route captured from the path, or null if no
+     * route matches the path.
+     */
+    public PathParameters match(String path)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        PathParameters result = null;
+        for (final PathRoute route : this.routes)
+        {
+            result = route.match(path);
+            if (result != null)
+            {
+                break;
+            }
+        }
+        return result;
+    }
+}
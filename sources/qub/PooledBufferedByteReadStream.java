@@ -0,0 +1,179 @@
+package qub;
+
+/**
+ * A buffered {@link ByteReadStream} whose buffer is leased from a {@link ByteBufferPool}. The buffer
+ * is released back to the pool when this stream is disposed. Disposing this stream does not dispose
+ * the inner stream.
+ */
+public class PooledBufferedByteReadStream implements DelimitedByteReadStream
+{
+    private final ByteReadStream innerStream;
+    private final ByteBufferPool bufferPool;
+    private byte[] buffer;
+    private int bufferIndex;
+    private int bufferLength;
+    private boolean endOfStream;
+
+    private PooledBufferedByteReadStream(ByteReadStream innerStream, ByteBufferPool bufferPool, int bufferSize)
+    {
+        PreCondition.assertNotNull(innerStream, "innerStream");
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+        PreCondition.assertGreaterThanOrEqualTo(bufferSize, 1, "bufferSize");
+
+        this.innerStream = innerStream;
+        this.bufferPool = bufferPool;
+        this.buffer = bufferPool.lease(bufferSize);
+    }
+
+    /**
+     * Create a new PooledBufferedByteReadStream that leases an 8KB buffer from the provided pool.
+     * @param innerStream The stream to read bytes from.
+     * @param bufferPool The pool to lease the buffer from.
+     * @return The new PooledBufferedByteReadStream.
+     */
+    public static PooledBufferedByteReadStream create(ByteReadStream innerStream, ByteBufferPool bufferPool)
+    {
+        return PooledBufferedByteReadStream.create(innerStream, bufferPool, 8192);
+    }
+
+    /**
+     * Create a new PooledBufferedByteReadStream.
+     * @param innerStream The stream to read bytes from.
+     * @param bufferPool The pool to lease the buffer from.
+     * @param bufferSize The minimum size of the buffer to lease.
+     * @return The new PooledBufferedByteReadStream.
+     */
+    public static PooledBufferedByteReadStream create(ByteReadStream innerStream, ByteBufferPool bufferPool, int bufferSize)
+    {
+        return new PooledBufferedByteReadStream(innerStream, bufferPool, bufferSize);
+    }
+
+    /**
+     * Fill this stream's buffer from the inner stream if the buffer is empty.
+     * @return Whether or not there are bytes in the buffer.
+     */
+    private boolean fillBuffer()
+    {
+        if (this.bufferIndex == this.bufferLength && !this.endOfStream)
+        {
+            final Integer bytesRead = this.innerStream.readBytes(this.buffer, 0, this.buffer.length)
+                .catchError(EmptyException.class)
+                .await();
+            this.bufferIndex = 0;
+            if (bytesRead == null || bytesRead <= 0)
+            {
+                this.bufferLength = 0;
+                this.endOfStream = true;
+            }
+            else
+            {
+                this.bufferLength = bytesRead;
+            }
+        }
+        return this.bufferIndex < this.bufferLength;
+    }
+
+    @Override
+    public Result<Byte> readByte()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            if (!this.fillBuffer())
+            {
+                throw new EmptyException();
+            }
+            return this.buffer[this.bufferIndex++];
+        });
+    }
+
+    @Override
+    public Result<Integer> readBytes(byte[] outputBytes, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(outputBytes, "outputBytes");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 1, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, outputBytes.length, "startIndex + length");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            if (!this.fillBuffer())
+            {
+                throw new EmptyException();
+            }
+
+            final int result = Math.minimum(length, this.bufferLength - this.bufferIndex);
+            System.arraycopy(this.buffer, this.bufferIndex, outputBytes, startIndex, result);
+            this.bufferIndex += result;
+
+            return result;
+        });
+    }
+
+    /**
+     * Read bytes from this stream up to and including the first occurrence of the provided
+     * delimiter, or until the provided number of bytes have been read. The bytes are found and
+     * copied directly from this stream's buffer, so no bytes after the delimiter are read.
+     * @param delimiter The byte to stop reading after.
+     * @param outputBytes The array to copy the read bytes into.
+     * @param startIndex The index in outputBytes to start copying bytes at.
+     * @param length The maximum number of bytes to read.
+     * @return The number of bytes that were read. The last byte that was read is the delimiter if
+     * the delimiter was found, and fewer than length bytes are read only if the delimiter was
+     * found or the stream ended.
+     */
+    @Override
+    public Result<Integer> readBytesUntil(byte delimiter, byte[] outputBytes, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(outputBytes, "outputBytes");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 1, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, outputBytes.length, "startIndex + length");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            int result = 0;
+            boolean delimiterFound = false;
+            while (!delimiterFound && result < length && this.fillBuffer())
+            {
+                final int scanEndIndex = this.bufferIndex + Math.minimum(length - result, this.bufferLength - this.bufferIndex);
+                int scanIndex = this.bufferIndex;
+                while (scanIndex < scanEndIndex && !delimiterFound)
+                {
+                    delimiterFound = (this.buffer[scanIndex++] == delimiter);
+                }
+
+                final int bytesToCopy = scanIndex - this.bufferIndex;
+                System.arraycopy(this.buffer, this.bufferIndex, outputBytes, startIndex + result, bytesToCopy);
+                this.bufferIndex = scanIndex;
+                result += bytesToCopy;
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.buffer == null;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.isDisposed();
+            if (result)
+            {
+                final byte[] buffer = this.buffer;
+                this.buffer = null;
+                this.bufferPool.release(buffer);
+            }
+            return result;
+        });
+    }
+}
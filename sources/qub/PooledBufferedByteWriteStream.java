@@ -0,0 +1,140 @@
+package qub;
+
+/**
+ * A buffered {@link ByteWriteStream} whose buffer is leased from a {@link ByteBufferPool}. The
+ * buffer is released back to the pool when this stream is disposed. Disposing this stream flushes
+ * any buffered bytes, but it does not dispose the inner stream.
+ */
+public class PooledBufferedByteWriteStream implements ByteWriteStream
+{
+    private final ByteWriteStream innerStream;
+    private final ByteBufferPool bufferPool;
+    private byte[] buffer;
+    private int bufferLength;
+
+    private PooledBufferedByteWriteStream(ByteWriteStream innerStream, ByteBufferPool bufferPool, int bufferSize)
+    {
+        PreCondition.assertNotNull(innerStream, "innerStream");
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+        PreCondition.assertGreaterThanOrEqualTo(bufferSize, 1, "bufferSize");
+
+        this.innerStream = innerStream;
+        this.bufferPool = bufferPool;
+        this.buffer = bufferPool.lease(bufferSize);
+    }
+
+    /**
+     * Create a new PooledBufferedByteWriteStream that leases an 8KB buffer from the provided pool.
+     * @param innerStream The stream to write bytes to.
+     * @param bufferPool The pool to lease the buffer from.
+     * @return The new PooledBufferedByteWriteStream.
+     */
+    public static PooledBufferedByteWriteStream create(ByteWriteStream innerStream, ByteBufferPool bufferPool)
+    {
+        return PooledBufferedByteWriteStream.create(innerStream, bufferPool, 8192);
+    }
+
+    /**
+     * Create a new PooledBufferedByteWriteStream.
+     * @param innerStream The stream to write bytes to.
+     * @param bufferPool The pool to lease the buffer from.
+     * @param bufferSize The minimum size of the buffer to lease.
+     * @return The new PooledBufferedByteWriteStream.
+     */
+    public static PooledBufferedByteWriteStream create(ByteWriteStream innerStream, ByteBufferPool bufferPool, int bufferSize)
+    {
+        return new PooledBufferedByteWriteStream(innerStream, bufferPool, bufferSize);
+    }
+
+    @Override
+    public Result<Integer> write(byte toWrite)
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            if (this.bufferLength == this.buffer.length)
+            {
+                this.flush().await();
+            }
+            this.buffer[this.bufferLength++] = toWrite;
+            return 1;
+        });
+    }
+
+    @Override
+    public Result<Integer> write(byte[] toWrite, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(toWrite, "toWrite");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 0, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, toWrite.length, "startIndex + length");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            if (this.buffer.length <= length)
+            {
+                this.flush().await();
+                this.innerStream.writeAll(toWrite, startIndex, length).await();
+            }
+            else
+            {
+                if (this.buffer.length - this.bufferLength < length)
+                {
+                    this.flush().await();
+                }
+                System.arraycopy(toWrite, startIndex, this.buffer, this.bufferLength, length);
+                this.bufferLength += length;
+            }
+            return length;
+        });
+    }
+
+    /**
+     * Write any buffered bytes to the inner stream.
+     */
+    public Result<Void> flush()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            if (0 < this.bufferLength)
+            {
+                final int bytesToWrite = this.bufferLength;
+                this.bufferLength = 0;
+                this.innerStream.writeAll(this.buffer, 0, bytesToWrite).await();
+            }
+        });
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.buffer == null;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.isDisposed();
+            if (result)
+            {
+                try
+                {
+                    this.flush().await();
+                }
+                finally
+                {
+                    final byte[] buffer = this.buffer;
+                    this.buffer = null;
+                    this.bufferPool.release(buffer);
+                }
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,360 @@
+package qub;
+
+/**
+ * The parameters of a URL query string (such as "a=1&b=hello%20world"). The query string is only
+ * split into parameters when a parameter is first accessed, and each name and value is only
+ * percent-decoded when it is read. A parameter name may appear more than once.
+ */
+public class QueryParameters
+{
+    private static final QueryParameters empty = new QueryParameters("");
+
+    private final String query;
+    private int count;
+    /**
+     * The start and end indexes of each parameter's name and value within the query. The
+     * parameter at index i has its name at [4i, 4i+1) and its value at [4i+2, 4i+3). A parameter
+     * without a '=' has its value start and end set to -1.
+     */
+    private int[] offsets;
+    private String[] names;
+    private String[] values;
+
+    private QueryParameters(String query)
+    {
+        PreCondition.assertNotNull(query, "query");
+
+        this.query = query;
+    }
+
+    /**
+     * Create a new QueryParameters object from the provided query string.
+     * @param query The query string, without the leading '?'. This can be null or empty.
+     * @return The new QueryParameters object.
+     */
+    public static QueryParameters create(String query)
+    {
+        return Strings.isNullOrEmpty(query)
+            ? QueryParameters.empty
+            : new QueryParameters(query);
+    }
+
+    /**
+     * Get the raw query string that these parameters were parsed from.
+     * @return The raw query string that these parameters were parsed from.
+     */
+    public String getQuery()
+    {
+        return this.query;
+    }
+
+    private void ensureParsed()
+    {
+        if (this.offsets == null)
+        {
+            int count = 0;
+            int[] offsets = new int[16];
+            final int queryLength = this.query.length();
+            int parameterStartIndex = 0;
+            while (parameterStartIndex <= queryLength)
+            {
+                int parameterEndIndex = this.query.indexOf('&', parameterStartIndex);
+                if (parameterEndIndex == -1)
+                {
+                    parameterEndIndex = queryLength;
+                }
+
+                if (parameterStartIndex < parameterEndIndex)
+                {
+                    if (offsets.length < (count + 1) * 4)
+                    {
+                        offsets = java.util.Arrays.copyOf(offsets, offsets.length * 2);
+                    }
+
+                    int equalsIndex = this.query.indexOf('=', parameterStartIndex);
+                    if (parameterEndIndex < equalsIndex)
+                    {
+                        equalsIndex = -1;
+                    }
+
+                    final int offsetIndex = count * 4;
+                    offsets[offsetIndex] = parameterStartIndex;
+                    offsets[offsetIndex + 1] = equalsIndex == -1 ? parameterEndIndex : equalsIndex;
+                    offsets[offsetIndex + 2] = equalsIndex == -1 ? -1 : equalsIndex + 1;
+                    offsets[offsetIndex + 3] = equalsIndex == -1 ? -1 : parameterEndIndex;
+                    ++count;
+                }
+
+                parameterStartIndex = parameterEndIndex + 1;
+            }
+
+            this.count = count;
+            this.names = new String[count];
+            this.values = new String[count];
+            this.offsets = offsets;
+        }
+    }
+
+    /**
+     * Get the number of parameters in the query string.
+     * @return The number of parameters in the query string.
+     */
+    public int getCount()
+    {
+        this.ensureParsed();
+
+        return this.count;
+    }
+
+    /**
+     * Get the decoded name of the parameter at the provided index.
+     * @param index The index of the parameter.
+     * @return The decoded name of the parameter at the provided index.
+     */
+    public String getName(int index)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(index, 0, "index");
+        PreCondition.assertLessThanOrEqualTo(index, this.getCount() - 1, "index");
+
+        String result = this.names[index];
+        if (result == null)
+        {
+            result = QueryParameters.decode(this.query, this.offsets[index * 4], this.offsets[index * 4 + 1]);
+            this.names[index] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Get the decoded value of the parameter at the provided index. A parameter without a '=' has
+     * an empty value.
+     * @param index The index of the parameter.
+     * @return The decoded value of the parameter at the provided index.
+     */
+    public String getValue(int index)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(index, 0, "index");
+        PreCondition.assertLessThanOrEqualTo(index, this.getCount() - 1, "index");
+
+        String result = this.values[index];
+        if (result == null)
+        {
+            final int valueStartIndex = this.offsets[index * 4 + 2];
+            result = valueStartIndex == -1
+                ? ""
+                : QueryParameters.decode(this.query, valueStartIndex, this.offsets[index * 4 + 3]);
+            this.values[index] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not the name of the parameter at the provided index is the provided name. If
+     * the raw name doesn't need to be decoded, then it is compared in place.
+     */
+    private boolean nameEquals(int index, String name)
+    {
+        boolean result;
+        final int nameStartIndex = this.offsets[index * 4];
+        final int nameEndIndex = this.offsets[index * 4 + 1];
+        if (this.names[index] != null)
+        {
+            result = this.names[index].equals(name);
+        }
+        else if (!QueryParameters.needsDecoding(this.query, nameStartIndex, nameEndIndex))
+        {
+            result = (nameEndIndex - nameStartIndex == name.length()) &&
+                this.query.regionMatches(nameStartIndex, name, 0, name.length());
+        }
+        else
+        {
+            result = this.getName(index).equals(name);
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not the query string contains a parameter with the provided name.
+     * @param name The decoded name of the parameter.
+     * @return Whether or not the query string contains a parameter with the provided name.
+     */
+    public boolean contains(String name)
+    {
+        PreCondition.assertNotNull(name, "name");
+
+        boolean result = false;
+        final int count = this.getCount();
+        for (int i = 0; i < count; ++i)
+        {
+            if (this.nameEquals(i, name))
+            {
+                result = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the decoded value of the first parameter with the provided name.
+     * @param name The decoded name of the parameter.
+     * @return The decoded value of the first parameter with the provided name, or a
+     * {@link NotFoundException} if the query string doesn't contain the parameter.
+     */
+    public Result<String> get(String name)
+    {
+        PreCondition.assertNotNull(name, "name");
+
+        Result<String> result = null;
+        final int count = this.getCount();
+        for (int i = 0; i < count; ++i)
+        {
+            if (this.nameEquals(i, name))
+            {
+                result = Result.success(this.getValue(i));
+                break;
+            }
+        }
+
+        if (result == null)
+        {
+            result = Result.error(new NotFoundException("No query parameter named " + Strings.escapeAndQuote(name) + " found."));
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the decoded values of all of the parameters with the provided name, in the order that
+     * they appear in the query string.
+     * @param name The decoded name of the parameters.
+     * @return The decoded values of all of the parameters with the provided name.
+     */
+    public Iterable<String> getAll(String name)
+    {
+        PreCondition.assertNotNull(name, "name");
+
+        final List<String> result = List.create();
+        final int count = this.getCount();
+        for (int i = 0; i < count; ++i)
+        {
+            if (this.nameEquals(i, name))
+            {
+                result.add(this.getValue(i));
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.query;
+    }
+
+    private static boolean needsDecoding(String text, int startIndex, int endIndex)
+    {
+        boolean result = false;
+        for (int i = startIndex; i < endIndex; ++i)
+        {
+            final char c = text.charAt(i);
+            if (c == '%' || c == '+')
+            {
+                result = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static int hexValue(char c)
+    {
+        int result;
+        if ('0' <= c && c <= '9')
+        {
+            result = c - '0';
+        }
+        else if ('a' <= c && c <= 'f')
+        {
+            result = c - 'a' + 10;
+        }
+        else if ('A' <= c && c <= 'F')
+        {
+            result = c - 'A' + 10;
+        }
+        else
+        {
+            result = -1;
+        }
+        return result;
+    }
+
+    /**
+     * Decode the provided range of a query string. A '+' is decoded as a space and each "%XX"
+     * escape is decoded as a byte of a UTF-8 sequence. Invalid escapes are kept as they are.
+     * @param text The text that contains the range to decode.
+     * @param startIndex The start index of the range to decode.
+     * @param endIndex The end index of the range to decode.
+     * @return The decoded text.
+     */
+    public static String decode(String text, int startIndex, int endIndex)
+    {
+        PreCondition.assertNotNull(text, "text");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertLessThanOrEqualTo(endIndex, text.length(), "endIndex");
+        PreCondition.assertLessThanOrEqualTo(startIndex, endIndex, "startIndex");
+
+        String result;
+        if (!QueryParameters.needsDecoding(text, startIndex, endIndex))
+        {
+            result = text.substring(startIndex, endIndex);
+        }
+        else
+        {
+            final byte[] bytes = new byte[(endIndex - startIndex) * 3];
+            int byteCount = 0;
+            int i = startIndex;
+            while (i < endIndex)
+            {
+                final char c = text.charAt(i);
+                if (c == '+')
+                {
+                    bytes[byteCount++] = ' ';
+                    ++i;
+                }
+                else if (c == '%' && i + 2 < endIndex && QueryParameters.hexValue(text.charAt(i + 1)) != -1 && QueryParameters.hexValue(text.charAt(i + 2)) != -1)
+                {
+                    bytes[byteCount++] = (byte)((QueryParameters.hexValue(text.charAt(i + 1)) << 4) | QueryParameters.hexValue(text.charAt(i + 2)));
+                    i += 3;
+                }
+                else if (c < 0x80)
+                {
+                    bytes[byteCount++] = (byte)c;
+                    ++i;
+                }
+                else
+                {
+                    int nonAsciiEndIndex = i + 1;
+                    while (nonAsciiEndIndex < endIndex && 0x80 <= text.charAt(nonAsciiEndIndex))
+                    {
+                        ++nonAsciiEndIndex;
+                    }
+                    final byte[] encodedBytes = text.substring(i, nonAsciiEndIndex).getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    System.arraycopy(encodedBytes, 0, bytes, byteCount, encodedBytes.length);
+                    byteCount += encodedBytes.length;
+                    i = nonAsciiEndIndex;
+                }
+            }
+            result = new String(bytes, 0, byteCount, java.nio.charset.StandardCharsets.UTF_8);
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+}
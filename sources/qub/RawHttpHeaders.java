@@ -0,0 +1,261 @@
+package qub;
+
+/**
+ * A read-only collection of HTTP headers that is backed by the raw bytes of a HTTP header block.
+ * The header block is only indexed by line when it is created. {@link HttpHeader} objects and
+ * their name and value Strings are only created when they are accessed.
+ */
+public class RawHttpHeaders implements HttpHeaders
+{
+    private final byte[] bytes;
+    private final int lineCount;
+    private final int[] lineStartIndexes;
+    private final int[] lineEndIndexes;
+    private final int[] colonIndexes;
+    private final HttpHeader[] headers;
+
+    private RawHttpHeaders(byte[] bytes, int lineCount, int[] lineStartIndexes, int[] lineEndIndexes, int[] colonIndexes)
+    {
+        this.bytes = bytes;
+        this.lineCount = lineCount;
+        this.lineStartIndexes = lineStartIndexes;
+        this.lineEndIndexes = lineEndIndexes;
+        this.colonIndexes = colonIndexes;
+        this.headers = new HttpHeader[lineCount];
+    }
+
+    /**
+     * Create a new RawHttpHeaders collection from the provided raw header block bytes. Each header
+     * line must be terminated by either "\r\n" or "\n". Lines that don't contain a colon are
+     * ignored.
+     * @param bytes The raw header block bytes. These bytes will not be copied, so they must not be
+     *              modified after this collection is created.
+     * @param startIndex The index of the first header block byte.
+     * @param length The number of header block bytes.
+     * @return The new RawHttpHeaders collection.
+     */
+    public static RawHttpHeaders create(byte[] bytes, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 0, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, bytes.length, "startIndex + length");
+
+        int lineCount = 0;
+        int[] lineStartIndexes = new int[8];
+        int[] lineEndIndexes = new int[8];
+        int[] colonIndexes = new int[8];
+
+        final int endIndex = startIndex + length;
+        int lineStartIndex = startIndex;
+        int colonIndex = -1;
+        for (int i = startIndex; i <= endIndex; ++i)
+        {
+            final byte b = i < endIndex ? bytes[i] : (byte)'\n';
+            if (b == ':' && colonIndex == -1)
+            {
+                colonIndex = i;
+            }
+            else if (b == '\n')
+            {
+                int lineEndIndex = i;
+                if (lineStartIndex < lineEndIndex && bytes[lineEndIndex - 1] == '\r')
+                {
+                    --lineEndIndex;
+                }
+
+                if (lineStartIndex < colonIndex)
+                {
+                    if (lineCount == lineStartIndexes.length)
+                    {
+                        lineStartIndexes = java.util.Arrays.copyOf(lineStartIndexes, lineCount * 2);
+                        lineEndIndexes = java.util.Arrays.copyOf(lineEndIndexes, lineCount * 2);
+                        colonIndexes = java.util.Arrays.copyOf(colonIndexes, lineCount * 2);
+                    }
+                    lineStartIndexes[lineCount] = lineStartIndex;
+                    lineEndIndexes[lineCount] = lineEndIndex;
+                    colonIndexes[lineCount] = colonIndex;
+                    ++lineCount;
+                }
+
+                lineStartIndex = i + 1;
+                colonIndex = -1;
+            }
+        }
+
+        return new RawHttpHeaders(bytes, lineCount, lineStartIndexes, lineEndIndexes, colonIndexes);
+    }
+
+    /**
+     * Read a raw header block from the provided ByteReadStream. The header block ends with an empty
+     * line (or the end of the stream). The empty line will be read from the stream, but it will not
+     * be part of the returned headers.
+     * @param byteReadStream The ByteReadStream to read the header block from.
+     * @return The headers that were read.
+     */
+    public static Result<RawHttpHeaders> read(ByteReadStream byteReadStream)
+    {
+        PreCondition.assertNotNull(byteReadStream, "byteReadStream");
+
+        return HttpHeadReader.create().readHeaders(byteReadStream);
+    }
+
+    /**
+     * Get the number of header lines in this collection.
+     * @return The number of header lines in this collection.
+     */
+    @Override
+    public int getCount()
+    {
+        return this.lineCount;
+    }
+
+    private static boolean isWhitespace(byte b)
+    {
+        return b == ' ' || b == '\t';
+    }
+
+    /**
+     * Get whether or not the name of the header at the provided line index matches the provided
+     * header name. This comparison doesn't create any objects.
+     * @param lineIndex The index of the header line to check.
+     * @param headerName The header name to compare against.
+     * @return Whether or not the name of the header at the provided line index matches the provided
+     * header name.
+     */
+    private boolean nameEquals(int lineIndex, String headerName)
+    {
+        final int nameStartIndex = this.lineStartIndexes[lineIndex];
+        final int nameLength = this.colonIndexes[lineIndex] - nameStartIndex;
+
+        boolean result = (nameLength == headerName.length());
+        for (int i = 0; result && i < nameLength; ++i)
+        {
+            char lhs = (char)(this.bytes[nameStartIndex + i] & 0xFF);
+            char rhs = headerName.charAt(i);
+            if (lhs != rhs)
+            {
+                if ('A' <= lhs && lhs <= 'Z')
+                {
+                    lhs = (char)(lhs + ('a' - 'A'));
+                }
+                if ('A' <= rhs && rhs <= 'Z')
+                {
+                    rhs = (char)(rhs + ('a' - 'A'));
+                }
+                result = (lhs == rhs);
+            }
+        }
+        return result;
+    }
+
+    private String decode(int startIndex, int endIndex)
+    {
+        return new String(this.bytes, startIndex, endIndex - startIndex, java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the header at the provided line index, creating it if it hasn't been created yet.
+     * @param lineIndex The index of the header line.
+     * @return The header at the provided line index.
+     */
+    private HttpHeader getHeaderAt(int lineIndex)
+    {
+        HttpHeader result = this.headers[lineIndex];
+        if (result == null)
+        {
+            final int lineStartIndex = this.lineStartIndexes[lineIndex];
+            final int colonIndex = this.colonIndexes[lineIndex];
+
+            int valueStartIndex = colonIndex + 1;
+            int valueEndIndex = this.lineEndIndexes[lineIndex];
+            while (valueStartIndex < valueEndIndex && RawHttpHeaders.isWhitespace(this.bytes[valueStartIndex]))
+            {
+                ++valueStartIndex;
+            }
+            while (valueStartIndex < valueEndIndex && RawHttpHeaders.isWhitespace(this.bytes[valueEndIndex - 1]))
+            {
+                --valueEndIndex;
+            }
+
+            result = HttpHeader.create(this.decode(lineStartIndex, colonIndex), this.decode(valueStartIndex, valueEndIndex));
+            this.headers[lineIndex] = result;
+        }
+        return result;
+    }
+
+    @Override
+    public Result<HttpHeader> get(String headerName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
+
+        Result<HttpHeader> result = null;
+        for (int i = 0; i < this.lineCount; ++i)
+        {
+            if (this.nameEquals(i, headerName))
+            {
+                result = Result.success(this.getHeaderAt(i));
+                break;
+            }
+        }
+
+        if (result == null)
+        {
+            result = Result.error(new NotFoundException("No " + Strings.escapeAndQuote(headerName) + " header found."));
+        }
+
+        return result;
+    }
+
+    @Override
+    public Iterable<HttpHeader> getAll(String headerName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
+
+        final List<HttpHeader> result = List.create();
+        for (int i = 0; i < this.lineCount; ++i)
+        {
+            if (this.nameEquals(i, headerName))
+            {
+                result.add(this.getHeaderAt(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean contains(String headerName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(headerName, "headerName");
+
+        boolean result = false;
+        for (int i = 0; !result && i < this.lineCount; ++i)
+        {
+            result = this.nameEquals(i, headerName);
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<HttpHeader> iterate()
+    {
+        final List<HttpHeader> result = List.create();
+        for (int i = 0; i < this.lineCount; ++i)
+        {
+            result.add(this.getHeaderAt(i));
+        }
+        return result.iterate();
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return Iterable.equals(this, rhs);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Iterable.toString(this);
+    }
+}
@@ -0,0 +1,267 @@
+package qub;
+
+/**
+ * The settings that a {@link HttpServer} uses to decide whether or not to compress a response body
+ * with the "gzip" or "deflate" content coding. A response is only compressed if the client
+ * accepts one of those codings (see {@link #negotiate(String, String...)}), its content type is
+ * compressible, and it is not known to be smaller than the minimum length. Because the compressed
+ * length isn't known before the body has been compressed, compressed responses are sent with the
+ * chunked transfer coding.
+ */
+public class ResponseCompression
+{
+    private static final String[] supportedContentEncodings = new String[] { DeflaterByteWriteStream.GzipContentEncoding, DeflaterByteWriteStream.DeflateContentEncoding };
+
+    private volatile long minimumLength;
+    private volatile int level;
+    private volatile Function1<String,Boolean> contentTypeFilter;
+
+    private ResponseCompression()
+    {
+        this.minimumLength = 1024;
+        this.level = java.util.zip.Deflater.DEFAULT_COMPRESSION;
+        this.contentTypeFilter = ResponseCompression::isCompressibleContentType;
+    }
+
+    /**
+     * Create a new ResponseCompression with a minimum length of 1 KiB, the default compression
+     * level, and the default compressible content types (see
+     * {@link #isCompressibleContentType(String)}).
+     * @return The new ResponseCompression.
+     */
+    public static ResponseCompression create()
+    {
+        return new ResponseCompression();
+    }
+
+    /**
+     * Set the minimum Content-Length that a response must have to be compressed. Responses without
+     * a Content-Length are always compressed when they are otherwise compressible.
+     * @param minimumLength The minimum Content-Length that a response must have to be compressed.
+     * @return This object for method chaining.
+     */
+    public ResponseCompression setMinimumLength(long minimumLength)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(minimumLength, 0, "minimumLength");
+
+        this.minimumLength = minimumLength;
+
+        return this;
+    }
+
+    /**
+     * Get the minimum Content-Length that a response must have to be compressed.
+     * @return The minimum Content-Length that a response must have to be compressed.
+     */
+    public long getMinimumLength()
+    {
+        return this.minimumLength;
+    }
+
+    /**
+     * Set the compression level, from 0 (no compression) to 9 (best compression), or -1 for the
+     * default compression level.
+     * @param level The compression level.
+     * @return This object for method chaining.
+     */
+    public ResponseCompression setLevel(int level)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(level, -1, "level");
+        PreCondition.assertLessThanOrEqualTo(level, 9, "level");
+
+        this.level = level;
+
+        return this;
+    }
+
+    /**
+     * Get the compression level.
+     * @return The compression level.
+     */
+    public int getLevel()
+    {
+        return this.level;
+    }
+
+    /**
+     * Set the function that decides whether or not a response with the provided Content-Type
+     * header value (which may be null) is compressible.
+     * @param contentTypeFilter The function that decides whether or not a content type is
+     *                          compressible.
+     * @return This object for method chaining.
+     */
+    public ResponseCompression setContentTypeFilter(Function1<String,Boolean> contentTypeFilter)
+    {
+        PreCondition.assertNotNull(contentTypeFilter, "contentTypeFilter");
+
+        this.contentTypeFilter = contentTypeFilter;
+
+        return this;
+    }
+
+    /**
+     * Get whether or not the provided response to the provided request should be compressed if the
+     * client accepts a compressed content coding. A response that is compressible should be sent
+     * with a "Vary: Accept-Encoding" header, whether or not it is compressed. The response to a HEAD
+     * request is compressible when the response to the same GET request would be, so that it gets
+     * the same headers.
+     * @param request The request that the response is for.
+     * @param response The response to check.
+     * @return Whether or not the provided response is compressible.
+     */
+    public boolean isCompressible(HttpRequest request, HttpResponse response)
+    {
+        PreCondition.assertNotNull(request, "request");
+        PreCondition.assertNotNull(response, "response");
+
+        final int statusCode = response.getStatusCode();
+        boolean result = 200 <= statusCode && statusCode != 204 && statusCode != 304 &&
+            !response.getHeaders().contains(HttpHeader.ContentEncodingName);
+        if (result)
+        {
+            final long contentLength = response.getContentLengthValue();
+            result = (contentLength < 0 || this.minimumLength <= contentLength);
+        }
+        if (result)
+        {
+            final String contentType = response.getHeaderValue(HttpHeader.ContentTypeName)
+                .catchError(NotFoundException.class)
+                .await();
+            final Boolean compressible = this.contentTypeFilter.run(contentType);
+            result = (compressible != null && compressible);
+        }
+        return result;
+    }
+
+    /**
+     * Get the content coding that the provided response to the provided request should be
+     * compressed with.
+     * @param request The request that the response is for.
+     * @param response The response to get the content coding for.
+     * @return "gzip" or "deflate", or null if the response should not be compressed.
+     */
+    public String getContentEncoding(HttpRequest request, HttpResponse response)
+    {
+        String result = null;
+        if (this.isCompressible(request, response))
+        {
+            final String acceptEncoding = request.getHeaderValue(HttpHeader.AcceptEncodingName)
+                .catchError(NotFoundException.class)
+                .await();
+            result = ResponseCompression.negotiate(acceptEncoding, ResponseCompression.supportedContentEncodings);
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not the provided Content-Type header value is for a type of content that
+     * usually gets smaller when it is compressed. Text (except for event streams, which must be
+     * sent as soon as each event is written), JSON, XML, JavaScript, and SVG are compressible.
+     * Unknown content types and content types that are already compressed (such as images, audio,
+     * video, and archives) are not.
+     * @param contentType The Content-Type header value to check.
+     * @return Whether or not the provided content type is compressible.
+     */
+    public static boolean isCompressibleContentType(String contentType)
+    {
+        boolean result = false;
+        if (!Strings.isNullOrEmpty(contentType))
+        {
+            final int parametersIndex = contentType.indexOf(';');
+            final String mediaType = (parametersIndex == -1 ? contentType : contentType.substring(0, parametersIndex))
+                .trim()
+                .toLowerCase();
+            result = (mediaType.startsWith("text/") && !mediaType.equals("text/event-stream")) ||
+                mediaType.equals("application/json") ||
+                mediaType.equals("application/javascript") ||
+                mediaType.equals("application/xml") ||
+                mediaType.equals("application/x-www-form-urlencoded") ||
+                mediaType.equals("image/svg+xml") ||
+                mediaType.endsWith("+json") ||
+                mediaType.endsWith("+xml");
+        }
+        return result;
+    }
+
+    /**
+     * Choose the content coding that the client that sent the provided Accept-Encoding header value
+     * most prefers (RFC 7231, section 5.3.4). When the client prefers several of the provided
+     * content codings equally, the one that comes first in the provided content codings is chosen.
+     * @param acceptEncoding The Accept-Encoding header value, or null if the request didn't have
+     *                       one.
+     * @param contentEncodings The content codings that can be sent, in order of preference.
+     * @return The chosen content coding, or null if the client doesn't accept any of the provided
+     * content codings.
+     */
+    public static String negotiate(String acceptEncoding, String... contentEncodings)
+    {
+        PreCondition.assertNotNull(contentEncodings, "contentEncodings");
+
+        String result = null;
+        if (!Strings.isNullOrEmpty(acceptEncoding))
+        {
+            final double[] qualities = new double[contentEncodings.length];
+            java.util.Arrays.fill(qualities, -1);
+            double wildcardQuality = -1;
+
+            for (final String element : acceptEncoding.split(","))
+            {
+                final int parametersIndex = element.indexOf(';');
+                final String coding = (parametersIndex == -1 ? element : element.substring(0, parametersIndex)).trim();
+                final double quality = parametersIndex == -1 ? 1 : ResponseCompression.parseQuality(element.substring(parametersIndex + 1));
+                if (coding.equals("*"))
+                {
+                    wildcardQuality = quality;
+                }
+                else
+                {
+                    for (int i = 0; i < contentEncodings.length; ++i)
+                    {
+                        if (contentEncodings[i].equalsIgnoreCase(coding) || (coding.equalsIgnoreCase("x-gzip") && contentEncodings[i].equalsIgnoreCase(DeflaterByteWriteStream.GzipContentEncoding)))
+                        {
+                            qualities[i] = java.lang.Math.max(qualities[i], quality);
+                        }
+                    }
+                }
+            }
+
+            double bestQuality = 0;
+            for (int i = 0; i < contentEncodings.length; ++i)
+            {
+                final double quality = qualities[i] == -1 ? wildcardQuality : qualities[i];
+                if (bestQuality < quality)
+                {
+                    bestQuality = quality;
+                    result = contentEncodings[i];
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the quality value from the parameters of an Accept-Encoding element.
+     * @param parameters The parameters of an Accept-Encoding element, without the leading ';'.
+     * @return The quality value, or 1 if the parameters don't contain a valid quality value.
+     */
+    private static double parseQuality(String parameters)
+    {
+        double result = 1;
+        for (final String parameter : parameters.split(";"))
+        {
+            final String trimmedParameter = parameter.trim();
+            if (trimmedParameter.startsWith("q=") || trimmedParameter.startsWith("Q="))
+            {
+                try
+                {
+                    result = java.lang.Double.parseDouble(trimmedParameter.substring(2).trim());
+                }
+                catch (NumberFormatException e)
+                {
+                    result = 0;
+                }
+            }
+        }
+        return result;
+    }
+}
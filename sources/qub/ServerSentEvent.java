@@ -0,0 +1,198 @@
+package qub;
+
+/**
+ * An event that is sent to the subscribers of a {@link ServerSentEventStream} in the
+ * text/event-stream format.
+ */
+public class ServerSentEvent
+{
+    private String id;
+    private String eventType;
+    private String data;
+    private int retryMilliseconds;
+
+    private ServerSentEvent()
+    {
+        this.retryMilliseconds = -1;
+    }
+
+    /**
+     * Create a new ServerSentEvent.
+     * @return The new ServerSentEvent.
+     */
+    public static ServerSentEvent create()
+    {
+        return new ServerSentEvent();
+    }
+
+    /**
+     * Create a new ServerSentEvent with the provided data.
+     * @param data The data of the event.
+     * @return The new ServerSentEvent.
+     */
+    public static ServerSentEvent create(String data)
+    {
+        return ServerSentEvent.create().setData(data);
+    }
+
+    private static boolean containsLineTerminator(String value)
+    {
+        return value.indexOf('\n') != -1 || value.indexOf('\r') != -1;
+    }
+
+    /**
+     * Set the ID of this event. A client that reconnects sends the ID of the last event that it
+     * received in its Last-Event-ID header so that the events that it missed can be resent.
+     * @param id The ID of this event.
+     * @return This object for method chaining.
+     */
+    public ServerSentEvent setId(String id)
+    {
+        PreCondition.assertNotNullAndNotEmpty(id, "id");
+        PreCondition.assertTrue(!ServerSentEvent.containsLineTerminator(id), "id cannot contain a line terminator.");
+        PreCondition.assertTrue(id.indexOf('\0') == -1, "id cannot contain a null character.");
+
+        this.id = id;
+
+        return this;
+    }
+
+    /**
+     * Get the ID of this event.
+     * @return The ID of this event, or null if this event doesn't have an ID.
+     */
+    public String getId()
+    {
+        return this.id;
+    }
+
+    /**
+     * Set the type of this event. A client dispatches an event without a type as a "message"
+     * event.
+     * @param eventType The type of this event.
+     * @return This object for method chaining.
+     */
+    public ServerSentEvent setEventType(String eventType)
+    {
+        PreCondition.assertNotNullAndNotEmpty(eventType, "eventType");
+        PreCondition.assertTrue(!ServerSentEvent.containsLineTerminator(eventType), "eventType cannot contain a line terminator.");
+
+        this.eventType = eventType;
+
+        return this;
+    }
+
+    /**
+     * Get the type of this event.
+     * @return The type of this event, or null if this event doesn't have a type.
+     */
+    public String getEventType()
+    {
+        return this.eventType;
+    }
+
+    /**
+     * Set the data of this event. Data that contains line terminators is sent as multiple data
+     * lines, which the client joins back together with "\n".
+     * @param data The data of this event.
+     * @return This object for method chaining.
+     */
+    public ServerSentEvent setData(String data)
+    {
+        PreCondition.assertNotNull(data, "data");
+
+        this.data = data;
+
+        return this;
+    }
+
+    /**
+     * Get the data of this event.
+     * @return The data of this event, or null if this event doesn't have data.
+     */
+    public String getData()
+    {
+        return this.data;
+    }
+
+    /**
+     * Set the number of milliseconds that the client should wait before it reconnects if the
+     * connection is lost.
+     * @param retryMilliseconds The number of milliseconds to wait before reconnecting.
+     * @return This object for method chaining.
+     */
+    public ServerSentEvent setRetryMilliseconds(int retryMilliseconds)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(retryMilliseconds, 0, "retryMilliseconds");
+
+        this.retryMilliseconds = retryMilliseconds;
+
+        return this;
+    }
+
+    /**
+     * Get the number of milliseconds that the client should wait before it reconnects.
+     * @return The number of milliseconds that the client should wait before it reconnects, or -1
+     * if this event doesn't set it.
+     */
+    public int getRetryMilliseconds()
+    {
+        return this.retryMilliseconds;
+    }
+
+    /**
+     * Get the text/event-stream encoding of this event, including the empty line that ends it.
+     * @return The text/event-stream encoding of this event.
+     */
+    public String toEventStreamString()
+    {
+        final StringBuilder builder = new StringBuilder();
+        if (this.id != null)
+        {
+            builder.append("id: ").append(this.id).append('\n');
+        }
+        if (this.eventType != null)
+        {
+            builder.append("event: ").append(this.eventType).append('\n');
+        }
+        if (this.retryMilliseconds >= 0)
+        {
+            builder.append("retry: ").append(this.retryMilliseconds).append('\n');
+        }
+        if (this.data != null)
+        {
+            int lineStartIndex = 0;
+            final int dataLength = this.data.length();
+            for (int i = 0; i <= dataLength; ++i)
+            {
+                final char c = i == dataLength ? '\n' : this.data.charAt(i);
+                if (c == '\n' || c == '\r')
+                {
+                    builder.append("data: ").append(this.data, lineStartIndex, i).append('\n');
+                    if (c == '\r' && i + 1 < dataLength && this.data.charAt(i + 1) == '\n')
+                    {
+                        ++i;
+                    }
+                    lineStartIndex = i + 1;
+                }
+            }
+        }
+        builder.append('\n');
+        return builder.toString();
+    }
+
+    /**
+     * Get the UTF-8 bytes of the text/event-stream encoding of this event.
+     * @return The UTF-8 bytes of the text/event-stream encoding of this event.
+     */
+    public byte[] toBytes()
+    {
+        return this.toEventStreamString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.toEventStreamString();
+    }
+}
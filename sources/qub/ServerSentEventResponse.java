@@ -0,0 +1,132 @@
+package qub;
+
+/**
+ * The response that subscribes a client to a {@link ServerSentEventStream}. A
+ * {@link HttpServer} writes the head of this response and then hands the connection over to the
+ * stream instead of closing it. Create one with
+ * {@link ServerSentEventStream#createResponse(HttpRequest)}.
+ */
+public class ServerSentEventResponse implements HttpResponse
+{
+    private final ServerSentEventStream stream;
+    private final String lastEventId;
+    private final MutableHttpHeaders headers;
+    private boolean disposed;
+
+    private ServerSentEventResponse(ServerSentEventStream stream, String lastEventId)
+    {
+        PreCondition.assertNotNull(stream, "stream");
+
+        this.stream = stream;
+        this.lastEventId = lastEventId;
+        this.headers = HttpHeaders.create()
+            .set(HttpHeader.ContentTypeName, "text/event-stream")
+            .set(HttpHeader.CacheControlName, "no-cache");
+    }
+
+    /**
+     * Create a new ServerSentEventResponse.
+     * @param stream The stream that the client will be subscribed to.
+     * @param lastEventId The ID of the last event that the client received, or null if the client
+     *                    isn't resuming.
+     * @return The new ServerSentEventResponse.
+     */
+    public static ServerSentEventResponse create(ServerSentEventStream stream, String lastEventId)
+    {
+        return new ServerSentEventResponse(stream, lastEventId);
+    }
+
+    /**
+     * Get the stream that the client will be subscribed to.
+     * @return The stream that the client will be subscribed to.
+     */
+    public ServerSentEventStream getStream()
+    {
+        return this.stream;
+    }
+
+    /**
+     * Get the ID of the last event that the client received.
+     * @return The ID of the last event that the client received, or null if the client isn't
+     * resuming.
+     */
+    public String getLastEventId()
+    {
+        return this.lastEventId;
+    }
+
+    /**
+     * Set a header that will be sent with this response.
+     * @param headerName The name of the header.
+     * @param headerValue The value of the header.
+     * @return This object for method chaining.
+     */
+    public ServerSentEventResponse setHeader(String headerName, String headerValue)
+    {
+        PreCondition.assertTrue(!HttpHeader.isContentLengthName(headerName), "headerName cannot be Content-Length.");
+
+        this.headers.set(headerName, headerValue);
+
+        return this;
+    }
+
+    /**
+     * Subscribe the provided connection to this response's stream after the head of this response
+     * has been written to it.
+     * @param connection The connection that this response was written to.
+     * @return Whether or not the connection was subscribed.
+     */
+    public boolean subscribe(ByteWriteStream connection)
+    {
+        PreCondition.assertNotNull(connection, "connection");
+
+        return this.stream.subscribe(connection, this.lastEventId);
+    }
+
+    @Override
+    public String getHttpVersion()
+    {
+        return "HTTP/1.1";
+    }
+
+    @Override
+    public int getStatusCode()
+    {
+        return 200;
+    }
+
+    @Override
+    public String getReasonPhrase()
+    {
+        return "OK";
+    }
+
+    @Override
+    public HttpHeaders getHeaders()
+    {
+        return this.headers;
+    }
+
+    @Override
+    public ByteReadStream getBody()
+    {
+        return InMemoryByteStream.create().endOfStream();
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.disposed;
+            this.disposed = true;
+            return result;
+        });
+    }
+}
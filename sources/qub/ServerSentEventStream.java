@@ -0,0 +1,542 @@
+package qub;
+
+/**
+ * A thread-safe channel that sends {@link ServerSentEvent}s to every client that has subscribed to
+ * it. Each event is encoded once and added to a bounded queue for each subscriber, and each
+ * subscriber's queue is written to its connection by a writer thread that this stream owns, so a
+ * slow subscriber never holds up the thread that sends an event or the other subscribers. No thread
+ * waits on behalf of an idle subscriber. A subscriber whose connection can't be written to, or
+ * whose queue overflows because it isn't reading, is disposed and dropped. The most recent events
+ * are kept so that a client that reconnects with a Last-Event-ID header can be sent the events that
+ * it missed.
+ */
+public class ServerSentEventStream implements Disposable
+{
+    private static final byte[] heartbeatBytes = new byte[] { ':', '\n', '\n' };
+
+    private final Object lock;
+    private final java.util.ArrayList<Subscriber> subscribers;
+    private final java.util.ArrayDeque<ServerSentEvent> replayEvents;
+    private int replayCapacity;
+    private int subscriberQueueCapacity;
+    private final java.util.concurrent.ExecutorService writerExecutor;
+    private java.util.concurrent.ScheduledExecutorService heartbeatExecutor;
+    private java.util.concurrent.ScheduledFuture<?> heartbeatTask;
+    private boolean disposed;
+
+    private ServerSentEventStream()
+    {
+        this.lock = new Object();
+        this.subscribers = new java.util.ArrayList<>();
+        this.replayEvents = new java.util.ArrayDeque<>();
+        this.replayCapacity = 100;
+        this.subscriberQueueCapacity = 256;
+        this.writerExecutor = java.util.concurrent.Executors.newCachedThreadPool((java.lang.Runnable runnable) ->
+        {
+            final java.lang.Thread thread = new java.lang.Thread(runnable, "ServerSentEventStream writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * A subscribed connection and the encoded events that are waiting to be written to it. All of
+     * its state is guarded by the stream's lock.
+     */
+    private static class Subscriber
+    {
+        private final ByteWriteStream connection;
+        private final java.util.ArrayDeque<byte[]> queue;
+        private boolean writing;
+
+        private Subscriber(ByteWriteStream connection)
+        {
+            this.connection = connection;
+            this.queue = new java.util.ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Create a new ServerSentEventStream that keeps its 100 most recent events for replay.
+     * @return The new ServerSentEventStream.
+     */
+    public static ServerSentEventStream create()
+    {
+        return new ServerSentEventStream();
+    }
+
+    /**
+     * Set the number of recent events that this stream will keep so that they can be resent to a
+     * client that reconnects with a Last-Event-ID header.
+     * @param replayCapacity The number of recent events to keep.
+     * @return This object for method chaining.
+     */
+    public ServerSentEventStream setReplayCapacity(int replayCapacity)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(replayCapacity, 0, "replayCapacity");
+
+        synchronized (this.lock)
+        {
+            this.replayCapacity = replayCapacity;
+            while (this.replayEvents.size() > replayCapacity)
+            {
+                this.replayEvents.removeFirst();
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Get the number of recent events that this stream will keep for replay.
+     * @return The number of recent events that this stream will keep for replay.
+     */
+    public int getReplayCapacity()
+    {
+        synchronized (this.lock)
+        {
+            return this.replayCapacity;
+        }
+    }
+
+    /**
+     * Set the number of events that can wait to be written to a single subscriber. A subscriber
+     * that falls further behind than this is disposed and dropped. The kept events that are queued
+     * for a resuming subscriber count toward its queue.
+     * @param subscriberQueueCapacity The number of events that can wait to be written to a single
+     *                                subscriber.
+     * @return This object for method chaining.
+     */
+    public ServerSentEventStream setSubscriberQueueCapacity(int subscriberQueueCapacity)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(subscriberQueueCapacity, 1, "subscriberQueueCapacity");
+
+        synchronized (this.lock)
+        {
+            this.subscriberQueueCapacity = subscriberQueueCapacity;
+        }
+
+        return this;
+    }
+
+    /**
+     * Get the number of events that can wait to be written to a single subscriber.
+     * @return The number of events that can wait to be written to a single subscriber.
+     */
+    public int getSubscriberQueueCapacity()
+    {
+        synchronized (this.lock)
+        {
+            return this.subscriberQueueCapacity;
+        }
+    }
+
+    /**
+     * Get the number of clients that are subscribed to this stream.
+     * @return The number of clients that are subscribed to this stream.
+     */
+    public int getSubscriberCount()
+    {
+        synchronized (this.lock)
+        {
+            return this.subscribers.size();
+        }
+    }
+
+    /**
+     * Create the response that subscribes the client that sent the provided request to this
+     * stream. When a {@link HttpServer} writes this response, it hands the connection over to this
+     * stream instead of closing it.
+     * @param request The request from the client that wants to subscribe.
+     * @return The response that subscribes the client to this stream.
+     */
+    public ServerSentEventResponse createResponse(HttpRequest request)
+    {
+        PreCondition.assertNotNull(request, "request");
+
+        final String lastEventId = request.getHeaderValue(HttpHeader.LastEventIdName)
+            .catchError(NotFoundException.class)
+            .await();
+        return ServerSentEventResponse.create(this, lastEventId);
+    }
+
+    /**
+     * Add the provided connection as a subscriber of this stream. If a lastEventId is provided,
+     * then the kept events that were sent after the event with that ID are queued for the
+     * connection first. If no kept event has that ID, then all of the kept events are queued. This
+     * doesn't write to the connection, so it never waits on the client.
+     * @param connection The connection to write events to. It will be disposed when it is removed
+     *                   from this stream.
+     * @param lastEventId The ID of the last event that the client received, or null if the client
+     *                    isn't resuming.
+     * @return Whether or not the connection was subscribed. This will be false if this stream has
+     * been disposed or if the connection has been disposed.
+     */
+    public boolean subscribe(ByteWriteStream connection, String lastEventId)
+    {
+        PreCondition.assertNotNull(connection, "connection");
+
+        boolean result = false;
+        synchronized (this.lock)
+        {
+            if (!this.disposed && !connection.isDisposed())
+            {
+                result = true;
+                final Subscriber subscriber = new Subscriber(connection);
+                if (!Strings.isNullOrEmpty(lastEventId) && !this.replayEvents.isEmpty())
+                {
+                    final java.util.Iterator<ServerSentEvent> iterator = this.replayEvents.descendingIterator();
+                    while (iterator.hasNext())
+                    {
+                        final ServerSentEvent event = iterator.next();
+                        if (lastEventId.equals(event.getId()))
+                        {
+                            break;
+                        }
+                        subscriber.queue.addFirst(event.toBytes());
+                    }
+                }
+                this.subscribers.add(subscriber);
+                this.startWriting(subscriber);
+            }
+        }
+
+        if (!result)
+        {
+            connection.dispose().catchError(() -> false).await();
+        }
+
+        return result;
+    }
+
+    /**
+     * Start a writer task for the provided subscriber if it has queued bytes and doesn't already
+     * have one. This must be called while holding this stream's lock.
+     */
+    private void startWriting(Subscriber subscriber)
+    {
+        if (!subscriber.writing && !subscriber.queue.isEmpty())
+        {
+            subscriber.writing = true;
+            this.writerExecutor.execute(() -> this.writeQueue(subscriber));
+        }
+    }
+
+    /**
+     * Write the provided subscriber's queued bytes to its connection until its queue is empty. The
+     * writes happen outside of this stream's lock so that a connection that won't accept more
+     * bytes only holds up its own subscriber.
+     */
+    private void writeQueue(Subscriber subscriber)
+    {
+        boolean done = false;
+        while (!done)
+        {
+            final byte[] bytes;
+            synchronized (this.lock)
+            {
+                bytes = subscriber.queue.pollFirst();
+                if (bytes == null)
+                {
+                    subscriber.writing = false;
+                    this.lock.notifyAll();
+                }
+            }
+
+            if (bytes == null)
+            {
+                done = true;
+            }
+            else if (!ServerSentEventStream.write(subscriber.connection, bytes))
+            {
+                this.remove(subscriber);
+                done = true;
+            }
+        }
+    }
+
+    /**
+     * Write the provided bytes to the provided connection.
+     * @return Whether or not the bytes were written.
+     */
+    private static boolean write(ByteWriteStream connection, byte[] bytes)
+    {
+        return !connection.isDisposed() && Result.create(() -> connection.writeAll(bytes).await())
+            .then(() -> true)
+            .catchError(() -> false)
+            .await();
+    }
+
+    /**
+     * Remove the provided subscriber from this stream and dispose its connection.
+     */
+    private void remove(Subscriber subscriber)
+    {
+        synchronized (this.lock)
+        {
+            this.subscribers.remove(subscriber);
+            subscriber.queue.clear();
+            subscriber.writing = false;
+            this.lock.notifyAll();
+        }
+        subscriber.connection.dispose().catchError(() -> false).await();
+    }
+
+    /**
+     * Queue the provided bytes for each subscriber, and remove the subscribers whose connections
+     * have been disposed or whose queues are full. This must be called while holding this
+     * stream's lock, and it doesn't write to any connection.
+     * @param skipBusySubscribers Whether or not to skip the subscribers that already have bytes
+     *                            waiting to be written.
+     * @return The removed subscribers. Their connections must be disposed after the lock is
+     * released.
+     */
+    private java.util.ArrayList<Subscriber> queueForSubscribers(byte[] bytes, boolean skipBusySubscribers)
+    {
+        final java.util.ArrayList<Subscriber> removedSubscribers = new java.util.ArrayList<>();
+        for (final Subscriber subscriber : this.subscribers)
+        {
+            if (subscriber.connection.isDisposed() || subscriber.queue.size() >= this.subscriberQueueCapacity)
+            {
+                removedSubscribers.add(subscriber);
+            }
+            else if (!skipBusySubscribers || (!subscriber.writing && subscriber.queue.isEmpty()))
+            {
+                subscriber.queue.addLast(bytes);
+                this.startWriting(subscriber);
+            }
+        }
+
+        if (!removedSubscribers.isEmpty())
+        {
+            this.subscribers.removeAll(removedSubscribers);
+            for (final Subscriber removedSubscriber : removedSubscribers)
+            {
+                removedSubscriber.queue.clear();
+            }
+            this.lock.notifyAll();
+        }
+
+        return removedSubscribers;
+    }
+
+    private static void disposeAll(java.util.ArrayList<Subscriber> subscribers)
+    {
+        for (final Subscriber subscriber : subscribers)
+        {
+            subscriber.connection.dispose().catchError(() -> false).await();
+        }
+    }
+
+    /**
+     * Send the provided event to every subscriber of this stream. The event is queued for each
+     * subscriber and written to the subscribers' connections in the background.
+     * @param event The event to send.
+     * @return The number of subscribers that the event was queued for.
+     */
+    public int send(ServerSentEvent event)
+    {
+        PreCondition.assertNotNull(event, "event");
+        PreCondition.assertNotDisposed(this, "this");
+
+        final byte[] bytes = event.toBytes();
+        final java.util.ArrayList<Subscriber> removedSubscribers;
+        final int result;
+        synchronized (this.lock)
+        {
+            if (this.replayCapacity > 0)
+            {
+                if (this.replayEvents.size() == this.replayCapacity)
+                {
+                    this.replayEvents.removeFirst();
+                }
+                this.replayEvents.addLast(event);
+            }
+            removedSubscribers = this.queueForSubscribers(bytes, false);
+            result = this.subscribers.size();
+        }
+        ServerSentEventStream.disposeAll(removedSubscribers);
+
+        return result;
+    }
+
+    /**
+     * Send an event with the provided data to every subscriber of this stream.
+     * @param data The data of the event to send.
+     * @return The number of subscribers that the event was sent to.
+     */
+    public int send(String data)
+    {
+        return this.send(ServerSentEvent.create(data));
+    }
+
+    /**
+     * Send a comment line to every subscriber of this stream. Clients ignore comments, but the
+     * write keeps idle connections from being closed by proxies and finds the subscribers that
+     * have gone away. A subscriber that already has bytes waiting to be written isn't idle, so the
+     * heartbeat isn't queued for it.
+     * @return The number of subscribers that are still subscribed to this stream.
+     */
+    public int sendHeartbeat()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        final java.util.ArrayList<Subscriber> removedSubscribers;
+        final int result;
+        synchronized (this.lock)
+        {
+            removedSubscribers = this.queueForSubscribers(ServerSentEventStream.heartbeatBytes, true);
+            result = this.subscribers.size();
+        }
+        ServerSentEventStream.disposeAll(removedSubscribers);
+
+        return result;
+    }
+
+    /**
+     * Wait until every event that has been sent so far has been written to each subscriber's
+     * connection, or until the subscriber has been dropped.
+     * @return This object for method chaining.
+     */
+    public ServerSentEventStream flush()
+    {
+        synchronized (this.lock)
+        {
+            boolean writing = true;
+            while (writing)
+            {
+                writing = false;
+                for (final Subscriber subscriber : this.subscribers)
+                {
+                    if (subscriber.writing || !subscriber.queue.isEmpty())
+                    {
+                        writing = true;
+                        break;
+                    }
+                }
+
+                if (writing)
+                {
+                    try
+                    {
+                        this.lock.wait();
+                    }
+                    catch (java.lang.InterruptedException e)
+                    {
+                        throw Exceptions.asRuntime(e);
+                    }
+                }
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Set how often this stream will send a heartbeat to its subscribers. The heartbeats for all of
+     * the subscribers are sent by a single timer thread that this stream owns.
+     * @param heartbeatInterval How often to send a heartbeat, or null to stop sending heartbeats.
+     * @return This object for method chaining.
+     */
+    public ServerSentEventStream setHeartbeatInterval(Duration heartbeatInterval)
+    {
+        PreCondition.assertTrue(heartbeatInterval == null || heartbeatInterval.toMilliseconds().getValue() >= 1, "heartbeatInterval must be null or at least one millisecond.");
+        PreCondition.assertNotDisposed(this, "this");
+
+        synchronized (this.lock)
+        {
+            if (this.heartbeatTask != null)
+            {
+                this.heartbeatTask.cancel(false);
+                this.heartbeatTask = null;
+            }
+
+            if (heartbeatInterval != null)
+            {
+                if (this.heartbeatExecutor == null)
+                {
+                    this.heartbeatExecutor = java.util.concurrent.Executors.newSingleThreadScheduledExecutor((java.lang.Runnable runnable) ->
+                    {
+                        final java.lang.Thread thread = new java.lang.Thread(runnable, "ServerSentEventStream heartbeat");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+                final long intervalMilliseconds = (long)heartbeatInterval.toMilliseconds().getValue();
+                this.heartbeatTask = this.heartbeatExecutor.scheduleWithFixedDelay(
+                    this::sendHeartbeatIfNotDisposed,
+                    intervalMilliseconds,
+                    intervalMilliseconds,
+                    java.util.concurrent.TimeUnit.MILLISECONDS);
+            }
+        }
+
+        return this;
+    }
+
+    private void sendHeartbeatIfNotDisposed()
+    {
+        java.util.ArrayList<Subscriber> removedSubscribers = null;
+        synchronized (this.lock)
+        {
+            if (!this.disposed)
+            {
+                removedSubscribers = this.queueForSubscribers(ServerSentEventStream.heartbeatBytes, true);
+            }
+        }
+
+        if (removedSubscribers != null)
+        {
+            ServerSentEventStream.disposeAll(removedSubscribers);
+        }
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        synchronized (this.lock)
+        {
+            return this.disposed;
+        }
+    }
+
+    /**
+     * Stop sending heartbeats, drop the events that haven't been written yet, and dispose the
+     * connections of all of this stream's subscribers.
+     */
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final java.util.ArrayList<Subscriber> subscribersToDispose = new java.util.ArrayList<>();
+            final boolean result;
+            synchronized (this.lock)
+            {
+                result = !this.disposed;
+                if (result)
+                {
+                    this.disposed = true;
+                    if (this.heartbeatExecutor != null)
+                    {
+                        this.heartbeatExecutor.shutdownNow();
+                        this.heartbeatExecutor = null;
+                        this.heartbeatTask = null;
+                    }
+                    this.writerExecutor.shutdown();
+                    for (final Subscriber subscriber : this.subscribers)
+                    {
+                        subscriber.queue.clear();
+                    }
+                    subscribersToDispose.addAll(this.subscribers);
+                    this.subscribers.clear();
+                    this.replayEvents.clear();
+                    this.lock.notifyAll();
+                }
+            }
+
+            ServerSentEventStream.disposeAll(subscribersToDispose);
+            return result;
+        });
+    }
+}
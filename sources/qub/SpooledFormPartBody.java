@@ -0,0 +1,291 @@
+package qub;
+
+/**
+ * The body of a {@link MultipartFormPart} that has been read from its form. Small bodies are kept
+ * in memory and large bodies are written to a temporary file, which is deleted when this object is
+ * disposed.
+ */
+public class SpooledFormPartBody implements Disposable
+{
+    private final byte[] bytes;
+    private final java.nio.file.Path file;
+    private final long length;
+    private boolean disposed;
+
+    private SpooledFormPartBody(byte[] bytes, java.nio.file.Path file, long length)
+    {
+        PreCondition.assertTrue((bytes == null) != (file == null), "Exactly one of bytes and file must be not null.");
+        PreCondition.assertGreaterThanOrEqualTo(length, 0, "length");
+
+        this.bytes = bytes;
+        this.file = file;
+        this.length = length;
+    }
+
+    /**
+     * Read the provided stream to its end and spool its contents.
+     * @param body The stream to read.
+     * @param maximumInMemoryLength The maximum number of bytes that will be kept in memory. If the
+     *                              stream is longer than this, then its contents are written to a
+     *                              temporary file.
+     * @return The spooled body.
+     */
+    public static Result<SpooledFormPartBody> create(ByteReadStream body, int maximumInMemoryLength)
+    {
+        PreCondition.assertNotNull(body, "body");
+        PreCondition.assertGreaterThanOrEqualTo(maximumInMemoryLength, 0, "maximumInMemoryLength");
+
+        return Result.create(() ->
+        {
+            byte[] bytes = new byte[Math.minimum(8192, Math.maximum(1, maximumInMemoryLength))];
+            int byteCount = 0;
+            java.nio.file.Path file = null;
+            java.io.OutputStream fileStream = null;
+            long length = 0;
+            final byte[] readBuffer = new byte[8192];
+            try
+            {
+                while (true)
+                {
+                    final Integer bytesRead = body.readBytes(readBuffer, 0, readBuffer.length)
+                        .catchError(EmptyException.class)
+                        .await();
+                    if (bytesRead == null || bytesRead <= 0)
+                    {
+                        break;
+                    }
+
+                    length += bytesRead;
+                    if (fileStream == null && length <= maximumInMemoryLength)
+                    {
+                        if (bytes.length < byteCount + bytesRead)
+                        {
+                            bytes = java.util.Arrays.copyOf(bytes, Math.minimum(maximumInMemoryLength, Math.maximum(byteCount + bytesRead, bytes.length * 2)));
+                        }
+                        System.arraycopy(readBuffer, 0, bytes, byteCount, bytesRead);
+                        byteCount += bytesRead;
+                    }
+                    else
+                    {
+                        if (fileStream == null)
+                        {
+                            file = java.nio.file.Files.createTempFile("qub-http-", ".part");
+                            fileStream = new java.io.BufferedOutputStream(java.nio.file.Files.newOutputStream(file));
+                            fileStream.write(bytes, 0, byteCount);
+                            bytes = null;
+                        }
+                        fileStream.write(readBuffer, 0, bytesRead);
+                    }
+                }
+
+                if (fileStream != null)
+                {
+                    fileStream.close();
+                    fileStream = null;
+                }
+            }
+            catch (java.io.IOException e)
+            {
+                SpooledFormPartBody.deleteFile(fileStream, file);
+                throw new java.io.UncheckedIOException(e);
+            }
+            catch (RuntimeException e)
+            {
+                SpooledFormPartBody.deleteFile(fileStream, file);
+                throw e;
+            }
+
+            return file == null
+                ? new SpooledFormPartBody(java.util.Arrays.copyOf(bytes, byteCount), null, length)
+                : new SpooledFormPartBody(null, file, length);
+        });
+    }
+
+    private static void deleteFile(java.io.OutputStream fileStream, java.nio.file.Path file)
+    {
+        try
+        {
+            if (fileStream != null)
+            {
+                fileStream.close();
+            }
+            if (file != null)
+            {
+                java.nio.file.Files.deleteIfExists(file);
+            }
+        }
+        catch (java.io.IOException ignored)
+        {
+        }
+    }
+
+    /**
+     * Get the number of bytes in this body.
+     * @return The number of bytes in this body.
+     */
+    public long getLength()
+    {
+        return this.length;
+    }
+
+    /**
+     * Get whether or not this body is kept in memory.
+     * @return Whether or not this body is kept in memory.
+     */
+    public boolean isInMemory()
+    {
+        return this.bytes != null;
+    }
+
+    /**
+     * Get the temporary file that this body was written to.
+     * @return The temporary file that this body was written to, or null if this body is kept in
+     * memory.
+     */
+    public java.nio.file.Path getFile()
+    {
+        return this.file;
+    }
+
+    /**
+     * Create a new stream that reads this body from its start.
+     * @return A new stream that reads this body from its start.
+     */
+    public Result<ByteReadStream> createReadStream()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            ByteReadStream result;
+            if (this.bytes != null)
+            {
+                result = InMemoryByteStream.create(this.bytes).endOfStream();
+            }
+            else
+            {
+                try
+                {
+                    result = new FileStream(java.nio.file.Files.newInputStream(this.file));
+                }
+                catch (java.io.IOException e)
+                {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                SpooledFormPartBody.deleteFile(null, this.file);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * A stream that reads a spooled body from its temporary file.
+     */
+    private static class FileStream implements ByteReadStream
+    {
+        private final java.io.InputStream inputStream;
+        private boolean disposed;
+
+        FileStream(java.io.InputStream inputStream)
+        {
+            this.inputStream = new java.io.BufferedInputStream(inputStream);
+        }
+
+        @Override
+        public Result<Byte> readByte()
+        {
+            PreCondition.assertNotDisposed(this, "this");
+
+            return Result.create(() ->
+            {
+                final int result;
+                try
+                {
+                    result = this.inputStream.read();
+                }
+                catch (java.io.IOException e)
+                {
+                    throw new java.io.UncheckedIOException(e);
+                }
+                if (result == -1)
+                {
+                    throw new EmptyException();
+                }
+                return (byte)result;
+            });
+        }
+
+        @Override
+        public Result<Integer> readBytes(byte[] outputBytes, int startIndex, int length)
+        {
+            PreCondition.assertNotNull(outputBytes, "outputBytes");
+            PreCondition.assertNotDisposed(this, "this");
+
+            return Result.create(() ->
+            {
+                final int result;
+                try
+                {
+                    result = this.inputStream.read(outputBytes, startIndex, length);
+                }
+                catch (java.io.IOException e)
+                {
+                    throw new java.io.UncheckedIOException(e);
+                }
+                if (result == -1)
+                {
+                    throw new EmptyException();
+                }
+                return result;
+            });
+        }
+
+        @Override
+        public boolean isDisposed()
+        {
+            return this.disposed;
+        }
+
+        @Override
+        public Result<Boolean> dispose()
+        {
+            return Result.create(() ->
+            {
+                final boolean result = !this.disposed;
+                if (result)
+                {
+                    this.disposed = true;
+                    try
+                    {
+                        this.inputStream.close();
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        throw new java.io.UncheckedIOException(e);
+                    }
+                }
+                return result;
+            });
+        }
+    }
+}
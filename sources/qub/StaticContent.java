@@ -0,0 +1,411 @@
+package qub;
+
+/**
+ * Serves the files in a folder as static content. Compressible files are served with a gzip
+ * variant when the client accepts one. Each variant is built once per version of its file (the
+ * file's size and last modified time) and kept in a {@link StaticContentCache}, so a file is not
+ * compressed again for every request. Variants are built in the background: until a file's variant
+ * is in the cache, the file is served uncompressed, and concurrent requests for the same missing
+ * variant only build it once.
+ */
+public class StaticContent
+{
+    private static final String[] variantContentEncodings = new String[] { DeflaterByteWriteStream.GzipContentEncoding };
+    private static final java.util.concurrent.ExecutorService variantExecutor = java.util.concurrent.Executors.newSingleThreadExecutor((java.lang.Runnable runnable) ->
+    {
+        final java.lang.Thread thread = new java.lang.Thread(runnable, "StaticContent variant builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final java.nio.file.Path rootFolder;
+    private volatile StaticContentCache cache;
+    private volatile long minimumCompressedLength;
+    private final java.util.Set<String> pendingVariants;
+
+    private StaticContent(java.nio.file.Path rootFolder)
+    {
+        PreCondition.assertNotNull(rootFolder, "rootFolder");
+
+        this.rootFolder = rootFolder.toAbsolutePath().normalize();
+        this.cache = StaticContentCache.create(32 * 1024 * 1024);
+        this.minimumCompressedLength = 1024;
+        this.pendingVariants = new java.util.HashSet<>();
+    }
+
+    /**
+     * Create a new StaticContent that serves the files in the provided folder with a 32 MiB cache
+     * of precompressed variants.
+     * @param rootFolder The folder that contains the files to serve.
+     * @return The new StaticContent.
+     */
+    public static StaticContent create(java.nio.file.Path rootFolder)
+    {
+        return new StaticContent(rootFolder);
+    }
+
+    /**
+     * Get the folder that contains the files that are served.
+     * @return The folder that contains the files that are served.
+     */
+    public java.nio.file.Path getRootFolder()
+    {
+        return this.rootFolder;
+    }
+
+    /**
+     * Set the cache that precompressed variants will be kept in.
+     * @param cache The cache that precompressed variants will be kept in.
+     * @return This object for method chaining.
+     */
+    public StaticContent setCache(StaticContentCache cache)
+    {
+        PreCondition.assertNotNull(cache, "cache");
+
+        this.cache = cache;
+
+        return this;
+    }
+
+    /**
+     * Get the cache that precompressed variants are kept in.
+     * @return The cache that precompressed variants are kept in.
+     */
+    public StaticContentCache getCache()
+    {
+        return this.cache;
+    }
+
+    /**
+     * Set the minimum size that a file must have to be served with a compressed variant.
+     * @param minimumCompressedLength The minimum size that a file must have to be served with a
+     *                                compressed variant.
+     * @return This object for method chaining.
+     */
+    public StaticContent setMinimumCompressedLength(long minimumCompressedLength)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(minimumCompressedLength, 0, "minimumCompressedLength");
+
+        this.minimumCompressedLength = minimumCompressedLength;
+
+        return this;
+    }
+
+    /**
+     * Get the minimum size that a file must have to be served with a compressed variant.
+     * @return The minimum size that a file must have to be served with a compressed variant.
+     */
+    public long getMinimumCompressedLength()
+    {
+        return this.minimumCompressedLength;
+    }
+
+    /**
+     * Get the response for the file at the provided path relative to the root folder.
+     * @param relativePath The path of the file relative to the root folder.
+     * @param request The request for the file.
+     * @return The response for the file, or null if there is no file at the provided path.
+     */
+    public Result<HttpResponse> getResponse(String relativePath, HttpRequest request)
+    {
+        PreCondition.assertNotNull(relativePath, "relativePath");
+        PreCondition.assertNotNull(request, "request");
+
+        return Result.create(() ->
+        {
+            MutableHttpResponse result = null;
+
+            try
+            {
+                final java.nio.file.Path file = this.resolveFile(relativePath);
+                if (file != null)
+                {
+                    final String method = request.getMethod();
+                    if (!HttpMethod.GET.name().equals(method) && !HttpMethod.HEAD.name().equals(method))
+                    {
+                        result = HttpResponse.create()
+                            .setStatusCode(405)
+                            .setHeader("Allow", "GET, HEAD");
+                    }
+                    else
+                    {
+                        final java.nio.file.attribute.BasicFileAttributes attributes = java.nio.file.Files.readAttributes(file, java.nio.file.attribute.BasicFileAttributes.class);
+                        final long fileLength = attributes.size();
+                        final String version = StaticContent.getVersion(attributes);
+                        final String contentType = StaticContent.getContentType(file.getFileName().toString());
+
+                        result = HttpResponse.create()
+                            .setStatusCode(200)
+                            .setHeader(HttpHeader.ContentTypeName, contentType);
+
+                        byte[] variantBytes = null;
+                        String variantContentEncoding = null;
+                        if (ResponseCompression.isCompressibleContentType(contentType) && this.minimumCompressedLength <= fileLength)
+                        {
+                            result.setHeader(HttpHeader.VaryName, HttpHeader.AcceptEncodingName);
+
+                            final StaticContentCache cache = this.cache;
+                            final String acceptEncoding = request.getHeaderValue(HttpHeader.AcceptEncodingName)
+                                .catchError(NotFoundException.class)
+                                .await();
+                            variantContentEncoding = ResponseCompression.negotiate(acceptEncoding, StaticContent.variantContentEncodings);
+                            if (variantContentEncoding != null && fileLength <= cache.getMaximumSize())
+                            {
+                                variantBytes = cache.get(file.toString(), variantContentEncoding, version);
+                                if (variantBytes == null)
+                                {
+                                    this.buildVariant(cache, file, variantContentEncoding, version);
+                                }
+                            }
+                        }
+
+                        final boolean isHead = HttpMethod.HEAD.name().equals(method);
+                        if (variantBytes != null)
+                        {
+                            result.setHeader(HttpHeader.ContentEncodingName, variantContentEncoding)
+                                .setHeader(HttpHeader.ContentLengthName, variantBytes.length);
+                            if (!isHead)
+                            {
+                                result.setBody(InMemoryByteStream.create(variantBytes).endOfStream());
+                            }
+                        }
+                        else
+                        {
+                            result.setHeader(HttpHeader.ContentLengthName, fileLength);
+                            if (!isHead && 0 < fileLength)
+                            {
+                                result.setBody(InputStreamToByteReadStream.create(java.nio.file.Files.newInputStream(file)));
+                            }
+                        }
+                    }
+                }
+            }
+            catch (java.io.IOException e)
+            {
+                throw Exceptions.asRuntime(e);
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Wait until every variant that has started being built has been built and added to the cache.
+     * @return This object for method chaining.
+     */
+    public StaticContent awaitVariants()
+    {
+        synchronized (this.pendingVariants)
+        {
+            while (!this.pendingVariants.isEmpty())
+            {
+                try
+                {
+                    this.pendingVariants.wait();
+                }
+                catch (java.lang.InterruptedException e)
+                {
+                    throw Exceptions.asRuntime(e);
+                }
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Start building the variant of the provided version of the provided file in the background,
+     * unless it is already being built. The variant is only added to the provided cache if the
+     * file hasn't changed while it was being read.
+     */
+    private void buildVariant(StaticContentCache cache, java.nio.file.Path file, String contentEncoding, String version)
+    {
+        final String pendingVariant = contentEncoding + ":" + version + ":" + file;
+        final boolean started;
+        synchronized (this.pendingVariants)
+        {
+            started = this.pendingVariants.add(pendingVariant);
+        }
+
+        if (started)
+        {
+            StaticContent.variantExecutor.execute(() ->
+            {
+                try
+                {
+                    final byte[] bytes = java.nio.file.Files.readAllBytes(file);
+                    final java.nio.file.attribute.BasicFileAttributes attributes = java.nio.file.Files.readAttributes(file, java.nio.file.attribute.BasicFileAttributes.class);
+                    if (version.equals(StaticContent.getVersion(attributes)))
+                    {
+                        cache.put(file.toString(), contentEncoding, version, StaticContent.compress(bytes, contentEncoding));
+                    }
+                }
+                catch (java.io.IOException e)
+                {
+                    // The file was removed or can't be read. The next request for it will try to
+                    // build its variant again.
+                }
+                finally
+                {
+                    synchronized (this.pendingVariants)
+                    {
+                        this.pendingVariants.remove(pendingVariant);
+                        this.pendingVariants.notifyAll();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Get the version of a file with the provided attributes. A file's version changes when its
+     * size or last modified time changes.
+     */
+    private static String getVersion(java.nio.file.attribute.BasicFileAttributes attributes)
+    {
+        return java.lang.Long.toHexString(attributes.size()) + "-" + java.lang.Long.toHexString(attributes.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * Get the regular file at the provided path relative to the root folder.
+     * @param relativePath The path of the file relative to the root folder.
+     * @return The file, or null if the path doesn't refer to a regular file within the root folder.
+     */
+    private java.nio.file.Path resolveFile(String relativePath)
+    {
+        java.nio.file.Path result = null;
+
+        String path = relativePath;
+        while (path.startsWith("/"))
+        {
+            path = path.substring(1);
+        }
+
+        boolean valid = !path.isEmpty() && path.indexOf('\\') == -1 && path.indexOf(':') == -1;
+        if (valid)
+        {
+            for (final String segment : path.split("/"))
+            {
+                if (segment.isEmpty() || segment.equals(".") || segment.equals(".."))
+                {
+                    valid = false;
+                    break;
+                }
+            }
+        }
+
+        if (valid)
+        {
+            final java.nio.file.Path file = this.rootFolder.resolve(path).normalize();
+            if (file.startsWith(this.rootFolder) && java.nio.file.Files.isRegularFile(file))
+            {
+                result = file;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Compress the provided bytes with the provided content coding at the best compression level,
+     * since a variant is only built once per version of its file.
+     * @param bytes The bytes to compress.
+     * @param contentEncoding The content coding to compress the bytes with.
+     * @return The compressed bytes.
+     */
+    private static byte[] compress(byte[] bytes, String contentEncoding)
+    {
+        final InMemoryByteStream compressedStream = InMemoryByteStream.create();
+        try (final DeflaterByteWriteStream deflaterStream = DeflaterByteWriteStream.create(compressedStream, contentEncoding, 9, ByteBufferPool.getShared()))
+        {
+            deflaterStream.writeAll(bytes).await();
+        }
+        return compressedStream.getBytes();
+    }
+
+    /**
+     * Get the Content-Type header value for a file with the provided name.
+     * @param fileName The name of the file.
+     * @return The Content-Type header value for the file.
+     */
+    public static String getContentType(String fileName)
+    {
+        PreCondition.assertNotNull(fileName, "fileName");
+
+        final int extensionIndex = fileName.lastIndexOf('.');
+        final String extension = extensionIndex == -1 ? "" : fileName.substring(extensionIndex + 1).toLowerCase();
+
+        String result;
+        switch (extension)
+        {
+            case "html":
+            case "htm":
+                result = "text/html; charset=utf-8";
+                break;
+
+            case "css":
+                result = "text/css; charset=utf-8";
+                break;
+
+            case "js":
+            case "mjs":
+                result = "application/javascript; charset=utf-8";
+                break;
+
+            case "json":
+            case "map":
+                result = "application/json";
+                break;
+
+            case "txt":
+                result = "text/plain; charset=utf-8";
+                break;
+
+            case "csv":
+                result = "text/csv; charset=utf-8";
+                break;
+
+            case "xml":
+                result = "application/xml";
+                break;
+
+            case "svg":
+                result = "image/svg+xml";
+                break;
+
+            case "png":
+                result = "image/png";
+                break;
+
+            case "jpg":
+            case "jpeg":
+                result = "image/jpeg";
+                break;
+
+            case "gif":
+                result = "image/gif";
+                break;
+
+            case "webp":
+                result = "image/webp";
+                break;
+
+            case "ico":
+                result = "image/x-icon";
+                break;
+
+            case "woff2":
+                result = "font/woff2";
+                break;
+
+            case "wasm":
+                result = "application/wasm";
+                break;
+
+            default:
+                result = "application/octet-stream";
+                break;
+        }
+        return result;
+    }
+}
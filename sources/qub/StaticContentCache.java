@@ -0,0 +1,200 @@
+package qub;
+
+/**
+ * A thread-safe cache of the precompressed variants of static files. Each entry is keyed by a
+ * file's path and content coding, and it remembers the version of the file that it was built from
+ * so that an entry for a file that has since changed is never returned. The total size of the
+ * cached variants is bounded by a memory budget, and the least recently used entries are evicted
+ * to stay within it.
+ */
+public class StaticContentCache
+{
+    private final long maximumSize;
+    private final java.util.LinkedHashMap<String,Entry> entries;
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    private static class Entry
+    {
+        private final String version;
+        private final byte[] bytes;
+
+        private Entry(String version, byte[] bytes)
+        {
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+
+    private StaticContentCache(long maximumSize)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumSize, 0, "maximumSize");
+
+        this.maximumSize = maximumSize;
+        this.entries = new java.util.LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Create a new StaticContentCache that can hold up to the provided number of bytes of
+     * precompressed variants.
+     * @param maximumSize The maximum number of bytes of variants that the cache can hold.
+     * @return The new StaticContentCache.
+     */
+    public static StaticContentCache create(long maximumSize)
+    {
+        return new StaticContentCache(maximumSize);
+    }
+
+    private static String getKey(String path, String contentEncoding)
+    {
+        return contentEncoding + ":" + path;
+    }
+
+    /**
+     * Get the maximum number of bytes of variants that this cache can hold.
+     * @return The maximum number of bytes of variants that this cache can hold.
+     */
+    public long getMaximumSize()
+    {
+        return this.maximumSize;
+    }
+
+    /**
+     * Get the number of bytes of variants that this cache holds.
+     * @return The number of bytes of variants that this cache holds.
+     */
+    public synchronized long getSize()
+    {
+        return this.size;
+    }
+
+    /**
+     * Get the number of variants that this cache holds.
+     * @return The number of variants that this cache holds.
+     */
+    public synchronized int getCount()
+    {
+        return this.entries.size();
+    }
+
+    /**
+     * Get the number of lookups that found a variant in this cache.
+     * @return The number of lookups that found a variant in this cache.
+     */
+    public synchronized long getHitCount()
+    {
+        return this.hitCount;
+    }
+
+    /**
+     * Get the number of lookups that didn't find a current variant in this cache.
+     * @return The number of lookups that didn't find a current variant in this cache.
+     */
+    public synchronized long getMissCount()
+    {
+        return this.missCount;
+    }
+
+    /**
+     * Get the number of variants that have been evicted from this cache to stay within its memory
+     * budget.
+     * @return The number of variants that have been evicted from this cache.
+     */
+    public synchronized long getEvictionCount()
+    {
+        return this.evictionCount;
+    }
+
+    /**
+     * Get the variant of the file at the provided path with the provided content coding, if it was
+     * built from the provided version of the file.
+     * @param path The path of the file.
+     * @param contentEncoding The content coding of the variant.
+     * @param version The current version of the file.
+     * @return The bytes of the variant, or null if this cache doesn't hold a variant for the
+     * provided version of the file.
+     */
+    public synchronized byte[] get(String path, String contentEncoding, String version)
+    {
+        PreCondition.assertNotNull(path, "path");
+        PreCondition.assertNotNullAndNotEmpty(contentEncoding, "contentEncoding");
+        PreCondition.assertNotNullAndNotEmpty(version, "version");
+
+        byte[] result = null;
+        final String key = StaticContentCache.getKey(path, contentEncoding);
+        final Entry entry = this.entries.get(key);
+        if (entry != null)
+        {
+            if (entry.version.equals(version))
+            {
+                result = entry.bytes;
+            }
+            else
+            {
+                this.entries.remove(key);
+                this.size -= entry.bytes.length;
+            }
+        }
+
+        if (result == null)
+        {
+            ++this.missCount;
+        }
+        else
+        {
+            ++this.hitCount;
+        }
+
+        return result;
+    }
+
+    /**
+     * Add the provided variant of the provided version of the file at the provided path to this
+     * cache. Less recently used variants are evicted to make room for it. A variant that is larger
+     * than this cache's memory budget is not added.
+     * @param path The path of the file.
+     * @param contentEncoding The content coding of the variant.
+     * @param version The version of the file that the variant was built from.
+     * @param bytes The bytes of the variant.
+     * @return Whether or not the variant was added.
+     */
+    public synchronized boolean put(String path, String contentEncoding, String version, byte[] bytes)
+    {
+        PreCondition.assertNotNull(path, "path");
+        PreCondition.assertNotNullAndNotEmpty(contentEncoding, "contentEncoding");
+        PreCondition.assertNotNullAndNotEmpty(version, "version");
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        final boolean result = (bytes.length <= this.maximumSize);
+        if (result)
+        {
+            final Entry previousEntry = this.entries.put(StaticContentCache.getKey(path, contentEncoding), new Entry(version, bytes));
+            if (previousEntry != null)
+            {
+                this.size -= previousEntry.bytes.length;
+            }
+            this.size += bytes.length;
+
+            final java.util.Iterator<Entry> iterator = this.entries.values().iterator();
+            while (this.maximumSize < this.size)
+            {
+                final Entry eldestEntry = iterator.next();
+                iterator.remove();
+                this.size -= eldestEntry.bytes.length;
+                ++this.evictionCount;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove all of the variants from this cache.
+     */
+    public synchronized void clear()
+    {
+        this.entries.clear();
+        this.size = 0;
+    }
+}
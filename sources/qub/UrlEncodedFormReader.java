@@ -0,0 +1,130 @@
+package qub;
+
+/**
+ * A type that reads the fields of an application/x-www-form-urlencoded body one at a time from a
+ * {@link ByteReadStream}, so that only one field is held in memory at a time. The stream is read in
+ * blocks, so bytes after the field that is being read may be read from the stream before they are
+ * needed.
+ */
+public class UrlEncodedFormReader
+{
+    /**
+     * The default maximum number of encoded bytes in a single field.
+     */
+    public static final int defaultMaximumFieldLength = 1024 * 1024;
+
+    private final ByteReadStream byteReadStream;
+    private final int maximumFieldLength;
+    private final byte[] buffer;
+    private int bufferStart;
+    private int bufferEnd;
+    private byte[] fieldBytes;
+    private boolean endOfStream;
+
+    private UrlEncodedFormReader(ByteReadStream byteReadStream, int maximumFieldLength)
+    {
+        PreCondition.assertNotNull(byteReadStream, "byteReadStream");
+        PreCondition.assertGreaterThanOrEqualTo(maximumFieldLength, 1, "maximumFieldLength");
+
+        this.byteReadStream = byteReadStream;
+        this.maximumFieldLength = maximumFieldLength;
+        this.buffer = new byte[8192];
+        this.fieldBytes = new byte[64];
+    }
+
+    /**
+     * Create a new UrlEncodedFormReader that will read from the provided stream.
+     * @param byteReadStream The stream to read the form from.
+     * @return The new UrlEncodedFormReader.
+     */
+    public static UrlEncodedFormReader create(ByteReadStream byteReadStream)
+    {
+        return UrlEncodedFormReader.create(byteReadStream, UrlEncodedFormReader.defaultMaximumFieldLength);
+    }
+
+    /**
+     * Create a new UrlEncodedFormReader that will read from the provided stream.
+     * @param byteReadStream The stream to read the form from.
+     * @param maximumFieldLength The maximum number of encoded bytes in a single field. Reading a
+     *                           longer field fails with a {@link ParseException}.
+     * @return The new UrlEncodedFormReader.
+     */
+    public static UrlEncodedFormReader create(ByteReadStream byteReadStream, int maximumFieldLength)
+    {
+        return new UrlEncodedFormReader(byteReadStream, maximumFieldLength);
+    }
+
+    /**
+     * Read the next field of the form.
+     * @return The next field of the form, or null if there are no more fields.
+     */
+    public Result<FormField> readField()
+    {
+        return Result.create(() ->
+        {
+            FormField result = null;
+            while (result == null && !this.endOfStream)
+            {
+                int length = 0;
+                boolean fieldEnded = false;
+                while (!fieldEnded)
+                {
+                    if (this.bufferStart == this.bufferEnd)
+                    {
+                        final Integer bytesRead = this.byteReadStream.readBytes(this.buffer, 0, this.buffer.length)
+                            .catchError(EmptyException.class)
+                            .await();
+                        if (bytesRead == null || bytesRead <= 0)
+                        {
+                            this.endOfStream = true;
+                            fieldEnded = true;
+                        }
+                        else
+                        {
+                            this.bufferStart = 0;
+                            this.bufferEnd = bytesRead;
+                        }
+                    }
+
+                    if (!fieldEnded)
+                    {
+                        // Copy the buffered bytes up to the next '&' onto the end of the field.
+                        int scanIndex = this.bufferStart;
+                        while (scanIndex < this.bufferEnd && this.buffer[scanIndex] != '&')
+                        {
+                            ++scanIndex;
+                        }
+
+                        final int segmentLength = scanIndex - this.bufferStart;
+                        if (this.maximumFieldLength - length < segmentLength)
+                        {
+                            throw new ParseException("A form field was longer than the maximum of " + this.maximumFieldLength + " bytes.");
+                        }
+                        if (this.fieldBytes.length < length + segmentLength)
+                        {
+                            this.fieldBytes = java.util.Arrays.copyOf(this.fieldBytes, Math.minimum(Math.maximum(length * 2, length + segmentLength), this.maximumFieldLength));
+                        }
+                        System.arraycopy(this.buffer, this.bufferStart, this.fieldBytes, length, segmentLength);
+                        length += segmentLength;
+
+                        fieldEnded = (scanIndex < this.bufferEnd);
+                        this.bufferStart = fieldEnded ? scanIndex + 1 : scanIndex;
+                    }
+                }
+
+                if (0 < length)
+                {
+                    final String encodedField = new String(this.fieldBytes, 0, length, java.nio.charset.StandardCharsets.UTF_8);
+                    final int encodedFieldLength = encodedField.length();
+                    final int equalsIndex = encodedField.indexOf('=');
+                    result = equalsIndex == -1
+                        ? FormField.create(QueryParameters.decode(encodedField, 0, encodedFieldLength), "")
+                        : FormField.create(
+                            QueryParameters.decode(encodedField, 0, equalsIndex),
+                            QueryParameters.decode(encodedField, equalsIndex + 1, encodedFieldLength));
+                }
+            }
+            return result;
+        });
+    }
+}
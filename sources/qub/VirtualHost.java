@@ -0,0 +1,153 @@
+package qub;
+
+/**
+ * The routes that a {@link HttpServer} uses for requests to a single host (or, for the server's
+ * default host, for requests that don't match any other host). The routes are kept in an
+ * immutable {@link PathRouteTable} that is replaced whenever a route is added or removed, so
+ * requests can be matched without locking.
+ */
+public class VirtualHost
+{
+    private final String hostPattern;
+    private final Object pathsLock;
+    private volatile PathRouteTable paths;
+    private volatile PathRouteCache routeCache;
+
+    private VirtualHost(String hostPattern, int routeCacheCapacity)
+    {
+        PreCondition.assertNotNull(hostPattern, "hostPattern");
+        PreCondition.assertGreaterThanOrEqualTo(routeCacheCapacity, 0, "routeCacheCapacity");
+
+        this.hostPattern = hostPattern;
+        this.pathsLock = new Object();
+        this.paths = PathRouteTable.create();
+        this.routeCache = PathRouteCache.create(routeCacheCapacity);
+    }
+
+    /**
+     * Create a new VirtualHost.
+     * @param hostPattern The host that this VirtualHost serves. This is either an exact host name
+     *                    (such as "example.com"), a wildcard subdomain pattern (such as
+     *                    "*.example.com"), or the empty string for a server's default host.
+     * @param routeCacheCapacity The maximum number of request paths whose matched routes will be
+     *                           cached.
+     * @return The new VirtualHost.
+     */
+    public static VirtualHost create(String hostPattern, int routeCacheCapacity)
+    {
+        return new VirtualHost(hostPattern, routeCacheCapacity);
+    }
+
+    /**
+     * Get the host that this VirtualHost serves.
+     * @return The host that this VirtualHost serves.
+     */
+    public String getHostPattern()
+    {
+        return this.hostPattern;
+    }
+
+    /**
+     * Get the current table of routes of this VirtualHost.
+     * @return The current table of routes of this VirtualHost.
+     */
+    public PathRouteTable getPaths()
+    {
+        return this.paths;
+    }
+
+    /**
+     * Get the cache of matched routes of this VirtualHost.
+     * @return The cache of matched routes of this VirtualHost.
+     */
+    public PathRouteCache getRouteCache()
+    {
+        return this.routeCache;
+    }
+
+    /**
+     * Replace the cache of matched routes of this VirtualHost with an empty cache that has the
+     * provided capacity.
+     * @param capacity The maximum number of request paths whose matched routes will be cached.
+     * @return This object for method chaining.
+     */
+    public VirtualHost setRouteCacheCapacity(int capacity)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(capacity, 0, "capacity");
+
+        synchronized (this.pathsLock)
+        {
+            this.routeCache = PathRouteCache.create(capacity);
+        }
+
+        return this;
+    }
+
+    /**
+     * Add the provided route to this VirtualHost, replacing any existing route with the same
+     * pattern.
+     * @param route The route to add.
+     * @return This object for method chaining.
+     */
+    public VirtualHost setPath(PathRoute route)
+    {
+        PreCondition.assertNotNull(route, "route");
+
+        synchronized (this.pathsLock)
+        {
+            this.paths = this.paths.set(route);
+            this.routeCache.clear();
+        }
+
+        return this;
+    }
+
+    /**
+     * Remove the route with the provided pattern from this VirtualHost.
+     * @param pattern The pattern of the route to remove.
+     * @return Whether or not a route was removed.
+     */
+    public boolean removePath(String pattern)
+    {
+        PreCondition.assertNotNullAndNotEmpty(pattern, "pattern");
+
+        final boolean result;
+        synchronized (this.pathsLock)
+        {
+            final PathRouteTable newPaths = this.paths.remove(pattern);
+            result = (newPaths != this.paths);
+            if (result)
+            {
+                this.paths = newPaths;
+                this.routeCache.clear();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Match the provided request path against the routes of this VirtualHost.
+     * @param path The request path to match.
+     * @return The parameters that the matching route captured from the path, or null if no route
+     * matches the path.
+     */
+    public PathParameters match(String path)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        final PathRouteCache routeCache = this.routeCache;
+        PathParameters result = routeCache.get(path);
+        if (result == null)
+        {
+            // The cache generation must be read before the route table so that a match against a
+            // table that is replaced during the search is never cached.
+            final long routeCacheGeneration = routeCache.getGeneration();
+            result = this.paths.match(path);
+            if (result != null)
+            {
+                routeCache.put(routeCacheGeneration, result);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,507 @@
+package qub;
+
+/**
+ * A WebSocket connection (RFC 6455). Messages are read with {@link #readMessage()}, which joins
+ * fragmented messages together, answers pings with pongs, and answers the peer's close frame. The
+ * send methods can be called from any thread; each frame is written and flushed while holding a
+ * lock so that frames from different threads aren't interleaved. Disposing a WebSocket disposes
+ * its connection.
+ */
+public class WebSocket implements Disposable
+{
+    /**
+     * The GUID that is appended to the key of an opening handshake before it is hashed.
+     */
+    private static final String handshakeGuid = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private final ByteReadStream innerReadStream;
+    private final ByteWriteStream innerWriteStream;
+    private final PooledBufferedByteReadStream readStream;
+    private final PooledBufferedByteWriteStream writeStream;
+    private final WebSocketFrameReader frameReader;
+    private final WebSocketFrameWriter frameWriter;
+    private final WebSocketFrame frame;
+    private final Object writeLock;
+    private int maximumMessageLength;
+    private volatile boolean closeSent;
+    private boolean closeReceived;
+    private int closeCode;
+    private boolean disposed;
+
+    private WebSocket(ByteReadStream readStream, ByteWriteStream writeStream, ByteBufferPool bufferPool, boolean client)
+    {
+        PreCondition.assertNotNull(readStream, "readStream");
+        PreCondition.assertNotNull(writeStream, "writeStream");
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+
+        this.innerReadStream = readStream;
+        this.innerWriteStream = writeStream;
+        this.readStream = PooledBufferedByteReadStream.create(readStream, bufferPool);
+        this.writeStream = PooledBufferedByteWriteStream.create(writeStream, bufferPool);
+        this.frameReader = WebSocketFrameReader.create(this.readStream, bufferPool, !client);
+        this.frameWriter = WebSocketFrameWriter.create(this.writeStream, bufferPool, client);
+        this.frame = WebSocketFrame.create();
+        this.writeLock = new Object();
+        this.maximumMessageLength = this.frameReader.getMaximumPayloadLength();
+        this.closeCode = -1;
+    }
+
+    /**
+     * Create a new WebSocket over a connection whose opening handshake has already completed.
+     * @param readStream The stream to read frames from.
+     * @param writeStream The stream to write frames to.
+     * @param bufferPool The pool to lease buffers from.
+     * @param client Whether or not this is the client side of the connection. The client masks the
+     *               frames that it sends and the server doesn't.
+     * @return The new WebSocket.
+     */
+    public static WebSocket create(ByteReadStream readStream, ByteWriteStream writeStream, ByteBufferPool bufferPool, boolean client)
+    {
+        return new WebSocket(readStream, writeStream, bufferPool, client);
+    }
+
+    /**
+     * Get the value of the Sec-WebSocket-Accept header that answers the provided
+     * Sec-WebSocket-Key header value.
+     * @param secWebSocketKey The Sec-WebSocket-Key header value.
+     * @return The Sec-WebSocket-Accept header value.
+     */
+    public static String getAcceptValue(String secWebSocketKey)
+    {
+        PreCondition.assertNotNullAndNotEmpty(secWebSocketKey, "secWebSocketKey");
+
+        try
+        {
+            final java.security.MessageDigest sha1 = java.security.MessageDigest.getInstance("SHA-1");
+            final byte[] digest = sha1.digest((secWebSocketKey.trim() + WebSocket.handshakeGuid).getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+            return java.util.Base64.getEncoder().encodeToString(digest);
+        }
+        catch (java.security.NoSuchAlgorithmException e)
+        {
+            throw Exceptions.asRuntime(e);
+        }
+    }
+
+    /**
+     * Check whether or not the provided request is a valid WebSocket opening handshake.
+     * @param request The request to check.
+     * @return 101 if the request is a valid opening handshake, 426 (Upgrade Required) if the
+     * request asks for a WebSocket version other than 13, or 400 (Bad Request) if the request
+     * isn't a valid opening handshake.
+     */
+    public static int validateUpgradeRequest(HttpRequest request)
+    {
+        PreCondition.assertNotNull(request, "request");
+
+        final HttpHeaders headers = request.getHeaders();
+        final String version = headers.getValue(HttpHeader.SecWebSocketVersionName)
+            .catchError(NotFoundException.class)
+            .await();
+        final String key = headers.getValue(HttpHeader.SecWebSocketKeyName)
+            .catchError(NotFoundException.class)
+            .await();
+
+        int result;
+        if (!HttpMethod.GET.name().equals(request.getMethod()) ||
+            !"HTTP/1.1".equals(request.getHttpVersion()) ||
+            !HttpHeader.containsToken(headers.getValue(HttpHeader.UpgradeName).catchError(NotFoundException.class).await(), "websocket") ||
+            !HttpHeader.containsToken(headers.getValue(HttpHeader.ConnectionName).catchError(NotFoundException.class).await(), "upgrade") ||
+            !WebSocket.isValidKey(key))
+        {
+            result = 400;
+        }
+        else if (!"13".equals(version == null ? null : version.trim()))
+        {
+            result = 426;
+        }
+        else
+        {
+            result = 101;
+        }
+        return result;
+    }
+
+    private static boolean isValidKey(String key)
+    {
+        boolean result = false;
+        if (key != null)
+        {
+            try
+            {
+                result = java.util.Base64.getDecoder().decode(key.trim()).length == 16;
+            }
+            catch (IllegalArgumentException ignored)
+            {
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Set the maximum number of bytes that a received message (and each of its frames) can
+     * contain. A longer message will cause this WebSocket to be closed with the 1009 (Message Too
+     * Big) close code.
+     * @param maximumMessageLength The maximum number of bytes that a message can contain.
+     * @return This object for method chaining.
+     */
+    public WebSocket setMaximumMessageLength(int maximumMessageLength)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumMessageLength, 125, "maximumMessageLength");
+
+        this.maximumMessageLength = maximumMessageLength;
+        this.frameReader.setMaximumPayloadLength(maximumMessageLength);
+
+        return this;
+    }
+
+    /**
+     * Get the maximum number of bytes that a received message can contain.
+     * @return The maximum number of bytes that a received message can contain.
+     */
+    public int getMaximumMessageLength()
+    {
+        return this.maximumMessageLength;
+    }
+
+    /**
+     * Get the status code that the peer closed the connection with.
+     * @return The status code that the peer closed the connection with, 1005 if the peer's close
+     * frame didn't have a status code, 1006 if the connection ended without a close frame, or -1 if
+     * the connection hasn't been closed by the peer.
+     */
+    public int getCloseCode()
+    {
+        return this.closeCode;
+    }
+
+    /**
+     * Read the next text or binary message from the peer.
+     * @return The next message, or null if the peer closed the connection.
+     */
+    public Result<WebSocketMessage> readMessage()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            WebSocketMessage result = null;
+            try
+            {
+                boolean text = false;
+                byte[] messageBytes = null;
+                int messageLength = 0;
+                while (result == null && !this.closeReceived)
+                {
+                    if (!this.frameReader.readFrame(this.frame).await())
+                    {
+                        this.closeReceived = true;
+                        this.closeCode = 1006;
+                        break;
+                    }
+
+                    final int opcode = this.frame.getOpcode();
+                    final byte[] payload = this.frame.getPayload();
+                    final int payloadLength = this.frame.getPayloadLength();
+                    if (opcode == WebSocketFrame.PingOpcode)
+                    {
+                        this.sendFrame(true, WebSocketFrame.PongOpcode, payload, 0, payloadLength).await();
+                    }
+                    else if (opcode == WebSocketFrame.CloseOpcode)
+                    {
+                        final int closeCode = payloadLength >= 2
+                            ? ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF)
+                            : 1005;
+                        if (payloadLength == 1)
+                        {
+                            throw new WebSocketProtocolException(1002, "A close frame had a one byte payload.");
+                        }
+                        else if (payloadLength >= 2 && !WebSocket.isValidReceivedCloseCode(closeCode))
+                        {
+                            throw new WebSocketProtocolException(1002, "A close frame had the invalid status code " + closeCode + ".");
+                        }
+                        else if (payloadLength > 2 && !WebSocket.isValidUtf8(payload, 2, payloadLength - 2))
+                        {
+                            throw new WebSocketProtocolException(1007, "A close frame's reason wasn't valid UTF-8.");
+                        }
+
+                        this.closeReceived = true;
+                        this.closeCode = closeCode;
+                        if (!this.closeSent)
+                        {
+                            this.sendClose(this.closeCode == 1005 ? 1000 : this.closeCode, null);
+                        }
+                    }
+                    else if (opcode != WebSocketFrame.PongOpcode)
+                    {
+                        if ((opcode == WebSocketFrame.ContinuationOpcode) != (messageBytes != null))
+                        {
+                            throw new WebSocketProtocolException(1002, messageBytes == null
+                                ? "A continuation frame didn't continue a message."
+                                : "A new message started before the previous message was finished.");
+                        }
+                        if (messageBytes == null)
+                        {
+                            text = (opcode == WebSocketFrame.TextOpcode);
+                            messageBytes = new byte[payloadLength];
+                        }
+                        if (payloadLength > this.maximumMessageLength - messageLength)
+                        {
+                            throw new WebSocketProtocolException(1009, "A message was longer than the maximum of " + this.maximumMessageLength + " bytes.");
+                        }
+                        if (messageBytes.length < messageLength + payloadLength)
+                        {
+                            messageBytes = java.util.Arrays.copyOf(messageBytes, Math.minimum(this.maximumMessageLength, Math.maximum(messageLength + payloadLength, messageBytes.length * 2)));
+                        }
+                        System.arraycopy(payload, 0, messageBytes, messageLength, payloadLength);
+                        messageLength += payloadLength;
+
+                        if (this.frame.isFinal())
+                        {
+                            if (messageBytes.length != messageLength)
+                            {
+                                messageBytes = java.util.Arrays.copyOf(messageBytes, messageLength);
+                            }
+                            if (text && !WebSocket.isValidUtf8(messageBytes, 0, messageLength))
+                            {
+                                throw new WebSocketProtocolException(1007, "A text message wasn't valid UTF-8.");
+                            }
+                            else if (text)
+                            {
+                                result = WebSocketMessage.createText(messageBytes);
+                            }
+                            else
+                            {
+                                result = WebSocketMessage.createBinary(messageBytes);
+                            }
+                        }
+                    }
+                }
+            }
+            catch (WebSocketProtocolException e)
+            {
+                if (!this.closeSent)
+                {
+                    this.sendClose(e.getCloseCode(), null);
+                }
+                throw e;
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get whether or not the provided status code may be sent in a close frame (RFC 6455 section
+     * 7.4). 1005, 1006, and 1015 are reserved for reporting why a connection closed without
+     * sending them, and the rest of the codes below 3000 are either unassigned or reserved.
+     */
+    private static boolean isValidReceivedCloseCode(int closeCode)
+    {
+        return (1000 <= closeCode && closeCode <= 1014 && closeCode != 1004 && closeCode != 1005 && closeCode != 1006) ||
+            (3000 <= closeCode && closeCode <= 4999);
+    }
+
+    /**
+     * Get whether or not the provided bytes are valid UTF-8. Overlong encodings, UTF-16 surrogates,
+     * and code points above U+10FFFF are not valid. This doesn't decode the bytes, so it doesn't
+     * allocate.
+     */
+    private static boolean isValidUtf8(byte[] bytes, int startIndex, int length)
+    {
+        final int endIndex = startIndex + length;
+        boolean result = true;
+        int index = startIndex;
+        while (result && index < endIndex)
+        {
+            final int leadByte = bytes[index++] & 0xFF;
+            if (leadByte >= 0x80)
+            {
+                // Some lead bytes narrow the range of the byte after them, which is what rules out
+                // overlong encodings, surrogates, and code points above U+10FFFF.
+                int continuationCount = 0;
+                int secondMinimum = 0x80;
+                int secondMaximum = 0xBF;
+                if (0xC2 <= leadByte && leadByte <= 0xDF)
+                {
+                    continuationCount = 1;
+                }
+                else if (0xE0 <= leadByte && leadByte <= 0xEF)
+                {
+                    continuationCount = 2;
+                    if (leadByte == 0xE0)
+                    {
+                        secondMinimum = 0xA0;
+                    }
+                    else if (leadByte == 0xED)
+                    {
+                        secondMaximum = 0x9F;
+                    }
+                }
+                else if (0xF0 <= leadByte && leadByte <= 0xF4)
+                {
+                    continuationCount = 3;
+                    if (leadByte == 0xF0)
+                    {
+                        secondMinimum = 0x90;
+                    }
+                    else if (leadByte == 0xF4)
+                    {
+                        secondMaximum = 0x8F;
+                    }
+                }
+                else
+                {
+                    result = false;
+                }
+
+                result = result && continuationCount <= endIndex - index;
+                for (int i = 0; result && i < continuationCount; ++i)
+                {
+                    final int continuationByte = bytes[index++] & 0xFF;
+                    result = i == 0
+                        ? (secondMinimum <= continuationByte && continuationByte <= secondMaximum)
+                        : (0x80 <= continuationByte && continuationByte <= 0xBF);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Send a single frame to the peer and flush it. Sending a message in several frames lets its
+     * length be unknown up front: send the first frame with the message's opcode and the rest with
+     * {@link WebSocketFrame#ContinuationOpcode}, and mark only the last frame as final.
+     * @param isFinal Whether or not this frame is the last frame of its message.
+     * @param opcode The opcode of the frame.
+     * @param payload The array that contains the payload.
+     * @param startIndex The index of the first byte of the payload.
+     * @param length The number of bytes in the payload.
+     */
+    public Result<Void> sendFrame(boolean isFinal, int opcode, byte[] payload, int startIndex, int length)
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            synchronized (this.writeLock)
+            {
+                if (this.closeSent)
+                {
+                    throw new IllegalStateException("Can't send a frame after the close frame has been sent.");
+                }
+                if (opcode == WebSocketFrame.CloseOpcode)
+                {
+                    this.closeSent = true;
+                }
+                this.frameWriter.writeFrame(isFinal, opcode, payload, startIndex, length).await();
+                this.writeStream.flush().await();
+            }
+        });
+    }
+
+    /**
+     * Send a text message to the peer.
+     * @param text The text to send.
+     */
+    public Result<Void> sendText(String text)
+    {
+        PreCondition.assertNotNull(text, "text");
+
+        final byte[] bytes = text.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        return this.sendFrame(true, WebSocketFrame.TextOpcode, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Send a binary message to the peer.
+     * @param bytes The bytes to send.
+     */
+    public Result<Void> sendBinary(byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        return this.sendFrame(true, WebSocketFrame.BinaryOpcode, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Send a ping to the peer. The peer's pong is consumed by {@link #readMessage()}.
+     * @param payload The application data of the ping, which can't be longer than 125 bytes.
+     */
+    public Result<Void> sendPing(byte[] payload)
+    {
+        PreCondition.assertNotNull(payload, "payload");
+        PreCondition.assertLessThanOrEqualTo(payload.length, 125, "payload.length");
+
+        return this.sendFrame(true, WebSocketFrame.PingOpcode, payload, 0, payload.length);
+    }
+
+    private void sendClose(int closeCode, String reason)
+    {
+        final byte[] reasonBytes = reason == null ? new byte[0] : reason.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        final byte[] payload = new byte[2 + reasonBytes.length];
+        payload[0] = (byte)(closeCode >>> 8);
+        payload[1] = (byte)closeCode;
+        System.arraycopy(reasonBytes, 0, payload, 2, reasonBytes.length);
+        try
+        {
+            this.sendFrame(true, WebSocketFrame.CloseOpcode, payload, 0, payload.length).await();
+        }
+        catch (RuntimeException ignored)
+        {
+            // The connection is already gone, so there is no peer to tell that it is closing.
+        }
+    }
+
+    /**
+     * Send a close frame to the peer. The peer's answering close frame is consumed by
+     * {@link #readMessage()}, which then returns null.
+     * @param closeCode The status code to close the connection with.
+     * @param reason The reason that the connection is being closed, or null. Its UTF-8 encoding
+     *               can't be longer than 123 bytes.
+     */
+    public Result<Void> close(int closeCode, String reason)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(closeCode, 1000, "closeCode");
+        PreCondition.assertLessThanOrEqualTo(closeCode, 4999, "closeCode");
+        PreCondition.assertTrue(reason == null || reason.getBytes(java.nio.charset.StandardCharsets.UTF_8).length <= 123, "The UTF-8 encoding of reason can't be longer than 123 bytes.");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            if (!this.closeSent)
+            {
+                this.sendClose(closeCode, reason);
+            }
+        });
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                try
+                {
+                    this.frameReader.dispose().await();
+                    this.frameWriter.dispose().await();
+                    this.readStream.dispose().await();
+                    this.writeStream.dispose().await();
+                }
+                finally
+                {
+                    this.innerReadStream.dispose().await();
+                    this.innerWriteStream.dispose().await();
+                }
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package qub;
+
+/**
+ * A single WebSocket frame (RFC 6455, section 5.2) that has been read by a
+ * {@link WebSocketFrameReader}. A frame is reused for each frame that is read, and its payload is
+ * backed by the reader's buffer, so it is only valid until the reader reads the next frame.
+ */
+public class WebSocketFrame
+{
+    /**
+     * The opcode of a frame that continues a fragmented message.
+     */
+    public static final int ContinuationOpcode = 0x0;
+
+    /**
+     * The opcode of a frame that starts a text message.
+     */
+    public static final int TextOpcode = 0x1;
+
+    /**
+     * The opcode of a frame that starts a binary message.
+     */
+    public static final int BinaryOpcode = 0x2;
+
+    /**
+     * The opcode of a frame that closes the connection.
+     */
+    public static final int CloseOpcode = 0x8;
+
+    /**
+     * The opcode of a ping frame.
+     */
+    public static final int PingOpcode = 0x9;
+
+    /**
+     * The opcode of a pong frame.
+     */
+    public static final int PongOpcode = 0xA;
+
+    private static final byte[] emptyPayload = new byte[0];
+
+    private boolean isFinal;
+    private int opcode;
+    private byte[] payload;
+    private int payloadLength;
+
+    private WebSocketFrame()
+    {
+        this.payload = WebSocketFrame.emptyPayload;
+    }
+
+    /**
+     * Create a new WebSocketFrame that can be read into.
+     * @return The new WebSocketFrame.
+     */
+    public static WebSocketFrame create()
+    {
+        return new WebSocketFrame();
+    }
+
+    /**
+     * Get whether or not the provided opcode is one that is defined by RFC 6455.
+     * @param opcode The opcode to check.
+     * @return Whether or not the provided opcode is defined.
+     */
+    public static boolean isDefinedOpcode(int opcode)
+    {
+        return (WebSocketFrame.ContinuationOpcode <= opcode && opcode <= WebSocketFrame.BinaryOpcode) ||
+            (WebSocketFrame.CloseOpcode <= opcode && opcode <= WebSocketFrame.PongOpcode);
+    }
+
+    /**
+     * Get whether or not the provided opcode is the opcode of a control frame. Control frames can't
+     * be fragmented and their payloads can't be longer than 125 bytes.
+     * @param opcode The opcode to check.
+     * @return Whether or not the provided opcode is the opcode of a control frame.
+     */
+    public static boolean isControlOpcode(int opcode)
+    {
+        return (opcode & 0x8) != 0;
+    }
+
+    void set(boolean isFinal, int opcode, byte[] payload, int payloadLength)
+    {
+        this.isFinal = isFinal;
+        this.opcode = opcode;
+        this.payload = payload == null ? WebSocketFrame.emptyPayload : payload;
+        this.payloadLength = payloadLength;
+    }
+
+    /**
+     * Get whether or not this frame is the last frame of its message.
+     * @return Whether or not this frame is the last frame of its message.
+     */
+    public boolean isFinal()
+    {
+        return this.isFinal;
+    }
+
+    /**
+     * Get the opcode of this frame.
+     * @return The opcode of this frame.
+     */
+    public int getOpcode()
+    {
+        return this.opcode;
+    }
+
+    /**
+     * Get the buffer that contains this frame's unmasked payload, starting at index 0. The buffer
+     * may be longer than the payload.
+     * @return The buffer that contains this frame's payload.
+     */
+    public byte[] getPayload()
+    {
+        return this.payload;
+    }
+
+    /**
+     * Get the number of bytes in this frame's payload.
+     * @return The number of bytes in this frame's payload.
+     */
+    public int getPayloadLength()
+    {
+        return this.payloadLength;
+    }
+}
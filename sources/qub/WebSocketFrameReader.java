@@ -0,0 +1,230 @@
+package qub;
+
+/**
+ * A type that reads WebSocket frames (RFC 6455, section 5.2) from a {@link ByteReadStream}. Each
+ * frame's payload is read into a single buffer that is leased from a {@link ByteBufferPool} and
+ * reused for every frame, and masked payloads are unmasked in place, so reading a frame doesn't
+ * allocate. Disposing this reader releases its buffer, but it does not dispose the inner stream.
+ */
+public class WebSocketFrameReader implements Disposable
+{
+    private final ByteReadStream innerStream;
+    private final ByteBufferPool bufferPool;
+    private final boolean expectMaskedFrames;
+    private final byte[] headerBytes;
+    private byte[] buffer;
+    private int maximumPayloadLength;
+    private boolean disposed;
+
+    private WebSocketFrameReader(ByteReadStream innerStream, ByteBufferPool bufferPool, boolean expectMaskedFrames)
+    {
+        PreCondition.assertNotNull(innerStream, "innerStream");
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+
+        this.innerStream = innerStream;
+        this.bufferPool = bufferPool;
+        this.expectMaskedFrames = expectMaskedFrames;
+        this.headerBytes = new byte[8];
+        this.maximumPayloadLength = 1024 * 1024;
+    }
+
+    /**
+     * Create a new WebSocketFrameReader.
+     * @param innerStream The stream to read frames from.
+     * @param bufferPool The pool to lease the payload buffer from.
+     * @param expectMaskedFrames Whether or not the frames are expected to be masked. A server
+     *                           expects the frames from its clients to be masked, and a client
+     *                           expects the frames from its server to not be masked.
+     * @return The new WebSocketFrameReader.
+     */
+    public static WebSocketFrameReader create(ByteReadStream innerStream, ByteBufferPool bufferPool, boolean expectMaskedFrames)
+    {
+        return new WebSocketFrameReader(innerStream, bufferPool, expectMaskedFrames);
+    }
+
+    /**
+     * Set the maximum number of bytes that a frame's payload can contain. A longer payload will
+     * cause a {@link WebSocketProtocolException} with the 1009 (Message Too Big) close code.
+     * @param maximumPayloadLength The maximum number of bytes that a frame's payload can contain.
+     * @return This object for method chaining.
+     */
+    public WebSocketFrameReader setMaximumPayloadLength(int maximumPayloadLength)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumPayloadLength, 125, "maximumPayloadLength");
+
+        this.maximumPayloadLength = maximumPayloadLength;
+
+        return this;
+    }
+
+    /**
+     * Get the maximum number of bytes that a frame's payload can contain.
+     * @return The maximum number of bytes that a frame's payload can contain.
+     */
+    public int getMaximumPayloadLength()
+    {
+        return this.maximumPayloadLength;
+    }
+
+    /**
+     * Read exactly the provided number of bytes from the inner stream.
+     * @return Whether or not the bytes were read. This will be false if the inner stream ended
+     * before any bytes were read.
+     */
+    private boolean readFully(byte[] bytes, int startIndex, int length)
+    {
+        int bytesRead = 0;
+        while (bytesRead < length)
+        {
+            final Integer readResult = this.innerStream.readBytes(bytes, startIndex + bytesRead, length - bytesRead)
+                .catchError(EmptyException.class)
+                .await();
+            if (readResult == null || readResult <= 0)
+            {
+                if (bytesRead == 0)
+                {
+                    break;
+                }
+                throw new ParseException("The WebSocket connection ended in the middle of a frame.");
+            }
+            bytesRead += readResult;
+        }
+        return bytesRead == length;
+    }
+
+    private void readHeaderBytes(int length)
+    {
+        if (!this.readFully(this.headerBytes, 0, length))
+        {
+            throw new ParseException("The WebSocket connection ended in the middle of a frame.");
+        }
+    }
+
+    /**
+     * Read the next frame from the inner stream into the provided frame.
+     * @param frame The frame to read into.
+     * @return Whether or not a frame was read. This will be false if the inner stream ended before
+     * the next frame started.
+     */
+    public Result<Boolean> readFrame(WebSocketFrame frame)
+    {
+        PreCondition.assertNotNull(frame, "frame");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            boolean result = this.readFully(this.headerBytes, 0, 2);
+            if (result)
+            {
+                final int firstByte = this.headerBytes[0] & 0xFF;
+                final int secondByte = this.headerBytes[1] & 0xFF;
+
+                final boolean isFinal = (firstByte & 0x80) != 0;
+                if ((firstByte & 0x70) != 0)
+                {
+                    throw new WebSocketProtocolException(1002, "A frame used a reserved bit without a negotiated extension.");
+                }
+                final int opcode = firstByte & 0x0F;
+                if (!WebSocketFrame.isDefinedOpcode(opcode))
+                {
+                    throw new WebSocketProtocolException(1002, "A frame used the reserved opcode " + opcode + ".");
+                }
+
+                final boolean masked = (secondByte & 0x80) != 0;
+                if (masked != this.expectMaskedFrames)
+                {
+                    throw new WebSocketProtocolException(1002, this.expectMaskedFrames ? "A frame from a client wasn't masked." : "A frame from a server was masked.");
+                }
+
+                long payloadLength = secondByte & 0x7F;
+                if (payloadLength == 126)
+                {
+                    this.readHeaderBytes(2);
+                    payloadLength = ((this.headerBytes[0] & 0xFF) << 8) | (this.headerBytes[1] & 0xFF);
+                }
+                else if (payloadLength == 127)
+                {
+                    this.readHeaderBytes(8);
+                    payloadLength = 0;
+                    for (int i = 0; i < 8; ++i)
+                    {
+                        payloadLength = (payloadLength << 8) | (this.headerBytes[i] & 0xFF);
+                    }
+                    if (payloadLength < 0)
+                    {
+                        throw new WebSocketProtocolException(1002, "A frame's payload length used the most significant bit.");
+                    }
+                }
+
+                if (WebSocketFrame.isControlOpcode(opcode) && (!isFinal || payloadLength > 125))
+                {
+                    throw new WebSocketProtocolException(1002, "A control frame was fragmented or had a payload longer than 125 bytes.");
+                }
+                if (payloadLength > this.maximumPayloadLength)
+                {
+                    throw new WebSocketProtocolException(1009, "A frame's payload was longer than the maximum of " + this.maximumPayloadLength + " bytes.");
+                }
+
+                int maskingKey = 0;
+                if (masked)
+                {
+                    this.readHeaderBytes(4);
+                    maskingKey = ((this.headerBytes[0] & 0xFF) << 24) |
+                        ((this.headerBytes[1] & 0xFF) << 16) |
+                        ((this.headerBytes[2] & 0xFF) << 8) |
+                        (this.headerBytes[3] & 0xFF);
+                }
+
+                final int length = (int)payloadLength;
+                if (0 < length)
+                {
+                    if (this.buffer == null || this.buffer.length < length)
+                    {
+                        if (this.buffer != null)
+                        {
+                            this.bufferPool.release(this.buffer);
+                            this.buffer = null;
+                        }
+                        this.buffer = this.bufferPool.lease(Math.maximum(length, 1024));
+                    }
+                    if (!this.readFully(this.buffer, 0, length))
+                    {
+                        throw new ParseException("The WebSocket connection ended in the middle of a frame.");
+                    }
+                    if (masked)
+                    {
+                        WebSocketFrameWriter.mask(this.buffer, 0, length, maskingKey);
+                    }
+                }
+                frame.set(isFinal, opcode, this.buffer, length);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                if (this.buffer != null)
+                {
+                    final byte[] buffer = this.buffer;
+                    this.buffer = null;
+                    this.bufferPool.release(buffer);
+                }
+            }
+            return result;
+        });
+    }
+}
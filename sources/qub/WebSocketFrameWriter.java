@@ -0,0 +1,187 @@
+package qub;
+
+/**
+ * A type that writes WebSocket frames (RFC 6455, section 5.2) to a {@link ByteWriteStream}. An
+ * unmasked payload is written straight from the caller's array. A masked payload is copied through
+ * a buffer that is leased from a {@link ByteBufferPool} and masked there, so the caller's array is
+ * never modified. Disposing this writer releases its buffer, but it does not dispose the inner
+ * stream.
+ */
+public class WebSocketFrameWriter implements Disposable
+{
+    private final ByteWriteStream innerStream;
+    private final ByteBufferPool bufferPool;
+    private final java.util.Random maskingKeyGenerator;
+    private final byte[] headerBytes;
+    private byte[] buffer;
+    private boolean disposed;
+
+    private WebSocketFrameWriter(ByteWriteStream innerStream, ByteBufferPool bufferPool, boolean maskFrames)
+    {
+        PreCondition.assertNotNull(innerStream, "innerStream");
+        PreCondition.assertNotNull(bufferPool, "bufferPool");
+
+        this.innerStream = innerStream;
+        this.bufferPool = bufferPool;
+        this.maskingKeyGenerator = maskFrames ? new java.security.SecureRandom() : null;
+        this.headerBytes = new byte[14];
+    }
+
+    /**
+     * Create a new WebSocketFrameWriter.
+     * @param innerStream The stream to write frames to.
+     * @param bufferPool The pool to lease the masking buffer from.
+     * @param maskFrames Whether or not the frames will be masked. A client must mask the frames
+     *                   that it sends, and a server must not.
+     * @return The new WebSocketFrameWriter.
+     */
+    public static WebSocketFrameWriter create(ByteWriteStream innerStream, ByteBufferPool bufferPool, boolean maskFrames)
+    {
+        return new WebSocketFrameWriter(innerStream, bufferPool, maskFrames);
+    }
+
+    /**
+     * Mask (or unmask) the provided bytes in place with the provided masking key. The first byte is
+     * masked with the most significant byte of the key.
+     * @param bytes The bytes to mask.
+     * @param startIndex The index of the first byte to mask.
+     * @param length The number of bytes to mask.
+     * @param maskingKey The masking key.
+     */
+    static void mask(byte[] bytes, int startIndex, int length, int maskingKey)
+    {
+        final byte key0 = (byte)(maskingKey >>> 24);
+        final byte key1 = (byte)(maskingKey >>> 16);
+        final byte key2 = (byte)(maskingKey >>> 8);
+        final byte key3 = (byte)maskingKey;
+        final int endIndex = startIndex + length;
+        int i = startIndex;
+        for (; i + 4 <= endIndex; i += 4)
+        {
+            bytes[i] ^= key0;
+            bytes[i + 1] ^= key1;
+            bytes[i + 2] ^= key2;
+            bytes[i + 3] ^= key3;
+        }
+        for (int keyIndex = 0; i < endIndex; ++i, ++keyIndex)
+        {
+            bytes[i] ^= (byte)(maskingKey >>> (24 - 8 * keyIndex));
+        }
+    }
+
+    /**
+     * Write a frame with the provided payload.
+     * @param isFinal Whether or not this frame is the last frame of its message.
+     * @param opcode The opcode of the frame. A fragmented message's first frame uses the message's
+     *               opcode and the frames after it use {@link WebSocketFrame#ContinuationOpcode}.
+     * @param payload The array that contains the payload.
+     * @param startIndex The index of the first byte of the payload.
+     * @param length The number of bytes in the payload.
+     */
+    public Result<Void> writeFrame(boolean isFinal, int opcode, byte[] payload, int startIndex, int length)
+    {
+        PreCondition.assertTrue(WebSocketFrame.isDefinedOpcode(opcode), "opcode must be a defined WebSocket opcode.");
+        PreCondition.assertTrue(!WebSocketFrame.isControlOpcode(opcode) || (isFinal && length <= 125), "A control frame must be final and its payload can't be longer than 125 bytes.");
+        PreCondition.assertNotNull(payload, "payload");
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+        PreCondition.assertGreaterThanOrEqualTo(length, 0, "length");
+        PreCondition.assertLessThanOrEqualTo(startIndex + length, payload.length, "startIndex + length");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create(() ->
+        {
+            final byte[] headerBytes = this.headerBytes;
+            headerBytes[0] = (byte)((isFinal ? 0x80 : 0) | opcode);
+            final int maskBit = this.maskingKeyGenerator == null ? 0 : 0x80;
+            int headerLength;
+            if (length <= 125)
+            {
+                headerBytes[1] = (byte)(maskBit | length);
+                headerLength = 2;
+            }
+            else if (length <= 0xFFFF)
+            {
+                headerBytes[1] = (byte)(maskBit | 126);
+                headerBytes[2] = (byte)(length >>> 8);
+                headerBytes[3] = (byte)length;
+                headerLength = 4;
+            }
+            else
+            {
+                headerBytes[1] = (byte)(maskBit | 127);
+                headerBytes[2] = 0;
+                headerBytes[3] = 0;
+                headerBytes[4] = 0;
+                headerBytes[5] = 0;
+                headerBytes[6] = (byte)(length >>> 24);
+                headerBytes[7] = (byte)(length >>> 16);
+                headerBytes[8] = (byte)(length >>> 8);
+                headerBytes[9] = (byte)length;
+                headerLength = 10;
+            }
+
+            if (this.maskingKeyGenerator == null)
+            {
+                this.innerStream.writeAll(headerBytes, 0, headerLength).await();
+                if (0 < length)
+                {
+                    this.innerStream.writeAll(payload, startIndex, length).await();
+                }
+            }
+            else
+            {
+                final int maskingKey = this.maskingKeyGenerator.nextInt();
+                headerBytes[headerLength++] = (byte)(maskingKey >>> 24);
+                headerBytes[headerLength++] = (byte)(maskingKey >>> 16);
+                headerBytes[headerLength++] = (byte)(maskingKey >>> 8);
+                headerBytes[headerLength++] = (byte)maskingKey;
+                this.innerStream.writeAll(headerBytes, 0, headerLength).await();
+
+                if (0 < length)
+                {
+                    if (this.buffer == null)
+                    {
+                        this.buffer = this.bufferPool.lease(8192);
+                    }
+                    // The buffer's length is a power of two, so every chunk after the first starts
+                    // at a multiple of four bytes into the payload and can reuse the same key.
+                    int written = 0;
+                    while (written < length)
+                    {
+                        final int chunkLength = Math.minimum(this.buffer.length, length - written);
+                        System.arraycopy(payload, startIndex + written, this.buffer, 0, chunkLength);
+                        WebSocketFrameWriter.mask(this.buffer, 0, chunkLength, maskingKey);
+                        this.innerStream.writeAll(this.buffer, 0, chunkLength).await();
+                        written += chunkLength;
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                if (this.buffer != null)
+                {
+                    final byte[] buffer = this.buffer;
+                    this.buffer = null;
+                    this.bufferPool.release(buffer);
+                }
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package qub;
+
+/**
+ * A complete text or binary message that was received over a {@link WebSocket}. The frames of a
+ * fragmented message have already been joined together.
+ */
+public class WebSocketMessage
+{
+    private final boolean text;
+    private final byte[] bytes;
+
+    private WebSocketMessage(boolean text, byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        this.text = text;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Create a new text message from the provided UTF-8 bytes.
+     * @param bytes The UTF-8 bytes of the message.
+     * @return The new WebSocketMessage.
+     */
+    public static WebSocketMessage createText(byte[] bytes)
+    {
+        return new WebSocketMessage(true, bytes);
+    }
+
+    /**
+     * Create a new binary message.
+     * @param bytes The bytes of the message.
+     * @return The new WebSocketMessage.
+     */
+    public static WebSocketMessage createBinary(byte[] bytes)
+    {
+        return new WebSocketMessage(false, bytes);
+    }
+
+    /**
+     * Get whether or not this message is a text message.
+     * @return Whether or not this message is a text message.
+     */
+    public boolean isText()
+    {
+        return this.text;
+    }
+
+    /**
+     * Get the bytes of this message. The bytes of a text message are UTF-8.
+     * @return The bytes of this message.
+     */
+    public byte[] getBytes()
+    {
+        return this.bytes;
+    }
+
+    /**
+     * Get the text of this message.
+     * @return The text of this message.
+     */
+    public String getText()
+    {
+        return new String(this.bytes, java.nio.charset.StandardCharsets.UTF_8);
+    }
+}
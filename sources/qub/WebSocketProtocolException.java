@@ -0,0 +1,30 @@
+package qub;
+
+/**
+ * An exception that is thrown when a WebSocket peer breaks the WebSocket protocol (RFC 6455).
+ */
+public class WebSocketProtocolException extends RuntimeException
+{
+    private final int closeCode;
+
+    /**
+     * Create a new WebSocketProtocolException.
+     * @param closeCode The status code of the close frame that should be sent to the peer.
+     * @param message The message that describes how the protocol was broken.
+     */
+    public WebSocketProtocolException(int closeCode, String message)
+    {
+        super(message);
+
+        this.closeCode = closeCode;
+    }
+
+    /**
+     * Get the status code of the close frame that should be sent to the peer.
+     * @return The status code of the close frame that should be sent to the peer.
+     */
+    public int getCloseCode()
+    {
+        return this.closeCode;
+    }
+}
@@ -0,0 +1,92 @@
+package qub;
+
+/**
+ * The 101 (Switching Protocols) response that accepts a WebSocket opening handshake. A
+ * {@link HttpServer} writes this response and then hands the connection over to a
+ * {@link WebSocket} that is passed to this response's session action on a separate task.
+ */
+public class WebSocketUpgradeResponse implements HttpResponse
+{
+    private final Action1<WebSocket> sessionAction;
+    private final MutableHttpHeaders headers;
+    private boolean disposed;
+
+    private WebSocketUpgradeResponse(String secWebSocketKey, Action1<WebSocket> sessionAction)
+    {
+        PreCondition.assertNotNullAndNotEmpty(secWebSocketKey, "secWebSocketKey");
+        PreCondition.assertNotNull(sessionAction, "sessionAction");
+
+        this.sessionAction = sessionAction;
+        this.headers = HttpHeaders.create()
+            .set(HttpHeader.UpgradeName, "websocket")
+            .set(HttpHeader.ConnectionName, "Upgrade")
+            .set(HttpHeader.SecWebSocketAcceptName, WebSocket.getAcceptValue(secWebSocketKey));
+    }
+
+    /**
+     * Create a new WebSocketUpgradeResponse.
+     * @param secWebSocketKey The value of the Sec-WebSocket-Key header of the handshake request.
+     * @param sessionAction The action that will be run with the WebSocket after the handshake.
+     * @return The new WebSocketUpgradeResponse.
+     */
+    public static WebSocketUpgradeResponse create(String secWebSocketKey, Action1<WebSocket> sessionAction)
+    {
+        return new WebSocketUpgradeResponse(secWebSocketKey, sessionAction);
+    }
+
+    /**
+     * Get the action that will be run with the WebSocket after the handshake.
+     * @return The action that will be run with the WebSocket after the handshake.
+     */
+    public Action1<WebSocket> getSessionAction()
+    {
+        return this.sessionAction;
+    }
+
+    @Override
+    public String getHttpVersion()
+    {
+        return "HTTP/1.1";
+    }
+
+    @Override
+    public int getStatusCode()
+    {
+        return 101;
+    }
+
+    @Override
+    public String getReasonPhrase()
+    {
+        return "Switching Protocols";
+    }
+
+    @Override
+    public HttpHeaders getHeaders()
+    {
+        return this.headers;
+    }
+
+    @Override
+    public ByteReadStream getBody()
+    {
+        return InMemoryByteStream.create().endOfStream();
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final boolean result = !this.disposed;
+            this.disposed = true;
+            return result;
+        });
+    }
+}
@@ -6,6 +6,26 @@ public class BasicHttpClientTests
     {
         runner.testGroup(BasicHttpClient.class, () ->
         {
+            runner.testGroup("create(Network,AsyncRunner)", () ->
+            {
+                runner.test("with null asyncRunner",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    test.assertThrows(() -> BasicHttpClient.create(process.getNetwork(), (AsyncRunner)null),
+                        new PreConditionFailure("asyncRunner cannot be null."));
+                });
+
+                runner.test("with non-null asyncRunner",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final BasicHttpClient client = BasicHttpClient.create(process.getNetwork(), process.getParallelAsyncRunner());
+                    test.assertNotNull(client);
+                    test.assertEqual(Duration.seconds(1), client.getExpectContinueTimeout());
+                });
+            });
+
             HttpClientTests.test(runner, (Network network) ->
             {
                 return BasicHttpClient.create(network);
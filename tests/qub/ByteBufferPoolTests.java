@@ -0,0 +1,137 @@
+package qub;
+
+public interface ByteBufferPoolTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(ByteBufferPool.class, () ->
+        {
+            runner.testGroup("create(int,int,int)", () ->
+            {
+                runner.test("with non-power-of-two minimumBufferSize", (Test test) ->
+                {
+                    test.assertThrows(() -> ByteBufferPool.create(1000, 4096, 1),
+                        new PreConditionFailure("minimumBufferSize must be a power of two. cannot be false."));
+                });
+
+                runner.test("with maximumBufferSize less than minimumBufferSize", (Test test) ->
+                {
+                    test.assertThrows(() -> ByteBufferPool.create(1024, 512, 1),
+                        new PreConditionFailure("maximumBufferSize (512) must be greater than or equal to 1024."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final ByteBufferPool pool = ByteBufferPool.create(1024, 4096, 1);
+                    test.assertEqual(0L, pool.getLeasedCount());
+                    test.assertEqual(0, pool.getPooledCount());
+                });
+            });
+
+            runner.test("getShared()", (Test test) ->
+            {
+                test.assertNotNull(ByteBufferPool.getShared());
+                test.assertSame(ByteBufferPool.getShared(), ByteBufferPool.getShared());
+            });
+
+            runner.testGroup("lease(int)", () ->
+            {
+                runner.test("with 0", (Test test) ->
+                {
+                    final ByteBufferPool pool = ByteBufferPool.create();
+                    test.assertThrows(() -> pool.lease(0),
+                        new PreConditionFailure("minimumSize (0) must be greater than or equal to 1."));
+                });
+
+                final Action2<Integer,Integer> leaseTest = (Integer minimumSize, Integer expectedLength) ->
+                {
+                    runner.test("with " + minimumSize, (Test test) ->
+                    {
+                        final ByteBufferPool pool = ByteBufferPool.create(1024, 4096, 2);
+                        final byte[] buffer = pool.lease(minimumSize);
+                        test.assertEqual(expectedLength, buffer.length);
+                        test.assertEqual(1L, pool.getLeasedCount());
+                    });
+                };
+
+                leaseTest.run(1, 1024);
+                leaseTest.run(1024, 1024);
+                leaseTest.run(1025, 2048);
+                leaseTest.run(4096, 4096);
+                leaseTest.run(5000, 5000);
+            });
+
+            runner.testGroup("release(byte[])", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final ByteBufferPool pool = ByteBufferPool.create();
+                    test.assertThrows(() -> pool.release(null),
+                        new PreConditionFailure("buffer cannot be null."));
+                });
+
+                runner.test("reuses released buffers", (Test test) ->
+                {
+                    final ByteBufferPool pool = ByteBufferPool.create(1024, 4096, 2);
+                    final byte[] buffer = pool.lease(2000);
+                    pool.release(buffer);
+                    test.assertEqual(0L, pool.getLeasedCount());
+                    test.assertEqual(1, pool.getPooledCount());
+
+                    test.assertSame(buffer, pool.lease(1500));
+                    test.assertEqual(1L, pool.getLeasedCount());
+                    test.assertEqual(0, pool.getPooledCount());
+                });
+
+                runner.test("doesn't pool more than the maximum buffers per size", (Test test) ->
+                {
+                    final ByteBufferPool pool = ByteBufferPool.create(1024, 4096, 1);
+                    final byte[] buffer1 = pool.lease(1024);
+                    final byte[] buffer2 = pool.lease(1024);
+                    pool.release(buffer1);
+                    pool.release(buffer2);
+                    test.assertEqual(0L, pool.getLeasedCount());
+                    test.assertEqual(1, pool.getPooledCount());
+                });
+
+                runner.test("doesn't pool buffers larger than the maximum buffer size", (Test test) ->
+                {
+                    final ByteBufferPool pool = ByteBufferPool.create(1024, 4096, 1);
+                    pool.release(pool.lease(5000));
+                    test.assertEqual(0L, pool.getLeasedCount());
+                    test.assertEqual(0, pool.getPooledCount());
+                });
+
+                runner.test("with leak tracking and a double release", (Test test) ->
+                {
+                    final ByteBufferPool pool = ByteBufferPool.create().setLeakTracking(true);
+                    final byte[] buffer = pool.lease(10);
+                    pool.release(buffer);
+                    test.assertThrows(() -> pool.release(buffer),
+                        new PreConditionFailure("The buffer must be leased from this pool and not already released. cannot be false."));
+                });
+            });
+
+            runner.testGroup("getLeaks()", () ->
+            {
+                runner.test("without leak tracking", (Test test) ->
+                {
+                    final ByteBufferPool pool = ByteBufferPool.create();
+                    pool.lease(10);
+                    test.assertEqual(0, pool.getLeaks().getCount());
+                });
+
+                runner.test("with leak tracking", (Test test) ->
+                {
+                    final ByteBufferPool pool = ByteBufferPool.create().setLeakTracking(true);
+                    final byte[] buffer1 = pool.lease(10);
+                    pool.lease(10);
+                    test.assertEqual(2, pool.getLeaks().getCount());
+
+                    pool.release(buffer1);
+                    test.assertEqual(1, pool.getLeaks().getCount());
+                });
+            });
+        });
+    }
+}
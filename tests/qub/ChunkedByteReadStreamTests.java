@@ -0,0 +1,98 @@
+package qub;
+
+public interface ChunkedByteReadStreamTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(ChunkedByteReadStream.class, () ->
+        {
+            final Function1<String,InMemoryByteStream> createStream = (String text) ->
+            {
+                return InMemoryByteStream.create(text.getBytes(java.nio.charset.StandardCharsets.UTF_8)).endOfStream();
+            };
+
+            runner.testGroup("create(ByteReadStream)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> ChunkedByteReadStream.create(null),
+                        new PreConditionFailure("innerStream cannot be null."));
+                });
+            });
+
+            runner.testGroup("setMaximumLength(long)", () ->
+            {
+                runner.test("with negative", (Test test) ->
+                {
+                    final ChunkedByteReadStream stream = ChunkedByteReadStream.create(createStream.run(""));
+                    test.assertThrows(() -> stream.setMaximumLength(-1),
+                        new PreConditionFailure("maximumLength (-1) must be greater than or equal to 0."));
+                    test.assertEqual(java.lang.Long.MAX_VALUE, stream.getMaximumLength());
+                });
+
+                runner.test("with body at the maximum", (Test test) ->
+                {
+                    final ChunkedByteReadStream stream = ChunkedByteReadStream.create(createStream.run("5\r\nhello\r\n6\r\n world\r\n0\r\n\r\n"));
+                    test.assertSame(stream, stream.setMaximumLength(11));
+                    test.assertEqual(11, stream.getMaximumLength());
+                    test.assertEqual("hello world", new String(stream.readAllBytes().await(), java.nio.charset.StandardCharsets.UTF_8));
+                });
+
+                runner.test("with body over the maximum", (Test test) ->
+                {
+                    final ChunkedByteReadStream stream = ChunkedByteReadStream.create(createStream.run("5\r\nhello\r\n6\r\n world\r\n0\r\n\r\n"))
+                        .setMaximumLength(10);
+                    final byte[] bytes = new byte[5];
+                    test.assertEqual(5, stream.readBytes(bytes, 0, bytes.length).await());
+                    test.assertThrows(() -> stream.readBytes(bytes, 0, bytes.length).await(),
+                        new HttpLimitExceededException(413, "The chunked body was longer than the maximum of 10 bytes."));
+                });
+            });
+
+            runner.testGroup("readBytes(byte[],int,int)", () ->
+            {
+                final Action2<String,String> readTest = (String text, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        final ChunkedByteReadStream stream = ChunkedByteReadStream.create(createStream.run(text));
+                        final byte[] bytes = stream.readAllBytes().await();
+                        test.assertEqual(expected, new String(bytes, java.nio.charset.StandardCharsets.UTF_8));
+                    });
+                };
+
+                readTest.run("0\r\n\r\n", "");
+                readTest.run("5\r\nhello\r\n0\r\n\r\n", "hello");
+                readTest.run("5\r\nhello\r\n6\r\n world\r\n0\r\n\r\n", "hello world");
+                readTest.run("A\r\n0123456789\r\n0\r\n\r\n", "0123456789");
+                readTest.run("5;name=value\r\nhello\r\n0\r\n\r\n", "hello");
+                readTest.run("5\nhello\n0\n\n", "hello");
+                readTest.run("5\r\nhello\r\n0\r\nTrailer: value\r\n\r\n", "hello");
+
+                final Action2<String,Throwable> readErrorTest = (String text, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        final ChunkedByteReadStream stream = ChunkedByteReadStream.create(createStream.run(text));
+                        test.assertThrows(() -> stream.readAllBytes().await(), expected);
+                    });
+                };
+
+                readErrorTest.run("", new ParseException("The chunked body ended before its last chunk."));
+                readErrorTest.run("5\r\nhel", new ParseException("The chunked body ended before its last chunk."));
+                readErrorTest.run("5\r\nhelloX", new ParseException("Expected a line terminator after a chunk's data."));
+                readErrorTest.run("\r\n", new ParseException("A chunk size line didn't contain a chunk size."));
+                readErrorTest.run("z\r\n", new ParseException("Invalid chunk size character: \"z\""));
+                readErrorTest.run("1000000000000000\r\n", new ParseException("A chunk size was too large."));
+            });
+
+            runner.test("leaves the inner stream at the end of the chunked body", (Test test) ->
+            {
+                final InMemoryByteStream innerStream = createStream.run("3\r\nabc\r\n0\r\n\r\nnext");
+                final ChunkedByteReadStream stream = ChunkedByteReadStream.create(innerStream);
+                test.assertEqual(new byte[] { 'a', 'b', 'c' }, stream.readAllBytes().await());
+                test.assertEqual(new byte[] { 'n', 'e', 'x', 't' }, innerStream.readAllBytes().await());
+            });
+        });
+    }
+}
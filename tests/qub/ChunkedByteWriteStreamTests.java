@@ -0,0 +1,82 @@
+package qub;
+
+public interface ChunkedByteWriteStreamTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(ChunkedByteWriteStream.class, () ->
+        {
+            runner.testGroup("create(ByteWriteStream)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> ChunkedByteWriteStream.create(null),
+                        new PreConditionFailure("innerStream cannot be null."));
+                });
+            });
+
+            runner.testGroup("write(byte[],int,int)", () ->
+            {
+                runner.test("with no bytes", (Test test) ->
+                {
+                    final InMemoryByteStream innerStream = InMemoryByteStream.create();
+                    final ChunkedByteWriteStream stream = ChunkedByteWriteStream.create(innerStream);
+                    test.assertEqual(0, stream.write(new byte[0], 0, 0).await());
+                    test.assertEqual(new byte[0], innerStream.getBytes());
+                });
+
+                runner.test("with one byte", (Test test) ->
+                {
+                    final InMemoryByteStream innerStream = InMemoryByteStream.create();
+                    final ChunkedByteWriteStream stream = ChunkedByteWriteStream.create(innerStream);
+                    test.assertEqual(1, stream.write(new byte[] { 'a' }, 0, 1).await());
+                    test.assertEqual("1\r\na\r\n", new String(innerStream.getBytes(), java.nio.charset.StandardCharsets.US_ASCII));
+                });
+
+                runner.test("with multiple writes", (Test test) ->
+                {
+                    final InMemoryByteStream innerStream = InMemoryByteStream.create();
+                    final ChunkedByteWriteStream stream = ChunkedByteWriteStream.create(innerStream);
+                    final byte[] bytes = new byte[300];
+                    java.util.Arrays.fill(bytes, (byte)'x');
+                    stream.write(bytes, 0, 26).await();
+                    stream.write(bytes, 0, 300).await();
+                    test.assertTrue(stream.dispose().await());
+
+                    final String text = new String(innerStream.getBytes(), java.nio.charset.StandardCharsets.US_ASCII);
+                    test.assertTrue(text.startsWith("1a\r\n"), text);
+                    test.assertTrue(text.contains("\r\n12c\r\n"), text);
+                    test.assertTrue(text.endsWith("\r\n0\r\n\r\n"), text);
+                });
+            });
+
+            runner.testGroup("dispose()", () ->
+            {
+                runner.test("writes the last chunk once", (Test test) ->
+                {
+                    final InMemoryByteStream innerStream = InMemoryByteStream.create();
+                    final ChunkedByteWriteStream stream = ChunkedByteWriteStream.create(innerStream);
+                    test.assertTrue(stream.dispose().await());
+                    test.assertTrue(stream.isDisposed());
+                    test.assertFalse(stream.dispose().await());
+                    test.assertEqual("0\r\n\r\n", new String(innerStream.getBytes(), java.nio.charset.StandardCharsets.US_ASCII));
+                    test.assertFalse(innerStream.isDisposed());
+                });
+
+                runner.test("round-trips through ChunkedByteReadStream", (Test test) ->
+                {
+                    final InMemoryByteStream innerStream = InMemoryByteStream.create();
+                    try (final ChunkedByteWriteStream stream = ChunkedByteWriteStream.create(innerStream))
+                    {
+                        stream.writeAll(new byte[] { 1, 2, 3 }).await();
+                        stream.writeAll(new byte[] { 4, 5 }).await();
+                    }
+                    innerStream.endOfStream();
+
+                    final ChunkedByteReadStream readStream = ChunkedByteReadStream.create(innerStream);
+                    test.assertEqual(new byte[] { 1, 2, 3, 4, 5 }, readStream.readAllBytes().await());
+                });
+            });
+        });
+    }
+}
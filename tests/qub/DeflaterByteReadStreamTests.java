@@ -0,0 +1,90 @@
+package qub;
+
+public interface DeflaterByteReadStreamTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(DeflaterByteReadStream.class, () ->
+        {
+            final Function2<String,byte[],byte[]> decompress = (String contentEncoding, byte[] compressedBytes) ->
+            {
+                try (final java.io.InputStream inputStream = DeflaterByteWriteStream.GzipContentEncoding.equals(contentEncoding)
+                    ? new java.util.zip.GZIPInputStream(new java.io.ByteArrayInputStream(compressedBytes))
+                    : new java.util.zip.InflaterInputStream(new java.io.ByteArrayInputStream(compressedBytes)))
+                {
+                    return inputStream.readAllBytes();
+                }
+                catch (java.io.IOException e)
+                {
+                    throw Exceptions.asRuntime(e);
+                }
+            };
+
+            runner.testGroup("create(ByteReadStream,String,ByteBufferPool)", () ->
+            {
+                runner.test("with null innerStream", (Test test) ->
+                {
+                    test.assertThrows(() -> DeflaterByteReadStream.create(null, "gzip", ByteBufferPool.create()),
+                        new PreConditionFailure("innerStream cannot be null."));
+                });
+
+                runner.test("with unsupported contentEncoding", (Test test) ->
+                {
+                    test.assertThrows(() -> DeflaterByteReadStream.create(InMemoryByteStream.create().endOfStream(), "br", ByteBufferPool.create()),
+                        new PreConditionFailure("contentEncoding must be \"gzip\" or \"deflate\"."));
+                });
+
+                runner.test("with null bufferPool", (Test test) ->
+                {
+                    test.assertThrows(() -> DeflaterByteReadStream.create(InMemoryByteStream.create().endOfStream(), "gzip", null),
+                        new PreConditionFailure("bufferPool cannot be null."));
+                });
+            });
+
+            runner.testGroup("readBytes(byte[],int,int)", () ->
+            {
+                final Action3<String,Integer,Integer> roundTripTest = (String contentEncoding, Integer length, Integer readLength) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(contentEncoding) + ", " + length + " bytes, and reads of " + readLength + " bytes", (Test test) ->
+                    {
+                        final byte[] bytes = new byte[length];
+                        for (int i = 0; i < length; ++i)
+                        {
+                            bytes[i] = (byte)('a' + (i % 7));
+                        }
+
+                        final ByteBufferPool bufferPool = ByteBufferPool.create();
+                        final InMemoryByteStream innerStream = InMemoryByteStream.create(bytes).endOfStream();
+                        final java.io.ByteArrayOutputStream compressedBytes = new java.io.ByteArrayOutputStream();
+                        try (final DeflaterByteReadStream stream = DeflaterByteReadStream.create(innerStream, contentEncoding, bufferPool))
+                        {
+                            final byte[] readBuffer = new byte[readLength];
+                            while (true)
+                            {
+                                final Integer bytesRead = stream.readBytes(readBuffer, 0, readBuffer.length)
+                                    .catchError(EmptyException.class)
+                                    .await();
+                                if (bytesRead == null)
+                                {
+                                    break;
+                                }
+                                compressedBytes.write(readBuffer, 0, bytesRead);
+                            }
+                        }
+
+                        test.assertEqual(bytes, decompress.run(contentEncoding, compressedBytes.toByteArray()));
+                        test.assertTrue(innerStream.isDisposed());
+                        test.assertEqual(0, bufferPool.getLeasedCount());
+                    });
+                };
+
+                roundTripTest.run("gzip", 0, 1024);
+                roundTripTest.run("gzip", 1, 1);
+                roundTripTest.run("gzip", 100000, 1024);
+                roundTripTest.run("deflate", 0, 1024);
+                roundTripTest.run("deflate", 5, 3);
+                roundTripTest.run("deflate", 100000, 1024);
+            });
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package qub;
+
+public interface DeflaterByteWriteStreamTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(DeflaterByteWriteStream.class, () ->
+        {
+            final Function2<String,byte[],byte[]> decompress = (String contentEncoding, byte[] compressedBytes) ->
+            {
+                try (final java.io.InputStream inputStream = DeflaterByteWriteStream.GzipContentEncoding.equals(contentEncoding)
+                    ? new java.util.zip.GZIPInputStream(new java.io.ByteArrayInputStream(compressedBytes))
+                    : new java.util.zip.InflaterInputStream(new java.io.ByteArrayInputStream(compressedBytes)))
+                {
+                    return inputStream.readAllBytes();
+                }
+                catch (java.io.IOException e)
+                {
+                    throw Exceptions.asRuntime(e);
+                }
+            };
+
+            runner.testGroup("create(ByteWriteStream,String,ByteBufferPool)", () ->
+            {
+                runner.test("with null innerStream", (Test test) ->
+                {
+                    test.assertThrows(() -> DeflaterByteWriteStream.create(null, "gzip", ByteBufferPool.create()),
+                        new PreConditionFailure("innerStream cannot be null."));
+                });
+
+                runner.test("with unsupported contentEncoding", (Test test) ->
+                {
+                    test.assertThrows(() -> DeflaterByteWriteStream.create(InMemoryByteStream.create(), "br", ByteBufferPool.create()),
+                        new PreConditionFailure("contentEncoding must be \"gzip\" or \"deflate\"."));
+                });
+
+                runner.test("with null bufferPool", (Test test) ->
+                {
+                    test.assertThrows(() -> DeflaterByteWriteStream.create(InMemoryByteStream.create(), "gzip", null),
+                        new PreConditionFailure("bufferPool cannot be null."));
+                });
+            });
+
+            runner.testGroup("isSupportedContentEncoding(String)", () ->
+            {
+                final Action2<String,Boolean> isSupportedTest = (String contentEncoding, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(contentEncoding), (Test test) ->
+                    {
+                        test.assertEqual(expected, DeflaterByteWriteStream.isSupportedContentEncoding(contentEncoding));
+                    });
+                };
+
+                isSupportedTest.run(null, false);
+                isSupportedTest.run("", false);
+                isSupportedTest.run("br", false);
+                isSupportedTest.run("gzip", true);
+                isSupportedTest.run("GZIP", true);
+                isSupportedTest.run("deflate", true);
+            });
+
+            final Action2<String,Integer> roundTripTest = (String contentEncoding, Integer length) ->
+            {
+                runner.test("with " + Strings.escapeAndQuote(contentEncoding) + " and " + length + " bytes", (Test test) ->
+                {
+                    final byte[] bytes = new byte[length];
+                    for (int i = 0; i < length; ++i)
+                    {
+                        bytes[i] = (byte)('a' + (i % 7));
+                    }
+
+                    final ByteBufferPool bufferPool = ByteBufferPool.create();
+                    final InMemoryByteStream innerStream = InMemoryByteStream.create();
+                    try (final DeflaterByteWriteStream stream = DeflaterByteWriteStream.create(innerStream, contentEncoding, bufferPool))
+                    {
+                        stream.writeAll(bytes).await();
+                    }
+
+                    test.assertEqual(bytes, decompress.run(contentEncoding, innerStream.getBytes()));
+                    test.assertEqual(0, bufferPool.getLeasedCount());
+                    test.assertFalse(innerStream.isDisposed());
+                });
+            };
+
+            roundTripTest.run("gzip", 0);
+            roundTripTest.run("gzip", 1);
+            roundTripTest.run("gzip", 100000);
+            roundTripTest.run("deflate", 0);
+            roundTripTest.run("deflate", 100000);
+
+            runner.testGroup("flush()", () ->
+            {
+                runner.test("makes the written bytes decompressible", (Test test) ->
+                {
+                    final InMemoryByteStream innerStream = InMemoryByteStream.create();
+                    final DeflaterByteWriteStream stream = DeflaterByteWriteStream.create(innerStream, "deflate", ByteBufferPool.create());
+                    stream.writeAll(new byte[] { 'a', 'b', 'c' }).await();
+                    stream.flush().await();
+
+                    final java.util.zip.Inflater inflater = new java.util.zip.Inflater();
+                    inflater.setInput(innerStream.getBytes());
+                    final byte[] output = new byte[10];
+                    try
+                    {
+                        test.assertEqual(3, inflater.inflate(output));
+                    }
+                    catch (java.util.zip.DataFormatException e)
+                    {
+                        throw Exceptions.asRuntime(e);
+                    }
+                    finally
+                    {
+                        inflater.end();
+                    }
+
+                    test.assertTrue(stream.dispose().await());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,194 @@
+package qub;
+
+public interface HpackDecoderTests
+{
+    /**
+     * Parse the provided hexadecimal string, ignoring any spaces, in the format that RFC 7541's
+     * examples use.
+     */
+    static byte[] parseHex(String hex)
+    {
+        final String digits = hex.replace(" ", "");
+        final byte[] result = new byte[digits.length() / 2];
+        for (int i = 0; i < result.length; ++i)
+        {
+            result[i] = (byte)Integer.parseInt(digits.substring(i * 2, i * 2 + 2), 16);
+        }
+        return result;
+    }
+
+    static List<String> decode(HpackDecoder decoder, String hex)
+    {
+        final List<String> result = List.create();
+        final byte[] bytes = HpackDecoderTests.parseHex(hex);
+        decoder.decode(bytes, 0, bytes.length, (String name, String value) ->
+        {
+            result.add(name + ": " + value);
+        }).await();
+        return result;
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(HpackDecoder.class, () ->
+        {
+            runner.testGroup("create()", () ->
+            {
+                runner.test("with no arguments", (Test test) ->
+                {
+                    final HpackDecoder decoder = HpackDecoder.create();
+                    test.assertEqual(HpackDecoder.DefaultMaximumTableSize, decoder.getMaximumTableSize());
+                    test.assertEqual(0, decoder.getDynamicTable().getCount());
+                });
+
+                runner.test("with negative maximumTableSize", (Test test) ->
+                {
+                    test.assertThrows(() -> HpackDecoder.create(-1),
+                        new PreConditionFailure("maximumTableSize (-1) must be greater than or equal to 0."));
+                });
+            });
+
+            runner.testGroup("decode(byte[],int,int,Action2<String,String>)", () ->
+            {
+                runner.test("with null headerAction", (Test test) ->
+                {
+                    test.assertThrows(() -> HpackDecoder.create().decode(new byte[0], 0, 0, (Action2<String,String>)null),
+                        new PreConditionFailure("headerAction cannot be null."));
+                });
+
+                runner.test("with empty header block", (Test test) ->
+                {
+                    test.assertEqual(Iterable.create(), HpackDecoderTests.decode(HpackDecoder.create(), ""));
+                });
+
+                runner.test("with RFC 7541 C.2.1 literal header field with indexing", (Test test) ->
+                {
+                    final HpackDecoder decoder = HpackDecoder.create();
+                    test.assertEqual(Iterable.create("custom-key: custom-header"),
+                        HpackDecoderTests.decode(decoder, "400a 6375 7374 6f6d 2d6b 6579 0d63 7573 746f 6d2d 6865 6164 6572"));
+                    test.assertEqual(1, decoder.getDynamicTable().getCount());
+                    test.assertEqual(55, decoder.getDynamicTable().getSize());
+                });
+
+                runner.test("with RFC 7541 C.2.2 literal header field without indexing", (Test test) ->
+                {
+                    final HpackDecoder decoder = HpackDecoder.create();
+                    test.assertEqual(Iterable.create(":path: /sample/path"),
+                        HpackDecoderTests.decode(decoder, "040c 2f73 616d 706c 652f 7061 7468"));
+                    test.assertEqual(0, decoder.getDynamicTable().getCount());
+                });
+
+                runner.test("with RFC 7541 C.2.3 literal header field never indexed", (Test test) ->
+                {
+                    final HpackDecoder decoder = HpackDecoder.create();
+                    test.assertEqual(Iterable.create("password: secret"),
+                        HpackDecoderTests.decode(decoder, "1008 7061 7373 776f 7264 0673 6563 7265 74"));
+                    test.assertEqual(0, decoder.getDynamicTable().getCount());
+                });
+
+                runner.test("with RFC 7541 C.3 requests without Huffman coding", (Test test) ->
+                {
+                    final HpackDecoder decoder = HpackDecoder.create();
+                    test.assertEqual(Iterable.create(":method: GET", ":scheme: http", ":path: /", ":authority: www.example.com"),
+                        HpackDecoderTests.decode(decoder, "8286 8441 0f77 7777 2e65 7861 6d70 6c65 2e63 6f6d"));
+                    test.assertEqual(57, decoder.getDynamicTable().getSize());
+
+                    test.assertEqual(Iterable.create(":method: GET", ":scheme: http", ":path: /", ":authority: www.example.com", "cache-control: no-cache"),
+                        HpackDecoderTests.decode(decoder, "8286 84be 5808 6e6f 2d63 6163 6865"));
+                    test.assertEqual(110, decoder.getDynamicTable().getSize());
+
+                    test.assertEqual(Iterable.create(":method: GET", ":scheme: https", ":path: /index.html", ":authority: www.example.com", "custom-key: custom-value"),
+                        HpackDecoderTests.decode(decoder, "8287 85bf 400a 6375 7374 6f6d 2d6b 6579 0c63 7573 746f 6d2d 7661 6c75 65"));
+                    test.assertEqual(3, decoder.getDynamicTable().getCount());
+                    test.assertEqual(164, decoder.getDynamicTable().getSize());
+                });
+
+                runner.test("with RFC 7541 C.4 requests with Huffman coding", (Test test) ->
+                {
+                    final HpackDecoder decoder = HpackDecoder.create();
+                    test.assertEqual(Iterable.create(":method: GET", ":scheme: http", ":path: /", ":authority: www.example.com"),
+                        HpackDecoderTests.decode(decoder, "8286 8441 8cf1 e3c2 e5f2 3a6b a0ab 90f4 ff"));
+                    test.assertEqual(Iterable.create(":method: GET", ":scheme: http", ":path: /", ":authority: www.example.com", "cache-control: no-cache"),
+                        HpackDecoderTests.decode(decoder, "8286 84be 5886 a8eb 1064 9cbf"));
+                    test.assertEqual(Iterable.create(":method: GET", ":scheme: https", ":path: /index.html", ":authority: www.example.com", "custom-key: custom-value"),
+                        HpackDecoderTests.decode(decoder, "8287 85bf 4088 25a8 49e9 5ba9 7d7f 8925 a849 e95b b8e8 b4bf"));
+                    test.assertEqual(164, decoder.getDynamicTable().getSize());
+                });
+
+                runner.test("with RFC 7541 C.5 responses with evictions", (Test test) ->
+                {
+                    final HpackDecoder decoder = HpackDecoder.create(256);
+                    test.assertEqual(Iterable.create(":status: 302", "cache-control: private", "date: Mon, 21 Oct 2013 20:13:21 GMT", "location: https://www.example.com"),
+                        HpackDecoderTests.decode(decoder, "4803 3330 3258 0770 7269 7661 7465 611d 4d6f 6e2c 2032 3120 4f63 7420 3230 3133 2032 303a 3133 3a32 3120 474d 546e 1768 7474 7073 3a2f 2f77 7777 2e65 7861 6d70 6c65 2e63 6f6d"));
+                    test.assertEqual(222, decoder.getDynamicTable().getSize());
+
+                    test.assertEqual(Iterable.create(":status: 307", "cache-control: private", "date: Mon, 21 Oct 2013 20:13:21 GMT", "location: https://www.example.com"),
+                        HpackDecoderTests.decode(decoder, "4803 3330 37c1 c0bf"));
+                    test.assertEqual(4, decoder.getDynamicTable().getCount());
+                    test.assertEqual(222, decoder.getDynamicTable().getSize());
+                    test.assertEqual(":status", decoder.getDynamicTable().getName(1));
+                    test.assertEqual("307", decoder.getDynamicTable().getValue(1));
+                });
+
+                runner.test("with RFC 7541 C.6 responses with Huffman coding and evictions", (Test test) ->
+                {
+                    final HpackDecoder decoder = HpackDecoder.create(256);
+                    test.assertEqual(Iterable.create(":status: 302", "cache-control: private", "date: Mon, 21 Oct 2013 20:13:21 GMT", "location: https://www.example.com"),
+                        HpackDecoderTests.decode(decoder, "4882 6402 5885 aec3 771a 4b61 96d0 7abe 9410 54d4 44a8 2005 9504 0b81 66e0 82a6 2d1b ff6e 919d 29ad 1718 63c7 8f0b 97c8 e9ae 82ae 43d3"));
+                    test.assertEqual(Iterable.create(":status: 307", "cache-control: private", "date: Mon, 21 Oct 2013 20:13:21 GMT", "location: https://www.example.com"),
+                        HpackDecoderTests.decode(decoder, "4883 640e ffc1 c0bf"));
+                    test.assertEqual(Iterable.create(":status: 200", "cache-control: private", "date: Mon, 21 Oct 2013 20:13:22 GMT", "location: https://www.example.com", "content-encoding: gzip", "set-cookie: foo=ASDJKHQKBZXOQWEOPIUAXQWEOIU; max-age=3600; version=1"),
+                        HpackDecoderTests.decode(decoder, "88c1 6196 d07a be94 1054 d444 a820 0595 040b 8166 e084 a62d 1bff c05a 839b d9ab 77ad 94e7 821d d7f2 e6c7 b335 dfdf cd5b 3960 d5af 2708 7f36 72c1 ab27 0fb5 291f 9587 3160 65c0 03ed 4ee5 b106 3d50 07"));
+                    test.assertEqual(3, decoder.getDynamicTable().getCount());
+                    test.assertEqual(215, decoder.getDynamicTable().getSize());
+                });
+
+                final Action2<String,Http2ProtocolException> errorTest = (String hex, Http2ProtocolException expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(hex), (Test test) ->
+                    {
+                        test.assertThrows(() -> HpackDecoderTests.decode(HpackDecoder.create(), hex),
+                            expected);
+                    });
+                };
+
+                errorTest.run("80",
+                    new Http2ProtocolException(Http2Frame.CompressionError, "A header field used the index 0, which isn't in the static or dynamic table."));
+                errorTest.run("be",
+                    new Http2ProtocolException(Http2Frame.CompressionError, "A header field used the index 62, which isn't in the static or dynamic table."));
+                errorTest.run("400a 6375",
+                    new Http2ProtocolException(Http2Frame.CompressionError, "A header block ended in the middle of a header field."));
+                errorTest.run("04",
+                    new Http2ProtocolException(Http2Frame.CompressionError, "A header block ended in the middle of a header field."));
+                errorTest.run("ff ff ff ff ff 0f",
+                    new Http2ProtocolException(Http2Frame.CompressionError, "An integer in a header block was too large."));
+                errorTest.run("3fe2 1f",
+                    new Http2ProtocolException(Http2Frame.CompressionError, "A dynamic table size update of 4097 bytes was larger than the maximum of 4096 bytes."));
+                errorTest.run("82 20",
+                    new Http2ProtocolException(Http2Frame.CompressionError, "A dynamic table size update came after the first header field of a header block."));
+                errorTest.run("0481 ff",
+                    new Http2ProtocolException(Http2Frame.CompressionError, "A Huffman-encoded string had invalid padding."));
+            });
+
+            runner.testGroup("decode(byte[],int,int,MutableHttpHeaders)", () ->
+            {
+                runner.test("with null headers", (Test test) ->
+                {
+                    test.assertThrows(() -> HpackDecoder.create().decode(new byte[0], 0, 0, (MutableHttpHeaders)null),
+                        new PreConditionFailure("headers cannot be null."));
+                });
+
+                runner.test("with RFC 7541 C.4.1 request", (Test test) ->
+                {
+                    final HpackDecoder decoder = HpackDecoder.create();
+                    final MutableHttpHeaders headers = HttpHeaders.create();
+                    final byte[] bytes = HpackDecoderTests.parseHex("8286 8441 8cf1 e3c2 e5f2 3a6b a0ab 90f4 ff");
+                    test.assertNull(decoder.decode(bytes, 0, bytes.length, headers).await());
+                    test.assertEqual(4, headers.getCount());
+                    test.assertEqual("GET", headers.getValue(":method").await());
+                    test.assertEqual("www.example.com", headers.getValue(":authority").await());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,99 @@
+package qub;
+
+public interface HpackDynamicTableTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(HpackDynamicTable.class, () ->
+        {
+            runner.testGroup("create(int)", () ->
+            {
+                runner.test("with negative maximumSize", (Test test) ->
+                {
+                    test.assertThrows(() -> HpackDynamicTable.create(-1),
+                        new PreConditionFailure("maximumSize (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with valid maximumSize", (Test test) ->
+                {
+                    final HpackDynamicTable table = HpackDynamicTable.create(100);
+                    test.assertEqual(0, table.getCount());
+                    test.assertEqual(0, table.getSize());
+                    test.assertEqual(100, table.getMaximumSize());
+                });
+            });
+
+            runner.testGroup("add(String,String)", () ->
+            {
+                runner.test("with entries that fit", (Test test) ->
+                {
+                    final HpackDynamicTable table = HpackDynamicTable.create(4096);
+                    test.assertSame(table, table.add("a", "1"));
+                    table.add("b", "2");
+                    test.assertEqual(2, table.getCount());
+                    test.assertEqual(68, table.getSize());
+                    test.assertEqual("b", table.getName(1));
+                    test.assertEqual("2", table.getValue(1));
+                    test.assertEqual("a", table.getName(2));
+                    test.assertEqual("1", table.getValue(2));
+                });
+
+                runner.test("with entry that evicts the oldest entry", (Test test) ->
+                {
+                    final HpackDynamicTable table = HpackDynamicTable.create(68);
+                    table.add("a", "1").add("b", "2").add("c", "3");
+                    test.assertEqual(2, table.getCount());
+                    test.assertEqual("c", table.getName(1));
+                    test.assertEqual("b", table.getName(2));
+                });
+
+                runner.test("with entry that is larger than the maximum size", (Test test) ->
+                {
+                    final HpackDynamicTable table = HpackDynamicTable.create(40);
+                    table.add("a", "1").add("abcdefgh", "1");
+                    test.assertEqual(0, table.getCount());
+                    test.assertEqual(0, table.getSize());
+                });
+
+                runner.test("with more entries than the initial capacity", (Test test) ->
+                {
+                    final HpackDynamicTable table = HpackDynamicTable.create(4096);
+                    for (int i = 0; i < 40; ++i)
+                    {
+                        table.add("name", Integers.toString(i));
+                    }
+                    test.assertEqual(40, table.getCount());
+                    test.assertEqual("39", table.getValue(1));
+                    test.assertEqual("0", table.getValue(40));
+                });
+            });
+
+            runner.test("setMaximumSize(int)", (Test test) ->
+            {
+                final HpackDynamicTable table = HpackDynamicTable.create(4096).add("a", "1").add("b", "2");
+                test.assertSame(table, table.setMaximumSize(34));
+                test.assertEqual(1, table.getCount());
+                test.assertEqual("b", table.getName(1));
+                table.setMaximumSize(0);
+                test.assertEqual(0, table.getCount());
+            });
+
+            runner.test("indexOf(String,String)", (Test test) ->
+            {
+                final HpackDynamicTable table = HpackDynamicTable.create(4096).add("a", "1").add("b", "2").add("a", "1");
+                test.assertEqual(1, table.indexOf("a", "1"));
+                test.assertEqual(2, table.indexOf("b", "2"));
+                test.assertEqual(0, table.indexOf("a", "2"));
+                test.assertEqual(0, table.indexOf("c", "1"));
+            });
+
+            runner.test("indexOfName(String)", (Test test) ->
+            {
+                final HpackDynamicTable table = HpackDynamicTable.create(4096).add("a", "1").add("b", "2");
+                test.assertEqual(2, table.indexOfName("a"));
+                test.assertEqual(1, table.indexOfName("b"));
+                test.assertEqual(0, table.indexOfName("c"));
+            });
+        });
+    }
+}
@@ -0,0 +1,222 @@
+package qub;
+
+public interface HpackEncoderTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(HpackEncoder.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final HpackEncoder encoder = HpackEncoder.create();
+                test.assertEqual(0, encoder.getLength());
+                test.assertEqual(new byte[0], encoder.getBytes());
+                test.assertEqual(HpackDecoder.DefaultMaximumTableSize, encoder.getMaximumTableSize());
+                test.assertEqual(0, encoder.getDynamicTable().getCount());
+            });
+
+            runner.test("create(int) with negative maximumTableSize", (Test test) ->
+            {
+                test.assertThrows(() -> HpackEncoder.create(-1),
+                    new PreConditionFailure("maximumTableSize (-1) must be greater than or equal to 0."));
+            });
+
+            runner.testGroup("writeHeader(String,String)", () ->
+            {
+                runner.test("with null headerName", (Test test) ->
+                {
+                    test.assertThrows(() -> HpackEncoder.create().writeHeader(null, "a"),
+                        new PreConditionFailure("headerName cannot be null."));
+                });
+
+                runner.test("with null headerValue", (Test test) ->
+                {
+                    test.assertThrows(() -> HpackEncoder.create().writeHeader("a", null),
+                        new PreConditionFailure("headerValue cannot be null."));
+                });
+
+                final Action3<String,String,String> writeHeaderTest = (String headerName, String headerValue, String expectedHex) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(headerName) + " and " + Strings.escapeAndQuote(headerValue), (Test test) ->
+                    {
+                        final HpackEncoder encoder = HpackEncoder.create();
+                        test.assertSame(encoder, encoder.writeHeader(headerName, headerValue));
+                        test.assertEqual(HpackDecoderTests.parseHex(expectedHex), encoder.getBytes());
+                    });
+                };
+
+                writeHeaderTest.run(":method", "GET", "82");
+                writeHeaderTest.run(":status", "200", "88");
+                writeHeaderTest.run(":path", "/sample/path", "4489 6103 a6ba 0ac5 634c ff");
+                writeHeaderTest.run("Cache-Control", "no-cache", "5886 a8eb 1064 9cbf");
+                writeHeaderTest.run("custom-key", "custom-header", "4088 25a8 49e9 5ba9 7d7f 8925 a849 e95a 728e 42d9");
+                writeHeaderTest.run("Authorization", "secret", "1f08 8441 4961 53");
+
+                runner.test("with repeated header field", (Test test) ->
+                {
+                    final HpackEncoder encoder = HpackEncoder.create();
+                    encoder.writeHeader("custom-key", "custom-header");
+                    test.assertEqual(1, encoder.getDynamicTable().getCount());
+                    test.assertEqual(55, encoder.getDynamicTable().getSize());
+
+                    encoder.clear().writeHeader("custom-key", "custom-header");
+                    test.assertEqual(HpackDecoderTests.parseHex("be"), encoder.getBytes());
+
+                    encoder.clear().writeHeader("custom-key", "other");
+                    test.assertEqual(HpackDecoderTests.parseHex("7e84 3a67 2d9f"), encoder.getBytes());
+                    test.assertEqual(2, encoder.getDynamicTable().getCount());
+                });
+
+                runner.test("with header field that is larger than the dynamic table", (Test test) ->
+                {
+                    final HpackEncoder encoder = HpackEncoder.create(64);
+                    encoder.writeHeader("custom-key", "custom-header");
+                    encoder.clear().writeHeader("x-large", "a value that is too large to fit in the table");
+                    test.assertEqual(0x00, encoder.getBytes()[0]);
+                    test.assertEqual(1, encoder.getDynamicTable().getCount());
+                });
+
+                final Action3<String,Integer,String[][]> rfcTest = (String testName, Integer maximumTableSize, String[][] headerBlocks) ->
+                {
+                    runner.test("with RFC 7541 " + testName, (Test test) ->
+                    {
+                        final HpackEncoder encoder = HpackEncoder.create(maximumTableSize);
+                        final HpackDecoder decoder = HpackDecoder.create(maximumTableSize);
+                        for (final String[] headerBlock : headerBlocks)
+                        {
+                            final String expectedHex = headerBlock[0];
+                            final List<String> expectedHeaders = List.create();
+                            encoder.clear();
+                            for (int i = 1; i < headerBlock.length; ++i)
+                            {
+                                final String header = headerBlock[i];
+                                final int colonIndex = header.indexOf(": ", 1);
+                                encoder.writeHeader(header.substring(0, colonIndex), header.substring(colonIndex + 2));
+                                expectedHeaders.add(header);
+                            }
+                            test.assertEqual(HpackDecoderTests.parseHex(expectedHex), encoder.getBytes());
+                            test.assertEqual(expectedHeaders, HpackDecoderTests.decode(decoder, expectedHex));
+                            test.assertEqual(decoder.getDynamicTable().getSize(), encoder.getDynamicTable().getSize());
+                        }
+                    });
+                };
+
+                rfcTest.run("C.4 requests with Huffman coding", HpackDecoder.DefaultMaximumTableSize, new String[][]
+                {
+                    { "8286 8441 8cf1 e3c2 e5f2 3a6b a0ab 90f4 ff",
+                        ":method: GET", ":scheme: http", ":path: /", ":authority: www.example.com" },
+                    { "8286 84be 5886 a8eb 1064 9cbf",
+                        ":method: GET", ":scheme: http", ":path: /", ":authority: www.example.com", "cache-control: no-cache" },
+                    { "8287 85bf 4088 25a8 49e9 5ba9 7d7f 8925 a849 e95b b8e8 b4bf",
+                        ":method: GET", ":scheme: https", ":path: /index.html", ":authority: www.example.com", "custom-key: custom-value" }
+                });
+                rfcTest.run("C.6 responses with Huffman coding and evictions", 256, new String[][]
+                {
+                    { "4882 6402 5885 aec3 771a 4b61 96d0 7abe 9410 54d4 44a8 2005 9504 0b81 66e0 82a6 2d1b ff6e 919d 29ad 1718 63c7 8f0b 97c8 e9ae 82ae 43d3",
+                        ":status: 302", "cache-control: private", "date: Mon, 21 Oct 2013 20:13:21 GMT", "location: https://www.example.com" },
+                    { "4883 640e ffc1 c0bf",
+                        ":status: 307", "cache-control: private", "date: Mon, 21 Oct 2013 20:13:21 GMT", "location: https://www.example.com" },
+                    { "88c1 6196 d07a be94 1054 d444 a820 0595 040b 8166 e084 a62d 1bff c05a 839b d9ab 77ad 94e7 821d d7f2 e6c7 b335 dfdf cd5b 3960 d5af 2708 7f36 72c1 ab27 0fb5 291f 9587 3160 65c0 03ed 4ee5 b106 3d50 07",
+                        ":status: 200", "cache-control: private", "date: Mon, 21 Oct 2013 20:13:22 GMT", "location: https://www.example.com", "content-encoding: gzip", "set-cookie: foo=ASDJKHQKBZXOQWEOPIUAXQWEOIU; max-age=3600; version=1" }
+                });
+            });
+
+            runner.testGroup("setMaximumTableSize(int)", () ->
+            {
+                runner.test("with negative maximumTableSize", (Test test) ->
+                {
+                    test.assertThrows(() -> HpackEncoder.create().setMaximumTableSize(-1),
+                        new PreConditionFailure("maximumTableSize (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with the same size", (Test test) ->
+                {
+                    final HpackEncoder encoder = HpackEncoder.create();
+                    test.assertSame(encoder, encoder.setMaximumTableSize(HpackDecoder.DefaultMaximumTableSize));
+                    encoder.writeHeader(":method", "GET");
+                    test.assertEqual(HpackDecoderTests.parseHex("82"), encoder.getBytes());
+                });
+
+                runner.test("with smaller size", (Test test) ->
+                {
+                    final HpackEncoder encoder = HpackEncoder.create();
+                    encoder.writeHeader("custom-key", "custom-header");
+                    test.assertSame(encoder, encoder.setMaximumTableSize(0));
+                    test.assertEqual(0, encoder.getMaximumTableSize());
+                    test.assertEqual(0, encoder.getDynamicTable().getCount());
+
+                    encoder.clear().writeHeader(":method", "GET");
+                    test.assertEqual(HpackDecoderTests.parseHex("2082"), encoder.getBytes());
+
+                    encoder.clear().writeHeader(":method", "GET");
+                    test.assertEqual(HpackDecoderTests.parseHex("82"), encoder.getBytes());
+                });
+
+                runner.test("with smaller size and then larger size", (Test test) ->
+                {
+                    final HpackEncoder encoder = HpackEncoder.create();
+                    encoder.setMaximumTableSize(0);
+                    encoder.setMaximumTableSize(100);
+                    encoder.writeHeader(":method", "GET");
+                    test.assertEqual(HpackDecoderTests.parseHex("203f 4582"), encoder.getBytes());
+
+                    final HpackDecoder decoder = HpackDecoder.create();
+                    test.assertEqual(Iterable.create(":method: GET"), HpackDecoderTests.decode(decoder, "203f 4582"));
+                    test.assertEqual(100, decoder.getDynamicTable().getMaximumSize());
+                });
+            });
+
+            runner.test("clear()", (Test test) ->
+            {
+                final HpackEncoder encoder = HpackEncoder.create().writeHeader(":method", "GET");
+                test.assertSame(encoder, encoder.clear());
+                test.assertEqual(0, encoder.getLength());
+            });
+
+            runner.testGroup("writeTo(Http2FrameWriter,int,boolean,int)", () ->
+            {
+                runner.test("with header block that fits in one frame", (Test test) ->
+                {
+                    final HpackEncoder encoder = HpackEncoder.create()
+                        .writeHeader(":method", "GET")
+                        .writeHeader(":path", "/");
+                    final InMemoryByteStream stream = InMemoryByteStream.create();
+                    encoder.writeTo(Http2FrameWriter.create(stream), 3, true, Http2Frame.DefaultMaximumFrameSize).await();
+                    stream.endOfStream();
+
+                    final Http2FrameReader reader = Http2FrameReader.create(stream, ByteBufferPool.create());
+                    final Http2Frame frame = Http2Frame.create();
+                    test.assertTrue(reader.readFrame(frame).await());
+                    test.assertEqual(Http2Frame.HeadersType, frame.getType());
+                    test.assertEqual(Http2Frame.EndStreamFlag | Http2Frame.EndHeadersFlag, frame.getFlags());
+                    test.assertEqual(3, frame.getStreamId());
+                    test.assertEqual(HpackDecoderTests.parseHex("8284"), java.util.Arrays.copyOf(frame.getPayload(), frame.getPayloadLength()));
+                    test.assertFalse(reader.readFrame(frame).await());
+                });
+
+                runner.test("with header block that needs a CONTINUATION frame", (Test test) ->
+                {
+                    final char[] longValue = new char[Http2Frame.DefaultMaximumFrameSize * 2];
+                    java.util.Arrays.fill(longValue, 'a');
+                    final HpackEncoder encoder = HpackEncoder.create()
+                        .writeHeader("x-long", new String(longValue));
+                    final InMemoryByteStream stream = InMemoryByteStream.create();
+                    encoder.writeTo(Http2FrameWriter.create(stream), 1, false, Http2Frame.DefaultMaximumFrameSize).await();
+                    stream.endOfStream();
+
+                    final Http2FrameReader reader = Http2FrameReader.create(stream, ByteBufferPool.create());
+                    final Http2Frame frame = Http2Frame.create();
+                    test.assertTrue(reader.readFrame(frame).await());
+                    test.assertEqual(Http2Frame.HeadersType, frame.getType());
+                    test.assertEqual(0, frame.getFlags());
+                    test.assertEqual(Http2Frame.DefaultMaximumFrameSize, frame.getPayloadLength());
+                    test.assertTrue(reader.readFrame(frame).await());
+                    test.assertEqual(Http2Frame.ContinuationType, frame.getType());
+                    test.assertEqual(Http2Frame.EndHeadersFlag, frame.getFlags());
+                    test.assertEqual(encoder.getLength() - Http2Frame.DefaultMaximumFrameSize, frame.getPayloadLength());
+                    test.assertFalse(reader.readFrame(frame).await());
+                });
+            });
+        });
+    }
+}
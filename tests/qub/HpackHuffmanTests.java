@@ -0,0 +1,76 @@
+package qub;
+
+public interface HpackHuffmanTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(HpackHuffman.class, () ->
+        {
+            runner.testGroup("encode(byte[],int,int,byte[],int)", () ->
+            {
+                runner.test("with null input", (Test test) ->
+                {
+                    test.assertThrows(() -> HpackHuffman.encode(null, 0, 0, new byte[0], 0),
+                        new PreConditionFailure("input cannot be null."));
+                });
+
+                runner.test("with null output", (Test test) ->
+                {
+                    test.assertThrows(() -> HpackHuffman.encode(new byte[0], 0, 0, null, 0),
+                        new PreConditionFailure("output cannot be null."));
+                });
+
+                final Action2<String,String> encodeTest = (String value, String expectedHex) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(value), (Test test) ->
+                    {
+                        final byte[] input = value.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                        final byte[] expected = HpackDecoderTests.parseHex(expectedHex);
+                        test.assertEqual(expected.length, HpackHuffman.getEncodedLength(input, 0, input.length));
+
+                        final byte[] output = new byte[expected.length + 2];
+                        test.assertEqual(expected.length, HpackHuffman.encode(input, 0, input.length, output, 1));
+                        test.assertEqual(expected, java.util.Arrays.copyOfRange(output, 1, expected.length + 1));
+
+                        final byte[] decoded = new byte[HpackHuffman.getMaximumDecodedLength(expected.length)];
+                        final int decodedLength = HpackHuffman.decode(expected, 0, expected.length, decoded, 0);
+                        test.assertEqual(input, java.util.Arrays.copyOf(decoded, decodedLength));
+                    });
+                };
+
+                encodeTest.run("", "");
+                encodeTest.run("www.example.com", "f1e3 c2e5 f23a 6ba0 ab90 f4ff");
+                encodeTest.run("no-cache", "a8eb 1064 9cbf");
+                encodeTest.run("custom-key", "25a8 49e9 5ba9 7d7f");
+                encodeTest.run("custom-value", "25a8 49e9 5bb8 e8b4 bf");
+                encodeTest.run("302", "6402");
+                encodeTest.run("Mon, 21 Oct 2013 20:13:21 GMT", "d07a be94 1054 d444 a820 0595 040b 8166 e082 a62d 1bff");
+
+                runner.test("with every byte value", (Test test) ->
+                {
+                    final byte[] input = new byte[256];
+                    for (int i = 0; i < input.length; ++i)
+                    {
+                        input[i] = (byte)i;
+                    }
+                    final byte[] encoded = new byte[HpackHuffman.getEncodedLength(input, 0, input.length)];
+                    test.assertEqual(encoded.length, HpackHuffman.encode(input, 0, input.length, encoded, 0));
+
+                    final byte[] decoded = new byte[HpackHuffman.getMaximumDecodedLength(encoded.length)];
+                    final int decodedLength = HpackHuffman.decode(encoded, 0, encoded.length, decoded, 0);
+                    test.assertEqual(input, java.util.Arrays.copyOf(decoded, decodedLength));
+                });
+            });
+
+            runner.testGroup("encode(String,byte[],int)", () ->
+            {
+                runner.test("with \"www.example.com\"", (Test test) ->
+                {
+                    final byte[] output = new byte[HpackHuffman.getEncodedLength("www.example.com")];
+                    test.assertEqual(output.length, HpackHuffman.encode("www.example.com", output, 0));
+                    test.assertEqual(HpackDecoderTests.parseHex("f1e3 c2e5 f23a 6ba0 ab90 f4ff"), output);
+                });
+            });
+        });
+    }
+}
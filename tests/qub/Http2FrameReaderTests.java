@@ -0,0 +1,174 @@
+package qub;
+
+public interface Http2FrameReaderTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(Http2FrameReader.class, () ->
+        {
+            runner.testGroup("create(ByteReadStream,ByteBufferPool)", () ->
+            {
+                runner.test("with null innerStream", (Test test) ->
+                {
+                    test.assertThrows(() -> Http2FrameReader.create(null, ByteBufferPool.create()),
+                        new PreConditionFailure("innerStream cannot be null."));
+                });
+
+                runner.test("with null bufferPool", (Test test) ->
+                {
+                    test.assertThrows(() -> Http2FrameReader.create(InMemoryByteStream.create().endOfStream(), null),
+                        new PreConditionFailure("bufferPool cannot be null."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final Http2FrameReader reader = Http2FrameReader.create(InMemoryByteStream.create().endOfStream(), ByteBufferPool.create());
+                    test.assertEqual(Http2Frame.DefaultMaximumFrameSize, reader.getMaximumFrameSize());
+                    test.assertFalse(reader.isDisposed());
+                });
+            });
+
+            runner.testGroup("setMaximumFrameSize(int)", () ->
+            {
+                runner.test("with too small maximumFrameSize", (Test test) ->
+                {
+                    final Http2FrameReader reader = Http2FrameReader.create(InMemoryByteStream.create().endOfStream(), ByteBufferPool.create());
+                    test.assertThrows(() -> reader.setMaximumFrameSize(16383),
+                        new PreConditionFailure("maximumFrameSize (16383) must be greater than or equal to 16384."));
+                });
+
+                runner.test("with largest maximumFrameSize", (Test test) ->
+                {
+                    final Http2FrameReader reader = Http2FrameReader.create(InMemoryByteStream.create().endOfStream(), ByteBufferPool.create());
+                    test.assertSame(reader, reader.setMaximumFrameSize(Http2Frame.LargestMaximumFrameSize));
+                    test.assertEqual(Http2Frame.LargestMaximumFrameSize, reader.getMaximumFrameSize());
+                });
+            });
+
+            runner.testGroup("readClientPreface()", () ->
+            {
+                runner.test("with empty stream", (Test test) ->
+                {
+                    final Http2FrameReader reader = Http2FrameReader.create(InMemoryByteStream.create().endOfStream(), ByteBufferPool.create());
+                    test.assertFalse(reader.readClientPreface().await());
+                });
+
+                runner.test("with client preface", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create("PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).endOfStream();
+                    final Http2FrameReader reader = Http2FrameReader.create(stream, ByteBufferPool.create());
+                    test.assertTrue(reader.readClientPreface().await());
+                });
+
+                runner.test("with HTTP/1.1 request", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create("GET / HTTP/1.1\r\nHost: example.com\r\n\r\n".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).endOfStream();
+                    final Http2FrameReader reader = Http2FrameReader.create(stream, ByteBufferPool.create());
+                    test.assertThrows(() -> reader.readClientPreface().await(),
+                        new Http2ProtocolException(Http2Frame.ProtocolError, "The connection didn't start with the HTTP/2 client preface."));
+                });
+            });
+
+            runner.testGroup("readFrame(Http2Frame)", () ->
+            {
+                runner.test("with null frame", (Test test) ->
+                {
+                    final Http2FrameReader reader = Http2FrameReader.create(InMemoryByteStream.create().endOfStream(), ByteBufferPool.create());
+                    test.assertThrows(() -> reader.readFrame(null),
+                        new PreConditionFailure("frame cannot be null."));
+                });
+
+                runner.test("with empty stream", (Test test) ->
+                {
+                    final Http2FrameReader reader = Http2FrameReader.create(InMemoryByteStream.create().endOfStream(), ByteBufferPool.create());
+                    test.assertFalse(reader.readFrame(Http2Frame.create()).await());
+                });
+
+                runner.test("with empty SETTINGS frame", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create(new byte[] { 0, 0, 0, 4, 0, 0, 0, 0, 0 }).endOfStream();
+                    final Http2FrameReader reader = Http2FrameReader.create(stream, ByteBufferPool.create());
+                    final Http2Frame frame = Http2Frame.create();
+                    test.assertTrue(reader.readFrame(frame).await());
+                    test.assertEqual(Http2Frame.SettingsType, frame.getType());
+                    test.assertEqual(0, frame.getFlags());
+                    test.assertEqual(0, frame.getStreamId());
+                    test.assertEqual(0, frame.getPayloadLength());
+                    test.assertFalse(reader.readFrame(frame).await());
+                });
+
+                runner.test("with reserved stream identifier bit", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create(new byte[] { 0, 0, 1, 0, 1, (byte)0x80, 0, 0, 5, 42 }).endOfStream();
+                    final Http2FrameReader reader = Http2FrameReader.create(stream, ByteBufferPool.create());
+                    final Http2Frame frame = Http2Frame.create();
+                    test.assertTrue(reader.readFrame(frame).await());
+                    test.assertEqual(Http2Frame.DataType, frame.getType());
+                    test.assertTrue(frame.hasFlag(Http2Frame.EndStreamFlag));
+                    test.assertEqual(5, frame.getStreamId());
+                    test.assertEqual(1, frame.getPayloadLength());
+                    test.assertEqual(42, frame.getPayload()[0]);
+                });
+
+                final Action1<Integer> roundTripTest = (Integer length) ->
+                {
+                    runner.test("with " + length + " byte DATA frame written by Http2FrameWriter", (Test test) ->
+                    {
+                        final byte[] payload = new byte[length];
+                        for (int i = 0; i < length; ++i)
+                        {
+                            payload[i] = (byte)i;
+                        }
+
+                        final ByteBufferPool bufferPool = ByteBufferPool.create();
+                        final InMemoryByteStream stream = InMemoryByteStream.create();
+                        Http2FrameWriter.create(stream).writeFrame(Http2Frame.DataType, Http2Frame.EndStreamFlag, 7, payload, 0, length).await();
+                        stream.endOfStream();
+
+                        try (final Http2FrameReader reader = Http2FrameReader.create(stream, bufferPool))
+                        {
+                            reader.setMaximumFrameSize(Math.maximum(length, Http2Frame.DefaultMaximumFrameSize));
+                            final Http2Frame frame = Http2Frame.create();
+                            test.assertTrue(reader.readFrame(frame).await());
+                            test.assertEqual(Http2Frame.DataType, frame.getType());
+                            test.assertEqual(Http2Frame.EndStreamFlag, frame.getFlags());
+                            test.assertEqual(7, frame.getStreamId());
+                            test.assertEqual(length, frame.getPayloadLength());
+                            test.assertEqual(payload, java.util.Arrays.copyOf(frame.getPayload(), frame.getPayloadLength()));
+                        }
+                        test.assertEqual(0, bufferPool.getLeasedCount());
+                    });
+                };
+
+                roundTripTest.run(0);
+                roundTripTest.run(1);
+                roundTripTest.run(16384);
+                roundTripTest.run(100001);
+
+                runner.test("with payload longer than the maximum", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create(new byte[] { 0, 0x40, 1, 0, 0, 0, 0, 0, 1 }).endOfStream();
+                    final Http2FrameReader reader = Http2FrameReader.create(stream, ByteBufferPool.create());
+                    test.assertThrows(() -> reader.readFrame(Http2Frame.create()).await(),
+                        new Http2ProtocolException(Http2Frame.FrameSizeError, "A frame's payload was longer than the maximum of 16384 bytes."));
+                });
+
+                runner.test("with truncated frame header", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create(new byte[] { 0, 0, 0, 4 }).endOfStream();
+                    final Http2FrameReader reader = Http2FrameReader.create(stream, ByteBufferPool.create());
+                    test.assertThrows(() -> reader.readFrame(Http2Frame.create()).await(),
+                        new ParseException("The HTTP/2 connection ended in the middle of a frame."));
+                });
+
+                runner.test("with truncated payload", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create(new byte[] { 0, 0, 4, 0, 0, 0, 0, 0, 1, 1, 2 }).endOfStream();
+                    final Http2FrameReader reader = Http2FrameReader.create(stream, ByteBufferPool.create());
+                    test.assertThrows(() -> reader.readFrame(Http2Frame.create()).await(),
+                        new ParseException("The HTTP/2 connection ended in the middle of a frame."));
+                });
+            });
+        });
+    }
+}
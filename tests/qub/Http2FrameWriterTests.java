@@ -0,0 +1,68 @@
+package qub;
+
+public interface Http2FrameWriterTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(Http2FrameWriter.class, () ->
+        {
+            runner.test("create(ByteWriteStream) with null innerStream", (Test test) ->
+            {
+                test.assertThrows(() -> Http2FrameWriter.create(null),
+                    new PreConditionFailure("innerStream cannot be null."));
+            });
+
+            final Action3<String,Action1<Http2FrameWriter>,byte[]> writeTest = (String testName, Action1<Http2FrameWriter> writeAction, byte[] expected) ->
+            {
+                runner.test(testName, (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create();
+                    writeAction.run(Http2FrameWriter.create(stream));
+                    test.assertEqual(expected, stream.getBytes());
+                });
+            };
+
+            writeTest.run("writeFrame() with empty payload",
+                (Http2FrameWriter writer) -> writer.writeFrame(Http2Frame.DataType, Http2Frame.EndStreamFlag, 1, new byte[0], 0, 0).await(),
+                new byte[] { 0, 0, 0, 0, 1, 0, 0, 0, 1 });
+            writeTest.run("writeFrame() with payload",
+                (Http2FrameWriter writer) -> writer.writeFrame(Http2Frame.DataType, 0, 0x01020304, new byte[] { 9, 8, 7 }, 1, 2).await(),
+                new byte[] { 0, 0, 2, 0, 0, 1, 2, 3, 4, 8, 7 });
+            writeTest.run("writeSettings() with no settings",
+                (Http2FrameWriter writer) -> writer.writeSettings().await(),
+                new byte[] { 0, 0, 0, 4, 0, 0, 0, 0, 0 });
+            writeTest.run("writeSettings() with one setting",
+                (Http2FrameWriter writer) -> writer.writeSettings(Http2Frame.MaximumConcurrentStreamsSetting, 100).await(),
+                new byte[] { 0, 0, 6, 4, 0, 0, 0, 0, 0, 0, 3, 0, 0, 0, 100 });
+            writeTest.run("writeSettingsAck()",
+                (Http2FrameWriter writer) -> writer.writeSettingsAck().await(),
+                new byte[] { 0, 0, 0, 4, 1, 0, 0, 0, 0 });
+            writeTest.run("writePing()",
+                (Http2FrameWriter writer) -> writer.writePing(true, new byte[] { 0, 1, 2, 3, 4, 5, 6, 7, 8 }, 1).await(),
+                new byte[] { 0, 0, 8, 6, 1, 0, 0, 0, 0, 1, 2, 3, 4, 5, 6, 7, 8 });
+            writeTest.run("writeWindowUpdate()",
+                (Http2FrameWriter writer) -> writer.writeWindowUpdate(3, 65536).await(),
+                new byte[] { 0, 0, 4, 8, 0, 0, 0, 0, 3, 0, 1, 0, 0 });
+            writeTest.run("writeRstStream()",
+                (Http2FrameWriter writer) -> writer.writeRstStream(5, Http2Frame.CancelError).await(),
+                new byte[] { 0, 0, 4, 3, 0, 0, 0, 0, 5, 0, 0, 0, 8 });
+            writeTest.run("writeGoAway()",
+                (Http2FrameWriter writer) -> writer.writeGoAway(7, Http2Frame.ProtocolError).await(),
+                new byte[] { 0, 0, 8, 7, 0, 0, 0, 0, 0, 0, 0, 0, 7, 0, 0, 0, 1 });
+
+            runner.test("writeSettings() with odd number of values", (Test test) ->
+            {
+                final Http2FrameWriter writer = Http2FrameWriter.create(InMemoryByteStream.create());
+                test.assertThrows(() -> writer.writeSettings(Http2Frame.MaximumConcurrentStreamsSetting),
+                    new PreConditionFailure("settings must contain identifier and value pairs."));
+            });
+
+            runner.test("writeWindowUpdate() with zero increment", (Test test) ->
+            {
+                final Http2FrameWriter writer = Http2FrameWriter.create(InMemoryByteStream.create());
+                test.assertThrows(() -> writer.writeWindowUpdate(0, 0),
+                    new PreConditionFailure("increment (0) must be greater than or equal to 1."));
+            });
+        });
+    }
+}
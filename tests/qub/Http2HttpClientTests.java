@@ -0,0 +1,191 @@
+package qub;
+
+public interface Http2HttpClientTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(Http2HttpClient.class, () ->
+        {
+            runner.testGroup("create(Network,AsyncRunner)", () ->
+            {
+                runner.test("with null network",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    test.assertThrows(() -> Http2HttpClient.create(null, process.getParallelAsyncRunner()),
+                        new PreConditionFailure("network cannot be null."));
+                });
+
+                runner.test("with null asyncRunner",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    test.assertThrows(() -> Http2HttpClient.create(process.getNetwork(), null),
+                        new PreConditionFailure("asyncRunner cannot be null."));
+                });
+
+                runner.test("with valid arguments",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final Http2HttpClient client = Http2HttpClient.create(process.getNetwork(), process.getParallelAsyncRunner()))
+                    {
+                        test.assertSame(ByteBufferPool.getShared(), client.getBufferPool());
+                        test.assertEqual(0, client.getConnectionCount());
+                        test.assertFalse(client.isDisposed());
+                    }
+                });
+            });
+
+            runner.testGroup("send(HttpRequest)", () ->
+            {
+                runner.test("with null request",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final Http2HttpClient client = Http2HttpClient.create(process.getNetwork(), process.getParallelAsyncRunner()))
+                    {
+                        test.assertThrows(() -> client.send(null),
+                            new PreConditionFailure("request cannot be null."));
+                    }
+                });
+
+                runner.test("with disposed client",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Http2HttpClient client = Http2HttpClient.create(process.getNetwork(), process.getParallelAsyncRunner());
+                    test.assertTrue(client.dispose().await());
+                    test.assertFalse(client.dispose().await());
+                    test.assertThrows(() -> client.send(HttpRequest.get("http://localhost/").await()),
+                        new PreConditionFailure("this.isDisposed() cannot be true."));
+                });
+
+                runner.test("with GET requests to an HTTP/2 HttpServer",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setHttp2Enabled(true);
+                        httpServer.setPath("/hello", (HttpRequest request) ->
+                        {
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setHeader("x-version", request.getHttpVersion())
+                                .setBody("hello");
+                        });
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try (final Http2HttpClient client = Http2HttpClient.create(process.getNetwork(), process.getParallelAsyncRunner()))
+                        {
+                            final String baseUrl = "http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort();
+                            try (final HttpResponse response = client.get(baseUrl + "/hello").await())
+                            {
+                                test.assertEqual("HTTP/2.0", response.getHttpVersion());
+                                test.assertEqual(200, response.getStatusCode());
+                                test.assertEqual("HTTP/2.0", response.getHeaderValue("x-version").await());
+                                test.assertEqual("hello", CharacterReadStream.create(response.getBody()).readEntireString().await());
+                            }
+                            try (final HttpResponse response = client.get(baseUrl + "/missing").await())
+                            {
+                                test.assertEqual(404, response.getStatusCode());
+                            }
+                            test.assertEqual(1, client.getConnectionCount());
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+
+                runner.test("with concurrent requests",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setHttp2Enabled(true);
+                        httpServer.setPath("/echo", (HttpRequest request) ->
+                        {
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody(request.getQuery());
+                        });
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try (final Http2HttpClient client = Http2HttpClient.create(process.getNetwork(), process.getParallelAsyncRunner()))
+                        {
+                            final String baseUrl = "http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort();
+                            final List<Result<String>> responseBodies = List.create();
+                            for (int i = 0; i < 20; ++i)
+                            {
+                                final String query = "i=" + i;
+                                responseBodies.add(process.getParallelAsyncRunner().schedule(() ->
+                                {
+                                    try (final HttpResponse response = client.get(baseUrl + "/echo?" + query).await())
+                                    {
+                                        return CharacterReadStream.create(response.getBody()).readEntireString().await();
+                                    }
+                                }));
+                            }
+
+                            for (int i = 0; i < 20; ++i)
+                            {
+                                test.assertEqual("i=" + i, responseBodies.get(i).await());
+                            }
+                            test.assertEqual(1, client.getConnectionCount());
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+
+                runner.test("with request and response bodies larger than the flow-control windows",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setHttp2Enabled(true);
+                        httpServer.setPath("/echo", (HttpRequest request) ->
+                        {
+                            return HttpResponse.create()
+                                .setStatusCode(200)
+                                .setBody(request.getBody().readAllBytes().await());
+                        });
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try (final Http2HttpClient client = Http2HttpClient.create(process.getNetwork(), process.getParallelAsyncRunner()))
+                        {
+                            final byte[] requestBody = new byte[200000];
+                            for (int i = 0; i < requestBody.length; ++i)
+                            {
+                                requestBody[i] = (byte)i;
+                            }
+                            final MutableHttpRequest request = HttpRequest.create()
+                                .setMethod(HttpMethod.POST)
+                                .setUrl(URL.parse("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/echo").await())
+                                .setBody(requestBody);
+                            try (final HttpResponse response = client.send(request).await())
+                            {
+                                test.assertEqual(200, response.getStatusCode());
+                                test.assertEqual(requestBody, response.getBody().readAllBytes().await());
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+            });
+        });
+    }
+}
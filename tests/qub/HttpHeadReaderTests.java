@@ -0,0 +1,191 @@
+package qub;
+
+public interface HttpHeadReaderTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(HttpHeadReader.class, () ->
+        {
+            final Function1<String,ByteReadStream> createStream = (String text) ->
+            {
+                final InMemoryCharacterToByteStream result = InMemoryCharacterToByteStream.create();
+                result.write(text).await();
+                return result.endOfStream();
+            };
+
+            runner.testGroup("readLine(ByteReadStream)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final HttpHeadReader reader = HttpHeadReader.create();
+                    test.assertThrows(() -> reader.readLine(null),
+                        new PreConditionFailure("byteReadStream cannot be null."));
+                });
+
+                final Action2<String,Iterable<String>> readLineTest = (String text, Iterable<String> expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        final HttpHeadReader reader = HttpHeadReader.create();
+                        final ByteReadStream stream = createStream.run(text);
+                        for (final String expectedLine : expected)
+                        {
+                            test.assertEqual(expectedLine, reader.readLine(stream).await());
+                        }
+                        test.assertNull(reader.readLine(stream).await());
+                    });
+                };
+
+                readLineTest.run("", Iterable.create());
+                readLineTest.run("GET / HTTP/1.1", Iterable.create("GET / HTTP/1.1"));
+                readLineTest.run("GET / HTTP/1.1\r\n", Iterable.create("GET / HTTP/1.1"));
+                readLineTest.run("a\nb\r\n\r\nc", Iterable.create("a", "b", "", "c"));
+            });
+
+            runner.testGroup("setMaximumLineLength(int)", () ->
+            {
+                runner.test("with 0", (Test test) ->
+                {
+                    final HttpHeadReader reader = HttpHeadReader.create();
+                    test.assertThrows(() -> reader.setMaximumLineLength(0),
+                        new PreConditionFailure("maximumLineLength (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with line at the maximum", (Test test) ->
+                {
+                    final HttpHeadReader reader = HttpHeadReader.create();
+                    test.assertSame(reader, reader.setMaximumLineLength(5));
+                    test.assertEqual(5, reader.getMaximumLineLength());
+                    final ByteReadStream stream = createStream.run("abcde\r\nfg");
+                    test.assertEqual("abcde", reader.readLine(stream).await());
+                    test.assertEqual("fg", reader.readLine(stream).await());
+                });
+
+                runner.test("with line longer than the maximum", (Test test) ->
+                {
+                    final HttpHeadReader reader = HttpHeadReader.create()
+                        .setMaximumLineLength(5);
+                    final ByteReadStream stream = createStream.run("abcdef\r\n");
+                    test.assertThrows(() -> reader.readLine(stream).await(),
+                        new HttpLimitExceededException(414, "The line was longer than the maximum of 5 bytes."));
+                });
+
+                runner.test("with carriage return that doesn't end the line", (Test test) ->
+                {
+                    final HttpHeadReader reader = HttpHeadReader.create()
+                        .setMaximumLineLength(5);
+                    final ByteReadStream stream = createStream.run("abcde\rfgh\r\n");
+                    test.assertThrows(() -> reader.readLine(stream).await(),
+                        new HttpLimitExceededException(414, "The line was longer than the maximum of 5 bytes."));
+                });
+            });
+
+            runner.testGroup("setMaximumHeaderBytes(int)", () ->
+            {
+                runner.test("with -1", (Test test) ->
+                {
+                    final HttpHeadReader reader = HttpHeadReader.create();
+                    test.assertThrows(() -> reader.setMaximumHeaderBytes(-1),
+                        new PreConditionFailure("maximumHeaderBytes (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with headers at the maximum", (Test test) ->
+                {
+                    final HttpHeadReader reader = HttpHeadReader.create();
+                    test.assertSame(reader, reader.setMaximumHeaderBytes(6));
+                    test.assertEqual(6, reader.getMaximumHeaderBytes());
+                    final ByteReadStream stream = createStream.run("a: b\r\n\r\n");
+                    test.assertEqual(
+                        Iterable.create(HttpHeader.create("a", "b")),
+                        reader.readHeaders(stream).await().toList());
+                });
+
+                runner.test("with headers larger than the maximum", (Test test) ->
+                {
+                    final HttpHeadReader reader = HttpHeadReader.create()
+                        .setMaximumHeaderBytes(6);
+                    final ByteReadStream stream = createStream.run("a: bc\r\n\r\n");
+                    test.assertThrows(() -> reader.readHeaders(stream).await(),
+                        new HttpLimitExceededException(431, "The header block was longer than the maximum of 6 bytes."));
+                });
+            });
+
+            runner.testGroup("setMaximumHeaderCount(int)", () ->
+            {
+                runner.test("with -1", (Test test) ->
+                {
+                    final HttpHeadReader reader = HttpHeadReader.create();
+                    test.assertThrows(() -> reader.setMaximumHeaderCount(-1),
+                        new PreConditionFailure("maximumHeaderCount (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with headers at the maximum", (Test test) ->
+                {
+                    final HttpHeadReader reader = HttpHeadReader.create();
+                    test.assertSame(reader, reader.setMaximumHeaderCount(2));
+                    test.assertEqual(2, reader.getMaximumHeaderCount());
+                    final ByteReadStream stream = createStream.run("a: b\r\nc: d\r\n\r\n");
+                    test.assertEqual(2, reader.readHeaders(stream).await().toList().getCount());
+                });
+
+                runner.test("with more headers than the maximum", (Test test) ->
+                {
+                    final HttpHeadReader reader = HttpHeadReader.create()
+                        .setMaximumHeaderCount(1);
+                    final ByteReadStream stream = createStream.run("a: b\r\nc: d\r\n\r\n");
+                    test.assertThrows(() -> reader.readHeaders(stream).await(),
+                        new HttpLimitExceededException(431, "The header block contained more than the maximum of 1 headers."));
+                });
+            });
+
+            runner.testGroup("readHeaders(ByteReadStream)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final HttpHeadReader reader = HttpHeadReader.create();
+                    test.assertThrows(() -> reader.readHeaders(null),
+                        new PreConditionFailure("byteReadStream cannot be null."));
+                });
+
+                runner.test("after readLine(ByteReadStream)", (Test test) ->
+                {
+                    final HttpHeadReader reader = HttpHeadReader.create();
+                    final ByteReadStream stream = createStream.run("GET / HTTP/1.1\r\na: b\r\nc: d\r\n\r\nbody");
+                    test.assertEqual("GET / HTTP/1.1", reader.readLine(stream).await());
+                    test.assertEqual(
+                        Iterable.create(
+                            HttpHeader.create("a", "b"),
+                            HttpHeader.create("c", "d")),
+                        reader.readHeaders(stream).await().toList());
+                    test.assertEqual("body", reader.readLine(stream).await());
+                });
+
+                runner.test("with PooledBufferedByteReadStream", (Test test) ->
+                {
+                    final HttpHeadReader reader = HttpHeadReader.create();
+                    final PooledBufferedByteReadStream stream = PooledBufferedByteReadStream.create(createStream.run("GET / HTTP/1.1\r\na: b\r\nc: d\r\n\r\nbody"), ByteBufferPool.create(), 4);
+                    test.assertEqual("GET / HTTP/1.1", reader.readLine(stream).await());
+                    test.assertEqual(
+                        Iterable.create(
+                            HttpHeader.create("a", "b"),
+                            HttpHeader.create("c", "d")),
+                        reader.readHeaders(stream).await().toList());
+                    test.assertEqual(new byte[] { 'b', 'o', 'd', 'y' }, stream.readAllBytes().await());
+                });
+
+                runner.test("with headers larger than the initial buffer", (Test test) ->
+                {
+                    final CharacterList cookieCharacters = CharacterList.create();
+                    for (int i = 0; i < 1000; ++i)
+                    {
+                        cookieCharacters.add('x');
+                    }
+                    final String cookie = cookieCharacters.toString();
+                    final HttpHeadReader reader = HttpHeadReader.create();
+                    final ByteReadStream stream = createStream.run("Cookie: " + cookie + "\r\n\r\n");
+                    test.assertEqual(cookie, reader.readHeaders(stream).await().getValue("cookie").await());
+                });
+            });
+        });
+    }
+}
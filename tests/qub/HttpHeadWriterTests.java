@@ -0,0 +1,101 @@
+package qub;
+
+public interface HttpHeadWriterTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(HttpHeadWriter.class, () ->
+        {
+            final Function1<HttpHeadWriter,String> getText = (HttpHeadWriter writer) ->
+                new String(writer.getBytes(), java.nio.charset.StandardCharsets.UTF_8);
+
+            runner.test("create()", (Test test) ->
+            {
+                final HttpHeadWriter writer = HttpHeadWriter.create();
+                test.assertEqual(0, writer.getLength());
+                test.assertEqual(new byte[0], writer.getBytes());
+            });
+
+            runner.testGroup("writeStatusLine(String,int,String)", () ->
+            {
+                runner.test("with null httpVersion", (Test test) ->
+                {
+                    final HttpHeadWriter writer = HttpHeadWriter.create();
+                    test.assertThrows(() -> writer.writeStatusLine(null, 200, "OK"),
+                        new PreConditionFailure("httpVersion cannot be null."));
+                });
+
+                final Action4<String,Integer,String,String> writeStatusLineTest = (String httpVersion, Integer statusCode, String reasonPhrase, String expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(httpVersion), statusCode, Strings.escapeAndQuote(reasonPhrase)), (Test test) ->
+                    {
+                        final HttpHeadWriter writer = HttpHeadWriter.create();
+                        final HttpHeadWriter writeResult = writer.writeStatusLine(httpVersion, statusCode, reasonPhrase);
+                        test.assertSame(writer, writeResult);
+                        test.assertEqual(expected, getText.run(writer));
+                    });
+                };
+
+                writeStatusLineTest.run("HTTP/1.1", 200, "OK", "HTTP/1.1 200 OK\r\n");
+                writeStatusLineTest.run("HTTP/1.1", 5, null, "HTTP/1.1 5 \r\n");
+                writeStatusLineTest.run("HTTP/1.1", 40, "Forty", "HTTP/1.1 40 Forty\r\n");
+                writeStatusLineTest.run("HTTP/1.0", 1234, "Big", "HTTP/1.0 1234 Big\r\n");
+            });
+
+            runner.test("writeRequestLine(String,String,String)", (Test test) ->
+            {
+                final HttpHeadWriter writer = HttpHeadWriter.create();
+                final HttpHeadWriter writeResult = writer.writeRequestLine("GET", "/a?b=c", "HTTP/1.1");
+                test.assertSame(writer, writeResult);
+                test.assertEqual("GET /a?b=c HTTP/1.1\r\n", getText.run(writer));
+            });
+
+            runner.testGroup("writeHeader(String,String)", () ->
+            {
+                runner.test("with null headerName", (Test test) ->
+                {
+                    final HttpHeadWriter writer = HttpHeadWriter.create();
+                    test.assertThrows(() -> writer.writeHeader(null, "b"),
+                        new PreConditionFailure("headerName cannot be null."));
+                });
+
+                runner.test("with ASCII value", (Test test) ->
+                {
+                    final HttpHeadWriter writer = HttpHeadWriter.create();
+                    writer.writeHeader("a", "b");
+                    test.assertEqual("a:b\r\n", getText.run(writer));
+                });
+
+                runner.test("with non-ASCII value", (Test test) ->
+                {
+                    final HttpHeadWriter writer = HttpHeadWriter.create();
+                    writer.writeHeader("a", "\u00e9t\u00e9");
+                    test.assertEqual("a:\u00e9t\u00e9\r\n", getText.run(writer));
+                });
+            });
+
+            runner.test("clear()", (Test test) ->
+            {
+                final HttpHeadWriter writer = HttpHeadWriter.create()
+                    .writeStatusLine("HTTP/1.1", 200, "OK")
+                    .writeHeaders(HttpHeaders.create().set("a", "b"))
+                    .writeEndOfHead();
+                test.assertEqual("HTTP/1.1 200 OK\r\na:b\r\n\r\n", getText.run(writer));
+
+                final HttpHeadWriter clearResult = writer.clear();
+                test.assertSame(writer, clearResult);
+                test.assertEqual(0, writer.getLength());
+            });
+
+            runner.test("writeTo(ByteWriteStream)", (Test test) ->
+            {
+                final HttpHeadWriter writer = HttpHeadWriter.create()
+                    .writeRequestLine("GET", "/", "HTTP/1.1")
+                    .writeEndOfHead();
+                final InMemoryByteStream stream = InMemoryByteStream.create();
+                writer.writeTo(stream).await();
+                test.assertEqual(writer.getBytes(), stream.getBytes());
+            });
+        });
+    }
+}
@@ -36,6 +36,85 @@ public interface HttpHeaderTests
                 createTest.run("user-agent", "qub-browser");
             });
 
+            runner.testGroup("isContentLengthName(String)", () ->
+            {
+                final Action2<String,Boolean> isContentLengthNameTest = (String headerName, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(headerName), (Test test) ->
+                    {
+                        test.assertEqual(expected, HttpHeader.isContentLengthName(headerName));
+                    });
+                };
+
+                isContentLengthNameTest.run(null, false);
+                isContentLengthNameTest.run("", false);
+                isContentLengthNameTest.run("Content-Type", false);
+                isContentLengthNameTest.run("Content-Length", true);
+                isContentLengthNameTest.run("content-length", true);
+                isContentLengthNameTest.run("CONTENT-LENGTH", true);
+            });
+
+            runner.testGroup("containsToken(String,String)", () ->
+            {
+                final Action3<String,String,Boolean> containsTokenTest = (String headerValue, String token, Boolean expected) ->
+                {
+                    runner.test("with " + English.andList(Iterable.create(headerValue, token).map(Strings::escapeAndQuote)), (Test test) ->
+                    {
+                        test.assertEqual(expected, HttpHeader.containsToken(headerValue, token));
+                    });
+                };
+
+                containsTokenTest.run(null, "close", false);
+                containsTokenTest.run("", "close", false);
+                containsTokenTest.run("close", "close", true);
+                containsTokenTest.run("Close", "close", true);
+                containsTokenTest.run("closed", "close", false);
+                containsTokenTest.run("keep-alive, Upgrade", "upgrade", true);
+                containsTokenTest.run("keep-alive ,  upgrade  ", "upgrade", true);
+                containsTokenTest.run("keep-alive,,upgrade", "upgrade", true);
+                containsTokenTest.run("upgrade-insecure", "upgrade", false);
+            });
+
+            runner.testGroup("isChunkedTransferEncoding(String)", () ->
+            {
+                final Action2<String,Boolean> isChunkedTransferEncodingTest = (String transferEncoding, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(transferEncoding), (Test test) ->
+                    {
+                        test.assertEqual(expected, HttpHeader.isChunkedTransferEncoding(transferEncoding));
+                    });
+                };
+
+                isChunkedTransferEncodingTest.run(null, false);
+                isChunkedTransferEncodingTest.run("", false);
+                isChunkedTransferEncodingTest.run("gzip", false);
+                isChunkedTransferEncodingTest.run("chunked", true);
+                isChunkedTransferEncodingTest.run("Chunked", true);
+                isChunkedTransferEncodingTest.run("gzip, chunked", true);
+                isChunkedTransferEncodingTest.run("chunked, gzip", false);
+            });
+
+            runner.testGroup("parseContentLength(String)", () ->
+            {
+                final Action2<String,Long> parseContentLengthTest = (String headerValue, Long expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(headerValue), (Test test) ->
+                    {
+                        test.assertEqual(expected, HttpHeader.parseContentLength(headerValue));
+                    });
+                };
+
+                parseContentLengthTest.run(null, -1L);
+                parseContentLengthTest.run("", -1L);
+                parseContentLengthTest.run("abc", -1L);
+                parseContentLengthTest.run("-5", -1L);
+                parseContentLengthTest.run("5a", -1L);
+                parseContentLengthTest.run(" 5", -1L);
+                parseContentLengthTest.run("0", 0L);
+                parseContentLengthTest.run("5", 5L);
+                parseContentLengthTest.run("1234567890", 1234567890L);
+            });
+
             runner.testGroup("equals(Object)", () ->
             {
                 runner.test("with null", (Test test) ->
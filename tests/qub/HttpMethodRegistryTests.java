@@ -0,0 +1,118 @@
+package qub;
+
+public interface HttpMethodRegistryTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(HttpMethodRegistry.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final HttpMethodRegistry registry = HttpMethodRegistry.create();
+                for (final HttpMethod method : HttpMethod.values())
+                {
+                    test.assertTrue(registry.contains(method.name()), method.name());
+                }
+                test.assertFalse(registry.contains(null));
+                test.assertFalse(registry.contains("get"));
+                test.assertFalse(registry.contains("PROPFIND"));
+            });
+
+            runner.testGroup("add(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final HttpMethodRegistry registry = HttpMethodRegistry.create();
+                    test.assertThrows(() -> registry.add(null),
+                        new PreConditionFailure("method cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final HttpMethodRegistry registry = HttpMethodRegistry.create();
+                    test.assertThrows(() -> registry.add(""),
+                        new PreConditionFailure("method cannot be empty."));
+                });
+
+                runner.test("with invalid token", (Test test) ->
+                {
+                    final HttpMethodRegistry registry = HttpMethodRegistry.create();
+                    test.assertThrows(() -> registry.add("A B"),
+                        new PreConditionFailure("method must be a valid HTTP token."));
+                });
+
+                runner.test("with extension method", (Test test) ->
+                {
+                    final HttpMethodRegistry registry = HttpMethodRegistry.create();
+                    final HttpMethodRegistry addResult = registry.add("PROPFIND");
+                    test.assertSame(registry, addResult);
+                    test.assertTrue(registry.contains("PROPFIND"));
+                });
+            });
+
+            runner.testGroup("isToken(String)", () ->
+            {
+                final Action2<String,Boolean> isTokenTest = (String text, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        test.assertEqual(expected, HttpMethodRegistry.isToken(text));
+                    });
+                };
+
+                isTokenTest.run(null, false);
+                isTokenTest.run("", false);
+                isTokenTest.run("GET", true);
+                isTokenTest.run("M-SEARCH", true);
+                isTokenTest.run("A B", false);
+                isTokenTest.run("A/B", false);
+                isTokenTest.run("A:B", false);
+            });
+
+            runner.testGroup("parse(byte[],int,int)", () ->
+            {
+                final Action2<String,String> parseTest = (String text, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        final HttpMethodRegistry registry = HttpMethodRegistry.create();
+                        final byte[] bytes = (" " + text + " /").getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                        test.assertEqual(expected, registry.parse(bytes, 1, bytes.length - 3));
+                    });
+                };
+
+                parseTest.run("GET", "GET");
+                parseTest.run("PUT", "PUT");
+                parseTest.run("POST", "POST");
+                parseTest.run("HEAD", "HEAD");
+                parseTest.run("PATCH", "PATCH");
+                parseTest.run("TRACE", "TRACE");
+                parseTest.run("DELETE", "DELETE");
+                parseTest.run("OPTIONS", "OPTIONS");
+                parseTest.run("CONNECT", "CONNECT");
+                parseTest.run("get", "get");
+                parseTest.run("GOT", "GOT");
+                parseTest.run("PROPFIND", "PROPFIND");
+                parseTest.run("", null);
+                parseTest.run("G(T", null);
+                parseTest.run("GéT", null);
+
+                runner.test("returns shared constants for standard methods", (Test test) ->
+                {
+                    final HttpMethodRegistry registry = HttpMethodRegistry.create();
+                    final byte[] bytes = "OPTIONS".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+                    test.assertSame(HttpMethod.OPTIONS.name(), registry.parse(bytes, 0, bytes.length));
+                });
+
+                runner.test("returns registered extension method", (Test test) ->
+                {
+                    final HttpMethodRegistry registry = HttpMethodRegistry.create();
+                    final String method = new String("PROPFIND");
+                    registry.add(method);
+                    final byte[] bytes = "PROPFIND".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+                    test.assertSame(method, registry.parse(bytes, 0, bytes.length));
+                });
+            });
+        });
+    }
+}
@@ -333,6 +333,278 @@ public interface HttpServerTests
                 });
             });
 
+            runner.testGroup("removePath(String)", () ->
+            {
+                runner.test("with null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertThrows(() -> httpServer.removePath(null),
+                            new PreConditionFailure("pathString cannot be null."));
+                    }
+                });
+
+                runner.test("with non-existing path",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setPath("/a", (HttpRequest request) -> null);
+                        test.assertFalse(httpServer.removePath("/b"));
+                        test.assertEqual(Iterable.create("/a"), httpServer.iteratePaths().toList().map(PathPattern::toString));
+                    }
+                });
+
+                runner.test("with existing path while the server is running",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setPath("/a", (HttpRequest request) -> HttpResponse.create().setStatusCode(200));
+                        httpServer.setPath("/b", (HttpRequest request) -> HttpResponse.create().setStatusCode(200));
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final HttpClient client = HttpServerTests.createHttpClient(process);
+                            final String serverUrl = "http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort();
+                            try (final HttpResponse response = client.get(serverUrl + "/a").await())
+                            {
+                                test.assertEqual(200, response.getStatusCode());
+                            }
+
+                            test.assertTrue(httpServer.removePath("a/"));
+                            test.assertEqual(Iterable.create("/b"), httpServer.iteratePaths().toList().map(PathPattern::toString));
+
+                            try (final HttpResponse response = client.get(serverUrl + "/a").await())
+                            {
+                                test.assertEqual(404, response.getStatusCode());
+                            }
+                            try (final HttpResponse response = client.get(serverUrl + "/b").await())
+                            {
+                                test.assertEqual(200, response.getStatusCode());
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            serverTask.await();
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("setPath(String,String,Function1<HttpRequest,HttpResponse>)", () ->
+            {
+                runner.test("with null host",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertThrows(() -> httpServer.setPath(null, "/", (HttpRequest request) -> null),
+                            new PreConditionFailure("host cannot be null."));
+                    }
+                });
+
+                runner.test("with empty host",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertThrows(() -> httpServer.setPath("", "/", (HttpRequest request) -> null),
+                            new PreConditionFailure("host cannot be empty."));
+                    }
+                });
+
+                runner.test("with exact and wildcard hosts",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        final HttpServer setPathResult = httpServer.setPath("api.example.com", "/", (HttpRequest request) -> HttpResponse.create().setBody("api"));
+                        test.assertSame(httpServer, setPathResult);
+                        httpServer.setPath("*.example.com", "/", (HttpRequest request) -> HttpResponse.create().setBody("wildcard"));
+                        httpServer.setPath("/", (HttpRequest request) -> HttpResponse.create().setBody("default"));
+
+                        test.assertEqual(Iterable.create("/"), httpServer.iteratePaths().toList().map(PathPattern::toString));
+                        test.assertEqual(Iterable.create("/"), httpServer.iteratePaths("API.example.com").toList().map(PathPattern::toString));
+                        test.assertEqual(Iterable.create("/"), httpServer.iteratePaths("*.example.com").toList().map(PathPattern::toString));
+                        test.assertEqual(Iterable.create(), httpServer.iteratePaths("other.com").toList());
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final HttpClient client = HttpServerTests.createHttpClient(process);
+                            final String serverUrl = "http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/";
+                            final Action2<String,String> hostTest = (String host, String expectedBody) ->
+                            {
+                                final MutableHttpRequest request = HttpRequest.get(serverUrl).await();
+                                if (host != null)
+                                {
+                                    request.setHeader("Host", host);
+                                }
+                                try (final HttpResponse response = client.send(request).await())
+                                {
+                                    test.assertEqual(200, response.getStatusCode());
+                                    test.assertEqual(expectedBody, CharacterReadStream.create(response.getBody()).readEntireString().await());
+                                }
+                            };
+
+                            hostTest.run(null, "default");
+                            hostTest.run("example.com", "default");
+                            hostTest.run("other.com", "default");
+                            hostTest.run("api.example.com", "api");
+                            hostTest.run("API.Example.com:8080", "api");
+                            hostTest.run("www.example.com", "wildcard");
+                            hostTest.run("a.b.example.com", "wildcard");
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            serverTask.await();
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("removePath(String,String)", () ->
+            {
+                runner.test("with non-existing host",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setPath("/a", (HttpRequest request) -> null);
+                        test.assertFalse(httpServer.removePath("example.com", "/a"));
+                        test.assertEqual(Iterable.create("/a"), httpServer.iteratePaths().toList().map(PathPattern::toString));
+                    }
+                });
+
+                runner.test("with existing host and path",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setPath("*.example.com", "/a", (HttpRequest request) -> null);
+                        test.assertTrue(httpServer.removePath("*.example.com", "/a"));
+                        test.assertEqual(Iterable.create(), httpServer.iteratePaths("*.example.com").toList());
+                    }
+                });
+            });
+
+            runner.testGroup("setPathWithParameters(String,Function2<PathParameters,HttpRequest,HttpResponse>)", () ->
+            {
+                runner.test("with " + Strings.escapeAndQuote("/users/{id}/orders/{orderId}"),
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        final HttpServer setPathResult = httpServer.setPathWithParameters("/users/{id}/orders/{orderId}", (PathParameters pathParameters, HttpRequest request) ->
+                             HttpResponse.create()
+                                 .setStatusCode(200)
+                                 .setBody(pathParameters.get("id").await() + ":" + pathParameters.get("orderId").await()));
+                        test.assertSame(httpServer, setPathResult);
+                        test.assertEqual(Iterable.create("/users/{id}/orders/{orderId}"), httpServer.iteratePaths().toList().map(PathPattern::toString));
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final HttpClient client = HttpServerTests.createHttpClient(process);
+                            final String serverUrl = "http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort();
+                            try (final HttpResponse response = client.get(serverUrl + "/users/123/orders/abc").await())
+                            {
+                                test.assertEqual(200, response.getStatusCode());
+                                test.assertEqual("123:abc", CharacterReadStream.create(response.getBody()).readEntireString().await());
+                            }
+                            try (final HttpResponse response = client.get(serverUrl + "/users/123/orders").await())
+                            {
+                                test.assertEqual(404, response.getStatusCode());
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            serverTask.await();
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("getRouteCache()", () ->
+            {
+                runner.test("caches matched routes until the paths change",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setPath("/things/*", (HttpRequest request) -> HttpResponse.create().setStatusCode(200));
+                        final PathRouteCache routeCache = httpServer.getRouteCache();
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final HttpClient client = HttpServerTests.createHttpClient(process);
+                            final String serverUrl = "http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort();
+                            for (int i = 0; i < 3; ++i)
+                            {
+                                try (final HttpResponse response = client.get(serverUrl + "/things/a").await())
+                                {
+                                    test.assertEqual(200, response.getStatusCode());
+                                }
+                            }
+                            test.assertEqual(2L, routeCache.getHitCount());
+                            test.assertEqual(1L, routeCache.getMissCount());
+                            test.assertEqual(1, routeCache.getCount());
+
+                            httpServer.setPath("/things/a", (HttpRequest request) -> HttpResponse.create().setStatusCode(201));
+                            test.assertEqual(0, routeCache.getCount());
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            serverTask.await();
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("setRouteCacheCapacity(int)", () ->
+            {
+                runner.test("with negative capacity",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertThrows(() -> httpServer.setRouteCacheCapacity(-1),
+                            new PreConditionFailure("capacity (-1) must be greater than or equal to 0."));
+                    }
+                });
+
+                runner.test("with 0",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        final HttpServer setRouteCacheCapacityResult = httpServer.setRouteCacheCapacity(0);
+                        test.assertSame(httpServer, setRouteCacheCapacityResult);
+                        test.assertEqual(0, httpServer.getRouteCache().getCapacity());
+                    }
+                });
+            });
+
             runner.testGroup("setNotFound()", () ->
             {
                 runner.test("with null",
@@ -341,32 +613,1182 @@ public interface HttpServerTests
                 {
                     try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
                     {
-                        test.assertThrows(() -> httpServer.setNotFound(null),
-                            new PreConditionFailure("notFoundAction cannot be null."));
+                        test.assertThrows(() -> httpServer.setNotFound(null),
+                            new PreConditionFailure("notFoundAction cannot be null."));
+                    }
+                });
+
+                runner.test("with function that returns a non-null response",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        final HttpServer setNotFoundResult = httpServer.setNotFound((HttpRequest request) ->
+                        {
+                            return HttpResponse.create()
+                                .setStatusCode(456);
+                        });
+                        test.assertSame(httpServer, setNotFoundResult);
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final HttpClient client = HttpServerTests.createHttpClient(process);
+                            try (final HttpResponse response = client.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/notfound").await())
+                            {
+                                test.assertNotNull(response);
+                                test.assertEqual(456, response.getStatusCode());
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+
+                runner.test("with function that returns a null response",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        final HttpServer setNotFoundResult = httpServer.setNotFound((HttpRequest request) -> null);
+                        test.assertSame(httpServer, setNotFoundResult);
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final HttpClient client = HttpServerTests.createHttpClient(process);
+                            try (final HttpResponse response = client.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/").await())
+                            {
+                                test.assertNotNull(response);
+                                test.assertEqual(500, response.getStatusCode());
+                                test.assertEqual("500: Internal Server Error", CharacterReadStream.create(response.getBody()).readEntireString().await());
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            serverTask.await();
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("setNotImplemented()", () ->
+            {
+                runner.test("with null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertThrows(() -> httpServer.setNotImplemented(null),
+                            new PreConditionFailure("notImplementedAction cannot be null."));
+                    }
+                });
+
+                runner.test("with OPTIONS request",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setPath("/", (HttpRequest request) ->
+                        {
+                            return HttpResponse.create()
+                                .setStatusCode(204)
+                                .setHeader("Allow", request.getMethod());
+                        });
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final HttpClient client = HttpServerTests.createHttpClient(process);
+                            final MutableHttpRequest request = HttpRequest.create()
+                                .setMethod(HttpMethod.OPTIONS)
+                                .setUrl(URL.parse("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/").await());
+                            try (final HttpResponse response = client.send(request).await())
+                            {
+                                test.assertEqual(204, response.getStatusCode());
+                                test.assertEqual("OPTIONS", response.getHeaderValue("Allow").await());
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+
+                runner.test("with unregistered method",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setPath("/", (HttpRequest request) -> HttpResponse.create().setStatusCode(200));
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final HttpClient client = HttpServerTests.createHttpClient(process);
+                            final MutableHttpRequest request = HttpRequest.create()
+                                .setMethod("PROPFIND")
+                                .setUrl(URL.parse("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/").await());
+                            try (final HttpResponse response = client.send(request).await())
+                            {
+                                test.assertEqual(501, response.getStatusCode());
+                                test.assertEqual("501: Not Implemented", CharacterReadStream.create(response.getBody()).readEntireString().await());
+                            }
+                            test.assertEqual(0L, httpServer.getRouteCache().getMissCount());
+                            test.assertEqual(0, httpServer.getRouteCache().getCount());
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+
+                runner.test("with registered extension method",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.getMethodRegistry().add("PROPFIND");
+                        httpServer.setPath("/", (HttpRequest request) -> HttpResponse.create().setStatusCode(207));
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final HttpClient client = HttpServerTests.createHttpClient(process);
+                            final MutableHttpRequest request = HttpRequest.create()
+                                .setMethod("PROPFIND")
+                                .setUrl(URL.parse("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/").await());
+                            try (final HttpResponse response = client.send(request).await())
+                            {
+                                test.assertEqual(207, response.getStatusCode());
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("request limits", () ->
+            {
+                runner.test("defaults",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertEqual(8 * 1024, httpServer.getMaximumRequestLineLength());
+                        test.assertEqual(64 * 1024, httpServer.getMaximumHeaderBytes());
+                        test.assertEqual(100, httpServer.getMaximumHeaderCount());
+                        test.assertEqual(10L * 1024 * 1024, httpServer.getMaximumBodySize());
+                    }
+                });
+
+                final Action4<String,Action1<HttpServer>,Action1<MutableHttpRequest>,Integer> limitTest = (String testName, Action1<HttpServer> configureServer, Action1<MutableHttpRequest> configureRequest, Integer expectedStatusCode) ->
+                {
+                    runner.test(testName,
+                        (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                        (Test test, FakeDesktopProcess process) ->
+                    {
+                        try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                        {
+                            configureServer.run(httpServer);
+                            httpServer.setPath("/**", (HttpRequest request) -> HttpResponse.create().setStatusCode(200));
+
+                            final Result<Void> serverTask = httpServer.start();
+                            try
+                            {
+                                final HttpClient client = HttpServerTests.createHttpClient(process);
+                                final MutableHttpRequest request = HttpRequest.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/abcdefghij").await();
+                                configureRequest.run(request);
+                                try (final HttpResponse response = client.send(request).await())
+                                {
+                                    test.assertEqual(expectedStatusCode, response.getStatusCode());
+                                }
+                            }
+                            finally
+                            {
+                                test.assertTrue(httpServer.dispose().await());
+                                test.assertNull(serverTask.await());
+                            }
+                        }
+                    });
+                };
+
+                limitTest.run("with request within the limits",
+                    (HttpServer httpServer) -> httpServer.setMaximumBodySize(5),
+                    (MutableHttpRequest request) -> request.setBody("hello").await(),
+                    200);
+                limitTest.run("with request line longer than the maximum",
+                    (HttpServer httpServer) -> httpServer.setMaximumRequestLineLength(20),
+                    (MutableHttpRequest request) -> {},
+                    414);
+                limitTest.run("with headers larger than the maximum",
+                    (HttpServer httpServer) -> httpServer.setMaximumHeaderBytes(20),
+                    (MutableHttpRequest request) -> request.setHeader("Cookie", "abcdefghijklmnopqrstuvwxyz"),
+                    431);
+                limitTest.run("with more headers than the maximum",
+                    (HttpServer httpServer) -> httpServer.setMaximumHeaderCount(1),
+                    (MutableHttpRequest request) -> request.setHeader("a", "b").setHeader("c", "d"),
+                    431);
+                limitTest.run("with body larger than the maximum",
+                    (HttpServer httpServer) -> httpServer.setMaximumBodySize(4),
+                    (MutableHttpRequest request) -> request.setBody("hello").await(),
+                    413);
+
+                runner.test("with chunked body larger than the maximum",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setPipeliningEnabled(true);
+                        httpServer.setMaximumBodySize(8);
+                        httpServer.setPath("/echo", (HttpRequest request) ->
+                        {
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody(request.getBody().readAllBytes().await());
+                        });
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            try (final TCPClient tcpClient = process.getNetwork().createTCPClient(httpServer.getLocalIPAddress(), httpServer.getLocalPort()).await())
+                            {
+                                tcpClient.writeAll((
+                                    "POST /echo HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nhello\r\n6\r\n world\r\n0\r\n\r\n" +
+                                    "POST /echo HTTP/1.1\r\nContent-Length: 5\r\n\r\nhello").getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
+
+                                test.assertEqual("HTTP/1.1 413 Payload Too Large 413: Payload Too Large", HttpServerTests.readHttp1Response(tcpClient));
+                                test.assertNull(tcpClient.readByte().catchError(EmptyException.class).await());
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+
+                runner.test("with both Transfer-Encoding and Content-Length",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setPipeliningEnabled(true);
+                        httpServer.setPath("/echo", (HttpRequest request) ->
+                        {
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody(request.getBody().readAllBytes().await());
+                        });
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            try (final TCPClient tcpClient = process.getNetwork().createTCPClient(httpServer.getLocalIPAddress(), httpServer.getLocalPort()).await())
+                            {
+                                tcpClient.writeAll((
+                                    "POST /echo HTTP/1.1\r\nTransfer-Encoding: chunked\r\nContent-Length: 10\r\n\r\n5\r\nhello\r\n0\r\n\r\n" +
+                                    "POST /echo HTTP/1.1\r\nContent-Length: 5\r\n\r\nhello").getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
+
+                                test.assertEqual("HTTP/1.1 400 Bad Request 400: Bad Request", HttpServerTests.readHttp1Response(tcpClient));
+                                test.assertNull(tcpClient.readByte().catchError(EmptyException.class).await());
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("request bodies", () ->
+            {
+                final Action3<String,Action1<BasicMutableHttpRequest>,String> requestBodyTest = (String testName, Action1<BasicMutableHttpRequest> configureRequest, String expectedResponseBody) ->
+                {
+                    runner.test(testName,
+                        (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                        (Test test, FakeDesktopProcess process) ->
+                    {
+                        try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                        {
+                            httpServer.setPath("/", (HttpRequest request) ->
+                            {
+                                ByteReadStream body = request.getBody();
+                                final String contentEncoding = request.getHeaderValue(HttpHeader.ContentEncodingName)
+                                    .catchError(NotFoundException.class)
+                                    .await();
+                                if (contentEncoding != null)
+                                {
+                                    body = InflaterByteReadStream.create(body, contentEncoding, ByteBufferPool.create());
+                                }
+                                return HttpResponse.create()
+                                    .setStatusCode(200)
+                                    .setBody(body.readAllBytes().await());
+                            });
+
+                            final Result<Void> serverTask = httpServer.start();
+                            try
+                            {
+                                final HttpClient client = HttpServerTests.createHttpClient(process);
+                                final BasicMutableHttpRequest request = BasicMutableHttpRequest.create()
+                                    .setMethod(HttpMethod.POST)
+                                    .setUrl(URL.parse("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/").await());
+                                configureRequest.run(request);
+                                try (final HttpResponse response = client.send(request).await())
+                                {
+                                    test.assertEqual(200, response.getStatusCode());
+                                    test.assertEqual(expectedResponseBody, new String(response.getBody().readAllBytes().await(), java.nio.charset.StandardCharsets.UTF_8));
+                                }
+                                test.assertTrue(request.getBody().isDisposed());
+                            }
+                            finally
+                            {
+                                test.assertTrue(httpServer.dispose().await());
+                                test.assertNull(serverTask.await());
+                            }
+                        }
+                    });
+                };
+
+                requestBodyTest.run("with chunked body",
+                    (BasicMutableHttpRequest request) -> request.setChunkedBody(InMemoryByteStream.create(new byte[] { 'h', 'e', 'l', 'l', 'o' }).endOfStream()),
+                    "hello");
+                requestBodyTest.run("with gzip compressed body",
+                    (BasicMutableHttpRequest request) -> request.setCompressedBody("gzip", InMemoryByteStream.create(new byte[] { 'h', 'e', 'l', 'l', 'o' }).endOfStream()),
+                    "hello");
+                requestBodyTest.run("with deflate compressed body",
+                    (BasicMutableHttpRequest request) -> request.setCompressedBody("deflate", InMemoryByteStream.create(new byte[] { 'h', 'e', 'l', 'l', 'o' }).endOfStream()),
+                    "hello");
+            });
+
+            runner.testGroup("setExpectContinue(Function1<HttpRequest,HttpResponse>)", () ->
+            {
+                runner.test("with null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertThrows(() -> httpServer.setExpectContinue(null),
+                            new PreConditionFailure("expectContinueAction cannot be null."));
+                    }
+                });
+
+                final Action4<String,Function1<HttpRequest,HttpResponse>,String,Integer> expectContinueTest = (String testName, Function1<HttpRequest,HttpResponse> expectContinueAction, String expectValue, Integer expectedStatusCode) ->
+                {
+                    runner.test(testName,
+                        (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                        (Test test, FakeDesktopProcess process) ->
+                    {
+                        try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                        {
+                            final List<String> bodiesRead = List.create();
+                            if (expectContinueAction != null)
+                            {
+                                test.assertSame(httpServer, httpServer.setExpectContinue(expectContinueAction));
+                            }
+                            httpServer.setPath("/upload", (HttpRequest request) ->
+                            {
+                                bodiesRead.add(CharacterReadStream.create(request.getBody()).readEntireString().await());
+                                return HttpResponse.create().setStatusCode(200);
+                            });
+
+                            final Result<Void> serverTask = httpServer.start();
+                            try
+                            {
+                                final HttpClient client = HttpServerTests.createHttpClient(process);
+                                final MutableHttpRequest request = HttpRequest.create()
+                                    .setMethod(HttpMethod.PUT)
+                                    .setUrl(URL.parse("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/upload").await())
+                                    .setHeader(HttpHeader.ExpectName, expectValue);
+                                request.setBody("hello").await();
+                                try (final HttpResponse response = client.send(request).await())
+                                {
+                                    test.assertEqual(expectedStatusCode, response.getStatusCode());
+                                }
+                                test.assertEqual(expectedStatusCode == 200 ? Iterable.create("hello") : Iterable.create(), bodiesRead);
+                            }
+                            finally
+                            {
+                                test.assertTrue(httpServer.dispose().await());
+                                test.assertNull(serverTask.await());
+                            }
+                        }
+                    });
+                };
+
+                expectContinueTest.run("with default action",
+                    null,
+                    "100-continue",
+                    200);
+                expectContinueTest.run("with action that accepts the request",
+                    (HttpRequest request) -> null,
+                    "100-Continue",
+                    200);
+                expectContinueTest.run("with action that rejects the request",
+                    (HttpRequest request) -> HttpResponse.create().setStatusCode(401),
+                    "100-continue",
+                    401);
+                expectContinueTest.run("with unsupported expectation",
+                    null,
+                    "something-else",
+                    417);
+            });
+
+            runner.testGroup("start()", () ->
+            {
+                runner.test("with TCPServer disposed before start()",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Network network = process.getNetwork();
+                    try (final TCPServer tcpServer = network.createTCPServer(HttpServerTests.serverAddress, HttpServerTests.serverPort).await())
+                    {
+                        try (final HttpServer httpServer = HttpServer.create(tcpServer, process.getParallelAsyncRunner()))
+                        {
+                            test.assertTrue(tcpServer.dispose().await());
+
+                            test.assertThrows(() -> httpServer.start().await(),
+                                new PreConditionFailure("this.isDisposed() cannot be true."));
+                        }
+                    }
+                });
+
+                runner.test("with TCPServer disposed during start()",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Network network = process.getNetwork();
+                    try (final TCPServer tcpServer = network.createTCPServer(HttpServerTests.serverAddress, HttpServerTests.serverPort).await())
+                    {
+                        try (final HttpServer httpServer = HttpServer.create(tcpServer, process.getParallelAsyncRunner()))
+                        {
+                            final Result<Void> serverTask = httpServer.start();
+
+                            test.assertTrue(tcpServer.dispose().await());
+
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+
+                runner.test("with HttpServer disposed before start()",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertTrue(httpServer.dispose().await());
+
+                        test.assertThrows(httpServer::start,
+                            new PreConditionFailure("this.isDisposed() cannot be true."));
+                    }
+                });
+
+                runner.test("with HttpServer disposed during start()",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        final Result<Void> serverTask = httpServer.start();
+
+                        test.assertTrue(httpServer.dispose().await());
+
+                        test.assertNull(serverTask.await());
+                    }
+                });
+
+                runner.test("with one header and no body",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setPath("/echo", (HttpRequest request) ->
+                        {
+                            final MutableHttpResponse result = HttpResponse.create();
+
+                            result.setStatusCode(200);
+                            result.setReasonPhrase("OK");
+                            result.setHeaders(request.getHeaders());
+
+                            PostCondition.assertNotNull(result, "result");
+
+                            return result;
+                        });
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final HttpClient httpClient = HttpServerTests.createHttpClient(process);
+                            try (final HttpResponse response = httpClient.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/echo", HttpHeaders.create().set("a", "b")).await())
+                            {
+                                test.assertNotNull(response);
+                                test.assertEqual(200, response.getStatusCode());
+                                test.assertEqual("OK", response.getReasonPhrase());
+                                test.assertEqual(HttpHeaders.create().set("a", "b"), response.getHeaders());
+                                test.assertEqual(new byte[0], response.getBody().readAllBytes().await());
+                            }
+                        }
+                        finally
+                        {
+                            httpServer.dispose().await();
+                            serverTask.await();
+                        }
+                    }
+                });
+
+                runner.test("with content-length header but no body",
+                    (TestResources resources) -> Tuple.create(resources.getNetwork(), resources.getParallelAsyncRunner()),
+                    (Test test, Network network, AsyncRunner parallelAsyncRunner) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(network, parallelAsyncRunner))
+                    {
+                        httpServer.setPath("/echo", (HttpRequest request) ->
+                        {
+                            final MutableHttpResponse result = HttpResponse.create();
+
+                            result.setStatusCode(200);
+                            result.setReasonPhrase("OK");
+                            result.setHeaders(request.getHeaders());
+
+                            PostCondition.assertNotNull(result, "result");
+
+                            return result;
+                        });
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final HttpClient httpClient = HttpServerTests.createHttpClient(network);
+                            try (final HttpResponse response = httpClient.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/echo", HttpHeaders.create().set("content-length", "5")).await())
+                            {
+                                test.assertNotNull(response);
+                                test.assertEqual(200, response.getStatusCode());
+                                test.assertEqual("OK", response.getReasonPhrase());
+                                test.assertEqual(HttpHeaders.create().set("content-length", "5"), response.getHeaders());
+                                test.assertEqual(new byte[0], response.getBody().readAllBytes().await());
+                            }
+                        }
+                        finally
+                        {
+                            httpServer.dispose().await();
+                            serverTask.await();
+                        }
+                    }
+                });
+
+                runner.test("with no request path",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setPath("/", (HttpRequest request) ->
+                        {
+                            final MutableHttpResponse result = HttpResponse.create();
+
+                            result.setStatusCode(200);
+                            result.setReasonPhrase("OK");
+                            result.setHeaders(request.getHeaders());
+                            result.setBody("Hello");
+
+                            PostCondition.assertNotNull(result, "result");
+
+                            return result;
+                        });
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final HttpClient httpClient = HttpServerTests.createHttpClient(process);
+                            try (final HttpResponse response = httpClient.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort(), HttpHeaders.create().set("a", "b")).await())
+                            {
+                                test.assertNotNull(response);
+                                test.assertEqual(200, response.getStatusCode());
+                                test.assertEqual("OK", response.getReasonPhrase());
+                                test.assertEqual(
+                                    HttpHeaders.create()
+                                        .set("a", "b")
+                                        .set("Content-Length", 5),
+                                    response.getHeaders());
+                                test.assertEqual("Hello", CharacterReadStream.create(response.getBody()).readEntireString().await());
+                            }
+                        }
+                        finally
+                        {
+                            httpServer.dispose().await();
+                            serverTask.await();
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("setBufferPool(ByteBufferPool)", () ->
+            {
+                runner.test("with null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertSame(ByteBufferPool.getShared(), httpServer.getBufferPool());
+                        test.assertThrows(() -> httpServer.setBufferPool(null),
+                            new PreConditionFailure("bufferPool cannot be null."));
+                        test.assertSame(ByteBufferPool.getShared(), httpServer.getBufferPool());
+                    }
+                });
+
+                runner.test("releases all of its buffers",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final ByteBufferPool bufferPool = ByteBufferPool.create().setLeakTracking(true);
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        final HttpServer setBufferPoolResult = httpServer.setBufferPool(bufferPool);
+                        test.assertSame(httpServer, setBufferPoolResult);
+                        test.assertSame(bufferPool, httpServer.getBufferPool());
+                        httpServer.setPath("/", (HttpRequest request) -> HttpResponse.create()
+                            .setStatusCode(200)
+                            .setBody("Hello"));
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final BasicHttpClient httpClient = BasicHttpClient.create(process.getNetwork())
+                                .setBufferPool(bufferPool);
+                            try (final HttpResponse response = httpClient.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/").await())
+                            {
+                                test.assertEqual(200, response.getStatusCode());
+                                test.assertEqual("Hello", CharacterReadStream.create(response.getBody()).readEntireString().await());
+                            }
+                        }
+                        finally
+                        {
+                            httpServer.dispose().await();
+                            serverTask.await();
+                        }
+                    }
+                    test.assertEqual(0L, bufferPool.getLeasedCount());
+                    test.assertEqual(Iterable.create(), bufferPool.getLeaks());
+                });
+            });
+
+            runner.testGroup("setResponseCompression(ResponseCompression)", () ->
+            {
+                runner.test("with null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertNull(httpServer.getResponseCompression());
+                        test.assertSame(httpServer, httpServer.setResponseCompression(null));
+                        test.assertNull(httpServer.getResponseCompression());
+                    }
+                });
+
+                final Action3<String,String,String> compressionTest = (String acceptEncoding, String responseContentType, String expectedContentEncoding) ->
+                {
+                    runner.test("with " + English.andList(Iterable.create(acceptEncoding, responseContentType).map(Strings::escapeAndQuote)),
+                        (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                        (Test test, FakeDesktopProcess process) ->
+                    {
+                        final CharacterList bodyCharacters = CharacterList.create();
+                        for (int i = 0; i < 2000; ++i)
+                        {
+                            bodyCharacters.add((char)('a' + (i % 26)));
+                        }
+                        final String body = bodyCharacters.toString();
+
+                        try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                        {
+                            final ResponseCompression compression = ResponseCompression.create();
+                            test.assertSame(httpServer, httpServer.setResponseCompression(compression));
+                            test.assertSame(compression, httpServer.getResponseCompression());
+                            httpServer.setPath("/", (HttpRequest request) ->
+                            {
+                                return HttpResponse.create()
+                                    .setStatusCode(200)
+                                    .setHeader(HttpHeader.ContentTypeName, responseContentType)
+                                    .setBody(body);
+                            });
+
+                            final Result<Void> serverTask = httpServer.start();
+                            try
+                            {
+                                final HttpClient client = HttpServerTests.createHttpClient(process);
+                                final MutableHttpRequest request = HttpRequest.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/").await();
+                                if (acceptEncoding != null)
+                                {
+                                    request.setHeader(HttpHeader.AcceptEncodingName, acceptEncoding);
+                                }
+                                try (final HttpResponse response = client.send(request).await())
+                                {
+                                    test.assertEqual(200, response.getStatusCode());
+                                    test.assertEqual(expectedContentEncoding, response.getHeaderValue(HttpHeader.ContentEncodingName).catchError(NotFoundException.class).await());
+
+                                    final byte[] responseBodyBytes = response.getBody().readAllBytes().await();
+                                    if (expectedContentEncoding == null)
+                                    {
+                                        test.assertEqual(body, new String(responseBodyBytes, java.nio.charset.StandardCharsets.UTF_8));
+                                        test.assertEqual((long)body.length(), response.getContentLengthValue());
+                                    }
+                                    else
+                                    {
+                                        test.assertEqual(HttpHeader.AcceptEncodingName, response.getHeaderValue(HttpHeader.VaryName).await());
+                                        test.assertEqual("chunked", response.getHeaderValue(HttpHeader.TransferEncodingName).await());
+                                        test.assertFalse(response.getHeaders().contains(HttpHeader.ContentLengthName));
+                                        test.assertTrue(responseBodyBytes.length < body.length());
+
+                                        try (final java.io.InputStream inputStream = new java.util.zip.GZIPInputStream(new java.io.ByteArrayInputStream(responseBodyBytes)))
+                                        {
+                                            test.assertEqual(body, new String(inputStream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8));
+                                        }
+                                        catch (java.io.IOException e)
+                                        {
+                                            throw Exceptions.asRuntime(e);
+                                        }
+                                    }
+                                }
+                            }
+                            finally
+                            {
+                                test.assertTrue(httpServer.dispose().await());
+                                test.assertNull(serverTask.await());
+                            }
+                        }
+                    });
+                };
+
+                compressionTest.run(null, "text/plain", null);
+                compressionTest.run("br", "text/plain", null);
+                compressionTest.run("gzip", "image/png", null);
+                compressionTest.run("gzip", "text/plain", "gzip");
+
+                runner.test("with client that decompresses responses",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final CharacterList bodyCharacters = CharacterList.create();
+                    for (int i = 0; i < 2000; ++i)
+                    {
+                        bodyCharacters.add((char)('a' + (i % 26)));
+                    }
+                    final String body = bodyCharacters.toString();
+
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setResponseCompression(ResponseCompression.create());
+                        httpServer.setPath("/", (HttpRequest request) ->
+                        {
+                            return HttpResponse.create()
+                                .setStatusCode(200)
+                                .setHeader(HttpHeader.ContentTypeName, "text/plain")
+                                .setBody(body);
+                        });
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final BasicHttpClient client = BasicHttpClient.create(process.getNetwork());
+                            test.assertFalse(client.isResponseDecompressionEnabled());
+                            test.assertSame(client, client.setResponseDecompressionEnabled(true));
+                            test.assertTrue(client.isResponseDecompressionEnabled());
+
+                            final MutableHttpRequest request = HttpRequest.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/").await();
+                            try (final HttpResponse response = client.send(request).await())
+                            {
+                                test.assertEqual(200, response.getStatusCode());
+                                test.assertFalse(response.getHeaders().contains(HttpHeader.ContentEncodingName));
+                                test.assertFalse(response.getHeaders().contains(HttpHeader.ContentLengthName));
+                                test.assertEqual(HttpHeader.AcceptEncodingName, response.getHeaderValue(HttpHeader.VaryName).await());
+                                test.assertEqual(body, new String(response.getBody().readAllBytes().await(), java.nio.charset.StandardCharsets.UTF_8));
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+
+                runner.test("with pipelined requests",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setPipeliningEnabled(true);
+                        httpServer.setResponseCompression(ResponseCompression.create());
+                        httpServer.setPath("/stream", (HttpRequest request) ->
+                        {
+                            return HttpResponse.create()
+                                .setStatusCode(200)
+                                .setHeader(HttpHeader.ContentTypeName, "text/plain")
+                                .setHeader(HttpHeader.TransferEncodingName, "chunked")
+                                .setBody(InMemoryByteStream.create("streamed".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).endOfStream());
+                        });
+                        httpServer.setPath("/hello", (HttpRequest request) ->
+                        {
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody("hello");
+                        });
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            try (final TCPClient tcpClient = process.getNetwork().createTCPClient(httpServer.getLocalIPAddress(), httpServer.getLocalPort()).await())
+                            {
+                                tcpClient.writeAll((
+                                    "GET /stream HTTP/1.1\r\n\r\n" +
+                                    "HEAD /stream HTTP/1.1\r\nAccept-Encoding: gzip\r\n\r\n" +
+                                    "GET /hello HTTP/1.1\r\n\r\n").getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
+
+                                test.assertEqual("HTTP/1.1 200 OK streamed", HttpServerTests.readHttp1Response(tcpClient));
+
+                                final HttpHeadReader headReader = HttpHeadReader.create();
+                                test.assertEqual("HTTP/1.1 200 OK", headReader.readLine(tcpClient).await());
+                                final RawHttpHeaders headHeaders = headReader.readHeaders(tcpClient).await();
+                                test.assertEqual("gzip", headHeaders.getValue(HttpHeader.ContentEncodingName).await());
+                                test.assertEqual(HttpHeader.AcceptEncodingName, headHeaders.getValue(HttpHeader.VaryName).await());
+                                test.assertEqual("chunked", headHeaders.getValue(HttpHeader.TransferEncodingName).await());
+
+                                test.assertEqual("HTTP/1.1 200 OK hello", HttpServerTests.readHttp1Response(tcpClient));
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("setPath() with ServerSentEventStream", () ->
+            {
+                runner.test("with Last-Event-ID",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process);
+                         final ServerSentEventStream events = ServerSentEventStream.create())
+                    {
+                        httpServer.setPath("/events", events::createResponse);
+                        events.send(ServerSentEvent.create("a").setId("1"));
+                        events.send(ServerSentEvent.create("b").setId("2"));
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            try (final TCPClient tcpClient = process.getNetwork().createTCPClient(httpServer.getLocalIPAddress(), httpServer.getLocalPort()).await())
+                            {
+                                tcpClient.writeAll("GET /events HTTP/1.1\r\nLast-Event-ID: 1\r\n\r\n".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
+
+                                final CharacterReadStream responseStream = CharacterReadStream.create(tcpClient);
+                                test.assertEqual("HTTP/1.1 200 OK", responseStream.readLine().await());
+                                final List<String> headerLines = List.create();
+                                String headerLine = responseStream.readLine().await();
+                                while (!headerLine.isEmpty())
+                                {
+                                    headerLines.add(headerLine);
+                                    headerLine = responseStream.readLine().await();
+                                }
+                                test.assertTrue(headerLines.contains("Content-Type:text/event-stream"));
+                                test.assertTrue(headerLines.contains("Cache-Control:no-cache"));
+
+                                test.assertEqual("id: 2", responseStream.readLine().await());
+                                test.assertEqual("data: b", responseStream.readLine().await());
+                                test.assertEqual("", responseStream.readLine().await());
+                                test.assertEqual(1, events.getSubscriberCount());
+
+                                test.assertEqual(1, events.send(ServerSentEvent.create("c").setId("3")));
+                                test.assertEqual("id: 3", responseStream.readLine().await());
+                                test.assertEqual("data: c", responseStream.readLine().await());
+                                test.assertEqual("", responseStream.readLine().await());
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("setWebSocket(String,Action1<WebSocket>)", () ->
+            {
+                runner.test("with null sessionAction",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertThrows(() -> httpServer.setWebSocket("/ws", null),
+                            new PreConditionFailure("sessionAction cannot be null."));
+                    }
+                });
+
+                runner.test("with request that isn't a handshake",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertSame(httpServer, httpServer.setWebSocket("/ws", (WebSocket webSocket) -> {}));
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final HttpClient client = HttpServerTests.createHttpClient(process);
+                            try (final HttpResponse response = client.send(HttpRequest.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/ws").await()).await())
+                            {
+                                test.assertEqual(400, response.getStatusCode());
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+
+                runner.test("with echo session",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setWebSocket("/ws", (WebSocket webSocket) ->
+                        {
+                            WebSocketMessage message = webSocket.readMessage().await();
+                            while (message != null)
+                            {
+                                webSocket.sendText("echo: " + message.getText()).await();
+                                message = webSocket.readMessage().await();
+                            }
+                        });
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            try (final TCPClient tcpClient = process.getNetwork().createTCPClient(httpServer.getLocalIPAddress(), httpServer.getLocalPort()).await())
+                            {
+                                tcpClient.writeAll((
+                                    "GET /ws HTTP/1.1\r\n" +
+                                    "Upgrade: websocket\r\n" +
+                                    "Connection: Upgrade\r\n" +
+                                    "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n" +
+                                    "Sec-WebSocket-Version: 13\r\n" +
+                                    "\r\n").getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
+
+                                final HttpHeadReader headReader = HttpHeadReader.create();
+                                test.assertEqual("HTTP/1.1 101 Switching Protocols", headReader.readLine(tcpClient).await());
+                                final RawHttpHeaders headers = headReader.readHeaders(tcpClient).await();
+                                test.assertEqual("websocket", headers.getValue(HttpHeader.UpgradeName).await());
+                                test.assertEqual("s3pPLMBiTxaQ9kYGJzzo2YAxQk4=", headers.getValue(HttpHeader.SecWebSocketAcceptName).await());
+
+                                try (final WebSocket webSocket = WebSocket.create(tcpClient, tcpClient, ByteBufferPool.create(), true))
+                                {
+                                    webSocket.sendText("hello").await();
+                                    test.assertEqual("echo: hello", webSocket.readMessage().await().getText());
+
+                                    webSocket.close(1000, "done").await();
+                                    test.assertNull(webSocket.readMessage().await());
+                                    test.assertEqual(1000, webSocket.getCloseCode());
+                                }
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("setStaticContent(String,StaticContent)", () ->
+            {
+                runner.test("with null staticContent",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertThrows(() -> httpServer.setStaticContent("/static", null),
+                            new PreConditionFailure("staticContent cannot be null."));
+                    }
+                });
+
+                runner.test("with existing and missing files",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final java.nio.file.Path rootFolder;
+                    try
+                    {
+                        rootFolder = java.nio.file.Files.createTempDirectory("qub-http-static-");
+                        java.nio.file.Files.createDirectory(rootFolder.resolve("css"));
+                        java.nio.file.Files.write(rootFolder.resolve("css").resolve("site.css"), "body {}".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        throw Exceptions.asRuntime(e);
+                    }
+
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertSame(httpServer, httpServer.setStaticContent("/static/", StaticContent.create(rootFolder)));
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            final HttpClient client = HttpServerTests.createHttpClient(process);
+                            final String baseUrl = "http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort();
+                            try (final HttpResponse response = client.get(baseUrl + "/static/css/site.css").await())
+                            {
+                                test.assertEqual(200, response.getStatusCode());
+                                test.assertEqual("text/css; charset=utf-8", response.getHeaderValue(HttpHeader.ContentTypeName).await());
+                                test.assertEqual("body {}", CharacterReadStream.create(response.getBody()).readEntireString().await());
+                            }
+                            try (final HttpResponse response = client.get(baseUrl + "/static/css/missing.css").await())
+                            {
+                                test.assertEqual(404, response.getStatusCode());
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("setHttp2Enabled(boolean)", () ->
+            {
+                runner.test("with true",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertFalse(httpServer.isHttp2Enabled());
+                        test.assertSame(httpServer, httpServer.setHttp2Enabled(true));
+                        test.assertTrue(httpServer.isHttp2Enabled());
+                        test.assertSame(httpServer, httpServer.setHttp2Enabled(false));
+                        test.assertFalse(httpServer.isHttp2Enabled());
+                    }
+                });
+
+                runner.test("with prior knowledge connection and two concurrent streams",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setHttp2Enabled(true);
+                        httpServer.setPath("/hello", (HttpRequest request) ->
+                        {
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody("hello " + request.getHttpVersion() + " " + request.getHeaderValue("a").await());
+                        });
+
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            try (final TCPClient tcpClient = process.getNetwork().createTCPClient(httpServer.getLocalIPAddress(), httpServer.getLocalPort()).await())
+                            {
+                                final String authority = httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort();
+                                tcpClient.writeAll("PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
+                                final Http2FrameWriter frameWriter = Http2FrameWriter.create(tcpClient);
+                                frameWriter.writeSettings().await();
+                                for (final String streamValue : Iterable.create("1", "3"))
+                                {
+                                    HpackEncoder.create()
+                                        .writeHeader(":method", "GET")
+                                        .writeHeader(":scheme", "http")
+                                        .writeHeader(":authority", authority)
+                                        .writeHeader(":path", "/hello")
+                                        .writeHeader("a", streamValue)
+                                        .writeTo(frameWriter, Integer.parseInt(streamValue), true, Http2Frame.DefaultMaximumFrameSize).await();
+                                }
+
+                                final java.util.Map<Integer,String> responses = HttpServerTests.readHttp2Responses(tcpClient, 2);
+                                test.assertEqual("200 hello HTTP/2.0 1", responses.get(1));
+                                test.assertEqual("200 hello HTTP/2.0 3", responses.get(3));
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
                     }
                 });
 
-                runner.test("with function that returns a non-null response",
+                runner.test("with event stream request",
                     (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
                     (Test test, FakeDesktopProcess process) ->
                 {
-                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process);
+                         final ServerSentEventStream events = ServerSentEventStream.create())
                     {
-                        final HttpServer setNotFoundResult = httpServer.setNotFound((HttpRequest request) ->
-                        {
-                            return HttpResponse.create()
-                                .setStatusCode(456);
-                        });
-                        test.assertSame(httpServer, setNotFoundResult);
+                        httpServer.setHttp2Enabled(true);
+                        httpServer.setPath("/events", events::createResponse);
 
                         final Result<Void> serverTask = httpServer.start();
                         try
                         {
-                            final HttpClient client = HttpServerTests.createHttpClient(process);
-                            try (final HttpResponse response = client.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/notfound").await())
+                            try (final TCPClient tcpClient = process.getNetwork().createTCPClient(httpServer.getLocalIPAddress(), httpServer.getLocalPort()).await())
                             {
-                                test.assertNotNull(response);
-                                test.assertEqual(456, response.getStatusCode());
+                                tcpClient.writeAll("PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
+                                final Http2FrameWriter frameWriter = Http2FrameWriter.create(tcpClient);
+                                frameWriter.writeSettings().await();
+                                HpackEncoder.create()
+                                    .writeHeader(":method", "GET")
+                                    .writeHeader(":scheme", "http")
+                                    .writeHeader(":authority", httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort())
+                                    .writeHeader(":path", "/events")
+                                    .writeHeader("accept", "text/event-stream")
+                                    .writeTo(frameWriter, 1, true, Http2Frame.DefaultMaximumFrameSize).await();
+
+                                final java.util.Map<Integer,String> responses = HttpServerTests.readHttp2Responses(tcpClient, 1);
+                                test.assertTrue(responses.get(1).startsWith("400 "));
+                                test.assertEqual(0, events.getSubscriberCount());
                             }
                         }
                         finally
@@ -377,215 +1799,387 @@ public interface HttpServerTests
                     }
                 });
 
-                runner.test("with function that returns a null response",
+                runner.test("with h2c upgrade request",
                     (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
                     (Test test, FakeDesktopProcess process) ->
                 {
                     try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
                     {
-                        final HttpServer setNotFoundResult = httpServer.setNotFound((HttpRequest request) -> null);
-                        test.assertSame(httpServer, setNotFoundResult);
+                        httpServer.setHttp2Enabled(true);
+                        httpServer.setPath("/hello", (HttpRequest request) ->
+                        {
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody("hello " + request.getHttpVersion());
+                        });
 
                         final Result<Void> serverTask = httpServer.start();
                         try
                         {
-                            final HttpClient client = HttpServerTests.createHttpClient(process);
-                            try (final HttpResponse response = client.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/").await())
+                            try (final TCPClient tcpClient = process.getNetwork().createTCPClient(httpServer.getLocalIPAddress(), httpServer.getLocalPort()).await())
                             {
-                                test.assertNotNull(response);
-                                test.assertEqual(500, response.getStatusCode());
-                                test.assertEqual("500: Internal Server Error", CharacterReadStream.create(response.getBody()).readEntireString().await());
+                                tcpClient.writeAll((
+                                    "GET /hello HTTP/1.1\r\n" +
+                                    "Host: " + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "\r\n" +
+                                    "Connection: Upgrade, HTTP2-Settings\r\n" +
+                                    "Upgrade: h2c\r\n" +
+                                    "HTTP2-Settings: AAMAAABk\r\n" +
+                                    "\r\n").getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
+
+                                final HttpHeadReader headReader = HttpHeadReader.create();
+                                test.assertEqual("HTTP/1.1 101 Switching Protocols", headReader.readLine(tcpClient).await());
+                                final RawHttpHeaders headers = headReader.readHeaders(tcpClient).await();
+                                test.assertEqual("h2c", headers.getValue(HttpHeader.UpgradeName).await());
+
+                                tcpClient.writeAll("PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
+                                Http2FrameWriter.create(tcpClient).writeSettings().await();
+
+                                final java.util.Map<Integer,String> responses = HttpServerTests.readHttp2Responses(tcpClient, 1);
+                                test.assertEqual("200 hello HTTP/2.0", responses.get(1));
                             }
                         }
                         finally
                         {
                             test.assertTrue(httpServer.dispose().await());
-                            serverTask.await();
+                            test.assertNull(serverTask.await());
                         }
                     }
                 });
             });
 
-            runner.testGroup("start()", () ->
+            runner.testGroup("setPipeliningEnabled(boolean)", () ->
             {
-                runner.test("with TCPServer disposed before start()",
+                runner.test("with true",
                     (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
                     (Test test, FakeDesktopProcess process) ->
                 {
-                    final Network network = process.getNetwork();
-                    try (final TCPServer tcpServer = network.createTCPServer(HttpServerTests.serverAddress, HttpServerTests.serverPort).await())
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
                     {
-                        try (final HttpServer httpServer = HttpServer.create(tcpServer, process.getParallelAsyncRunner()))
-                        {
-                            test.assertTrue(tcpServer.dispose().await());
-
-                            test.assertThrows(() -> httpServer.start().await(),
-                                new PreConditionFailure("this.isDisposed() cannot be true."));
-                        }
+                        test.assertFalse(httpServer.isPipeliningEnabled());
+                        test.assertSame(httpServer, httpServer.setPipeliningEnabled(true));
+                        test.assertTrue(httpServer.isPipeliningEnabled());
+                        test.assertSame(httpServer, httpServer.setPipeliningEnabled(false));
+                        test.assertFalse(httpServer.isPipeliningEnabled());
                     }
                 });
 
-                runner.test("with TCPServer disposed during start()",
+                runner.test("with pipelined GET requests",
                     (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
                     (Test test, FakeDesktopProcess process) ->
                 {
-                    final Network network = process.getNetwork();
-                    try (final TCPServer tcpServer = network.createTCPServer(HttpServerTests.serverAddress, HttpServerTests.serverPort).await())
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
                     {
-                        try (final HttpServer httpServer = HttpServer.create(tcpServer, process.getParallelAsyncRunner()))
+                        httpServer.setPipeliningEnabled(true);
+                        httpServer.setPath("/echo", (HttpRequest request) ->
                         {
-                            final Result<Void> serverTask = httpServer.start();
-
-                            test.assertTrue(tcpServer.dispose().await());
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody(request.getQuery());
+                        });
 
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            try (final TCPClient tcpClient = process.getNetwork().createTCPClient(httpServer.getLocalIPAddress(), httpServer.getLocalPort()).await())
+                            {
+                                tcpClient.writeAll((
+                                    "GET /echo?a HTTP/1.1\r\n\r\n" +
+                                    "GET /echo?b HTTP/1.1\r\n\r\n" +
+                                    "GET /missing HTTP/1.1\r\n\r\n" +
+                                    "GET /echo?c HTTP/1.1\r\n\r\n").getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
+
+                                test.assertEqual("HTTP/1.1 200 OK a", HttpServerTests.readHttp1Response(tcpClient));
+                                test.assertEqual("HTTP/1.1 200 OK b", HttpServerTests.readHttp1Response(tcpClient));
+                                test.assertEqual("HTTP/1.1 404 Not Found 404: Not Found", HttpServerTests.readHttp1Response(tcpClient));
+                                test.assertEqual("HTTP/1.1 200 OK c", HttpServerTests.readHttp1Response(tcpClient));
+
+                                tcpClient.writeAll("GET /echo?d HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
+                                test.assertEqual("HTTP/1.1 200 OK d", HttpServerTests.readHttp1Response(tcpClient));
+                                test.assertNull(tcpClient.readByte().catchError(EmptyException.class).await());
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
                             test.assertNull(serverTask.await());
                         }
                     }
                 });
 
-                runner.test("with HttpServer disposed before start()",
+                runner.test("with pipelined POST request and GET request",
                     (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
                     (Test test, FakeDesktopProcess process) ->
                 {
                     try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
                     {
-                        test.assertTrue(httpServer.dispose().await());
+                        httpServer.setPipeliningEnabled(true);
+                        httpServer.setPath("/echo", (HttpRequest request) ->
+                        {
+                            final ByteReadStream body = request.getBody();
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody(body == null ? request.getMethod() : CharacterReadStream.create(body).readEntireString().await());
+                        });
+                        httpServer.setPath("/ignore", (HttpRequest request) ->
+                        {
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody("ignored");
+                        });
 
-                        test.assertThrows(httpServer::start,
-                            new PreConditionFailure("this.isDisposed() cannot be true."));
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            try (final TCPClient tcpClient = process.getNetwork().createTCPClient(httpServer.getLocalIPAddress(), httpServer.getLocalPort()).await())
+                            {
+                                tcpClient.writeAll((
+                                    "POST /echo HTTP/1.1\r\nContent-Length: 5\r\n\r\nhello" +
+                                    "POST /ignore HTTP/1.1\r\nContent-Length: 5\r\n\r\nthere" +
+                                    "GET /echo HTTP/1.1\r\n\r\n").getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
+
+                                test.assertEqual("HTTP/1.1 200 OK hello", HttpServerTests.readHttp1Response(tcpClient));
+                                test.assertEqual("HTTP/1.1 200 OK ignored", HttpServerTests.readHttp1Response(tcpClient));
+                                test.assertEqual("HTTP/1.1 200 OK GET", HttpServerTests.readHttp1Response(tcpClient));
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
                     }
                 });
 
-                runner.test("with HttpServer disposed during start()",
+                runner.test("with response body that has no Content-Length",
                     (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
                     (Test test, FakeDesktopProcess process) ->
                 {
                     try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
                     {
-                        final Result<Void> serverTask = httpServer.start();
+                        httpServer.setPipeliningEnabled(true);
+                        httpServer.setPath("/stream", (HttpRequest request) ->
+                        {
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody(InMemoryByteStream.create("streamed".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).endOfStream());
+                        });
 
-                        test.assertTrue(httpServer.dispose().await());
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            try (final TCPClient tcpClient = process.getNetwork().createTCPClient(httpServer.getLocalIPAddress(), httpServer.getLocalPort()).await())
+                            {
+                                tcpClient.writeAll((
+                                    "GET /stream HTTP/1.1\r\n\r\n" +
+                                    "GET /stream HTTP/1.1\r\n\r\n").getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
 
-                        test.assertNull(serverTask.await());
+                                test.assertEqual("HTTP/1.1 200 OK streamed", HttpServerTests.readHttp1Response(tcpClient));
+                                test.assertEqual("HTTP/1.1 200 OK streamed", HttpServerTests.readHttp1Response(tcpClient));
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
                     }
                 });
 
-                runner.test("with one header and no body",
+                runner.test("with HEAD requests",
                     (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
                     (Test test, FakeDesktopProcess process) ->
                 {
                     try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
                     {
-                        httpServer.setPath("/echo", (HttpRequest request) ->
+                        httpServer.setPipeliningEnabled(true);
+                        httpServer.setPath("/hello", (HttpRequest request) ->
                         {
-                            final MutableHttpResponse result = HttpResponse.create();
-
-                            result.setStatusCode(200);
-                            result.setReasonPhrase("OK");
-                            result.setHeaders(request.getHeaders());
-
-                            PostCondition.assertNotNull(result, "result");
-
-                            return result;
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody("hello");
+                        });
+                        httpServer.setPath("/stream", (HttpRequest request) ->
+                        {
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody(InMemoryByteStream.create("streamed".getBytes(java.nio.charset.StandardCharsets.US_ASCII)).endOfStream());
                         });
 
                         final Result<Void> serverTask = httpServer.start();
                         try
                         {
-                            final HttpClient httpClient = HttpServerTests.createHttpClient(process);
-                            try (final HttpResponse response = httpClient.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/echo", HttpHeaders.create().set("a", "b")).await())
+                            try (final TCPClient tcpClient = process.getNetwork().createTCPClient(httpServer.getLocalIPAddress(), httpServer.getLocalPort()).await())
                             {
-                                test.assertNotNull(response);
-                                test.assertEqual(200, response.getStatusCode());
-                                test.assertEqual("OK", response.getReasonPhrase());
-                                test.assertEqual(HttpHeaders.create().set("a", "b"), response.getHeaders());
-                                test.assertEqual(new byte[0], response.getBody().readAllBytes().await());
+                                tcpClient.writeAll((
+                                    "HEAD /hello HTTP/1.1\r\n\r\n" +
+                                    "HEAD /stream HTTP/1.1\r\n\r\n" +
+                                    "GET /hello HTTP/1.1\r\n\r\n").getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
+
+                                final HttpHeadReader headReader = HttpHeadReader.create();
+                                test.assertEqual("HTTP/1.1 200 OK", headReader.readLine(tcpClient).await());
+                                test.assertEqual("5", headReader.readHeaders(tcpClient).await().getValue(HttpHeader.ContentLengthName).await());
+                                test.assertEqual("HTTP/1.1 200 OK", headReader.readLine(tcpClient).await());
+                                test.assertEqual("chunked", headReader.readHeaders(tcpClient).await().getValue(HttpHeader.TransferEncodingName).await());
+                                test.assertEqual("HTTP/1.1 200 OK hello", HttpServerTests.readHttp1Response(tcpClient));
                             }
                         }
                         finally
                         {
-                            httpServer.dispose().await();
-                            serverTask.await();
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
                         }
                     }
                 });
 
-                runner.test("with content-length header but no body",
-                    (TestResources resources) -> Tuple.create(resources.getNetwork(), resources.getParallelAsyncRunner()),
-                    (Test test, Network network, AsyncRunner parallelAsyncRunner) ->
+                runner.test("with event stream request",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
                 {
-                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(network, parallelAsyncRunner))
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process);
+                         final ServerSentEventStream events = ServerSentEventStream.create())
                     {
-                        httpServer.setPath("/echo", (HttpRequest request) ->
+                        httpServer.setPipeliningEnabled(true);
+                        httpServer.setPath("/events", events::createResponse);
+                        httpServer.setPath("/hello", (HttpRequest request) ->
                         {
-                            final MutableHttpResponse result = HttpResponse.create();
-
-                            result.setStatusCode(200);
-                            result.setReasonPhrase("OK");
-                            result.setHeaders(request.getHeaders());
-
-                            PostCondition.assertNotNull(result, "result");
-
-                            return result;
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody("hello");
                         });
+                        events.send(ServerSentEvent.create("a").setId("1"));
 
                         final Result<Void> serverTask = httpServer.start();
                         try
                         {
-                            final HttpClient httpClient = HttpServerTests.createHttpClient(network);
-                            try (final HttpResponse response = httpClient.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/echo", HttpHeaders.create().set("content-length", "5")).await())
+                            try (final TCPClient tcpClient = process.getNetwork().createTCPClient(httpServer.getLocalIPAddress(), httpServer.getLocalPort()).await())
                             {
-                                test.assertNotNull(response);
-                                test.assertEqual(200, response.getStatusCode());
-                                test.assertEqual("OK", response.getReasonPhrase());
-                                test.assertEqual(HttpHeaders.create().set("content-length", "5"), response.getHeaders());
-                                test.assertEqual(new byte[0], response.getBody().readAllBytes().await());
+                                tcpClient.writeAll((
+                                    "GET /hello HTTP/1.1\r\n\r\n" +
+                                    "GET /events HTTP/1.1\r\nAccept: text/event-stream\r\nLast-Event-ID: 0\r\n\r\n" +
+                                    "GET /hello HTTP/1.1\r\n\r\n").getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
+
+                                test.assertEqual("HTTP/1.1 200 OK hello", HttpServerTests.readHttp1Response(tcpClient));
+
+                                // The request after the event stream request is never read, so the
+                                // event stream follows its response's head.
+                                final CharacterReadStream responseStream = CharacterReadStream.create(tcpClient);
+                                test.assertEqual("HTTP/1.1 200 OK", responseStream.readLine().await());
+                                String headerLine = responseStream.readLine().await();
+                                while (!headerLine.isEmpty())
+                                {
+                                    headerLine = responseStream.readLine().await();
+                                }
+                                test.assertEqual("id: 1", responseStream.readLine().await());
+                                test.assertEqual("data: a", responseStream.readLine().await());
+                                test.assertEqual("", responseStream.readLine().await());
+                                test.assertEqual(1, events.getSubscriberCount());
+
+                                test.assertEqual(1, events.send(ServerSentEvent.create("b").setId("2")));
+                                test.assertEqual("id: 2", responseStream.readLine().await());
+                                test.assertEqual("data: b", responseStream.readLine().await());
+                                test.assertEqual("", responseStream.readLine().await());
                             }
                         }
                         finally
                         {
-                            httpServer.dispose().await();
-                            serverTask.await();
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
                         }
                     }
                 });
 
-                runner.test("with no request path",
+                runner.test("with HTTP/1.0 request",
                     (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
                     (Test test, FakeDesktopProcess process) ->
                 {
                     try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
                     {
-                        httpServer.setPath("/", (HttpRequest request) ->
+                        httpServer.setPipeliningEnabled(true);
+                        httpServer.setPath("/hello", (HttpRequest request) ->
                         {
-                            final MutableHttpResponse result = HttpResponse.create();
+                            return httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody("hello");
+                        });
 
-                            result.setStatusCode(200);
-                            result.setReasonPhrase("OK");
-                            result.setHeaders(request.getHeaders());
-                            result.setBody("Hello");
+                        final Result<Void> serverTask = httpServer.start();
+                        try
+                        {
+                            try (final TCPClient tcpClient = process.getNetwork().createTCPClient(httpServer.getLocalIPAddress(), httpServer.getLocalPort()).await())
+                            {
+                                tcpClient.writeAll((
+                                    "GET /hello HTTP/1.0\r\n\r\n" +
+                                    "GET /hello HTTP/1.0\r\n\r\n").getBytes(java.nio.charset.StandardCharsets.US_ASCII)).await();
 
-                            PostCondition.assertNotNull(result, "result");
+                                test.assertEqual("HTTP/1.1 200 OK hello", HttpServerTests.readHttp1Response(tcpClient));
+                                test.assertNull(tcpClient.readByte().catchError(EmptyException.class).await());
+                            }
+                        }
+                        finally
+                        {
+                            test.assertTrue(httpServer.dispose().await());
+                            test.assertNull(serverTask.await());
+                        }
+                    }
+                });
+            });
 
-                            return result;
+            runner.testGroup("setRecyclingEnabled(boolean)", () ->
+            {
+                runner.test("with false",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        test.assertFalse(httpServer.isRecyclingEnabled());
+                        final HttpServer setRecyclingEnabledResult = httpServer.setRecyclingEnabled(false);
+                        test.assertSame(httpServer, setRecyclingEnabledResult);
+                        test.assertFalse(httpServer.isRecyclingEnabled());
+                    }
+                });
+
+                runner.test("with true",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        final List<HttpRequest> requests = List.create();
+                        final List<HttpResponse> responses = List.create();
+                        httpServer.setRecyclingEnabled(true);
+                        test.assertTrue(httpServer.isRecyclingEnabled());
+                        httpServer.setPath("/echo", (HttpRequest request) ->
+                        {
+                            requests.add(request);
+
+                            final MutableHttpResponse response = httpServer.createResponse()
+                                .setStatusCode(200)
+                                .setBody(request.getHeaderValue("a").await());
+                            responses.add(response);
+                            return response;
                         });
 
                         final Result<Void> serverTask = httpServer.start();
                         try
                         {
                             final HttpClient httpClient = HttpServerTests.createHttpClient(process);
-                            try (final HttpResponse response = httpClient.get("http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort(), HttpHeaders.create().set("a", "b")).await())
+                            final String url = "http://" + httpServer.getLocalIPAddress() + ":" + httpServer.getLocalPort() + "/echo";
+                            try (final HttpResponse response = httpClient.get(url, HttpHeaders.create().set("a", "first")).await())
                             {
-                                test.assertNotNull(response);
                                 test.assertEqual(200, response.getStatusCode());
-                                test.assertEqual("OK", response.getReasonPhrase());
-                                test.assertEqual(
-                                    HttpHeaders.create()
-                                        .set("a", "b")
-                                        .set("Content-Length", 5),
-                                    response.getHeaders());
-                                test.assertEqual("Hello", CharacterReadStream.create(response.getBody()).readEntireString().await());
+                                test.assertEqual("first", CharacterReadStream.create(response.getBody()).readEntireString().await());
+                            }
+                            try (final HttpResponse response = httpClient.get(url, HttpHeaders.create().set("a", "second")).await())
+                            {
+                                test.assertEqual(200, response.getStatusCode());
+                                test.assertEqual("second", CharacterReadStream.create(response.getBody()).readEntireString().await());
                             }
+
+                            test.assertEqual(2, requests.getCount());
+                            test.assertSame(requests.get(0), requests.get(1));
+                            test.assertEqual(2, responses.getCount());
+                            test.assertSame(responses.get(0), responses.get(1));
                         }
                         finally
                         {
@@ -596,6 +2190,24 @@ public interface HttpServerTests
                 });
             });
 
+            runner.testGroup("createResponse()", () ->
+            {
+                runner.test("outside of a path action",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final HttpServer httpServer = HttpServerTests.createHttpServer(process))
+                    {
+                        httpServer.setRecyclingEnabled(true);
+                        final MutableHttpResponse response1 = httpServer.createResponse();
+                        final MutableHttpResponse response2 = httpServer.createResponse();
+                        test.assertNotNull(response1);
+                        test.assertNotNull(response2);
+                        test.assertNotSame(response1, response2);
+                    }
+                });
+            });
+
             runner.testGroup("getReasonPhrase(int)", () ->
             {
                 final Action2<Integer,String> getReasonPhraseTest = (Integer statusCode, String expected) ->
@@ -616,7 +2228,13 @@ public interface HttpServerTests
                 getReasonPhraseTest.run(202, "Accepted");
                 getReasonPhraseTest.run(400, "Bad Request");
                 getReasonPhraseTest.run(404, "Not Found");
+                getReasonPhraseTest.run(405, "Method Not Allowed");
+                getReasonPhraseTest.run(413, "Payload Too Large");
+                getReasonPhraseTest.run(414, "URI Too Long");
+                getReasonPhraseTest.run(417, "Expectation Failed");
+                getReasonPhraseTest.run(431, "Request Header Fields Too Large");
                 getReasonPhraseTest.run(500, "Internal Server Error");
+                getReasonPhraseTest.run(501, "Not Implemented");
             });
         });
     }
@@ -639,11 +2257,81 @@ public interface HttpServerTests
 
     static HttpClient createHttpClient(DesktopProcess process)
     {
-        return HttpServerTests.createHttpClient(process.getNetwork());
+        PreCondition.assertNotNull(process, "process");
+
+        return BasicHttpClient.create(process.getNetwork(), process.getParallelAsyncRunner());
     }
 
     static HttpClient createHttpClient(Network network)
     {
         return BasicHttpClient.create(network);
     }
+
+    /**
+     * Read a HTTP/1.1 response from the provided stream. The response's body must be framed by a
+     * Content-Length header or by the chunked transfer coding.
+     * @return The response's status line followed by a space and its body.
+     */
+    static String readHttp1Response(ByteReadStream readStream)
+    {
+        final HttpHeadReader headReader = HttpHeadReader.create();
+        final String statusLine = headReader.readLine(readStream).await();
+        final RawHttpHeaders headers = headReader.readHeaders(readStream).await();
+
+        byte[] body;
+        if (HttpHeader.isChunkedTransferEncoding(headers.getValue(HttpHeader.TransferEncodingName).catchError(NotFoundException.class).await()))
+        {
+            body = ChunkedByteReadStream.create(readStream).readAllBytes().await();
+        }
+        else
+        {
+            body = new byte[(int)HttpHeader.parseContentLength(headers.getValue(HttpHeader.ContentLengthName).await())];
+            int bytesRead = 0;
+            while (bytesRead < body.length)
+            {
+                bytesRead += readStream.readBytes(body, bytesRead, body.length - bytesRead).await();
+            }
+        }
+        return statusLine + " " + new String(body, java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read HTTP/2 frames from the provided stream until the provided number of streams have ended.
+     * @return The responses that were read, keyed by their stream identifiers. Each response is
+     * its status code followed by a space and its body.
+     */
+    static java.util.Map<Integer,String> readHttp2Responses(ByteReadStream readStream, int streamCount)
+    {
+        final java.util.Map<Integer,String> result = new java.util.HashMap<>();
+        final HpackDecoder headerDecoder = HpackDecoder.create();
+        final Http2Frame frame = Http2Frame.create();
+        try (final Http2FrameReader frameReader = Http2FrameReader.create(readStream, ByteBufferPool.create()))
+        {
+            int endedStreamCount = 0;
+            while (endedStreamCount < streamCount && frameReader.readFrame(frame).await())
+            {
+                final int streamId = frame.getStreamId();
+                if (frame.getType() == Http2Frame.HeadersType)
+                {
+                    headerDecoder.decode(frame.getPayload(), 0, frame.getPayloadLength(), (String name, String value) ->
+                    {
+                        if (name.equals(":status"))
+                        {
+                            result.put(streamId, value + " ");
+                        }
+                    }).await();
+                }
+                else if (frame.getType() == Http2Frame.DataType)
+                {
+                    result.put(streamId, result.get(streamId) + new String(frame.getPayload(), 0, frame.getPayloadLength(), java.nio.charset.StandardCharsets.UTF_8));
+                }
+
+                if (streamId != 0 && frame.hasFlag(Http2Frame.EndStreamFlag) && (frame.getType() == Http2Frame.HeadersType || frame.getType() == Http2Frame.DataType))
+                {
+                    ++endedStreamCount;
+                }
+            }
+        }
+        return result;
+    }
 }
@@ -0,0 +1,150 @@
+package qub;
+
+public interface InflaterByteReadStreamTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(InflaterByteReadStream.class, () ->
+        {
+            final Function2<String,byte[],byte[]> compress = (String contentEncoding, byte[] bytes) ->
+            {
+                final InMemoryByteStream stream = InMemoryByteStream.create();
+                try (final DeflaterByteWriteStream deflaterStream = DeflaterByteWriteStream.create(stream, contentEncoding, ByteBufferPool.create()))
+                {
+                    deflaterStream.writeAll(bytes).await();
+                }
+                return stream.getBytes();
+            };
+
+            final Function1<Integer,byte[]> createBytes = (Integer length) ->
+            {
+                final byte[] bytes = new byte[length];
+                for (int i = 0; i < length; ++i)
+                {
+                    bytes[i] = (byte)('a' + (i % 7));
+                }
+                return bytes;
+            };
+
+            runner.testGroup("create(ByteReadStream,String,ByteBufferPool)", () ->
+            {
+                runner.test("with null innerStream", (Test test) ->
+                {
+                    test.assertThrows(() -> InflaterByteReadStream.create(null, "gzip", ByteBufferPool.create()),
+                        new PreConditionFailure("innerStream cannot be null."));
+                });
+
+                runner.test("with unsupported contentEncoding", (Test test) ->
+                {
+                    test.assertThrows(() -> InflaterByteReadStream.create(InMemoryByteStream.create().endOfStream(), "br", ByteBufferPool.create()),
+                        new PreConditionFailure("contentEncoding must be \"gzip\" or \"deflate\"."));
+                });
+
+                runner.test("with null bufferPool", (Test test) ->
+                {
+                    test.assertThrows(() -> InflaterByteReadStream.create(InMemoryByteStream.create().endOfStream(), "gzip", null),
+                        new PreConditionFailure("bufferPool cannot be null."));
+                });
+            });
+
+            runner.testGroup("readAllBytes()", () ->
+            {
+                final Action2<String,Integer> roundTripTest = (String contentEncoding, Integer length) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(contentEncoding) + " and " + length + " bytes", (Test test) ->
+                    {
+                        final byte[] bytes = createBytes.run(length);
+                        final ByteBufferPool bufferPool = ByteBufferPool.create();
+                        final InMemoryByteStream innerStream = InMemoryByteStream.create(compress.run(contentEncoding, bytes)).endOfStream();
+                        try (final InflaterByteReadStream stream = InflaterByteReadStream.create(innerStream, contentEncoding, bufferPool))
+                        {
+                            test.assertEqual(bytes, stream.readAllBytes().catchError(EmptyException.class, () -> new byte[0]).await());
+                        }
+                        test.assertTrue(innerStream.isDisposed());
+                        test.assertEqual(0, bufferPool.getLeasedCount());
+                    });
+                };
+
+                roundTripTest.run("gzip", 0);
+                roundTripTest.run("gzip", 1);
+                roundTripTest.run("gzip", 100000);
+                roundTripTest.run("deflate", 0);
+                roundTripTest.run("deflate", 1);
+                roundTripTest.run("deflate", 100000);
+
+                runner.test("with raw deflate data", (Test test) ->
+                {
+                    final byte[] bytes = createBytes.run(5000);
+                    final java.io.ByteArrayOutputStream compressedBytes = new java.io.ByteArrayOutputStream();
+                    try (final java.util.zip.DeflaterOutputStream deflaterStream = new java.util.zip.DeflaterOutputStream(compressedBytes, new java.util.zip.Deflater(java.util.zip.Deflater.DEFAULT_COMPRESSION, true)))
+                    {
+                        deflaterStream.write(bytes);
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        throw Exceptions.asRuntime(e);
+                    }
+
+                    final InMemoryByteStream innerStream = InMemoryByteStream.create(compressedBytes.toByteArray()).endOfStream();
+                    try (final InflaterByteReadStream stream = InflaterByteReadStream.create(innerStream, "deflate", ByteBufferPool.create()))
+                    {
+                        test.assertEqual(bytes, stream.readAllBytes().await());
+                    }
+                });
+
+                runner.test("with gzip data that has a file name", (Test test) ->
+                {
+                    final byte[] bytes = createBytes.run(300);
+                    final byte[] compressedBytes = compress.run("gzip", bytes);
+                    final byte[] fileName = "a.txt\0".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+                    final byte[] namedBytes = new byte[compressedBytes.length + fileName.length];
+                    System.arraycopy(compressedBytes, 0, namedBytes, 0, 10);
+                    namedBytes[3] = 0x08;
+                    System.arraycopy(fileName, 0, namedBytes, 10, fileName.length);
+                    System.arraycopy(compressedBytes, 10, namedBytes, 10 + fileName.length, compressedBytes.length - 10);
+
+                    final InMemoryByteStream innerStream = InMemoryByteStream.create(namedBytes).endOfStream();
+                    try (final InflaterByteReadStream stream = InflaterByteReadStream.create(innerStream, "gzip", ByteBufferPool.create()))
+                    {
+                        test.assertEqual(bytes, stream.readAllBytes().await());
+                    }
+                });
+
+                runner.test("with gzip data that has the wrong CRC", (Test test) ->
+                {
+                    final byte[] compressedBytes = compress.run("gzip", createBytes.run(300));
+                    compressedBytes[compressedBytes.length - 8] ^= 0x01;
+
+                    final InMemoryByteStream innerStream = InMemoryByteStream.create(compressedBytes).endOfStream();
+                    try (final InflaterByteReadStream stream = InflaterByteReadStream.create(innerStream, "gzip", ByteBufferPool.create()))
+                    {
+                        test.assertThrows(() -> stream.readAllBytes().await(),
+                            new ParseException("The gzip body's CRC doesn't match its decompressed data."));
+                    }
+                });
+
+                runner.test("with truncated gzip data", (Test test) ->
+                {
+                    final byte[] compressedBytes = compress.run("gzip", createBytes.run(300));
+
+                    final InMemoryByteStream innerStream = InMemoryByteStream.create(java.util.Arrays.copyOf(compressedBytes, compressedBytes.length / 2)).endOfStream();
+                    try (final InflaterByteReadStream stream = InflaterByteReadStream.create(innerStream, "gzip", ByteBufferPool.create()))
+                    {
+                        test.assertThrows(() -> stream.readAllBytes().await(),
+                            new ParseException("The compressed body ended before the end of its compressed data."));
+                    }
+                });
+
+                runner.test("with data that isn't gzip", (Test test) ->
+                {
+                    final InMemoryByteStream innerStream = InMemoryByteStream.create(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }).endOfStream();
+                    try (final InflaterByteReadStream stream = InflaterByteReadStream.create(innerStream, "gzip", ByteBufferPool.create()))
+                    {
+                        test.assertThrows(() -> stream.readAllBytes().await(),
+                            new ParseException("The compressed body is not in the gzip format."));
+                    }
+                });
+            });
+        });
+    }
+}
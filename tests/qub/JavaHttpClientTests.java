@@ -4,9 +4,47 @@ public interface JavaHttpClientTests
 {
     static void test(TestRunner runner)
     {
-        runner.testGroup(JavaHttpClient.class, () ->
+        runner.testGroup(JavaHttpClient.class,
+            (TestResources resources) -> Tuple.create(resources.getNetwork(), resources.getParallelAsyncRunner()),
+            (Network network, AsyncRunner parallelAsyncRunner) ->
         {
-            HttpClientTests.test(runner, (Network network) -> JavaHttpClient.create());
+            HttpClientTests.test(runner, (Network clientNetwork) -> JavaHttpClient.create());
+
+            runner.testGroup("send(HttpRequest)", () ->
+            {
+                runner.test("with repeated response header", (Test test) ->
+                {
+                    final IPv4Address serverAddress = IPv4Address.localhost;
+                    final int serverPort = 80;
+
+                    final TCPServer tcpServer = network.createTCPServer(serverAddress, serverPort).await();
+                    try (final HttpServer httpServer = HttpServer.create(tcpServer, parallelAsyncRunner))
+                    {
+                        httpServer.setPath("/cookies", (HttpRequest request) ->
+                        {
+                            return HttpResponse.create()
+                                .setStatusCode(200)
+                                .addHeader("Set-Cookie", "a=1")
+                                .addHeader("Set-Cookie", "b=2")
+                                .addHeader("Set-Cookie", "c=3")
+                                .setBody("");
+                        });
+                        httpServer.start();
+
+                        final HttpClient httpClient = JavaHttpClient.create();
+                        final HttpRequest httpRequest = HttpRequest.create()
+                            .setMethod(HttpMethod.GET)
+                            .setUrl(URL.create().setScheme("http").setHost(serverAddress.toString()).setPort(serverPort).setPath("/cookies"));
+                        try (final HttpResponse httpResponse = httpClient.send(httpRequest).await())
+                        {
+                            test.assertEqual(200, httpResponse.getStatusCode());
+                            test.assertEqual(
+                                Iterable.create("a=1", "b=2", "c=3"),
+                                httpResponse.getHeaders().getAllValues("Set-Cookie").toList());
+                        }
+                    }
+                });
+            });
         });
     }
 }
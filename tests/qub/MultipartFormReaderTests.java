@@ -0,0 +1,193 @@
+package qub;
+
+public interface MultipartFormReaderTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(MultipartFormReader.class, () ->
+        {
+            final Function1<String,InMemoryCharacterToByteStream> createStream = (String text) ->
+            {
+                final InMemoryCharacterToByteStream stream = InMemoryCharacterToByteStream.create();
+                stream.write(text).await();
+                stream.endOfStream();
+                return stream;
+            };
+
+            runner.testGroup("getBoundary(String)", () ->
+            {
+                runner.test("with no boundary", (Test test) ->
+                {
+                    test.assertThrows(() -> MultipartFormReader.getBoundary("multipart/form-data").await(),
+                        new NotFoundException("No boundary parameter found in \"multipart/form-data\"."));
+                });
+
+                runner.test("with unquoted boundary", (Test test) ->
+                {
+                    test.assertEqual("abc", MultipartFormReader.getBoundary("multipart/form-data; boundary=abc").await());
+                });
+
+                runner.test("with quoted boundary", (Test test) ->
+                {
+                    test.assertEqual("a b;c", MultipartFormReader.getBoundary("multipart/form-data; charset=utf-8; Boundary=\"a b;c\"").await());
+                });
+            });
+
+            runner.testGroup("readPart()", () ->
+            {
+                runner.test("with no parts", (Test test) ->
+                {
+                    final MultipartFormReader reader = MultipartFormReader.create(createStream.run("--xyz--\r\n"), "xyz");
+                    test.assertNull(reader.readPart().await());
+                    test.assertNull(reader.readPart().await());
+                });
+
+                runner.test("with missing closing boundary", (Test test) ->
+                {
+                    final MultipartFormReader reader = MultipartFormReader.create(createStream.run("--xyz\r\n\r\nhello"), "xyz");
+                    final MultipartFormPart part = reader.readPart().await();
+                    test.assertEqual("hello", CharacterReadStream.create(part.getBody()).readEntireString().await());
+                    test.assertThrows(() -> reader.readPart().await(),
+                        new ParseException("The multipart body ended before its closing boundary."));
+                });
+
+                runner.test("with body of a previous part", (Test test) ->
+                {
+                    final MultipartFormReader reader = MultipartFormReader.create(createStream.run(
+                        "--xyz\r\n" +
+                        "\r\n" +
+                        "first\r\n" +
+                        "--xyz\r\n" +
+                        "\r\n" +
+                        "second\r\n" +
+                        "--xyz--\r\n"),
+                        "xyz");
+                    final MultipartFormPart firstPart = reader.readPart().await();
+                    final MultipartFormPart secondPart = reader.readPart().await();
+                    test.assertThrows(() -> firstPart.getBody().readByte(),
+                        new PreConditionFailure("A part's body can't be read after the next part has been read."));
+                    test.assertThrows(() -> firstPart.getBody().readBytes(new byte[10], 0, 10),
+                        new PreConditionFailure("A part's body can't be read after the next part has been read."));
+                    test.assertEqual("second", CharacterReadStream.create(secondPart.getBody()).readEntireString().await());
+                });
+
+                runner.test("with part headers larger than the maximum", (Test test) ->
+                {
+                    final MultipartFormReader reader = MultipartFormReader.create(createStream.run(
+                        "--xyz\r\n" +
+                        "Content-Disposition: form-data; name=\"title\"\r\n" +
+                        "\r\n" +
+                        "Hello\r\n" +
+                        "--xyz--\r\n"),
+                        "xyz");
+                    test.assertEqual(64 * 1024, reader.getMaximumHeaderBytes());
+                    test.assertSame(reader, reader.setMaximumHeaderBytes(10));
+                    test.assertEqual(10, reader.getMaximumHeaderBytes());
+                    test.assertThrows(() -> reader.readPart().await(),
+                        new HttpLimitExceededException(431, "The header block was longer than the maximum of 10 bytes."));
+                });
+
+                runner.test("with more part headers than the maximum", (Test test) ->
+                {
+                    final MultipartFormReader reader = MultipartFormReader.create(createStream.run(
+                        "--xyz\r\n" +
+                        "Content-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n" +
+                        "Content-Type: text/plain\r\n" +
+                        "\r\n" +
+                        "Hello\r\n" +
+                        "--xyz--\r\n"),
+                        "xyz");
+                    test.assertEqual(100, reader.getMaximumHeaderCount());
+                    test.assertSame(reader, reader.setMaximumHeaderCount(1));
+                    test.assertEqual(1, reader.getMaximumHeaderCount());
+                    test.assertThrows(() -> reader.readPart().await(),
+                        new HttpLimitExceededException(431, "The header block contained more than the maximum of 1 headers."));
+                });
+
+                runner.test("with preamble and multiple parts", (Test test) ->
+                {
+                    final MultipartFormReader reader = MultipartFormReader.create(createStream.run(
+                        "preamble\r\n" +
+                        "--xyz\r\n" +
+                        "Content-Disposition: form-data; name=\"title\"\r\n" +
+                        "\r\n" +
+                        "Hello\r\n--xy world\r\n" +
+                        "--xyz\r\n" +
+                        "Content-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n" +
+                        "Content-Type: text/plain\r\n" +
+                        "\r\n" +
+                        "file contents that are skipped\r\n" +
+                        "--xyz\r\n" +
+                        "Content-Disposition: form-data; name=\"empty\"\r\n" +
+                        "\r\n" +
+                        "\r\n" +
+                        "--xyz--\r\n" +
+                        "epilogue"),
+                        "xyz");
+
+                    final MultipartFormPart part1 = reader.readPart().await();
+                    test.assertEqual("title", part1.getName());
+                    test.assertNull(part1.getFileName());
+                    test.assertNull(part1.getContentType());
+                    test.assertEqual("Hello\r\n--xy world", CharacterReadStream.create(part1.getBody()).readEntireString().await());
+
+                    final MultipartFormPart part2 = reader.readPart().await();
+                    test.assertEqual("file", part2.getName());
+                    test.assertEqual("a.txt", part2.getFileName());
+                    test.assertEqual("text/plain", part2.getContentType());
+
+                    final MultipartFormPart part3 = reader.readPart().await();
+                    test.assertEqual("empty", part3.getName());
+                    test.assertThrows(() -> part3.getBody().readByte().await(),
+                        new EmptyException());
+
+                    test.assertNull(reader.readPart().await());
+                });
+            });
+
+            runner.testGroup("spool(int)", () ->
+            {
+                final String body =
+                    "--xyz\r\n" +
+                    "Content-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n" +
+                    "\r\n" +
+                    "0123456789\r\n" +
+                    "--xyz--\r\n";
+
+                runner.test("with body that fits in memory", (Test test) ->
+                {
+                    final MultipartFormReader reader = MultipartFormReader.create(createStream.run(body), "xyz");
+                    try (final SpooledFormPartBody spooledBody = reader.readPart().await().spool(10).await())
+                    {
+                        test.assertTrue(spooledBody.isInMemory());
+                        test.assertNull(spooledBody.getFile());
+                        test.assertEqual(10L, spooledBody.getLength());
+                        test.assertEqual("0123456789", CharacterReadStream.create(spooledBody.createReadStream().await()).readEntireString().await());
+                    }
+                    test.assertNull(reader.readPart().await());
+                });
+
+                runner.test("with body that is spilled to a file", (Test test) ->
+                {
+                    final MultipartFormReader reader = MultipartFormReader.create(createStream.run(body), "xyz");
+                    final SpooledFormPartBody spooledBody = reader.readPart().await().spool(4).await();
+                    try
+                    {
+                        test.assertFalse(spooledBody.isInMemory());
+                        test.assertTrue(java.nio.file.Files.exists(spooledBody.getFile()));
+                        test.assertEqual(10L, spooledBody.getLength());
+                        try (final ByteReadStream readStream = spooledBody.createReadStream().await())
+                        {
+                            test.assertEqual("0123456789", CharacterReadStream.create(readStream).readEntireString().await());
+                        }
+                    }
+                    finally
+                    {
+                        test.assertTrue(spooledBody.dispose().await());
+                    }
+                    test.assertFalse(java.nio.file.Files.exists(spooledBody.getFile()));
+                });
+            });
+        });
+    }
+}
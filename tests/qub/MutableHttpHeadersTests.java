@@ -102,6 +102,96 @@ public interface MutableHttpHeadersTests
                 });
             });
 
+            runner.testGroup("add(String,String)", () ->
+            {
+                runner.test("with null header name", (Test test) ->
+                {
+                    final MutableHttpHeaders headers = MutableHttpHeaders.create();
+                    test.assertThrows(() -> headers.add(null, "header-value"),
+                        new PreConditionFailure("headerName cannot be null."));
+                });
+
+                runner.test("with empty header name", (Test test) ->
+                {
+                    final MutableHttpHeaders headers = MutableHttpHeaders.create();
+                    test.assertThrows(() -> headers.add("", "header-value"),
+                        new PreConditionFailure("headerName cannot be empty."));
+                });
+
+                runner.test("with null header value", (Test test) ->
+                {
+                    final MutableHttpHeaders headers = MutableHttpHeaders.create();
+                    test.assertThrows(() -> headers.add("header-name", null),
+                        new PreConditionFailure("headerValue cannot be null."));
+                    test.assertFalse(headers.contains("header-name"));
+                });
+
+                runner.test("with non-existing header", (Test test) ->
+                {
+                    final MutableHttpHeaders headers = MutableHttpHeaders.create();
+                    final MutableHttpHeaders addResult = headers.add("header-name", "header-value");
+                    test.assertSame(headers, addResult);
+                    test.assertEqual("header-value", headers.getValue("header-name").await());
+                    test.assertEqual(Iterable.create("header-value"), headers.getAllValues("header-name").toList());
+                });
+
+                runner.test("with existing header", (Test test) ->
+                {
+                    final MutableHttpHeaders headers = MutableHttpHeaders.create()
+                        .add("Set-Cookie", "a=1")
+                        .add("Content-Type", "text/html")
+                        .add("set-cookie", "b=2");
+                    test.assertEqual(3, headers.getCount());
+                    test.assertEqual("a=1", headers.getValue("Set-Cookie").await());
+                    test.assertEqual(Iterable.create("a=1", "b=2"), headers.getAllValues("SET-COOKIE").toList());
+                    test.assertEqual(
+                        Iterable.create(
+                            HttpHeader.create("Set-Cookie", "a=1"),
+                            HttpHeader.create("set-cookie", "b=2")),
+                        headers.getAll("set-cookie").toList());
+                });
+
+                runner.test("followed by set(String,String)", (Test test) ->
+                {
+                    final MutableHttpHeaders headers = MutableHttpHeaders.create()
+                        .add("a", "1")
+                        .add("b", "2")
+                        .add("a", "3")
+                        .set("A", "4");
+                    test.assertEqual(
+                        Iterable.create(
+                            HttpHeader.create("A", "4"),
+                            HttpHeader.create("b", "2")),
+                        headers);
+                });
+            });
+
+            runner.testGroup("getAllValues(String)", () ->
+            {
+                runner.test("with null header name", (Test test) ->
+                {
+                    final MutableHttpHeaders headers = MutableHttpHeaders.create();
+                    test.assertThrows(() -> headers.getAllValues(null),
+                        new PreConditionFailure("headerName cannot be null."));
+                });
+
+                runner.test("with non-existing header name", (Test test) ->
+                {
+                    final MutableHttpHeaders headers = MutableHttpHeaders.create().set("a", "b");
+                    test.assertEqual(Iterable.create(), headers.getAllValues("c").toList());
+                });
+
+                runner.test("is a view of the collection", (Test test) ->
+                {
+                    final MutableHttpHeaders headers = MutableHttpHeaders.create();
+                    final Iterable<String> values = headers.getAllValues("a");
+                    test.assertEqual(Iterable.create(), values.toList());
+
+                    headers.add("a", "1").add("a", "2");
+                    test.assertEqual(Iterable.create("1", "2"), values.toList());
+                });
+            });
+
             runner.testGroup("set(String,int)", () ->
             {
                 runner.test("with null header name", (Test test) ->
@@ -420,6 +510,16 @@ public interface MutableHttpHeadersTests
                         new NotFoundException("No \"A\" header found."));
                 });
 
+                runner.test("with multiple values for the header name", (Test test) ->
+                {
+                    final MutableHttpHeaders headers = MutableHttpHeaders.create()
+                        .add("A", "1")
+                        .add("B", "2")
+                        .add("a", "3");
+                    test.assertEqual(HttpHeader.create("A", "1"), headers.remove("a").await());
+                    test.assertEqual(Iterable.create(HttpHeader.create("B", "2")), headers);
+                });
+
                 runner.test("with found header name", (Test test) ->
                 {
                     final MutableHttpHeaders headers = MutableHttpHeaders.create();
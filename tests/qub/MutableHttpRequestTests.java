@@ -105,6 +105,103 @@ public interface MutableHttpRequestTests
                 setUrlTest.run(URL.parse("http://www.google.com").await());
             });
 
+            runner.testGroup("getPath()", () ->
+            {
+                runner.test("with no URL", (Test test) ->
+                {
+                    final MutableHttpRequest request = MutableHttpRequest.create();
+                    test.assertNull(request.getPath());
+                    test.assertNull(request.getQuery());
+                });
+
+                runner.test("with URL", (Test test) ->
+                {
+                    final MutableHttpRequest request = MutableHttpRequest.create()
+                        .setUrl(URL.parse("http://www.example.com/a/b?c=d").await());
+                    test.assertEqual("/a/b", request.getPath());
+                    test.assertEqual("c=d", request.getQuery());
+                });
+            });
+
+            runner.testGroup("getQueryParameters()", () ->
+            {
+                runner.test("with no URL", (Test test) ->
+                {
+                    final MutableHttpRequest request = MutableHttpRequest.create();
+                    test.assertEqual(0, request.getQueryParameters().getCount());
+                });
+
+                runner.test("with origin-form target", (Test test) ->
+                {
+                    final BasicMutableHttpRequest request = BasicMutableHttpRequest.create()
+                        .setOriginFormTarget("/search?q=hello+world&page=2", "https", "127.0.0.1", -1);
+                    final QueryParameters queryParameters = request.getQueryParameters();
+                    test.assertEqual("hello world", queryParameters.get("q").await());
+                    test.assertEqual("2", queryParameters.get("page").await());
+                    test.assertSame(queryParameters, request.getQueryParameters());
+
+                    request.setOriginFormTarget("/search?q=other", "https", "127.0.0.1", -1);
+                    test.assertEqual("other", request.getQueryParameters().get("q").await());
+                });
+            });
+
+            runner.testGroup("setOriginFormTarget(String,String,String,int)", () ->
+            {
+                runner.test("with null requestTarget", (Test test) ->
+                {
+                    final BasicMutableHttpRequest request = BasicMutableHttpRequest.create();
+                    test.assertThrows(() -> request.setOriginFormTarget(null, "https", "127.0.0.1", 80),
+                        new PreConditionFailure("requestTarget cannot be null."));
+                });
+
+                runner.test("with empty requestTarget", (Test test) ->
+                {
+                    final BasicMutableHttpRequest request = BasicMutableHttpRequest.create();
+                    test.assertThrows(() -> request.setOriginFormTarget("", "https", "127.0.0.1", 80),
+                        new PreConditionFailure("requestTarget cannot be empty."));
+                });
+
+                runner.test("with path", (Test test) ->
+                {
+                    final BasicMutableHttpRequest request = BasicMutableHttpRequest.create();
+                    final BasicMutableHttpRequest setOriginFormTargetResult = request.setOriginFormTarget("/a/b", "https", "127.0.0.1", -1);
+                    test.assertSame(request, setOriginFormTargetResult);
+                    test.assertEqual("/a/b", request.getPath());
+                    test.assertNull(request.getQuery());
+                    test.assertEqual(URL.parse("https://127.0.0.1/a/b").await(), request.getURL());
+                    test.assertSame(request.getURL(), request.getURL());
+                });
+
+                runner.test("with path and query", (Test test) ->
+                {
+                    final BasicMutableHttpRequest request = BasicMutableHttpRequest.create()
+                        .setOriginFormTarget("/a/b?c=d&e", "https", "127.0.0.1", 8080);
+                    test.assertEqual("/a/b", request.getPath());
+                    test.assertEqual("c=d&e", request.getQuery());
+                    test.assertEqual(URL.parse("https://127.0.0.1:8080/a/b?c=d&e").await(), request.getURL());
+                });
+
+                runner.test("followed by setUrl(URL)", (Test test) ->
+                {
+                    final BasicMutableHttpRequest request = BasicMutableHttpRequest.create()
+                        .setOriginFormTarget("/a/b?c=d", "https", "127.0.0.1", -1)
+                        .setUrl(URL.parse("http://www.example.com/e").await());
+                    test.assertEqual("/e", request.getPath());
+                    test.assertNull(request.getQuery());
+                    test.assertEqual(URL.parse("http://www.example.com/e").await(), request.getURL());
+                });
+
+                runner.test("followed by reset()", (Test test) ->
+                {
+                    final BasicMutableHttpRequest request = BasicMutableHttpRequest.create()
+                        .setOriginFormTarget("/a/b?c=d", "https", "127.0.0.1", -1)
+                        .reset();
+                    test.assertNull(request.getPath());
+                    test.assertNull(request.getQuery());
+                    test.assertNull(request.getURL());
+                });
+            });
+
             runner.testGroup("setHttpVersion(String)", () ->
             {
                 final Action2<String,Throwable> setHttpVersionErrorTest = (String httpVersion, Throwable expected) ->
@@ -242,6 +339,53 @@ public interface MutableHttpRequestTests
                 });
             });
 
+            runner.testGroup("getContentLengthValue()", () ->
+            {
+                runner.test("with no Content-Length header", (Test test) ->
+                {
+                    final MutableHttpRequest request = MutableHttpRequest.create();
+                    test.assertEqual(-1L, request.getContentLengthValue());
+                });
+
+                runner.test("with Content-Length header set from a String", (Test test) ->
+                {
+                    final MutableHttpRequest request = MutableHttpRequest.create()
+                        .setHeader("content-length", "12");
+                    test.assertEqual(12L, request.getContentLengthValue());
+                    test.assertEqual(12L, request.getContentLength().await());
+                });
+
+                runner.test("with Content-Length header set from a long", (Test test) ->
+                {
+                    final MutableHttpRequest request = MutableHttpRequest.create()
+                        .setHeader(HttpHeader.ContentLengthName, 13L);
+                    test.assertEqual(13L, request.getContentLengthValue());
+                    test.assertEqual(13L, request.getContentLength().await());
+                });
+
+                runner.test("with invalid Content-Length header", (Test test) ->
+                {
+                    final MutableHttpRequest request = MutableHttpRequest.create()
+                        .setHeader(HttpHeader.ContentLengthName, "abc");
+                    test.assertEqual(-1L, request.getContentLengthValue());
+                });
+
+                runner.test("after setBody() with a non-empty body", (Test test) ->
+                {
+                    final MutableHttpRequest request = MutableHttpRequest.create()
+                        .setBody(new byte[] { 0, 1, 2 });
+                    test.assertEqual(3L, request.getContentLengthValue());
+                });
+
+                runner.test("after setBody() with an empty body", (Test test) ->
+                {
+                    final MutableHttpRequest request = MutableHttpRequest.create()
+                        .setBody(new byte[] { 0, 1, 2 })
+                        .setBody(new byte[0]);
+                    test.assertEqual(-1L, request.getContentLengthValue());
+                });
+            });
+
             runner.testGroup("setAuthorizationHeader(String)", () ->
             {
                 final Action2<String,Throwable> setAuthorizationErrorTest = (String authorization, Throwable expected) ->
@@ -395,6 +539,61 @@ public interface MutableHttpRequestTests
                 });
             });
 
+            runner.testGroup("setChunkedBody(ByteReadStream)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final BasicMutableHttpRequest request = BasicMutableHttpRequest.create();
+                    test.assertThrows(() -> request.setChunkedBody(null),
+                        new PreConditionFailure("body cannot be null."));
+                    test.assertNull(request.getBody());
+                });
+
+                runner.test("with request that has a Content-Length", (Test test) ->
+                {
+                    final BasicMutableHttpRequest request = BasicMutableHttpRequest.create()
+                        .setBody(new byte[] { 0, 1, 2 });
+                    final InMemoryByteStream body = InMemoryByteStream.create(new byte[] { 0, 1, 2, 3, 4 }).endOfStream();
+                    final MutableHttpRequest setChunkedBodyResult = request.setChunkedBody(body);
+                    test.assertSame(request, setChunkedBodyResult);
+                    test.assertSame(body, request.getBody());
+                    test.assertEqual(
+                        HttpHeaders.create().set(HttpHeader.TransferEncodingName, "chunked"),
+                        request.getHeaders());
+                    test.assertEqual(-1L, request.getContentLengthValue());
+                });
+            });
+
+            runner.testGroup("setCompressedBody(String,ByteReadStream)", () ->
+            {
+                runner.test("with unsupported contentEncoding", (Test test) ->
+                {
+                    final BasicMutableHttpRequest request = BasicMutableHttpRequest.create();
+                    test.assertThrows(() -> request.setCompressedBody("br", InMemoryByteStream.create().endOfStream()),
+                        new PreConditionFailure("contentEncoding must be \"gzip\" or \"deflate\"."));
+                });
+
+                runner.test("with null body", (Test test) ->
+                {
+                    final BasicMutableHttpRequest request = BasicMutableHttpRequest.create();
+                    test.assertThrows(() -> request.setCompressedBody("gzip", null),
+                        new PreConditionFailure("body cannot be null."));
+                });
+
+                runner.test("with gzip", (Test test) ->
+                {
+                    final BasicMutableHttpRequest request = BasicMutableHttpRequest.create();
+                    final MutableHttpRequest setCompressedBodyResult = request.setCompressedBody("gzip", InMemoryByteStream.create(new byte[] { 0, 1, 2, 3, 4 }).endOfStream());
+                    test.assertSame(request, setCompressedBodyResult);
+                    test.assertEqual("gzip", request.getHeaderValue(HttpHeader.ContentEncodingName).await());
+                    test.assertEqual("chunked", request.getHeaderValue(HttpHeader.TransferEncodingName).await());
+                    test.assertFalse(request.getHeaders().contains(HttpHeader.ContentLengthName));
+
+                    final InflaterByteReadStream body = InflaterByteReadStream.create(request.getBody(), "gzip", ByteBufferPool.create());
+                    test.assertEqual(new byte[] { 0, 1, 2, 3, 4 }, body.readAllBytes().await());
+                });
+            });
+
             runner.testGroup("setBody(String)", () ->
             {
                 runner.test("with null", (Test test) ->
@@ -372,6 +372,44 @@ public interface MutableHttpResponseTests
                         .set("a", "4"));
             });
 
+            runner.testGroup("getContentLengthValue()", () ->
+            {
+                runner.test("with no Content-Length header", (Test test) ->
+                {
+                    final MutableHttpResponse httpResponse = MutableHttpResponse.create();
+                    test.assertEqual(-1L, httpResponse.getContentLengthValue());
+                });
+
+                runner.test("with Content-Length header set from a String", (Test test) ->
+                {
+                    final MutableHttpResponse httpResponse = MutableHttpResponse.create()
+                        .setHeader("content-length", "12");
+                    test.assertEqual(12L, httpResponse.getContentLengthValue());
+                    test.assertEqual(12L, httpResponse.getContentLength().await());
+                });
+
+                runner.test("with Content-Length header set from an HttpHeader", (Test test) ->
+                {
+                    final MutableHttpResponse httpResponse = MutableHttpResponse.create()
+                        .setHeader(HttpHeader.create(HttpHeader.ContentLengthName, 13));
+                    test.assertEqual(13L, httpResponse.getContentLengthValue());
+                });
+
+                runner.test("with invalid Content-Length header", (Test test) ->
+                {
+                    final MutableHttpResponse httpResponse = MutableHttpResponse.create()
+                        .setHeader(HttpHeader.ContentLengthName, "abc");
+                    test.assertEqual(-1L, httpResponse.getContentLengthValue());
+                });
+
+                runner.test("after setBody(String)", (Test test) ->
+                {
+                    final MutableHttpResponse httpResponse = MutableHttpResponse.create()
+                        .setBody("hello");
+                    test.assertEqual(5L, httpResponse.getContentLengthValue());
+                });
+            });
+
             runner.testGroup("setBody(ByteReadStream)", () ->
             {
                 runner.test("with null", (Test test) ->
@@ -419,6 +457,92 @@ public interface MutableHttpResponseTests
                 setBodyTest.run("hello");
             });
 
+            runner.testGroup("removeHeader(String)", () ->
+            {
+                runner.test("with header that doesn't exist", (Test test) ->
+                {
+                    final MutableHttpResponse httpResponse = MutableHttpResponse.create();
+                    test.assertSame(httpResponse, httpResponse.removeHeader("a"));
+                    test.assertEqual(HttpHeaders.create(), httpResponse.getHeaders());
+                });
+
+                runner.test("with Content-Length", (Test test) ->
+                {
+                    final MutableHttpResponse httpResponse = MutableHttpResponse.create()
+                        .setBody("hello");
+                    test.assertSame(httpResponse, httpResponse.removeHeader("content-length"));
+                    test.assertFalse(httpResponse.getHeaders().contains(HttpHeader.ContentLengthName));
+                    test.assertEqual(-1L, httpResponse.getContentLengthValue());
+                });
+            });
+
+            runner.testGroup("decompressBody(ByteBufferPool)", () ->
+            {
+                runner.test("with no Content-Encoding", (Test test) ->
+                {
+                    final MutableHttpResponse httpResponse = MutableHttpResponse.create()
+                        .setBody("hello");
+                    final ByteReadStream body = httpResponse.getBody();
+                    test.assertSame(httpResponse, httpResponse.decompressBody(ByteBufferPool.create()));
+                    test.assertSame(body, httpResponse.getBody());
+                    test.assertEqual(5L, httpResponse.getContentLengthValue());
+                });
+
+                runner.test("with unsupported Content-Encoding", (Test test) ->
+                {
+                    final MutableHttpResponse httpResponse = MutableHttpResponse.create()
+                        .setHeader(HttpHeader.ContentEncodingName, "br")
+                        .setBody("hello");
+                    final ByteReadStream body = httpResponse.getBody();
+                    test.assertSame(httpResponse, httpResponse.decompressBody(ByteBufferPool.create()));
+                    test.assertSame(body, httpResponse.getBody());
+                    test.assertEqual("br", httpResponse.getHeaderValue(HttpHeader.ContentEncodingName).await());
+                });
+
+                runner.test("with gzip Content-Encoding", (Test test) ->
+                {
+                    final InMemoryByteStream compressedBody = InMemoryByteStream.create();
+                    try (final DeflaterByteWriteStream deflaterStream = DeflaterByteWriteStream.create(compressedBody, "gzip", ByteBufferPool.create()))
+                    {
+                        deflaterStream.writeAll(new byte[] { 1, 2, 3, 4, 5 }).await();
+                    }
+                    compressedBody.endOfStream();
+
+                    final MutableHttpResponse httpResponse = MutableHttpResponse.create()
+                        .setHeader(HttpHeader.ContentEncodingName, "gzip")
+                        .setHeader(HttpHeader.ContentLengthName, compressedBody.getBytes().length)
+                        .setBody(compressedBody);
+                    test.assertSame(httpResponse, httpResponse.decompressBody(ByteBufferPool.create()));
+                    test.assertFalse(httpResponse.getHeaders().contains(HttpHeader.ContentEncodingName));
+                    test.assertFalse(httpResponse.getHeaders().contains(HttpHeader.ContentLengthName));
+                    test.assertEqual(-1L, httpResponse.getContentLengthValue());
+                    test.assertEqual(new byte[] { 1, 2, 3, 4, 5 }, httpResponse.getBody().readAllBytes().await());
+                });
+            });
+
+            runner.test("reset()", (Test test) ->
+            {
+                final MutableHttpResponse httpResponse = MutableHttpResponse.create()
+                    .setHttpVersion("HTTP/1.0")
+                    .setStatusCode(201)
+                    .setReasonPhrase("Created")
+                    .setHeader("a", "b")
+                    .setBody("hello");
+                final MutableHttpHeaders headers = (MutableHttpHeaders)httpResponse.getHeaders();
+                test.assertTrue(httpResponse.dispose().await());
+
+                final MutableHttpResponse resetResult = httpResponse.reset();
+                test.assertSame(httpResponse, resetResult);
+                test.assertFalse(httpResponse.isDisposed());
+                test.assertNull(httpResponse.getHttpVersion());
+                test.assertEqual(0, httpResponse.getStatusCode());
+                test.assertNull(httpResponse.getReasonPhrase());
+                test.assertSame(headers, httpResponse.getHeaders());
+                test.assertEqual(HttpHeaders.create(), httpResponse.getHeaders());
+                test.assertEqual(-1L, httpResponse.getContentLengthValue());
+                test.assertEqual(new byte[0], httpResponse.getBody().readAllBytes().await());
+            });
+
             runner.test("dispose()", (Test test) ->
             {
                 final MutableHttpResponse httpResponse = MutableHttpResponse.create();
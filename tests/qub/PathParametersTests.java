@@ -0,0 +1,81 @@
+package qub;
+
+public interface PathParametersTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(PathParameters.class, () ->
+        {
+            runner.testGroup("create(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> PathParameters.create(null),
+                        new PreConditionFailure("path cannot be null."));
+                });
+
+                runner.test("with \"/hello\"", (Test test) ->
+                {
+                    final PathParameters parameters = PathParameters.create("/hello");
+                    test.assertEqual("/hello", parameters.getPath());
+                    test.assertEqual(0, parameters.getCount());
+                    test.assertEqual(Iterable.create(), parameters.toList());
+                });
+            });
+
+            runner.testGroup("get(int)", () ->
+            {
+                final PathParameters parameters = PathParameters.create("/a/bc", new String[] { null, "name" }, new int[] { 1, 2, 3, 5 });
+
+                runner.test("with negative index", (Test test) ->
+                {
+                    test.assertThrows(() -> parameters.get(-1),
+                        new PreConditionFailure("index (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with index equal to count", (Test test) ->
+                {
+                    test.assertThrows(() -> parameters.get(2),
+                        new PreConditionFailure("index (2) must be less than or equal to 1."));
+                });
+
+                runner.test("with valid indexes", (Test test) ->
+                {
+                    test.assertEqual("a", parameters.get(0));
+                    test.assertEqual("bc", parameters.get(1));
+                    test.assertSame(parameters.get(1), parameters.get(1));
+                    test.assertNull(parameters.getName(0));
+                    test.assertEqual("name", parameters.getName(1));
+                });
+            });
+
+            runner.testGroup("get(String)", () ->
+            {
+                final PathParameters parameters = PathParameters.create("/a/bc", new String[] { null, "name" }, new int[] { 1, 2, 3, 5 });
+
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> parameters.get((String)null),
+                        new PreConditionFailure("name cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    test.assertThrows(() -> parameters.get(""),
+                        new PreConditionFailure("name cannot be empty."));
+                });
+
+                runner.test("with existing name", (Test test) ->
+                {
+                    test.assertEqual("bc", parameters.get("name").await());
+                });
+
+                runner.test("with non-existing name", (Test test) ->
+                {
+                    test.assertThrows(() -> parameters.get("other").await(),
+                        new NotFoundException("No path parameter named \"other\" found."));
+                });
+            });
+        });
+    }
+}
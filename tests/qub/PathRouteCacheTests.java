@@ -0,0 +1,120 @@
+package qub;
+
+public interface PathRouteCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(PathRouteCache.class, () ->
+        {
+            final PathRoute route = PathRoute.create("/users/{id}", (PathParameters pathParameters, HttpRequest request) -> null);
+
+            runner.testGroup("create(int)", () ->
+            {
+                runner.test("with negative capacity", (Test test) ->
+                {
+                    test.assertThrows(() -> PathRouteCache.create(-1),
+                        new PreConditionFailure("capacity (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with 0", (Test test) ->
+                {
+                    final PathRouteCache cache = PathRouteCache.create(0);
+                    test.assertEqual(0, cache.getCapacity());
+                    cache.put(cache.getGeneration(), route.match("/users/1"));
+                    test.assertEqual(0, cache.getCount());
+                    test.assertNull(cache.get("/users/1"));
+                });
+
+                runner.test("with 10", (Test test) ->
+                {
+                    final PathRouteCache cache = PathRouteCache.create(10);
+                    test.assertEqual(10, cache.getCapacity());
+                    test.assertEqual(0, cache.getCount());
+                    test.assertEqual(0L, cache.getHitCount());
+                    test.assertEqual(0L, cache.getMissCount());
+                    test.assertEqual(0.0, cache.getHitRate());
+                });
+            });
+
+            runner.testGroup("get(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final PathRouteCache cache = PathRouteCache.create(10);
+                    test.assertThrows(() -> cache.get(null),
+                        new PreConditionFailure("path cannot be null."));
+                });
+
+                runner.test("with missing path", (Test test) ->
+                {
+                    final PathRouteCache cache = PathRouteCache.create(10);
+                    test.assertNull(cache.get("/users/1"));
+                    test.assertEqual(0L, cache.getHitCount());
+                    test.assertEqual(1L, cache.getMissCount());
+                });
+
+                runner.test("with cached path", (Test test) ->
+                {
+                    final PathRouteCache cache = PathRouteCache.create(10);
+                    cache.put(cache.getGeneration(), route.match("/users/1"));
+                    test.assertEqual(1, cache.getCount());
+
+                    final PathParameters parameters = cache.get("/users/1");
+                    test.assertNotNull(parameters);
+                    test.assertSame(route, parameters.getRoute());
+                    test.assertEqual("1", parameters.get("id").await());
+                    test.assertEqual(1L, cache.getHitCount());
+                    test.assertEqual(0L, cache.getMissCount());
+                    test.assertEqual(1.0, cache.getHitRate());
+                });
+            });
+
+            runner.testGroup("put(long,PathParameters)", () ->
+            {
+                runner.test("with null pathParameters", (Test test) ->
+                {
+                    final PathRouteCache cache = PathRouteCache.create(10);
+                    test.assertThrows(() -> cache.put(cache.getGeneration(), null),
+                        new PreConditionFailure("pathParameters cannot be null."));
+                });
+
+                runner.test("with old generation", (Test test) ->
+                {
+                    final PathRouteCache cache = PathRouteCache.create(10);
+                    final long generation = cache.getGeneration();
+                    cache.clear();
+                    cache.put(generation, route.match("/users/1"));
+                    test.assertEqual(0, cache.getCount());
+                    test.assertNull(cache.get("/users/1"));
+                });
+
+                runner.test("when full evicts an unreferenced entry", (Test test) ->
+                {
+                    final PathRouteCache cache = PathRouteCache.create(2);
+                    cache.put(cache.getGeneration(), route.match("/users/1"));
+                    cache.put(cache.getGeneration(), route.match("/users/2"));
+                    test.assertNotNull(cache.get("/users/1"));
+
+                    cache.put(cache.getGeneration(), route.match("/users/3"));
+                    test.assertEqual(2, cache.getCount());
+                    test.assertEqual(1L, cache.getEvictionCount());
+                    test.assertNotNull(cache.get("/users/1"));
+                    test.assertNull(cache.get("/users/2"));
+                    test.assertNotNull(cache.get("/users/3"));
+                });
+            });
+
+            runner.test("clear()", (Test test) ->
+            {
+                final PathRouteCache cache = PathRouteCache.create(10);
+                final long generation = cache.getGeneration();
+                cache.put(generation, route.match("/users/1"));
+
+                cache.clear();
+                test.assertEqual(0, cache.getCount());
+                test.assertNotEqual(generation, cache.getGeneration());
+                test.assertNull(cache.get("/users/1"));
+            });
+        });
+    }
+}
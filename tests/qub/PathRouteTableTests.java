@@ -0,0 +1,88 @@
+package qub;
+
+public interface PathRouteTableTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(PathRouteTable.class, () ->
+        {
+            final Function2<PathParameters,HttpRequest,HttpResponse> action = (PathParameters pathParameters, HttpRequest request) -> null;
+
+            runner.test("create()", (Test test) ->
+            {
+                final PathRouteTable table = PathRouteTable.create();
+                test.assertEqual(0, table.getCount());
+                test.assertEqual(Iterable.create(), table.getRoutes());
+                test.assertNull(table.match("/"));
+            });
+
+            runner.testGroup("set(PathRoute)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final PathRouteTable table = PathRouteTable.create();
+                    test.assertThrows(() -> table.set(null),
+                        new PreConditionFailure("route cannot be null."));
+                });
+
+                runner.test("with new pattern", (Test test) ->
+                {
+                    final PathRouteTable table = PathRouteTable.create();
+                    final PathRoute route = PathRoute.create("/a", action);
+                    final PathRouteTable newTable = table.set(route);
+                    test.assertNotSame(table, newTable);
+                    test.assertEqual(0, table.getCount());
+                    test.assertEqual(Iterable.create(route), newTable.getRoutes());
+                });
+
+                runner.test("with existing pattern", (Test test) ->
+                {
+                    final PathRoute route1 = PathRoute.create("/a", action);
+                    final PathRoute route2 = PathRoute.create("/b", action);
+                    final PathRoute route3 = PathRoute.create("/a", action);
+                    final PathRouteTable table = PathRouteTable.create().set(route1).set(route2);
+                    final PathRouteTable newTable = table.set(route3);
+                    test.assertEqual(Iterable.create(route1, route2), table.getRoutes());
+                    test.assertEqual(Iterable.create(route3, route2), newTable.getRoutes());
+                });
+            });
+
+            runner.testGroup("remove(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final PathRouteTable table = PathRouteTable.create();
+                    test.assertThrows(() -> table.remove(null),
+                        new PreConditionFailure("pattern cannot be null."));
+                });
+
+                runner.test("with non-existing pattern", (Test test) ->
+                {
+                    final PathRouteTable table = PathRouteTable.create().set(PathRoute.create("/a", action));
+                    test.assertSame(table, table.remove("/b"));
+                });
+
+                runner.test("with existing pattern", (Test test) ->
+                {
+                    final PathRoute route1 = PathRoute.create("/a", action);
+                    final PathRoute route2 = PathRoute.create("/b", action);
+                    final PathRoute route3 = PathRoute.create("/c", action);
+                    final PathRouteTable table = PathRouteTable.create().set(route1).set(route2).set(route3);
+                    final PathRouteTable newTable = table.remove("/b");
+                    test.assertEqual(Iterable.create(route1, route2, route3), table.getRoutes());
+                    test.assertEqual(Iterable.create(route1, route3), newTable.getRoutes());
+                });
+            });
+
+            runner.test("match(String)", (Test test) ->
+            {
+                final PathRoute route1 = PathRoute.create("/a/*", action);
+                final PathRoute route2 = PathRoute.create("/**", action);
+                final PathRouteTable table = PathRouteTable.create().set(route1).set(route2);
+                test.assertSame(route1, table.match("/a/b").getRoute());
+                test.assertSame(route2, table.match("/a/b/c").getRoute());
+                test.assertSame(route2, table.match("/").getRoute());
+            });
+        });
+    }
+}
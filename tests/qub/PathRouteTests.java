@@ -0,0 +1,105 @@
+package qub;
+
+public interface PathRouteTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(PathRoute.class, () ->
+        {
+            final Function2<PathParameters,HttpRequest,HttpResponse> action = (PathParameters pathParameters, HttpRequest request) -> null;
+
+            runner.testGroup("create(String,Function2<PathParameters,HttpRequest,HttpResponse>)", () ->
+            {
+                runner.test("with null pattern", (Test test) ->
+                {
+                    test.assertThrows(() -> PathRoute.create(null, action),
+                        new PreConditionFailure("pattern cannot be null."));
+                });
+
+                runner.test("with empty pattern", (Test test) ->
+                {
+                    test.assertThrows(() -> PathRoute.create("", action),
+                        new PreConditionFailure("pattern cannot be empty."));
+                });
+
+                runner.test("with null action", (Test test) ->
+                {
+                    test.assertThrows(() -> PathRoute.create("/", null),
+                        new PreConditionFailure("action cannot be null."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final PathRoute route = PathRoute.create("/users/{id}", action);
+                    test.assertEqual("/users/{id}", route.toString());
+                    test.assertEqual("/users/{id}", route.getPathPattern().toString());
+                    test.assertSame(action, route.getAction());
+                });
+            });
+
+            runner.testGroup("match(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final PathRoute route = PathRoute.create("/", action);
+                    test.assertThrows(() -> route.match(null),
+                        new PreConditionFailure("path cannot be null."));
+                });
+
+                final Action3<String,String,Iterable<String>> matchTest = (String pattern, String path, Iterable<String> expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(pattern) + " and " + Strings.escapeAndQuote(path), (Test test) ->
+                    {
+                        final PathRoute route = PathRoute.create(pattern, action);
+                        final PathParameters parameters = route.match(path);
+                        if (expected == null)
+                        {
+                            test.assertNull(parameters);
+                        }
+                        else
+                        {
+                            test.assertNotNull(parameters);
+                            test.assertSame(path, parameters.getPath());
+                            test.assertEqual(expected, parameters.toList());
+                        }
+                    });
+                };
+
+                matchTest.run("/", "/", Iterable.create());
+                matchTest.run("/", "/a", null);
+                matchTest.run("/a/b", "/a/b", Iterable.create());
+                matchTest.run("/a/b", "/a/bc", null);
+                matchTest.run("/a/b", "/a", null);
+                matchTest.run("/things/*", "/things/catsanddogs", Iterable.create("catsanddogs"));
+                matchTest.run("/things/*", "/things/", Iterable.create(""));
+                matchTest.run("/things/*", "/things/cats/dogs", null);
+                matchTest.run("/things/*.txt", "/things/cats.txt", Iterable.create("cats"));
+                matchTest.run("/**", "/", Iterable.create(""));
+                matchTest.run("/**", "/a/b/c", Iterable.create("a/b/c"));
+                matchTest.run("/a/**/c", "/a/b/b/c", Iterable.create("b/b"));
+                matchTest.run("/users/{id}", "/users/123", Iterable.create("123"));
+                matchTest.run("/users/{id}", "/users/", null);
+                matchTest.run("/users/{id}", "/users/123/orders", null);
+                matchTest.run("/users/{id}/orders/{orderId}", "/users/123/orders/abc", Iterable.create("123", "abc"));
+                matchTest.run("/users/{id}/orders/{orderId}", "/users/123/orders", null);
+                matchTest.run("/{}", "/{}", Iterable.create());
+                matchTest.run("/{a/b}", "/{a/b}", Iterable.create());
+            });
+
+            runner.test("match(String) with named parameters", (Test test) ->
+            {
+                final PathRoute route = PathRoute.create("/users/{id}/orders/{orderId}", action);
+                final PathParameters parameters = route.match("/users/123/orders/abc");
+                test.assertEqual(2, parameters.getCount());
+                test.assertEqual("id", parameters.getName(0));
+                test.assertEqual(7, parameters.getStartIndex(0));
+                test.assertEqual(10, parameters.getEndIndex(0));
+                test.assertEqual("orderId", parameters.getName(1));
+                test.assertEqual("123", parameters.get("id").await());
+                test.assertEqual("abc", parameters.get("orderId").await());
+                test.assertThrows(() -> parameters.get("userId").await(),
+                    new NotFoundException("No path parameter named \"userId\" found."));
+            });
+        });
+    }
+}
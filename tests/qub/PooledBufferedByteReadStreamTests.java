@@ -0,0 +1,96 @@
+package qub;
+
+public interface PooledBufferedByteReadStreamTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(PooledBufferedByteReadStream.class, () ->
+        {
+            runner.testGroup("create(ByteReadStream,ByteBufferPool)", () ->
+            {
+                runner.test("with null innerStream", (Test test) ->
+                {
+                    test.assertThrows(() -> PooledBufferedByteReadStream.create(null, ByteBufferPool.create()),
+                        new PreConditionFailure("innerStream cannot be null."));
+                });
+
+                runner.test("with null bufferPool", (Test test) ->
+                {
+                    test.assertThrows(() -> PooledBufferedByteReadStream.create(InMemoryByteStream.create(), null),
+                        new PreConditionFailure("bufferPool cannot be null."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final ByteBufferPool pool = ByteBufferPool.create();
+                    final PooledBufferedByteReadStream stream = PooledBufferedByteReadStream.create(InMemoryByteStream.create(), pool);
+                    test.assertFalse(stream.isDisposed());
+                    test.assertEqual(1L, pool.getLeasedCount());
+                });
+            });
+
+            runner.test("readByte()", (Test test) ->
+            {
+                final ByteBufferPool pool = ByteBufferPool.create(1024, 1024, 1);
+                final InMemoryByteStream innerStream = InMemoryByteStream.create(new byte[] { 1, 2, 3 }).endOfStream();
+                try (final PooledBufferedByteReadStream stream = PooledBufferedByteReadStream.create(innerStream, pool, 2))
+                {
+                    test.assertEqual((byte)1, stream.readByte().await());
+                    test.assertEqual((byte)2, stream.readByte().await());
+                    test.assertEqual((byte)3, stream.readByte().await());
+                    test.assertThrows(() -> stream.readByte().await(),
+                        new EmptyException());
+                }
+                test.assertEqual(0L, pool.getLeasedCount());
+            });
+
+            runner.test("readBytes(byte[],int,int)", (Test test) ->
+            {
+                final ByteBufferPool pool = ByteBufferPool.create();
+                final InMemoryByteStream innerStream = InMemoryByteStream.create(new byte[] { 1, 2, 3, 4, 5 }).endOfStream();
+                try (final PooledBufferedByteReadStream stream = PooledBufferedByteReadStream.create(innerStream, pool))
+                {
+                    test.assertEqual((byte)1, stream.readByte().await());
+                    final byte[] outputBytes = new byte[10];
+                    test.assertEqual(4, stream.readBytes(outputBytes, 0, 10).await());
+                    test.assertEqual(new byte[] { 2, 3, 4, 5, 0, 0, 0, 0, 0, 0 }, outputBytes);
+                }
+            });
+
+            runner.test("readBytesUntil(byte,byte[],int,int)", (Test test) ->
+            {
+                final ByteBufferPool pool = ByteBufferPool.create(1024, 1024, 1);
+                final InMemoryByteStream innerStream = InMemoryByteStream.create(new byte[] { 1, 2, 0, 3, 4, 5, 0, 6 }).endOfStream();
+                try (final PooledBufferedByteReadStream stream = PooledBufferedByteReadStream.create(innerStream, pool, 2))
+                {
+                    final byte[] outputBytes = new byte[10];
+                    test.assertEqual(3, stream.readBytesUntil((byte)0, outputBytes, 0, 10).await());
+                    test.assertEqual(new byte[] { 1, 2, 0, 0, 0, 0, 0, 0, 0, 0 }, outputBytes);
+                    test.assertEqual(2, stream.readBytesUntil((byte)0, outputBytes, 3, 2).await());
+                    test.assertEqual(new byte[] { 1, 2, 0, 3, 4, 0, 0, 0, 0, 0 }, outputBytes);
+                    test.assertEqual(2, stream.readBytesUntil((byte)0, outputBytes, 5, 5).await());
+                    test.assertEqual(new byte[] { 1, 2, 0, 3, 4, 5, 0, 0, 0, 0 }, outputBytes);
+                    test.assertEqual(1, stream.readBytesUntil((byte)0, outputBytes, 7, 3).await());
+                    test.assertEqual(new byte[] { 1, 2, 0, 3, 4, 5, 0, 6, 0, 0 }, outputBytes);
+                    test.assertEqual(0, stream.readBytesUntil((byte)0, outputBytes, 8, 2).await());
+                }
+                test.assertEqual(0L, pool.getLeasedCount());
+            });
+
+            runner.test("dispose()", (Test test) ->
+            {
+                final ByteBufferPool pool = ByteBufferPool.create().setLeakTracking(true);
+                final InMemoryByteStream innerStream = InMemoryByteStream.create();
+                final PooledBufferedByteReadStream stream = PooledBufferedByteReadStream.create(innerStream, pool);
+
+                test.assertTrue(stream.dispose().await());
+                test.assertTrue(stream.isDisposed());
+                test.assertFalse(innerStream.isDisposed());
+                test.assertEqual(0L, pool.getLeasedCount());
+
+                test.assertFalse(stream.dispose().await());
+                test.assertEqual(0L, pool.getLeasedCount());
+            });
+        });
+    }
+}
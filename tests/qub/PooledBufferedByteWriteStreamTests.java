@@ -0,0 +1,73 @@
+package qub;
+
+public interface PooledBufferedByteWriteStreamTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(PooledBufferedByteWriteStream.class, () ->
+        {
+            runner.testGroup("create(ByteWriteStream,ByteBufferPool)", () ->
+            {
+                runner.test("with null innerStream", (Test test) ->
+                {
+                    test.assertThrows(() -> PooledBufferedByteWriteStream.create(null, ByteBufferPool.create()),
+                        new PreConditionFailure("innerStream cannot be null."));
+                });
+
+                runner.test("with null bufferPool", (Test test) ->
+                {
+                    test.assertThrows(() -> PooledBufferedByteWriteStream.create(InMemoryByteStream.create(), null),
+                        new PreConditionFailure("bufferPool cannot be null."));
+                });
+            });
+
+            runner.test("write(byte) and flush()", (Test test) ->
+            {
+                final ByteBufferPool pool = ByteBufferPool.create();
+                final InMemoryByteStream innerStream = InMemoryByteStream.create();
+                try (final PooledBufferedByteWriteStream stream = PooledBufferedByteWriteStream.create(innerStream, pool))
+                {
+                    test.assertEqual(1, stream.write((byte)1).await());
+                    test.assertEqual(1, stream.write((byte)2).await());
+                    test.assertEqual(new byte[0], innerStream.getBytes());
+
+                    stream.flush().await();
+                    test.assertEqual(new byte[] { 1, 2 }, innerStream.getBytes());
+                }
+            });
+
+            runner.test("write(byte[],int,int) with more bytes than the buffer", (Test test) ->
+            {
+                final ByteBufferPool pool = ByteBufferPool.create(4, 4, 1);
+                final InMemoryByteStream innerStream = InMemoryByteStream.create();
+                try (final PooledBufferedByteWriteStream stream = PooledBufferedByteWriteStream.create(innerStream, pool, 4))
+                {
+                    test.assertEqual(3, stream.write(new byte[] { 1, 2, 3 }, 0, 3).await());
+                    test.assertEqual(new byte[0], innerStream.getBytes());
+
+                    test.assertEqual(2, stream.write(new byte[] { 4, 5 }, 0, 2).await());
+                    test.assertEqual(new byte[] { 1, 2, 3 }, innerStream.getBytes());
+
+                    test.assertEqual(5, stream.write(new byte[] { 6, 7, 8, 9, 10 }, 0, 5).await());
+                    test.assertEqual(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }, innerStream.getBytes());
+                }
+            });
+
+            runner.test("dispose()", (Test test) ->
+            {
+                final ByteBufferPool pool = ByteBufferPool.create().setLeakTracking(true);
+                final InMemoryByteStream innerStream = InMemoryByteStream.create();
+                final PooledBufferedByteWriteStream stream = PooledBufferedByteWriteStream.create(innerStream, pool);
+                stream.write((byte)5).await();
+
+                test.assertTrue(stream.dispose().await());
+                test.assertTrue(stream.isDisposed());
+                test.assertFalse(innerStream.isDisposed());
+                test.assertEqual(new byte[] { 5 }, innerStream.getBytes());
+                test.assertEqual(0L, pool.getLeasedCount());
+
+                test.assertFalse(stream.dispose().await());
+            });
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package qub;
+
+public interface QueryParametersTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QueryParameters.class, () ->
+        {
+            runner.testGroup("create(String)", () ->
+            {
+                final Action2<String,Iterable<String>> createTest = (String query, Iterable<String> expectedNamesAndValues) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(query), (Test test) ->
+                    {
+                        final QueryParameters parameters = QueryParameters.create(query);
+                        final List<String> namesAndValues = List.create();
+                        for (int i = 0; i < parameters.getCount(); ++i)
+                        {
+                            namesAndValues.add(parameters.getName(i));
+                            namesAndValues.add(parameters.getValue(i));
+                        }
+                        test.assertEqual(expectedNamesAndValues, namesAndValues);
+                    });
+                };
+
+                createTest.run(null, Iterable.create());
+                createTest.run("", Iterable.create());
+                createTest.run("a", Iterable.create("a", ""));
+                createTest.run("a=", Iterable.create("a", ""));
+                createTest.run("a=1", Iterable.create("a", "1"));
+                createTest.run("a=1&b=2", Iterable.create("a", "1", "b", "2"));
+                createTest.run("&&a=1&&", Iterable.create("a", "1"));
+                createTest.run("a=1=2", Iterable.create("a", "1=2"));
+                createTest.run("a+b=c+d", Iterable.create("a b", "c d"));
+                createTest.run("a%20b=%E2%82%AC", Iterable.create("a b", "€"));
+                createTest.run("a=%zz%2", Iterable.create("a", "%zz%2"));
+                createTest.run("a=€%21", Iterable.create("a", "€!"));
+            });
+
+            runner.testGroup("get(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final QueryParameters parameters = QueryParameters.create("a=1");
+                    test.assertThrows(() -> parameters.get(null),
+                        new PreConditionFailure("name cannot be null."));
+                });
+
+                runner.test("with non-existing name", (Test test) ->
+                {
+                    final QueryParameters parameters = QueryParameters.create("a=1");
+                    test.assertThrows(() -> parameters.get("b").await(),
+                        new NotFoundException("No query parameter named \"b\" found."));
+                    test.assertFalse(parameters.contains("b"));
+                });
+
+                runner.test("with existing name", (Test test) ->
+                {
+                    final QueryParameters parameters = QueryParameters.create("a=1&b=hello%20world&a=2");
+                    test.assertEqual("1", parameters.get("a").await());
+                    test.assertEqual("hello world", parameters.get("b").await());
+                    test.assertSame(parameters.get("b").await(), parameters.get("b").await());
+                    test.assertTrue(parameters.contains("b"));
+                });
+
+                runner.test("with encoded name", (Test test) ->
+                {
+                    final QueryParameters parameters = QueryParameters.create("first+name=Dan");
+                    test.assertEqual("Dan", parameters.get("first name").await());
+                    test.assertFalse(parameters.contains("first+name"));
+                });
+            });
+
+            runner.testGroup("getAll(String)", () ->
+            {
+                runner.test("with non-existing name", (Test test) ->
+                {
+                    final QueryParameters parameters = QueryParameters.create("a=1");
+                    test.assertEqual(Iterable.create(), parameters.getAll("b"));
+                });
+
+                runner.test("with repeated name", (Test test) ->
+                {
+                    final QueryParameters parameters = QueryParameters.create("a=1&b=2&a=3&a");
+                    test.assertEqual(Iterable.create("1", "3", ""), parameters.getAll("a"));
+                });
+            });
+        });
+    }
+}
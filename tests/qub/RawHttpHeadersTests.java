@@ -0,0 +1,145 @@
+package qub;
+
+public interface RawHttpHeadersTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(RawHttpHeaders.class, () ->
+        {
+            runner.testGroup("create(byte[],int,int)", () ->
+            {
+                runner.test("with null bytes", (Test test) ->
+                {
+                    test.assertThrows(() -> RawHttpHeaders.create(null, 0, 0),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                final Action2<String,Iterable<HttpHeader>> createTest = (String text, Iterable<HttpHeader> expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        final byte[] bytes = CharacterEncoding.UTF_8.encodeCharacters(text).await();
+                        final RawHttpHeaders headers = RawHttpHeaders.create(bytes, 0, bytes.length);
+                        test.assertEqual(expected.getCount(), headers.getCount());
+                        test.assertEqual(expected, headers.toList());
+                    });
+                };
+
+                createTest.run("", Iterable.create());
+                createTest.run("a:b", Iterable.create(HttpHeader.create("a", "b")));
+                createTest.run("a: b\r\n", Iterable.create(HttpHeader.create("a", "b")));
+                createTest.run("a:  b \t", Iterable.create(HttpHeader.create("a", "b")));
+                createTest.run("a:\r\n", Iterable.create(HttpHeader.create("a", "")));
+                createTest.run("a: b:c", Iterable.create(HttpHeader.create("a", "b:c")));
+                createTest.run("no colon\r\n:no name\r\n", Iterable.create());
+                createTest.run(
+                    "Content-Length: 5\r\nCookie: x=y\nUser-Agent: qub",
+                    Iterable.create(
+                        HttpHeader.create("Content-Length", "5"),
+                        HttpHeader.create("Cookie", "x=y"),
+                        HttpHeader.create("User-Agent", "qub")));
+            });
+
+            runner.testGroup("read(ByteReadStream)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> RawHttpHeaders.read(null),
+                        new PreConditionFailure("byteReadStream cannot be null."));
+                });
+
+                runner.test("with empty stream", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create().endOfStream();
+                    final RawHttpHeaders headers = RawHttpHeaders.read(stream).await();
+                    test.assertEqual(0, headers.getCount());
+                });
+
+                runner.test("with headers followed by a body", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream stream = InMemoryCharacterToByteStream.create();
+                    stream.write("a: b\r\nC: d\r\n\r\nbody").await();
+                    stream.endOfStream();
+
+                    final RawHttpHeaders headers = RawHttpHeaders.read(stream).await();
+                    test.assertEqual(
+                        Iterable.create(
+                            HttpHeader.create("a", "b"),
+                            HttpHeader.create("C", "d")),
+                        headers.toList());
+                    test.assertEqual("body", CharacterReadStream.create(stream).readEntireString().await());
+                });
+
+                runner.test("with only an empty line", (Test test) ->
+                {
+                    final InMemoryCharacterToByteStream stream = InMemoryCharacterToByteStream.create();
+                    stream.write("\r\nbody").await();
+                    stream.endOfStream();
+
+                    final RawHttpHeaders headers = RawHttpHeaders.read(stream).await();
+                    test.assertEqual(0, headers.getCount());
+                    test.assertEqual("body", CharacterReadStream.create(stream).readEntireString().await());
+                });
+            });
+
+            runner.testGroup("get(String)", () ->
+            {
+                final Function1<String,RawHttpHeaders> createHeaders = (String text) ->
+                {
+                    final byte[] bytes = CharacterEncoding.UTF_8.encodeCharacters(text).await();
+                    return RawHttpHeaders.create(bytes, 0, bytes.length);
+                };
+
+                runner.test("with null", (Test test) ->
+                {
+                    final RawHttpHeaders headers = createHeaders.run("a: b");
+                    test.assertThrows(() -> headers.get(null),
+                        new PreConditionFailure("headerName cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final RawHttpHeaders headers = createHeaders.run("a: b");
+                    test.assertThrows(() -> headers.get(""),
+                        new PreConditionFailure("headerName cannot be empty."));
+                });
+
+                runner.test("with non-existing header name", (Test test) ->
+                {
+                    final RawHttpHeaders headers = createHeaders.run("a: b");
+                    test.assertThrows(() -> headers.get("c").await(),
+                        new NotFoundException("No \"c\" header found."));
+                    test.assertFalse(headers.contains("c"));
+                });
+
+                runner.test("with different-cased existing header name", (Test test) ->
+                {
+                    final RawHttpHeaders headers = createHeaders.run("Content-Type: text/html\r\nAuthorization: Bearer abc");
+                    test.assertEqual(HttpHeader.create("Authorization", "Bearer abc"), headers.get("authorization").await());
+                    test.assertEqual("abc", headers.getAuthorizationBearer().await());
+                    test.assertTrue(headers.contains("CONTENT-TYPE"));
+                });
+
+                runner.test("with repeated header name", (Test test) ->
+                {
+                    final RawHttpHeaders headers = createHeaders.run("a: 1\r\nb: 2\r\nA: 3");
+                    test.assertEqual("1", headers.getValue("a").await());
+                    test.assertEqual(Iterable.create("1", "3"), headers.getAllValues("a").toList());
+                });
+
+                runner.test("returns the same HttpHeader object each time", (Test test) ->
+                {
+                    final RawHttpHeaders headers = createHeaders.run("a: b");
+                    test.assertSame(headers.get("a").await(), headers.get("A").await());
+                });
+            });
+
+            runner.test("equals(Object)", (Test test) ->
+            {
+                final byte[] bytes = CharacterEncoding.UTF_8.encodeCharacters("a: b\r\nc: d").await();
+                final RawHttpHeaders headers = RawHttpHeaders.create(bytes, 0, bytes.length);
+                test.assertEqual(HttpHeaders.create().set("a", "b").set("c", "d"), headers);
+            });
+        });
+    }
+}
@@ -0,0 +1,161 @@
+package qub;
+
+public interface ResponseCompressionTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(ResponseCompression.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final ResponseCompression compression = ResponseCompression.create();
+                test.assertEqual(1024L, compression.getMinimumLength());
+                test.assertEqual(-1, compression.getLevel());
+            });
+
+            runner.testGroup("setMinimumLength(long)", () ->
+            {
+                runner.test("with -1", (Test test) ->
+                {
+                    final ResponseCompression compression = ResponseCompression.create();
+                    test.assertThrows(() -> compression.setMinimumLength(-1),
+                        new PreConditionFailure("minimumLength (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with 0", (Test test) ->
+                {
+                    final ResponseCompression compression = ResponseCompression.create();
+                    test.assertSame(compression, compression.setMinimumLength(0));
+                    test.assertEqual(0L, compression.getMinimumLength());
+                });
+            });
+
+            runner.testGroup("setLevel(int)", () ->
+            {
+                runner.test("with -2", (Test test) ->
+                {
+                    final ResponseCompression compression = ResponseCompression.create();
+                    test.assertThrows(() -> compression.setLevel(-2),
+                        new PreConditionFailure("level (-2) must be greater than or equal to -1."));
+                });
+
+                runner.test("with 10", (Test test) ->
+                {
+                    final ResponseCompression compression = ResponseCompression.create();
+                    test.assertThrows(() -> compression.setLevel(10),
+                        new PreConditionFailure("level (10) must be less than or equal to 9."));
+                });
+
+                runner.test("with 9", (Test test) ->
+                {
+                    final ResponseCompression compression = ResponseCompression.create();
+                    test.assertSame(compression, compression.setLevel(9));
+                    test.assertEqual(9, compression.getLevel());
+                });
+            });
+
+            runner.testGroup("isCompressibleContentType(String)", () ->
+            {
+                final Action2<String,Boolean> isCompressibleContentTypeTest = (String contentType, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(contentType), (Test test) ->
+                    {
+                        test.assertEqual(expected, ResponseCompression.isCompressibleContentType(contentType));
+                    });
+                };
+
+                isCompressibleContentTypeTest.run(null, false);
+                isCompressibleContentTypeTest.run("", false);
+                isCompressibleContentTypeTest.run("text/html", true);
+                isCompressibleContentTypeTest.run("text/plain; charset=utf-8", true);
+                isCompressibleContentTypeTest.run("Application/JSON", true);
+                isCompressibleContentTypeTest.run("application/problem+json", true);
+                isCompressibleContentTypeTest.run("application/atom+xml", true);
+                isCompressibleContentTypeTest.run("image/svg+xml", true);
+                isCompressibleContentTypeTest.run("text/event-stream", false);
+                isCompressibleContentTypeTest.run("image/png", false);
+                isCompressibleContentTypeTest.run("application/gzip", false);
+                isCompressibleContentTypeTest.run("application/octet-stream", false);
+            });
+
+            runner.testGroup("negotiate(String,String...)", () ->
+            {
+                final Action2<String,String> negotiateTest = (String acceptEncoding, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(acceptEncoding), (Test test) ->
+                    {
+                        test.assertEqual(expected, ResponseCompression.negotiate(acceptEncoding, "gzip", "deflate"));
+                    });
+                };
+
+                negotiateTest.run(null, null);
+                negotiateTest.run("", null);
+                negotiateTest.run("identity", null);
+                negotiateTest.run("br", null);
+                negotiateTest.run("gzip", "gzip");
+                negotiateTest.run("GZIP", "gzip");
+                negotiateTest.run("x-gzip", "gzip");
+                negotiateTest.run("deflate", "deflate");
+                negotiateTest.run("deflate, gzip", "gzip");
+                negotiateTest.run("gzip;q=0.5, deflate", "deflate");
+                negotiateTest.run("gzip; q=0, deflate;q=0.1", "deflate");
+                negotiateTest.run("gzip;q=0", null);
+                negotiateTest.run("*", "gzip");
+                negotiateTest.run("*;q=0", null);
+                negotiateTest.run("gzip;q=0, *", "deflate");
+                negotiateTest.run("gzip;q=abc", null);
+            });
+
+            runner.testGroup("getContentEncoding(HttpRequest,HttpResponse)", () ->
+            {
+                final Action4<String,MutableHttpRequest,MutableHttpResponse,String> getContentEncodingTest = (String testName, MutableHttpRequest request, MutableHttpResponse response, String expected) ->
+                {
+                    runner.test(testName, (Test test) ->
+                    {
+                        final ResponseCompression compression = ResponseCompression.create();
+                        test.assertEqual(expected, compression.getContentEncoding(request, response));
+                    });
+                };
+
+                final Function0<MutableHttpRequest> createRequest = () -> HttpRequest.get("https://www.example.com").await()
+                    .setHeader(HttpHeader.AcceptEncodingName, "gzip, deflate");
+                final Function0<MutableHttpResponse> createResponse = () -> HttpResponse.create()
+                    .setStatusCode(200)
+                    .setHeader(HttpHeader.ContentTypeName, "application/json");
+
+                getContentEncodingTest.run("with compressible response",
+                    createRequest.run(),
+                    createResponse.run(),
+                    "gzip");
+                getContentEncodingTest.run("with no Accept-Encoding header",
+                    HttpRequest.get("https://www.example.com").await(),
+                    createResponse.run(),
+                    null);
+                getContentEncodingTest.run("with HEAD request",
+                    createRequest.run().setMethod(HttpMethod.HEAD),
+                    createResponse.run(),
+                    "gzip");
+                getContentEncodingTest.run("with 204 response",
+                    createRequest.run(),
+                    createResponse.run().setStatusCode(204),
+                    null);
+                getContentEncodingTest.run("with response that is already encoded",
+                    createRequest.run(),
+                    createResponse.run().setHeader(HttpHeader.ContentEncodingName, "br"),
+                    null);
+                getContentEncodingTest.run("with response smaller than the minimum length",
+                    createRequest.run(),
+                    createResponse.run().setHeader(HttpHeader.ContentLengthName, 1023),
+                    null);
+                getContentEncodingTest.run("with response at the minimum length",
+                    createRequest.run(),
+                    createResponse.run().setHeader(HttpHeader.ContentLengthName, 1024),
+                    "gzip");
+                getContentEncodingTest.run("with incompressible content type",
+                    createRequest.run(),
+                    createResponse.run().setHeader(HttpHeader.ContentTypeName, "image/jpeg"),
+                    null);
+            });
+        });
+    }
+}
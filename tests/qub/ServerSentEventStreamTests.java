@@ -0,0 +1,223 @@
+package qub;
+
+public interface ServerSentEventStreamTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(ServerSentEventStream.class, () ->
+        {
+            final Function1<InMemoryByteStream,String> readText = (InMemoryByteStream connection) ->
+            {
+                return new String(connection.getBytes(), java.nio.charset.StandardCharsets.UTF_8);
+            };
+
+            runner.test("create()", (Test test) ->
+            {
+                final ServerSentEventStream stream = ServerSentEventStream.create();
+                test.assertEqual(100, stream.getReplayCapacity());
+                test.assertEqual(256, stream.getSubscriberQueueCapacity());
+                test.assertEqual(0, stream.getSubscriberCount());
+                test.assertFalse(stream.isDisposed());
+            });
+
+            runner.testGroup("createResponse(HttpRequest)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    test.assertThrows(() -> stream.createResponse(null),
+                        new PreConditionFailure("request cannot be null."));
+                });
+
+                runner.test("with Last-Event-ID header", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    final MutableHttpRequest request = HttpRequest.create()
+                        .setHeader(HttpHeader.LastEventIdName, "5");
+                    final ServerSentEventResponse response = stream.createResponse(request);
+                    test.assertSame(stream, response.getStream());
+                    test.assertEqual("5", response.getLastEventId());
+                    test.assertEqual(200, response.getStatusCode());
+                    test.assertEqual("text/event-stream", response.getHeaderValue(HttpHeader.ContentTypeName).await());
+                    test.assertEqual("no-cache", response.getHeaderValue(HttpHeader.CacheControlName).await());
+                    test.assertFalse(response.getHeaders().contains(HttpHeader.ContentLengthName));
+                });
+            });
+
+            runner.testGroup("setSubscriberQueueCapacity(int)", () ->
+            {
+                runner.test("with zero", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    test.assertThrows(() -> stream.setSubscriberQueueCapacity(0),
+                        new PreConditionFailure("subscriberQueueCapacity (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with one", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    test.assertSame(stream, stream.setSubscriberQueueCapacity(1));
+                    test.assertEqual(1, stream.getSubscriberQueueCapacity());
+                });
+            });
+
+            runner.testGroup("send(ServerSentEvent)", () ->
+            {
+                runner.test("with no subscribers", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    test.assertEqual(0, stream.send("hello"));
+                });
+
+                runner.test("with multiple subscribers", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    final InMemoryByteStream connection1 = InMemoryByteStream.create();
+                    final InMemoryByteStream connection2 = InMemoryByteStream.create();
+                    test.assertTrue(stream.subscribe(connection1, null));
+                    test.assertTrue(stream.subscribe(connection2, null));
+                    test.assertEqual(2, stream.getSubscriberCount());
+
+                    test.assertEqual(2, stream.send(ServerSentEvent.create("hello").setId("1")));
+                    stream.flush();
+                    test.assertEqual("id: 1\ndata: hello\n\n", readText.run(connection1));
+                    test.assertEqual("id: 1\ndata: hello\n\n", readText.run(connection2));
+                });
+
+                runner.test("with disposed subscriber", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    final InMemoryByteStream connection1 = InMemoryByteStream.create();
+                    final InMemoryByteStream connection2 = InMemoryByteStream.create();
+                    stream.subscribe(connection1, null);
+                    stream.subscribe(connection2, null);
+
+                    connection1.dispose().await();
+                    test.assertEqual(1, stream.send("hello"));
+                    test.assertEqual(1, stream.getSubscriberCount());
+                    stream.flush();
+                    test.assertEqual("data: hello\n\n", readText.run(connection2));
+                });
+
+                runner.test("after dispose()", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    stream.dispose().await();
+                    test.assertThrows(() -> stream.send("hello"),
+                        new PreConditionFailure("this.isDisposed() cannot be true."));
+                });
+            });
+
+            runner.testGroup("subscribe(ByteWriteStream,String)", () ->
+            {
+                runner.test("with null connection", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    test.assertThrows(() -> stream.subscribe(null, null),
+                        new PreConditionFailure("connection cannot be null."));
+                });
+
+                runner.test("with known lastEventId", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    stream.send(ServerSentEvent.create("a").setId("1"));
+                    stream.send(ServerSentEvent.create("b").setId("2"));
+                    stream.send(ServerSentEvent.create("c").setId("3"));
+
+                    final InMemoryByteStream connection = InMemoryByteStream.create();
+                    test.assertTrue(stream.subscribe(connection, "1"));
+                    stream.flush();
+                    test.assertEqual("id: 2\ndata: b\n\nid: 3\ndata: c\n\n", readText.run(connection));
+                });
+
+                runner.test("with most recent lastEventId", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    stream.send(ServerSentEvent.create("a").setId("1"));
+
+                    final InMemoryByteStream connection = InMemoryByteStream.create();
+                    test.assertTrue(stream.subscribe(connection, "1"));
+                    stream.flush();
+                    test.assertEqual("", readText.run(connection));
+                });
+
+                runner.test("with unknown lastEventId", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create()
+                        .setReplayCapacity(2);
+                    stream.send(ServerSentEvent.create("a").setId("1"));
+                    stream.send(ServerSentEvent.create("b").setId("2"));
+                    stream.send(ServerSentEvent.create("c").setId("3"));
+
+                    final InMemoryByteStream connection = InMemoryByteStream.create();
+                    test.assertTrue(stream.subscribe(connection, "1"));
+                    stream.flush();
+                    test.assertEqual("id: 2\ndata: b\n\nid: 3\ndata: c\n\n", readText.run(connection));
+                });
+
+                runner.test("with no lastEventId", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    stream.send(ServerSentEvent.create("a").setId("1"));
+
+                    final InMemoryByteStream connection = InMemoryByteStream.create();
+                    test.assertTrue(stream.subscribe(connection, null));
+                    stream.flush();
+                    test.assertEqual("", readText.run(connection));
+                });
+
+                runner.test("after dispose()", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    stream.dispose().await();
+
+                    final InMemoryByteStream connection = InMemoryByteStream.create();
+                    test.assertFalse(stream.subscribe(connection, null));
+                    test.assertTrue(connection.isDisposed());
+                });
+            });
+
+            runner.test("sendHeartbeat()", (Test test) ->
+            {
+                final ServerSentEventStream stream = ServerSentEventStream.create();
+                final InMemoryByteStream connection = InMemoryByteStream.create();
+                stream.subscribe(connection, null);
+
+                test.assertEqual(1, stream.sendHeartbeat());
+                stream.flush();
+                test.assertEqual(":\n\n", readText.run(connection));
+            });
+
+            runner.testGroup("setHeartbeatInterval(Duration)", () ->
+            {
+                runner.test("with zero", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    test.assertThrows(() -> stream.setHeartbeatInterval(Duration.seconds(0)),
+                        new PreConditionFailure("heartbeatInterval must be null or at least one millisecond."));
+                });
+
+                runner.test("with null", (Test test) ->
+                {
+                    final ServerSentEventStream stream = ServerSentEventStream.create();
+                    test.assertSame(stream, stream.setHeartbeatInterval(null));
+                });
+            });
+
+            runner.test("dispose()", (Test test) ->
+            {
+                final ServerSentEventStream stream = ServerSentEventStream.create()
+                    .setHeartbeatInterval(Duration.seconds(10));
+                final InMemoryByteStream connection = InMemoryByteStream.create();
+                stream.subscribe(connection, null);
+
+                test.assertTrue(stream.dispose().await());
+                test.assertTrue(stream.isDisposed());
+                test.assertTrue(connection.isDisposed());
+                test.assertEqual(0, stream.getSubscriberCount());
+
+                test.assertFalse(stream.dispose().await());
+            });
+        });
+    }
+}
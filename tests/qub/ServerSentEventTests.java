@@ -0,0 +1,62 @@
+package qub;
+
+public interface ServerSentEventTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(ServerSentEvent.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final ServerSentEvent event = ServerSentEvent.create();
+                test.assertNull(event.getId());
+                test.assertNull(event.getEventType());
+                test.assertNull(event.getData());
+                test.assertEqual(-1, event.getRetryMilliseconds());
+                test.assertEqual("\n", event.toEventStreamString());
+            });
+
+            runner.testGroup("setId(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> ServerSentEvent.create().setId(null),
+                        new PreConditionFailure("id cannot be null."));
+                });
+
+                runner.test("with line terminator", (Test test) ->
+                {
+                    test.assertThrows(() -> ServerSentEvent.create().setId("a\nb"),
+                        new PreConditionFailure("id cannot contain a line terminator."));
+                });
+
+                runner.test("with valid id", (Test test) ->
+                {
+                    final ServerSentEvent event = ServerSentEvent.create();
+                    test.assertSame(event, event.setId("42"));
+                    test.assertEqual("42", event.getId());
+                });
+            });
+
+            runner.testGroup("toEventStreamString()", () ->
+            {
+                final Action2<ServerSentEvent,String> toEventStreamStringTest = (ServerSentEvent event, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(expected), (Test test) ->
+                    {
+                        test.assertEqual(expected, event.toEventStreamString());
+                        test.assertEqual(expected, new String(event.toBytes(), java.nio.charset.StandardCharsets.UTF_8));
+                    });
+                };
+
+                toEventStreamStringTest.run(ServerSentEvent.create(""), "data: \n\n");
+                toEventStreamStringTest.run(ServerSentEvent.create("hello"), "data: hello\n\n");
+                toEventStreamStringTest.run(ServerSentEvent.create("a\nb\r\nc\rd"), "data: a\ndata: b\ndata: c\ndata: d\n\n");
+                toEventStreamStringTest.run(ServerSentEvent.create("a\n"), "data: a\ndata: \n\n");
+                toEventStreamStringTest.run(
+                    ServerSentEvent.create("hello").setId("7").setEventType("greeting").setRetryMilliseconds(5000),
+                    "id: 7\nevent: greeting\nretry: 5000\ndata: hello\n\n");
+            });
+        });
+    }
+}
@@ -0,0 +1,103 @@
+package qub;
+
+public interface StaticContentCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(StaticContentCache.class, () ->
+        {
+            runner.testGroup("create(long)", () ->
+            {
+                runner.test("with -1", (Test test) ->
+                {
+                    test.assertThrows(() -> StaticContentCache.create(-1),
+                        new PreConditionFailure("maximumSize (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with 10", (Test test) ->
+                {
+                    final StaticContentCache cache = StaticContentCache.create(10);
+                    test.assertEqual(10L, cache.getMaximumSize());
+                    test.assertEqual(0L, cache.getSize());
+                    test.assertEqual(0, cache.getCount());
+                });
+            });
+
+            runner.testGroup("get(String,String,String)", () ->
+            {
+                runner.test("with missing variant", (Test test) ->
+                {
+                    final StaticContentCache cache = StaticContentCache.create(10);
+                    test.assertNull(cache.get("/a.txt", "gzip", "1"));
+                    test.assertEqual(0L, cache.getHitCount());
+                    test.assertEqual(1L, cache.getMissCount());
+                });
+
+                runner.test("with current variant", (Test test) ->
+                {
+                    final StaticContentCache cache = StaticContentCache.create(10);
+                    final byte[] bytes = new byte[] { 1, 2, 3 };
+                    test.assertTrue(cache.put("/a.txt", "gzip", "1", bytes));
+                    test.assertSame(bytes, cache.get("/a.txt", "gzip", "1"));
+                    test.assertNull(cache.get("/a.txt", "br", "1"));
+                    test.assertEqual(1L, cache.getHitCount());
+                    test.assertEqual(1L, cache.getMissCount());
+                });
+
+                runner.test("with stale variant", (Test test) ->
+                {
+                    final StaticContentCache cache = StaticContentCache.create(10);
+                    cache.put("/a.txt", "gzip", "1", new byte[] { 1, 2, 3 });
+                    test.assertNull(cache.get("/a.txt", "gzip", "2"));
+                    test.assertEqual(0, cache.getCount());
+                    test.assertEqual(0L, cache.getSize());
+                });
+            });
+
+            runner.testGroup("put(String,String,String,byte[])", () ->
+            {
+                runner.test("with variant larger than the maximum size", (Test test) ->
+                {
+                    final StaticContentCache cache = StaticContentCache.create(2);
+                    test.assertFalse(cache.put("/a.txt", "gzip", "1", new byte[] { 1, 2, 3 }));
+                    test.assertEqual(0, cache.getCount());
+                });
+
+                runner.test("with replaced variant", (Test test) ->
+                {
+                    final StaticContentCache cache = StaticContentCache.create(10);
+                    cache.put("/a.txt", "gzip", "1", new byte[] { 1, 2, 3 });
+                    cache.put("/a.txt", "gzip", "2", new byte[] { 1, 2 });
+                    test.assertEqual(1, cache.getCount());
+                    test.assertEqual(2L, cache.getSize());
+                });
+
+                runner.test("evicts the least recently used variants", (Test test) ->
+                {
+                    final StaticContentCache cache = StaticContentCache.create(6);
+                    cache.put("/a.txt", "gzip", "1", new byte[] { 1, 2, 3 });
+                    cache.put("/b.txt", "gzip", "1", new byte[] { 1, 2, 3 });
+                    test.assertNotNull(cache.get("/a.txt", "gzip", "1"));
+
+                    cache.put("/c.txt", "gzip", "1", new byte[] { 1, 2 });
+                    test.assertEqual(2, cache.getCount());
+                    test.assertEqual(5L, cache.getSize());
+                    test.assertEqual(1L, cache.getEvictionCount());
+                    test.assertNotNull(cache.get("/a.txt", "gzip", "1"));
+                    test.assertNull(cache.get("/b.txt", "gzip", "1"));
+                    test.assertNotNull(cache.get("/c.txt", "gzip", "1"));
+                });
+            });
+
+            runner.test("clear()", (Test test) ->
+            {
+                final StaticContentCache cache = StaticContentCache.create(10);
+                cache.put("/a.txt", "gzip", "1", new byte[] { 1, 2, 3 });
+                cache.clear();
+                test.assertEqual(0, cache.getCount());
+                test.assertEqual(0L, cache.getSize());
+                test.assertNull(cache.get("/a.txt", "gzip", "1"));
+            });
+        });
+    }
+}
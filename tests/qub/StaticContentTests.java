@@ -0,0 +1,212 @@
+package qub;
+
+public interface StaticContentTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(StaticContent.class, () ->
+        {
+            final Function0<java.nio.file.Path> createRootFolder = () ->
+            {
+                try
+                {
+                    final java.nio.file.Path result = java.nio.file.Files.createTempDirectory("qub-http-static-");
+                    final StringBuilder text = new StringBuilder();
+                    for (int i = 0; i < 500; ++i)
+                    {
+                        text.append("line ").append(i).append('\n');
+                    }
+                    java.nio.file.Files.write(result.resolve("big.txt"), text.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    java.nio.file.Files.write(result.resolve("small.txt"), "hello".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    java.nio.file.Files.write(result.resolve("image.png"), new byte[2000]);
+                    return result;
+                }
+                catch (java.io.IOException e)
+                {
+                    throw Exceptions.asRuntime(e);
+                }
+            };
+
+            final Function1<String,MutableHttpRequest> createRequest = (String acceptEncoding) ->
+            {
+                final MutableHttpRequest result = HttpRequest.get("https://www.example.com").await();
+                if (acceptEncoding != null)
+                {
+                    result.setHeader(HttpHeader.AcceptEncodingName, acceptEncoding);
+                }
+                return result;
+            };
+
+            runner.testGroup("create(java.nio.file.Path)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> StaticContent.create(null),
+                        new PreConditionFailure("rootFolder cannot be null."));
+                });
+            });
+
+            runner.testGroup("getResponse(String,HttpRequest)", () ->
+            {
+                final Action1<String> notFoundTest = (String relativePath) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(relativePath), (Test test) ->
+                    {
+                        final StaticContent staticContent = StaticContent.create(createRootFolder.run());
+                        test.assertNull(staticContent.getResponse(relativePath, createRequest.run(null)).await());
+                    });
+                };
+
+                notFoundTest.run("");
+                notFoundTest.run("missing.txt");
+                notFoundTest.run("../big.txt");
+                notFoundTest.run("a/../big.txt");
+                notFoundTest.run("..\\big.txt");
+
+                runner.test("with small file", (Test test) ->
+                {
+                    final StaticContent staticContent = StaticContent.create(createRootFolder.run());
+                    try (final HttpResponse response = staticContent.getResponse("small.txt", createRequest.run("gzip")).await())
+                    {
+                        test.assertEqual(200, response.getStatusCode());
+                        test.assertEqual("text/plain; charset=utf-8", response.getHeaderValue(HttpHeader.ContentTypeName).await());
+                        test.assertEqual(5L, response.getContentLengthValue());
+                        test.assertFalse(response.getHeaders().contains(HttpHeader.ContentEncodingName));
+                        test.assertEqual("hello", CharacterReadStream.create(response.getBody()).readEntireString().await());
+                    }
+                });
+
+                runner.test("with incompressible file", (Test test) ->
+                {
+                    final StaticContent staticContent = StaticContent.create(createRootFolder.run());
+                    try (final HttpResponse response = staticContent.getResponse("/image.png", createRequest.run("gzip")).await())
+                    {
+                        test.assertEqual("image/png", response.getHeaderValue(HttpHeader.ContentTypeName).await());
+                        test.assertFalse(response.getHeaders().contains(HttpHeader.ContentEncodingName));
+                        test.assertFalse(response.getHeaders().contains(HttpHeader.VaryName));
+                        test.assertEqual(2000L, response.getContentLengthValue());
+                    }
+                });
+
+                runner.test("with compressible file and no Accept-Encoding", (Test test) ->
+                {
+                    final StaticContent staticContent = StaticContent.create(createRootFolder.run());
+                    try (final HttpResponse response = staticContent.getResponse("big.txt", createRequest.run(null)).await())
+                    {
+                        test.assertFalse(response.getHeaders().contains(HttpHeader.ContentEncodingName));
+                        test.assertEqual(HttpHeader.AcceptEncodingName, response.getHeaderValue(HttpHeader.VaryName).await());
+                    }
+                    test.assertEqual(0, staticContent.getCache().getCount());
+                });
+
+                runner.test("with compressible file and gzip", (Test test) ->
+                {
+                    final java.nio.file.Path rootFolder = createRootFolder.run();
+                    final StaticContent staticContent = StaticContent.create(rootFolder);
+                    final StaticContentCache cache = staticContent.getCache();
+
+                    try (final HttpResponse response = staticContent.getResponse("big.txt", createRequest.run("br, gzip")).await())
+                    {
+                        test.assertFalse(response.getHeaders().contains(HttpHeader.ContentEncodingName));
+                        test.assertEqual(HttpHeader.AcceptEncodingName, response.getHeaderValue(HttpHeader.VaryName).await());
+                        test.assertEqual(java.nio.file.Files.size(rootFolder.resolve("big.txt")), response.getContentLengthValue());
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        throw Exceptions.asRuntime(e);
+                    }
+                    test.assertEqual(1L, cache.getMissCount());
+
+                    staticContent.awaitVariants();
+                    test.assertEqual(1, cache.getCount());
+
+                    byte[] firstBody;
+                    try (final HttpResponse response = staticContent.getResponse("big.txt", createRequest.run("br, gzip")).await())
+                    {
+                        test.assertEqual("gzip", response.getHeaderValue(HttpHeader.ContentEncodingName).await());
+                        test.assertEqual(HttpHeader.AcceptEncodingName, response.getHeaderValue(HttpHeader.VaryName).await());
+                        firstBody = response.getBody().readAllBytes().await();
+                        test.assertEqual((long)firstBody.length, response.getContentLengthValue());
+                    }
+
+                    try (final HttpResponse response = staticContent.getResponse("big.txt", createRequest.run("gzip")).await())
+                    {
+                        test.assertEqual(firstBody, response.getBody().readAllBytes().await());
+                    }
+                    test.assertEqual(2L, cache.getHitCount());
+                    test.assertEqual(1L, cache.getMissCount());
+
+                    try (final java.io.InputStream inputStream = new java.util.zip.GZIPInputStream(new java.io.ByteArrayInputStream(firstBody)))
+                    {
+                        test.assertEqual(java.nio.file.Files.readAllBytes(rootFolder.resolve("big.txt")), inputStream.readAllBytes());
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        throw Exceptions.asRuntime(e);
+                    }
+                });
+
+                runner.test("with repeated requests for a missing variant", (Test test) ->
+                {
+                    final StaticContent staticContent = StaticContent.create(createRootFolder.run());
+                    final StaticContentCache cache = staticContent.getCache();
+
+                    for (int i = 0; i < 3; ++i)
+                    {
+                        try (final HttpResponse response = staticContent.getResponse("big.txt", createRequest.run("gzip")).await())
+                        {
+                            test.assertEqual(200, response.getStatusCode());
+                        }
+                    }
+                    staticContent.awaitVariants();
+
+                    test.assertEqual(1, cache.getCount());
+                    try (final HttpResponse response = staticContent.getResponse("big.txt", createRequest.run("gzip")).await())
+                    {
+                        test.assertEqual("gzip", response.getHeaderValue(HttpHeader.ContentEncodingName).await());
+                    }
+                });
+
+                runner.test("with HEAD request", (Test test) ->
+                {
+                    final StaticContent staticContent = StaticContent.create(createRootFolder.run());
+                    try (final HttpResponse response = staticContent.getResponse("small.txt", createRequest.run(null).setMethod(HttpMethod.HEAD)).await())
+                    {
+                        test.assertEqual(200, response.getStatusCode());
+                        test.assertEqual(5L, response.getContentLengthValue());
+                        test.assertEqual(new byte[0], response.getBody().readAllBytes().await());
+                    }
+                });
+
+                runner.test("with POST request", (Test test) ->
+                {
+                    final StaticContent staticContent = StaticContent.create(createRootFolder.run());
+                    try (final HttpResponse response = staticContent.getResponse("small.txt", createRequest.run(null).setMethod(HttpMethod.POST)).await())
+                    {
+                        test.assertEqual(405, response.getStatusCode());
+                        test.assertEqual("GET, HEAD", response.getHeaderValue("Allow").await());
+                    }
+                });
+            });
+
+            runner.testGroup("getContentType(String)", () ->
+            {
+                final Action2<String,String> getContentTypeTest = (String fileName, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(fileName), (Test test) ->
+                    {
+                        test.assertEqual(expected, StaticContent.getContentType(fileName));
+                    });
+                };
+
+                getContentTypeTest.run("", "application/octet-stream");
+                getContentTypeTest.run("index.html", "text/html; charset=utf-8");
+                getContentTypeTest.run("app.JS", "application/javascript; charset=utf-8");
+                getContentTypeTest.run("data.json", "application/json");
+                getContentTypeTest.run("logo.svg", "image/svg+xml");
+                getContentTypeTest.run("photo.jpeg", "image/jpeg");
+                getContentTypeTest.run("archive.zip", "application/octet-stream");
+            });
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package qub;
+
+public interface UrlEncodedFormReaderTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(UrlEncodedFormReader.class, () ->
+        {
+            runner.testGroup("create(ByteReadStream)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> UrlEncodedFormReader.create(null),
+                        new PreConditionFailure("byteReadStream cannot be null."));
+                });
+            });
+
+            runner.testGroup("readField()", () ->
+            {
+                final Action2<String,Iterable<FormField>> readFieldTest = (String body, Iterable<FormField> expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(body), (Test test) ->
+                    {
+                        final InMemoryCharacterToByteStream stream = InMemoryCharacterToByteStream.create();
+                        stream.write(body).await();
+                        stream.endOfStream();
+
+                        final UrlEncodedFormReader reader = UrlEncodedFormReader.create(stream);
+                        final List<FormField> fields = List.create();
+                        FormField field = reader.readField().await();
+                        while (field != null)
+                        {
+                            fields.add(field);
+                            field = reader.readField().await();
+                        }
+                        test.assertEqual(expected, fields);
+                        test.assertNull(reader.readField().await());
+                    });
+                };
+
+                readFieldTest.run("", Iterable.create());
+                readFieldTest.run("a=1", Iterable.create(FormField.create("a", "1")));
+                readFieldTest.run("a=1&b", Iterable.create(FormField.create("a", "1"), FormField.create("b", "")));
+                readFieldTest.run("&&a=1&&", Iterable.create(FormField.create("a", "1")));
+                readFieldTest.run("first+name=J%C3%BCrgen&x=%26", Iterable.create(FormField.create("first name", "Jürgen"), FormField.create("x", "&")));
+                readFieldTest.run("name=Jürgen", Iterable.create(FormField.create("name", "Jürgen")));
+            });
+
+            runner.test("readField() with fields that span multiple reads", (Test test) ->
+            {
+                final CharacterList valueCharacters = CharacterList.create();
+                for (int i = 0; i < 20000; ++i)
+                {
+                    valueCharacters.add((char)('a' + (i % 26)));
+                }
+                final String value = valueCharacters.toString();
+
+                final InMemoryCharacterToByteStream stream = InMemoryCharacterToByteStream.create();
+                stream.write("a=" + value + "&b=2&c=" + value).await();
+                stream.endOfStream();
+
+                final UrlEncodedFormReader reader = UrlEncodedFormReader.create(stream);
+                test.assertEqual(FormField.create("a", value), reader.readField().await());
+                test.assertEqual(FormField.create("b", "2"), reader.readField().await());
+                test.assertEqual(FormField.create("c", value), reader.readField().await());
+                test.assertNull(reader.readField().await());
+            });
+
+            runner.test("readField() with a field longer than the maximum", (Test test) ->
+            {
+                final InMemoryCharacterToByteStream stream = InMemoryCharacterToByteStream.create();
+                stream.write("a=12&b=123456").await();
+                stream.endOfStream();
+
+                final UrlEncodedFormReader reader = UrlEncodedFormReader.create(stream, 5);
+                test.assertEqual(FormField.create("a", "12"), reader.readField().await());
+                test.assertThrows(() -> reader.readField().await(),
+                    new ParseException("A form field was longer than the maximum of 5 bytes."));
+            });
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package qub;
+
+public interface VirtualHostTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(VirtualHost.class, () ->
+        {
+            final Function2<PathParameters,HttpRequest,HttpResponse> action = (PathParameters pathParameters, HttpRequest request) -> null;
+
+            runner.testGroup("create(String,int)", () ->
+            {
+                runner.test("with null hostPattern", (Test test) ->
+                {
+                    test.assertThrows(() -> VirtualHost.create(null, 10),
+                        new PreConditionFailure("hostPattern cannot be null."));
+                });
+
+                runner.test("with negative routeCacheCapacity", (Test test) ->
+                {
+                    test.assertThrows(() -> VirtualHost.create("example.com", -1),
+                        new PreConditionFailure("routeCacheCapacity (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final VirtualHost virtualHost = VirtualHost.create("example.com", 10);
+                    test.assertEqual("example.com", virtualHost.getHostPattern());
+                    test.assertEqual(0, virtualHost.getPaths().getCount());
+                    test.assertEqual(10, virtualHost.getRouteCache().getCapacity());
+                });
+            });
+
+            runner.test("setPath(PathRoute)", (Test test) ->
+            {
+                final VirtualHost virtualHost = VirtualHost.create("example.com", 10);
+                final PathRoute route = PathRoute.create("/a", action);
+                final PathRouteTable paths = virtualHost.getPaths();
+
+                final VirtualHost setPathResult = virtualHost.setPath(route);
+                test.assertSame(virtualHost, setPathResult);
+                test.assertEqual(0, paths.getCount());
+                test.assertEqual(Iterable.create(route), virtualHost.getPaths().getRoutes());
+            });
+
+            runner.test("removePath(String)", (Test test) ->
+            {
+                final VirtualHost virtualHost = VirtualHost.create("example.com", 10);
+                virtualHost.setPath(PathRoute.create("/a", action));
+                test.assertFalse(virtualHost.removePath("/b"));
+                test.assertTrue(virtualHost.removePath("/a"));
+                test.assertEqual(0, virtualHost.getPaths().getCount());
+            });
+
+            runner.test("match(String)", (Test test) ->
+            {
+                final VirtualHost virtualHost = VirtualHost.create("example.com", 10);
+                final PathRoute route = PathRoute.create("/a/*", action);
+                virtualHost.setPath(route);
+
+                test.assertNull(virtualHost.match("/b"));
+                test.assertSame(route, virtualHost.match("/a/b").getRoute());
+                test.assertSame(route, virtualHost.match("/a/b").getRoute());
+                test.assertEqual(1L, virtualHost.getRouteCache().getHitCount());
+
+                virtualHost.removePath("/a/*");
+                test.assertNull(virtualHost.match("/a/b"));
+            });
+        });
+    }
+}
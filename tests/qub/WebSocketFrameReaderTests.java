@@ -0,0 +1,125 @@
+package qub;
+
+public interface WebSocketFrameReaderTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(WebSocketFrameReader.class, () ->
+        {
+            runner.testGroup("create(ByteReadStream,ByteBufferPool,boolean)", () ->
+            {
+                runner.test("with null innerStream", (Test test) ->
+                {
+                    test.assertThrows(() -> WebSocketFrameReader.create(null, ByteBufferPool.create(), true),
+                        new PreConditionFailure("innerStream cannot be null."));
+                });
+
+                runner.test("with null bufferPool", (Test test) ->
+                {
+                    test.assertThrows(() -> WebSocketFrameReader.create(InMemoryByteStream.create().endOfStream(), null, true),
+                        new PreConditionFailure("bufferPool cannot be null."));
+                });
+            });
+
+            runner.testGroup("readFrame(WebSocketFrame)", () ->
+            {
+                runner.test("with empty stream", (Test test) ->
+                {
+                    final WebSocketFrameReader reader = WebSocketFrameReader.create(InMemoryByteStream.create().endOfStream(), ByteBufferPool.create(), false);
+                    test.assertFalse(reader.readFrame(WebSocketFrame.create()).await());
+                });
+
+                runner.test("with RFC 6455 unmasked text frame", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create(new byte[] { (byte)0x81, 0x05, 0x48, 0x65, 0x6c, 0x6c, 0x6f }).endOfStream();
+                    final WebSocketFrameReader reader = WebSocketFrameReader.create(stream, ByteBufferPool.create(), false);
+                    final WebSocketFrame frame = WebSocketFrame.create();
+                    test.assertTrue(reader.readFrame(frame).await());
+                    test.assertTrue(frame.isFinal());
+                    test.assertEqual(WebSocketFrame.TextOpcode, frame.getOpcode());
+                    test.assertEqual("Hello", new String(frame.getPayload(), 0, frame.getPayloadLength(), java.nio.charset.StandardCharsets.UTF_8));
+                    test.assertFalse(reader.readFrame(frame).await());
+                });
+
+                runner.test("with RFC 6455 masked text frame", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create(new byte[] { (byte)0x81, (byte)0x85, 0x37, (byte)0xfa, 0x21, 0x3d, 0x7f, (byte)0x9f, 0x4d, 0x51, 0x58 }).endOfStream();
+                    final WebSocketFrameReader reader = WebSocketFrameReader.create(stream, ByteBufferPool.create(), true);
+                    final WebSocketFrame frame = WebSocketFrame.create();
+                    test.assertTrue(reader.readFrame(frame).await());
+                    test.assertEqual("Hello", new String(frame.getPayload(), 0, frame.getPayloadLength(), java.nio.charset.StandardCharsets.UTF_8));
+                });
+
+                final Action2<Integer,Boolean> roundTripTest = (Integer length, Boolean masked) ->
+                {
+                    runner.test("with " + length + " byte " + (masked ? "masked" : "unmasked") + " frame written by WebSocketFrameWriter", (Test test) ->
+                    {
+                        final byte[] payload = new byte[length];
+                        for (int i = 0; i < length; ++i)
+                        {
+                            payload[i] = (byte)i;
+                        }
+
+                        final ByteBufferPool bufferPool = ByteBufferPool.create();
+                        final InMemoryByteStream stream = InMemoryByteStream.create();
+                        try (final WebSocketFrameWriter writer = WebSocketFrameWriter.create(stream, bufferPool, masked))
+                        {
+                            writer.writeFrame(true, WebSocketFrame.BinaryOpcode, payload, 0, length).await();
+                        }
+                        stream.endOfStream();
+
+                        try (final WebSocketFrameReader reader = WebSocketFrameReader.create(stream, bufferPool, masked))
+                        {
+                            final WebSocketFrame frame = WebSocketFrame.create();
+                            test.assertTrue(reader.readFrame(frame).await());
+                            test.assertEqual(WebSocketFrame.BinaryOpcode, frame.getOpcode());
+                            test.assertEqual(length, frame.getPayloadLength());
+                            test.assertEqual(payload, java.util.Arrays.copyOf(frame.getPayload(), frame.getPayloadLength()));
+                        }
+                        test.assertEqual(0, bufferPool.getLeasedCount());
+                    });
+                };
+
+                roundTripTest.run(0, false);
+                roundTripTest.run(125, true);
+                roundTripTest.run(126, false);
+                roundTripTest.run(65535, true);
+                roundTripTest.run(65536, false);
+                roundTripTest.run(100001, true);
+
+                final Action3<String,byte[],WebSocketProtocolException> errorTest = (String testName, byte[] bytes, WebSocketProtocolException expected) ->
+                {
+                    runner.test(testName, (Test test) ->
+                    {
+                        final WebSocketFrameReader reader = WebSocketFrameReader.create(InMemoryByteStream.create(bytes).endOfStream(), ByteBufferPool.create(), true);
+                        test.assertThrows(() -> reader.readFrame(WebSocketFrame.create()).await(),
+                            expected);
+                    });
+                };
+
+                errorTest.run("with reserved bit",
+                    new byte[] { (byte)0xC1, (byte)0x80, 0, 0, 0, 0 },
+                    new WebSocketProtocolException(1002, "A frame used a reserved bit without a negotiated extension."));
+                errorTest.run("with reserved opcode",
+                    new byte[] { (byte)0x83, (byte)0x80, 0, 0, 0, 0 },
+                    new WebSocketProtocolException(1002, "A frame used the reserved opcode 3."));
+                errorTest.run("with unmasked frame from a client",
+                    new byte[] { (byte)0x81, 0x00 },
+                    new WebSocketProtocolException(1002, "A frame from a client wasn't masked."));
+                errorTest.run("with fragmented control frame",
+                    new byte[] { 0x09, (byte)0x80, 0, 0, 0, 0 },
+                    new WebSocketProtocolException(1002, "A control frame was fragmented or had a payload longer than 125 bytes."));
+                errorTest.run("with payload longer than the maximum",
+                    new byte[] { (byte)0x82, (byte)0xFF, 0, 0, 0, 0, 0x01, 0, 0, 0 },
+                    new WebSocketProtocolException(1009, "A frame's payload was longer than the maximum of 1048576 bytes."));
+
+                runner.test("with truncated frame", (Test test) ->
+                {
+                    final WebSocketFrameReader reader = WebSocketFrameReader.create(InMemoryByteStream.create(new byte[] { (byte)0x81, 0x05, 0x48 }).endOfStream(), ByteBufferPool.create(), false);
+                    test.assertThrows(() -> reader.readFrame(WebSocketFrame.create()).await(),
+                        new ParseException("The WebSocket connection ended in the middle of a frame."));
+                });
+            });
+        });
+    }
+}
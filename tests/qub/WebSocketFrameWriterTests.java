@@ -0,0 +1,120 @@
+package qub;
+
+public interface WebSocketFrameWriterTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(WebSocketFrameWriter.class, () ->
+        {
+            runner.testGroup("create(ByteWriteStream,ByteBufferPool,boolean)", () ->
+            {
+                runner.test("with null innerStream", (Test test) ->
+                {
+                    test.assertThrows(() -> WebSocketFrameWriter.create(null, ByteBufferPool.create(), false),
+                        new PreConditionFailure("innerStream cannot be null."));
+                });
+
+                runner.test("with null bufferPool", (Test test) ->
+                {
+                    test.assertThrows(() -> WebSocketFrameWriter.create(InMemoryByteStream.create(), null, false),
+                        new PreConditionFailure("bufferPool cannot be null."));
+                });
+            });
+
+            runner.testGroup("writeFrame(boolean,int,byte[],int,int)", () ->
+            {
+                runner.test("with unmasked text frame", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create();
+                    final WebSocketFrameWriter writer = WebSocketFrameWriter.create(stream, ByteBufferPool.create(), false);
+                    final byte[] payload = "Hello".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    writer.writeFrame(true, WebSocketFrame.TextOpcode, payload, 0, payload.length).await();
+                    test.assertEqual(new byte[] { (byte)0x81, 0x05, 0x48, 0x65, 0x6c, 0x6c, 0x6f }, stream.getBytes());
+                });
+
+                runner.test("with unfinished frame", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create();
+                    final WebSocketFrameWriter writer = WebSocketFrameWriter.create(stream, ByteBufferPool.create(), false);
+                    final byte[] payload = "Hel".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    writer.writeFrame(false, WebSocketFrame.TextOpcode, payload, 0, payload.length).await();
+                    test.assertEqual(new byte[] { 0x01, 0x03, 0x48, 0x65, 0x6c }, stream.getBytes());
+                });
+
+                runner.test("with 256 byte unmasked binary frame", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create();
+                    final WebSocketFrameWriter writer = WebSocketFrameWriter.create(stream, ByteBufferPool.create(), false);
+                    writer.writeFrame(true, WebSocketFrame.BinaryOpcode, new byte[256], 0, 256).await();
+                    final byte[] bytes = stream.getBytes();
+                    test.assertEqual(260, bytes.length);
+                    test.assertEqual(new byte[] { (byte)0x82, 0x7E, 0x01, 0x00 }, java.util.Arrays.copyOf(bytes, 4));
+                });
+
+                runner.test("with 65536 byte unmasked binary frame", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create();
+                    final WebSocketFrameWriter writer = WebSocketFrameWriter.create(stream, ByteBufferPool.create(), false);
+                    writer.writeFrame(true, WebSocketFrame.BinaryOpcode, new byte[65536], 0, 65536).await();
+                    final byte[] bytes = stream.getBytes();
+                    test.assertEqual(65546, bytes.length);
+                    test.assertEqual(new byte[] { (byte)0x82, 0x7F, 0, 0, 0, 0, 0, 0x01, 0x00, 0x00 }, java.util.Arrays.copyOf(bytes, 10));
+                });
+
+                runner.test("with masked text frame", (Test test) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create();
+                    final WebSocketFrameWriter writer = WebSocketFrameWriter.create(stream, ByteBufferPool.create(), true);
+                    final byte[] payload = "Hello".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    writer.writeFrame(true, WebSocketFrame.TextOpcode, payload, 0, payload.length).await();
+                    test.assertEqual("Hello", new String(payload, java.nio.charset.StandardCharsets.UTF_8));
+
+                    final byte[] bytes = stream.getBytes();
+                    test.assertEqual(11, bytes.length);
+                    test.assertEqual((byte)0x81, bytes[0]);
+                    test.assertEqual((byte)0x85, bytes[1]);
+                    for (int i = 0; i < payload.length; ++i)
+                    {
+                        test.assertEqual(payload[i], (byte)(bytes[6 + i] ^ bytes[2 + (i % 4)]));
+                    }
+                });
+
+                runner.test("with control frame that isn't final", (Test test) ->
+                {
+                    final WebSocketFrameWriter writer = WebSocketFrameWriter.create(InMemoryByteStream.create(), ByteBufferPool.create(), false);
+                    test.assertThrows(() -> writer.writeFrame(false, WebSocketFrame.PingOpcode, new byte[0], 0, 0),
+                        new PreConditionFailure("A control frame must be final and its payload can't be longer than 125 bytes."));
+                });
+
+                runner.test("with control frame longer than 125 bytes", (Test test) ->
+                {
+                    final WebSocketFrameWriter writer = WebSocketFrameWriter.create(InMemoryByteStream.create(), ByteBufferPool.create(), false);
+                    test.assertThrows(() -> writer.writeFrame(true, WebSocketFrame.PingOpcode, new byte[126], 0, 126),
+                        new PreConditionFailure("A control frame must be final and its payload can't be longer than 125 bytes."));
+                });
+
+                runner.test("with reserved opcode", (Test test) ->
+                {
+                    final WebSocketFrameWriter writer = WebSocketFrameWriter.create(InMemoryByteStream.create(), ByteBufferPool.create(), false);
+                    test.assertThrows(() -> writer.writeFrame(true, 3, new byte[0], 0, 0),
+                        new PreConditionFailure("opcode must be a defined WebSocket opcode."));
+                });
+            });
+
+            runner.test("dispose()", (Test test) ->
+            {
+                final ByteBufferPool bufferPool = ByteBufferPool.create();
+                final InMemoryByteStream stream = InMemoryByteStream.create();
+                final WebSocketFrameWriter writer = WebSocketFrameWriter.create(stream, bufferPool, true);
+                writer.writeFrame(true, WebSocketFrame.BinaryOpcode, new byte[10], 0, 10).await();
+                test.assertEqual(1, bufferPool.getLeasedCount());
+
+                test.assertTrue(writer.dispose().await());
+                test.assertTrue(writer.isDisposed());
+                test.assertFalse(stream.isDisposed());
+                test.assertEqual(0, bufferPool.getLeasedCount());
+                test.assertFalse(writer.dispose().await());
+            });
+        });
+    }
+}
@@ -0,0 +1,237 @@
+package qub;
+
+public interface WebSocketTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(WebSocket.class, () ->
+        {
+            runner.testGroup("getAcceptValue(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> WebSocket.getAcceptValue(null),
+                        new PreConditionFailure("secWebSocketKey cannot be null."));
+                });
+
+                runner.test("with RFC 6455 example key", (Test test) ->
+                {
+                    test.assertEqual("s3pPLMBiTxaQ9kYGJzzo2YAxQk4=", WebSocket.getAcceptValue("dGhlIHNhbXBsZSBub25jZQ=="));
+                });
+            });
+
+            runner.testGroup("validateUpgradeRequest(HttpRequest)", () ->
+            {
+                final Action3<String,Action1<MutableHttpRequest>,Integer> validateTest = (String testName, Action1<MutableHttpRequest> configureRequest, Integer expected) ->
+                {
+                    runner.test(testName, (Test test) ->
+                    {
+                        final MutableHttpRequest request = HttpRequest.create()
+                            .setMethod(HttpMethod.GET)
+                            .setHeader(HttpHeader.UpgradeName, "websocket")
+                            .setHeader(HttpHeader.ConnectionName, "keep-alive, Upgrade")
+                            .setHeader(HttpHeader.SecWebSocketKeyName, "dGhlIHNhbXBsZSBub25jZQ==")
+                            .setHeader(HttpHeader.SecWebSocketVersionName, "13");
+                        configureRequest.run(request);
+                        test.assertEqual(expected, WebSocket.validateUpgradeRequest(request));
+                    });
+                };
+
+                validateTest.run("with valid handshake", (MutableHttpRequest request) -> {}, 101);
+                validateTest.run("with POST", (MutableHttpRequest request) -> request.setMethod(HttpMethod.POST), 400);
+                validateTest.run("with HTTP/1.0", (MutableHttpRequest request) -> request.setHttpVersion("HTTP/1.0"), 400);
+                validateTest.run("with wrong Upgrade", (MutableHttpRequest request) -> request.setHeader(HttpHeader.UpgradeName, "h2c"), 400);
+                validateTest.run("with wrong Connection", (MutableHttpRequest request) -> request.setHeader(HttpHeader.ConnectionName, "keep-alive"), 400);
+                validateTest.run("with short key", (MutableHttpRequest request) -> request.setHeader(HttpHeader.SecWebSocketKeyName, "abcd"), 400);
+                validateTest.run("with key that isn't base64", (MutableHttpRequest request) -> request.setHeader(HttpHeader.SecWebSocketKeyName, "!!!!"), 400);
+                validateTest.run("with version 8", (MutableHttpRequest request) -> request.setHeader(HttpHeader.SecWebSocketVersionName, "8"), 426);
+            });
+
+            runner.testGroup("readMessage()", () ->
+            {
+                final Function1<Action1<WebSocketFrameWriter>,InMemoryByteStream> createClientFrames = (Action1<WebSocketFrameWriter> writeFrames) ->
+                {
+                    final InMemoryByteStream stream = InMemoryByteStream.create();
+                    try (final WebSocketFrameWriter writer = WebSocketFrameWriter.create(stream, ByteBufferPool.create(), true))
+                    {
+                        writeFrames.run(writer);
+                    }
+                    return stream.endOfStream();
+                };
+
+                final Function1<InMemoryByteStream,WebSocketFrame> readServerFrame = (InMemoryByteStream serverOutput) ->
+                {
+                    final WebSocketFrame frame = WebSocketFrame.create();
+                    WebSocketFrameReader.create(InMemoryByteStream.create(serverOutput.getBytes()).endOfStream(), ByteBufferPool.create(), false)
+                        .readFrame(frame)
+                        .await();
+                    return frame;
+                };
+
+                runner.test("with single frame text message", (Test test) ->
+                {
+                    final InMemoryByteStream input = createClientFrames.run((WebSocketFrameWriter writer) ->
+                    {
+                        final byte[] payload = "hello".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                        writer.writeFrame(true, WebSocketFrame.TextOpcode, payload, 0, payload.length).await();
+                    });
+                    final InMemoryByteStream output = InMemoryByteStream.create();
+                    try (final WebSocket webSocket = WebSocket.create(input, output, ByteBufferPool.create(), false))
+                    {
+                        final WebSocketMessage message = webSocket.readMessage().await();
+                        test.assertTrue(message.isText());
+                        test.assertEqual("hello", message.getText());
+
+                        test.assertNull(webSocket.readMessage().await());
+                        test.assertEqual(1006, webSocket.getCloseCode());
+                    }
+                    test.assertTrue(input.isDisposed());
+                    test.assertTrue(output.isDisposed());
+                });
+
+                runner.test("with fragmented binary message and interleaved ping", (Test test) ->
+                {
+                    final InMemoryByteStream input = createClientFrames.run((WebSocketFrameWriter writer) ->
+                    {
+                        writer.writeFrame(false, WebSocketFrame.BinaryOpcode, new byte[] { 1, 2 }, 0, 2).await();
+                        writer.writeFrame(true, WebSocketFrame.PingOpcode, new byte[] { 9 }, 0, 1).await();
+                        writer.writeFrame(false, WebSocketFrame.ContinuationOpcode, new byte[] { 3 }, 0, 1).await();
+                        writer.writeFrame(true, WebSocketFrame.ContinuationOpcode, new byte[] { 4, 5 }, 0, 2).await();
+                    });
+                    final InMemoryByteStream output = InMemoryByteStream.create();
+                    try (final WebSocket webSocket = WebSocket.create(input, output, ByteBufferPool.create(), false))
+                    {
+                        final WebSocketMessage message = webSocket.readMessage().await();
+                        test.assertFalse(message.isText());
+                        test.assertEqual(new byte[] { 1, 2, 3, 4, 5 }, message.getBytes());
+
+                        final WebSocketFrame pong = readServerFrame.run(output);
+                        test.assertEqual(WebSocketFrame.PongOpcode, pong.getOpcode());
+                        test.assertEqual(1, pong.getPayloadLength());
+                        test.assertEqual((byte)9, pong.getPayload()[0]);
+                    }
+                });
+
+                runner.test("with close frame", (Test test) ->
+                {
+                    final InMemoryByteStream input = createClientFrames.run((WebSocketFrameWriter writer) ->
+                    {
+                        writer.writeFrame(true, WebSocketFrame.CloseOpcode, new byte[] { 0x03, (byte)0xE9 }, 0, 2).await();
+                    });
+                    final InMemoryByteStream output = InMemoryByteStream.create();
+                    try (final WebSocket webSocket = WebSocket.create(input, output, ByteBufferPool.create(), false))
+                    {
+                        test.assertNull(webSocket.readMessage().await());
+                        test.assertEqual(1001, webSocket.getCloseCode());
+
+                        final WebSocketFrame close = readServerFrame.run(output);
+                        test.assertEqual(WebSocketFrame.CloseOpcode, close.getOpcode());
+                        test.assertEqual(2, close.getPayloadLength());
+                        test.assertEqual((byte)0x03, close.getPayload()[0]);
+                        test.assertEqual((byte)0xE9, close.getPayload()[1]);
+                    }
+                });
+
+                final Action3<String,byte[],WebSocketProtocolException> invalidCloseFrameTest = (String testName, byte[] payload, WebSocketProtocolException expected) ->
+                {
+                    runner.test(testName, (Test test) ->
+                    {
+                        final InMemoryByteStream input = createClientFrames.run((WebSocketFrameWriter writer) ->
+                        {
+                            writer.writeFrame(true, WebSocketFrame.CloseOpcode, payload, 0, payload.length).await();
+                        });
+                        final InMemoryByteStream output = InMemoryByteStream.create();
+                        try (final WebSocket webSocket = WebSocket.create(input, output, ByteBufferPool.create(), false))
+                        {
+                            test.assertThrows(() -> webSocket.readMessage().await(), expected);
+
+                            final WebSocketFrame close = readServerFrame.run(output);
+                            test.assertEqual(WebSocketFrame.CloseOpcode, close.getOpcode());
+                            test.assertEqual((byte)(expected.getCloseCode() >>> 8), close.getPayload()[0]);
+                            test.assertEqual((byte)expected.getCloseCode(), close.getPayload()[1]);
+                        }
+                    });
+                };
+
+                invalidCloseFrameTest.run("with close frame with a one byte payload",
+                    new byte[] { 0x03 },
+                    new WebSocketProtocolException(1002, "A close frame had a one byte payload."));
+                invalidCloseFrameTest.run("with close frame with status code 999",
+                    new byte[] { 0x03, (byte)0xE7 },
+                    new WebSocketProtocolException(1002, "A close frame had the invalid status code 999."));
+                invalidCloseFrameTest.run("with close frame with status code 1005",
+                    new byte[] { 0x03, (byte)0xED },
+                    new WebSocketProtocolException(1002, "A close frame had the invalid status code 1005."));
+                invalidCloseFrameTest.run("with close frame with status code 1006",
+                    new byte[] { 0x03, (byte)0xEE },
+                    new WebSocketProtocolException(1002, "A close frame had the invalid status code 1006."));
+                invalidCloseFrameTest.run("with close frame with status code 1015",
+                    new byte[] { 0x03, (byte)0xF7 },
+                    new WebSocketProtocolException(1002, "A close frame had the invalid status code 1015."));
+                invalidCloseFrameTest.run("with close frame with a reason that isn't UTF-8",
+                    new byte[] { 0x03, (byte)0xE8, (byte)0xC0, (byte)0xAF },
+                    new WebSocketProtocolException(1007, "A close frame's reason wasn't valid UTF-8."));
+
+                runner.test("with continuation frame that doesn't continue a message", (Test test) ->
+                {
+                    final InMemoryByteStream input = createClientFrames.run((WebSocketFrameWriter writer) ->
+                    {
+                        writer.writeFrame(true, WebSocketFrame.ContinuationOpcode, new byte[] { 1 }, 0, 1).await();
+                    });
+                    final InMemoryByteStream output = InMemoryByteStream.create();
+                    try (final WebSocket webSocket = WebSocket.create(input, output, ByteBufferPool.create(), false))
+                    {
+                        test.assertThrows(() -> webSocket.readMessage().await(),
+                            new WebSocketProtocolException(1002, "A continuation frame didn't continue a message."));
+
+                        final WebSocketFrame close = readServerFrame.run(output);
+                        test.assertEqual(WebSocketFrame.CloseOpcode, close.getOpcode());
+                        test.assertEqual((byte)0x03, close.getPayload()[0]);
+                        test.assertEqual((byte)0xEA, close.getPayload()[1]);
+                    }
+                });
+
+                runner.test("with text message with multibyte characters", (Test test) ->
+                {
+                    final byte[] payload = new byte[] { (byte)0xC3, (byte)0xBC, (byte)0xE2, (byte)0x82, (byte)0xAC, (byte)0xF0, (byte)0x9F, (byte)0x98, (byte)0x80 };
+                    final InMemoryByteStream input = createClientFrames.run((WebSocketFrameWriter writer) ->
+                    {
+                        writer.writeFrame(true, WebSocketFrame.TextOpcode, payload, 0, payload.length).await();
+                    });
+                    try (final WebSocket webSocket = WebSocket.create(input, InMemoryByteStream.create(), ByteBufferPool.create(), false))
+                    {
+                        final WebSocketMessage message = webSocket.readMessage().await();
+                        test.assertTrue(message.isText());
+                        test.assertEqual(new String(payload, java.nio.charset.StandardCharsets.UTF_8), message.getText());
+                    }
+                });
+
+                runner.test("with text message that isn't UTF-8", (Test test) ->
+                {
+                    final InMemoryByteStream input = createClientFrames.run((WebSocketFrameWriter writer) ->
+                    {
+                        writer.writeFrame(true, WebSocketFrame.TextOpcode, new byte[] { (byte)0xC3, 0x28 }, 0, 2).await();
+                    });
+                    try (final WebSocket webSocket = WebSocket.create(input, InMemoryByteStream.create(), ByteBufferPool.create(), false))
+                    {
+                        test.assertThrows(() -> webSocket.readMessage().await(),
+                            new WebSocketProtocolException(1007, "A text message wasn't valid UTF-8."));
+                    }
+                });
+            });
+
+            runner.testGroup("sendText(String)", () ->
+            {
+                runner.test("after close()", (Test test) ->
+                {
+                    try (final WebSocket webSocket = WebSocket.create(InMemoryByteStream.create().endOfStream(), InMemoryByteStream.create(), ByteBufferPool.create(), false))
+                    {
+                        webSocket.close(1000, null).await();
+                        test.assertThrows(() -> webSocket.sendText("hello").await(),
+                            new IllegalStateException("Can't send a frame after the close frame has been sent."));
+                    }
+                });
+            });
+        });
+    }
+}